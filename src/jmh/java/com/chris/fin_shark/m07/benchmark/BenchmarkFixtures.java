@@ -0,0 +1,117 @@
+package com.chris.fin_shark.m07.benchmark;
+
+import com.chris.fin_shark.m07.engine.IndicatorPlan;
+import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 基準測試共用資料
+ * <p>
+ * 1. 計算器：以 Spring 掃描 calculator 套件建立（與正式環境相同的依賴注入，不啟動完整應用程式）
+ * 2. 價格序列：幾何隨機漫步，固定種子，開高低收與成交量關係與真實 K 棒一致
+ * 3. 計算計劃：與 IndicatorCalculationService 相同，依優先級取預設參數
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+final class BenchmarkFixtures {
+
+    /** 計算器所在套件 */
+    private static final String CALCULATOR_PACKAGE = "com.chris.fin_shark.m07.engine.calculator";
+
+    /** 全部指標的計劃名稱 */
+    static final String ALL = "ALL";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 建立所有計算器
+     */
+    static List<IndicatorCalculator> calculators() {
+        try (AnnotationConfigApplicationContext context =
+                     new AnnotationConfigApplicationContext(CALCULATOR_PACKAGE)) {
+            return new ArrayList<>(context.getBeansOfType(IndicatorCalculator.class).values());
+        }
+    }
+
+    /**
+     * 依名稱取得計算器
+     */
+    static IndicatorCalculator calculator(List<IndicatorCalculator> calculators, String name) {
+        return calculators.stream()
+                .filter(c -> c.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("未知的指標: " + name));
+    }
+
+    /**
+     * 建立計算計劃（P0 / P1 / P2 或 ALL）
+     */
+    static IndicatorPlan plan(List<IndicatorCalculator> calculators, String priority) {
+        Map<String, Map<String, Object>> indicators = new HashMap<>();
+        for (IndicatorCalculator calculator : calculators) {
+            IndicatorMetadata metadata = calculator.getMetadata();
+            if (ALL.equals(priority) || priority.equals(metadata.getPriority())) {
+                indicators.put(calculator.getName(), metadata.getDefaultParams());
+            }
+        }
+        return IndicatorPlan.builder()
+                .indicators(indicators)
+                .priority(ALL.equals(priority) ? null : priority)
+                .build();
+    }
+
+    /**
+     * 建立模擬價格序列（幾何隨機漫步，日波動約 2%）
+     */
+    static PriceSeries series(String stockId, int bars, long seed) {
+        Random random = new Random(seed);
+        int[] dates = new int[bars];
+        double[] open = new double[bars];
+        double[] high = new double[bars];
+        double[] low = new double[bars];
+        double[] close = new double[bars];
+        long[] volume = new long[bars];
+
+        int start = (int) LocalDate.of(2000, 1, 3).toEpochDay();
+        double price = 20.0 + random.nextDouble() * 580.0;
+        for (int i = 0; i < bars; i++) {
+            double next = price * Math.exp(random.nextGaussian() * 0.02);
+            double wick = price * 0.01 * random.nextDouble();
+            dates[i] = start + i;
+            open[i] = price;
+            close[i] = next;
+            high[i] = Math.max(price, next) + wick;
+            low[i] = Math.min(price, next) - wick;
+            volume[i] = 100_000L + random.nextInt(5_000_000);
+            price = next;
+        }
+
+        return PriceSeries.of(stockId, PriceColumns.wrap(dates, open, high, low, close, volume));
+    }
+
+    /**
+     * 建立多支股票的價格序列
+     */
+    static Map<String, PriceSeries> seriesMap(int stocks, int bars) {
+        Map<String, PriceSeries> seriesMap = new LinkedHashMap<>();
+        for (int i = 0; i < stocks; i++) {
+            String stockId = String.valueOf(1000 + i);
+            seriesMap.put(stockId, series(stockId, bars, i));
+        }
+        return seriesMap;
+    }
+}
@@ -0,0 +1,75 @@
+package com.chris.fin_shark.m07.benchmark;
+
+import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 單一計算器基準測試
+ * <p>
+ * 每個計算器以預設參數，分別量測最新一筆（calculate）與整段序列（calculateSeries）。
+ * 只跑部分指標時以 -p indicator=RSI,MACD 覆寫
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndicatorCalculatorBenchmark {
+
+    @Param({
+            "AD", "AROON", "BBANDS", "BOP", "CCI", "CHAIKIN_VOL", "CMF", "CMO", "COPPOCK", "DEMA",
+            "DONCHIAN", "DPO", "ELDER_RAY", "EMA", "EMV", "FIBRETRACEMENT", "FIB_EXT", "FORCE_INDEX",
+            "HMA", "HURST", "HV", "ICHIMOKU", "KELTNER", "KST", "LINREG", "MA", "MACD", "MASS_INDEX",
+            "MFI", "MOM", "NVI", "PIVOT", "PVI", "PVT", "QSTICK", "ROC", "RSI", "SAR", "SR_LEVELS",
+            "STC", "STD_DEV", "STOCHRSI", "SUPERTREND", "TEMA", "TRIX", "TSI", "ULTIMATE_OSC",
+            "VORTEX", "VWMA", "WILLR", "WMA", "ZLEMA", "Z_SCORE"
+    })
+    private String indicator;
+
+    @Param({"250", "1000", "5000"})
+    private int bars;
+
+    private IndicatorCalculator calculator;
+
+    private Map<String, Object> params;
+
+    private PriceSeries series;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calculator = BenchmarkFixtures.calculator(BenchmarkFixtures.calculators(), indicator);
+        params = calculator.getMetadata().getDefaultParams();
+        series = BenchmarkFixtures.series("2330", bars, 42L);
+    }
+
+    @Benchmark
+    public Map<String, Object> calculate() {
+        return calculator.calculate(series, params);
+    }
+
+    @Benchmark
+    public IndicatorSeries calculateSeries() {
+        return calculator.calculateSeries(series, params);
+    }
+}
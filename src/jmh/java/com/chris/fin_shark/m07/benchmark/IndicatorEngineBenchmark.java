@@ -0,0 +1,124 @@
+package com.chris.fin_shark.m07.benchmark;
+
+import com.chris.fin_shark.m07.engine.DefaultIndicatorEngine;
+import com.chris.fin_shark.m07.engine.IndicatorPlan;
+import com.chris.fin_shark.m07.engine.IndicatorResult;
+import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 指標引擎基準測試
+ * <p>
+ * 1. compute：單一股票依 P0 / P1 / 全部指標計劃計算
+ * 2. batchCompute：2,000 支股票的批次計算（含平行度與共用中間序列的效果）
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndicatorEngineBenchmark {
+
+    /**
+     * 單一股票
+     */
+    @State(Scope.Benchmark)
+    public static class SingleStock {
+
+        @Param({"P0", "P1", BenchmarkFixtures.ALL})
+        private String plan;
+
+        @Param({"250", "1000", "5000"})
+        private int bars;
+
+        private DefaultIndicatorEngine engine;
+
+        private IndicatorPlan indicatorPlan;
+
+        private PriceSeries series;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<IndicatorCalculator> calculators = BenchmarkFixtures.calculators();
+            engine = new DefaultIndicatorEngine(calculators);
+            indicatorPlan = BenchmarkFixtures.plan(calculators, plan);
+            series = BenchmarkFixtures.series("2330", bars, 42L);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            engine.shutdown();
+        }
+    }
+
+    /**
+     * 全市場批次
+     */
+    @State(Scope.Benchmark)
+    public static class Market {
+
+        @Param({"P0", "P1", BenchmarkFixtures.ALL})
+        private String plan;
+
+        @Param({"2000"})
+        private int stocks;
+
+        @Param({"250"})
+        private int bars;
+
+        /** 批次並行度（0 = CPU 核心數，與正式環境預設相同） */
+        @Param({"0", "1"})
+        private int parallelism;
+
+        private DefaultIndicatorEngine engine;
+
+        private IndicatorPlan indicatorPlan;
+
+        private Map<String, PriceSeries> seriesMap;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<IndicatorCalculator> calculators = BenchmarkFixtures.calculators();
+            engine = new DefaultIndicatorEngine(calculators, parallelism);
+            indicatorPlan = BenchmarkFixtures.plan(calculators, plan);
+            seriesMap = BenchmarkFixtures.seriesMap(stocks, bars);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            engine.shutdown();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public IndicatorResult compute(SingleStock state) {
+        return state.engine.compute(state.series, state.indicatorPlan);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MINUTES)
+    public Map<String, IndicatorResult> batchCompute(Market state) {
+        return state.engine.batchCompute(state.seriesMap, state.indicatorPlan);
+    }
+}
@@ -0,0 +1,86 @@
+package com.chris.fin_shark.m07.benchmark;
+
+import com.chris.fin_shark.m07.engine.calculator.momentum.RSICalculator;
+import com.chris.fin_shark.m07.engine.calculator.volatility.BBandsCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.PeriodMatrix;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * 多週期掃描基準測試（逐週期計算 vs 一次掃描）
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PeriodSweepBenchmark {
+
+    @Param({"2500"})
+    private int bars;
+
+    /** 掃描週期數（2 ~ 1 + periods） */
+    @Param({"20", "59"})
+    private int periods;
+
+    private final RSICalculator rsi = new RSICalculator();
+
+    private final BBandsCalculator bbands = new BBandsCalculator();
+
+    private PriceSeries series;
+
+    private int[] sweepPeriods;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        series = BenchmarkFixtures.series("2330", bars, 42L);
+        sweepPeriods = IntStream.rangeClosed(2, periods + 1).toArray();
+    }
+
+    @Benchmark
+    public void rsiPerPeriod(Blackhole blackhole) {
+        for (int period : sweepPeriods) {
+            IndicatorSeries output = rsi.calculateSeries(series, Map.of("period", period));
+            blackhole.consume(output);
+        }
+    }
+
+    @Benchmark
+    public Map<String, PeriodMatrix> rsiSweep() {
+        return rsi.sweep(series, sweepPeriods, Map.of());
+    }
+
+    @Benchmark
+    public void bbandsPerPeriod(Blackhole blackhole) {
+        for (int period : sweepPeriods) {
+            IndicatorSeries output = bbands.calculateSeries(series, Map.of("period", period));
+            blackhole.consume(output);
+        }
+    }
+
+    @Benchmark
+    public Map<String, PeriodMatrix> bbandsSweep() {
+        return bbands.sweep(series, sweepPeriods, Map.of());
+    }
+}
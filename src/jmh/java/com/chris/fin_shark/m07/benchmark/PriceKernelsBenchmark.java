@@ -0,0 +1,116 @@
+package com.chris.fin_shark.m07.benchmark;
+
+import com.chris.fin_shark.m07.engine.kernel.Kernels;
+import com.chris.fin_shark.m07.engine.kernel.PriceKernels;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 價格運算核心基準測試（純量 vs SIMD）
+ * <p>
+ * 每個方法處理整段序列一次（全歷史重算的單位工作量）。
+ * SIMD 需以 --add-modules jdk.incubator.vector 啟動（jmh profile 已加入），
+ * 模組未載入時 vector 參數組合會在 setUp 失敗
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceKernelsBenchmark {
+
+    @Param({"scalar", "vector"})
+    private String kernel;
+
+    @Param({"250", "5000"})
+    private int bars;
+
+    @Param({"20"})
+    private int period;
+
+    private PriceKernels kernels;
+
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private long[] volume;
+
+    private double[] output;
+    private double[] lower;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernels = "vector".equals(kernel) ? Kernels.vector() : Kernels.scalar();
+        if (kernels == null) {
+            throw new IllegalStateException("JVM 未載入 jdk.incubator.vector 模組");
+        }
+
+        PriceColumns columns = BenchmarkFixtures.series("2330", bars, 42L).getColumns();
+        high = columns.high();
+        low = columns.low();
+        close = columns.close();
+        volume = columns.volume();
+        output = new double[bars];
+        lower = new double[bars];
+    }
+
+    @Benchmark
+    public double[] windowMean() {
+        kernels.windowMean(close, bars, period, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] weightedWindowMean() {
+        kernels.weightedWindowMean(close, bars, period, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] volumeWeightedMean() {
+        kernels.volumeWeightedMean(close, volume, bars, period, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] trueRange() {
+        kernels.trueRange(high, low, close, bars, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] typicalPrice() {
+        kernels.typicalPrice(high, low, close, bars, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] returns() {
+        kernels.returns(close, bars, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] bands() {
+        kernels.bands(close, high, 2.0, 0, bars, output, lower);
+        return output;
+    }
+}
@@ -7,13 +7,15 @@ import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.MappedJdbcTypes;
 import org.apache.ibatis.type.MappedTypes;
 
-import java.io.IOException;
 import java.sql.*;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * PostgreSQL JSONB <-> Map<String, Object> TypeHandler
+ * <p>
+ * 讀取時回傳 {@link LazyJsonbMap}，第一次存取內容時才解析
+ * </p>
  */
 @MappedTypes(Map.class)
 @MappedJdbcTypes(JdbcType.OTHER)
@@ -24,6 +26,10 @@ public class JsonbTypeHandler extends BaseTypeHandler<Map<String, Object>> {
     @Override
     public void setNonNullParameter(PreparedStatement ps, int i,
                                     Map<String, Object> parameter, JdbcType jdbcType) throws SQLException {
+        if (parameter instanceof LazyJsonbMap lazy && !lazy.isParsed()) {
+            ps.setObject(i, lazy.rawJson(), Types.OTHER);
+            return;
+        }
         try {
             String json = OBJECT_MAPPER.writeValueAsString(parameter);
             ps.setObject(i, json, Types.OTHER);
@@ -50,15 +56,10 @@ public class JsonbTypeHandler extends BaseTypeHandler<Map<String, Object>> {
         return toMap(json);
     }
 
-    private Map<String, Object> toMap(String json) throws SQLException {
+    private Map<String, Object> toMap(String json) {
         if (json == null || json.isEmpty()) {
             return new HashMap<>();
         }
-        try {
-            //noinspection unchecked
-            return OBJECT_MAPPER.readValue(json, Map.class);
-        } catch (IOException e) {
-            throw new SQLException("Failed to convert JSON string to Map", e);
-        }
+        return new LazyJsonbMap(json, OBJECT_MAPPER);
     }
 }
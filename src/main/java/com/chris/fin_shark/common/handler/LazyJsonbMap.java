@@ -0,0 +1,100 @@
+package com.chris.fin_shark.common.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 延遲解析的 JSONB Map
+ * <p>
+ * 由 {@link JsonbTypeHandler} 讀取時只保存原始 JSON 字串，第一次存取內容時才解析為 Map；
+ * 查詢結果中未被使用的 JSONB 欄位不會建立任何 Map。
+ * 未解析前寫回資料庫時直接使用原始字串，不需來回序列化。
+ * </p>
+ * <p>
+ * 注意：非執行緒安全，與一般 HashMap 相同只供單一執行緒使用
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class LazyJsonbMap extends AbstractMap<String, Object> {
+
+    private final ObjectMapper objectMapper;
+
+    private String json;
+
+    private Map<String, Object> delegate;
+
+    LazyJsonbMap(String json, ObjectMapper objectMapper) {
+        this.json = json;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 是否已解析
+     */
+    public boolean isParsed() {
+        return delegate != null;
+    }
+
+    /**
+     * 未解析時的原始 JSON（已解析則為 null，內容可能已被修改）
+     */
+    String rawJson() {
+        return json;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return delegate().entrySet();
+    }
+
+    @Override
+    public int size() {
+        return delegate().size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return delegate().containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return delegate().get(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return delegate().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return delegate().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate().clear();
+    }
+
+    private Map<String, Object> delegate() {
+        if (delegate == null) {
+            try {
+                //noinspection unchecked
+                delegate = objectMapper.readValue(json, LinkedHashMap.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to convert JSON string to Map", e);
+            }
+            json = null;
+        }
+        return delegate;
+    }
+}
@@ -0,0 +1,31 @@
+package com.chris.fin_shark.m07.config;
+
+import com.chris.fin_shark.m07.engine.kernel.Kernels;
+import com.chris.fin_shark.m07.engine.kernel.PriceKernels;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * M07 引擎配置
+ * <p>
+ * 選用價格運算核心（純量 / SIMD），見 {@link Kernels}
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Configuration
+public class M07EngineConfiguration {
+
+    /**
+     * 配置價格運算核心
+     * <p>
+     * m07.engine.simd.enabled=true 時嘗試使用 SIMD（JVM 需加 --add-modules jdk.incubator.vector）
+     * </p>
+     */
+    @Bean
+    public PriceKernels priceKernels(@Value("${m07.engine.simd.enabled:false}") boolean simdEnabled) {
+        return Kernels.configure(simdEnabled);
+    }
+}
@@ -10,5 +10,5 @@ public class IndicatorBackfillRequest {
     private LocalDate startDate;
     private LocalDate endDate;
     private String indicatorPriority; // e.g. P0/P1，沒有就算全部
-    private Boolean forceRecalculate; // 開發階段通常給 true
+    private Boolean forceRecalculate; // false（預設）只補寫區間內尚無資料的交易日，true 覆寫全部
 }
@@ -0,0 +1,114 @@
+package com.chris.fin_shark.m07.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 指標遞推狀態快照實體
+ * <p>
+ * 對應資料表: indicator_state_snapshots
+ * </p>
+ * <p>
+ * 設計說明:
+ * <ul>
+ *   <li>每支股票、每個可遞推指標一筆（stock_id + indicator_name 唯一）</li>
+ *   <li>錨點 K 棒的高低收以 DOUBLE PRECISION 保存，與計算時的 double 完全一致，用於偵測價格修正</li>
+ *   <li>遞推值以 JSONB 儲存，各計算器自訂鍵值</li>
+ * </ul>
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "indicator_state_snapshots")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndicatorStateSnapshot {
+
+    /**
+     * 快照ID（自增主鍵）
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "snapshot_id")
+    private Long snapshotId;
+
+    /**
+     * 股票代碼
+     */
+    @Column(name = "stock_id", length = 10, nullable = false)
+    private String stockId;
+
+    /**
+     * 指標名稱
+     */
+    @Column(name = "indicator_name", length = 50, nullable = false)
+    private String indicatorName;
+
+    /**
+     * 參數識別（參數變更時狀態失效）
+     */
+    @Column(name = "params_key", length = 500, nullable = false)
+    private String paramsKey;
+
+    /**
+     * 錨點日期
+     */
+    @Column(name = "last_date", nullable = false)
+    private LocalDate lastDate;
+
+    /**
+     * 錨點最高價
+     */
+    @Column(name = "last_high", columnDefinition = "double precision")
+    private Double lastHigh;
+
+    /**
+     * 錨點最低價
+     */
+    @Column(name = "last_low", columnDefinition = "double precision")
+    private Double lastLow;
+
+    /**
+     * 錨點收盤價
+     */
+    @Column(name = "last_close", columnDefinition = "double precision")
+    private Double lastClose;
+
+    /**
+     * 遞推值 (JSONB)
+     * <p>
+     * 範例（RSI）: {"avg_gain": 1.23, "avg_loss": 0.87, "close": 580.0}
+     * </p>
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "state_values", columnDefinition = "jsonb")
+    private Map<String, Double> stateValues;
+
+    /**
+     * 更新時間
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * 儲存前自動設定更新時間
+     */
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
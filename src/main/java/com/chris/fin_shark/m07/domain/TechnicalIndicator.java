@@ -165,6 +165,18 @@ public class TechnicalIndicator {
     @Column(name = "ma20", precision = 10, scale = 2)
     private BigDecimal ma20;
 
+    /**
+     * 前一交易日 5日移動平均線（寫入時帶入，供交叉篩選）
+     */
+    @Column(name = "prev_ma5", precision = 10, scale = 2)
+    private BigDecimal prevMa5;
+
+    /**
+     * 前一交易日 20日移動平均線（寫入時帶入，供交叉篩選）
+     */
+    @Column(name = "prev_ma20", precision = 10, scale = 2)
+    private BigDecimal prevMa20;
+
     /**
      * 60日移動平均線
      */
@@ -219,6 +231,24 @@ public class TechnicalIndicator {
     @Column(name = "stoch_d", precision = 5, scale = 2)
     private BigDecimal stochD;
 
+    /**
+     * 前一交易日 KD - K 值（寫入時帶入，供交叉篩選）
+     */
+    @Column(name = "prev_stoch_k", precision = 5, scale = 2)
+    private BigDecimal prevStochK;
+
+    /**
+     * 前一交易日 KD - D 值（寫入時帶入，供交叉篩選）
+     */
+    @Column(name = "prev_stoch_d", precision = 5, scale = 2)
+    private BigDecimal prevStochD;
+
+    /**
+     * 14日威廉指標
+     */
+    @Column(name = "willr_14", precision = 5, scale = 2)
+    private BigDecimal willr14;
+
     /**
      * 布林通道上軌
      */
@@ -270,6 +300,17 @@ public class TechnicalIndicator {
     @Builder.Default
     private String calculationEngine = "pandas-ta";
 
+    /**
+     * 計算輸入指紋 (JSONB)
+     * <p>
+     * 計劃標籤（P0、P1、ALL）→ 價格區間、計劃參數與計算器版本的雜湊；
+     * 重跑時指紋相同的股票略過不重算。同一列由多個優先級寫入，因此依計劃分開儲存
+     * </p>
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "input_fingerprints", columnDefinition = "jsonb")
+    private Map<String, Object> inputFingerprints;
+
     // ========== 審計欄位 ==========
 
     /**
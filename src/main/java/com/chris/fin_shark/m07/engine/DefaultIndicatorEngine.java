@@ -1,17 +1,51 @@
 package com.chris.fin_shark.m07.engine;
 
+import com.chris.fin_shark.m07.engine.calculator.IncrementalIndicatorCalculator;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.IndicatorState;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 預設指標引擎實現
+ * <p>
+ * 批次計算模式：
+ * 1. parallelism = 1：序列執行（除錯用）
+ * 2. parallelism > 1：使用專屬 ForkJoinPool 並行計算
+ * 3. parallelism <= 0：使用 CPU 核心數
+ * 兩種模式輸出皆依股票代碼排序，結果一致
+ * </p>
+ * <p>
+ * 遞推模式：
+ * 可遞推的指標（{@link IncrementalIndicatorCalculator}）保存最後一根 K 棒的狀態，
+ * 每日只推進新 K 棒；狀態缺失、參數變更或價格修正時才全量重算
+ * </p>
+ * <p>
+ * 共用中間結果：
+ * 每支股票的計劃執行共用一個 {@link IndicatorContext}，
+ * EMA、ATR、典型價格等中間序列只計算一次，命中率可由 {@link #getContextHitRate()} 觀察
+ * </p>
  *
  * @author chris
  * @since 1.0.0
@@ -20,10 +54,37 @@ import java.util.Map;
 @Component
 public class DefaultIndicatorEngine implements IndicatorEngine {
 
+    /** 批次計算失敗時的診斷指標名稱 */
+    private static final String BATCH_DIAGNOSTIC = "BATCH";
+
     private final Map<String, IndicatorCalculator> calculators;
 
+    /** 批次計算並行度 */
+    private final int parallelism;
+
+    /** 批次計算專用執行緒池（序列模式為 null） */
+    private final ForkJoinPool batchPool;
+
+    /** 共用中間結果查詢次數（累計） */
+    private final LongAdder contextRequests = new LongAdder();
+
+    /** 共用中間結果命中次數（累計） */
+    private final LongAdder contextHits = new LongAdder();
+
+    /**
+     * 建立序列模式引擎（單元測試用）
+     */
     public DefaultIndicatorEngine(List<IndicatorCalculator> calculatorList) {
-        this.calculators = new HashMap<>();
+        this(calculatorList, 1);
+    }
+
+    @Autowired
+    public DefaultIndicatorEngine(
+            List<IndicatorCalculator> calculatorList,
+            @Value("${m07.engine.batch.parallelism:0}") int parallelism) {
+        this.calculators = new ConcurrentHashMap<>();
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.batchPool = this.parallelism > 1 ? createBatchPool(this.parallelism) : null;
 
         // 自動註冊所有計算器
         calculatorList.forEach(calculator -> {
@@ -31,7 +92,14 @@ public class DefaultIndicatorEngine implements IndicatorEngine {
             log.info("✅ 註冊指標計算器: {}", calculator.getName());
         });
 
-        log.info("🚀 指標引擎初始化完成，共註冊 {} 個計算器", calculators.size());
+        log.info("🚀 指標引擎初始化完成，共註冊 {} 個計算器，批次並行度: {}",
+                calculators.size(), this.parallelism);
+    }
+
+    @Override
+    public void register(IndicatorCalculator calculator) {
+        calculators.put(calculator.getName(), calculator);
+        log.info("✅ 註冊指標計算器: {}", calculator.getName());
     }
 
     @Override
@@ -45,62 +113,423 @@ public class DefaultIndicatorEngine implements IndicatorEngine {
                 .diagnostics(new Diagnostics())
                 .build();
 
+        // 先建立欄式資料，所有計算器共用同一份原生陣列與計算上下文
+        IndicatorContext context = IndicatorContext.of(series);
+
         // 執行各個指標計算
+        plan.getIndicators().forEach((indicatorName, params) ->
+                computeIndicator(result, series, context, indicatorName, params));
+
+        recordContext(series.getStockId(), context);
+        return result;
+    }
+
+    /**
+     * 全量計算單一指標（錯誤與資料不足寫入 Diagnostics）
+     */
+    private void computeIndicator(IndicatorResult result, PriceSeries series, IndicatorContext context,
+                                  String indicatorName, Map<String, Object> params) {
+        try {
+            IndicatorCalculator calculator = calculators.get(indicatorName);
+
+            if (calculator == null) {
+                result.getDiagnostics().addError(indicatorName, "找不到計算器");
+                return;
+            }
+
+            // 檢查資料是否足夠
+            if (!calculator.hasEnoughData(series, params)) {
+                result.getDiagnostics().addWarning(
+                        indicatorName,
+                        String.format("資料不足：需要%d天，實際%d天",
+                                calculator.getMetadata().getMinDataPoints(),
+                                series.size())
+                );
+                return;
+            }
+
+            // 計算（直接寫入型別化結果，依類別標記）
+            calculator.calculateInto(series, params, context, result.getValues());
+
+            log.debug("✅ 計算完成: {}", indicatorName);
+
+        } catch (Exception e) {
+            log.error("❌ 計算失敗: {}, error={}", indicatorName, e.getMessage());
+            result.getDiagnostics().addError(indicatorName, e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<LocalDate, IndicatorResult> computeSeries(
+            PriceSeries series,
+            IndicatorPlan plan,
+            LocalDate fromDate) {
+
+        PriceColumns columns = series.getColumns();
+        int size = columns.size();
+
+        // 找出第一個需要輸出的位置
+        int fromIndex = 0;
+        if (fromDate != null) {
+            int fromEpochDay = (int) fromDate.toEpochDay();
+            while (fromIndex < size && columns.dates()[fromIndex] < fromEpochDay) {
+                fromIndex++;
+            }
+        }
+
+        Map<LocalDate, IndicatorResult> results = new TreeMap<>();
+        for (int i = fromIndex; i < size; i++) {
+            LocalDate date = columns.dateAt(i);
+            results.put(date, IndicatorResult.builder()
+                    .stockId(series.getStockId())
+                    .calculationDate(date)
+                    .diagnostics(new Diagnostics())
+                    .build());
+        }
+        if (results.isEmpty()) {
+            return results;
+        }
+
+        final int startIndex = fromIndex;
         plan.getIndicators().forEach((indicatorName, params) -> {
+            IndicatorCalculator calculator = calculators.get(indicatorName);
+            if (calculator == null) {
+                results.values().forEach(r -> r.getDiagnostics().addError(indicatorName, "找不到計算器"));
+                return;
+            }
+
             try {
-                IndicatorCalculator calculator = calculators.get(indicatorName);
+                IndicatorSeries output = calculator.calculateSeries(series, params);
+                int required = calculator.getMetadata().getMinDataPoints();
 
-                if (calculator == null) {
-                    result.getDiagnostics().addError(indicatorName, "找不到計算器");
-                    return;
+                for (int i = startIndex; i < size; i++) {
+                    IndicatorResult result = results.get(columns.dateAt(i));
+                    if (i + 1 < required) {
+                        result.getDiagnostics().addWarning(
+                                indicatorName,
+                                String.format("資料不足：需要%d天，實際%d天", required, i + 1)
+                        );
+                        continue;
+                    }
+                    result.getValues().putRow(calculator.getCategory(), output, i);
                 }
 
-                // 檢查資料是否足夠
-                if (!calculator.hasEnoughData(series, params)) {
-                    result.getDiagnostics().addWarning(
-                            indicatorName,
-                            String.format("資料不足：需要%d天，實際%d天",
-                                    calculator.getMetadata().getMinDataPoints(),
-                                    series.size())
-                    );
-                    return;
-                }
+            } catch (Exception e) {
+                log.error("❌ 序列計算失敗: {}, stockId={}, error={}",
+                        indicatorName, series.getStockId(), e.getMessage());
+                results.values().forEach(r -> r.getDiagnostics().addError(indicatorName, e.getMessage()));
+            }
+        });
 
-                // 計算
-                Map<String, Object> values = calculator.calculate(series, params);
+        return results;
+    }
 
-                // 根據類別儲存結果
-                String category = calculator.getCategory();
-                switch (category) {
-                    case "TREND" -> values.forEach(result::addTrendIndicator);
-                    case "MOMENTUM" -> values.forEach(result.getMomentumIndicators()::put);
-                    case "VOLATILITY" -> values.forEach(result.getVolatilityIndicators()::put);
-                    case "VOLUME" -> values.forEach(result.getVolumeIndicators()::put);
-                }
+    @Override
+    public boolean isIncremental(IndicatorPlan plan) {
+        return plan.getIndicators().keySet().stream()
+                .allMatch(name -> calculators.get(name) instanceof IncrementalIndicatorCalculator);
+    }
+
+    @Override
+    public Optional<IndicatorResult> advance(
+            PriceSeries series,
+            IndicatorPlan plan,
+            Map<String, IndicatorState> states) {
+
+        PriceColumns columns = series.getColumns();
+        if (columns.size() == 0) {
+            return Optional.empty();
+        }
+
+        IndicatorResult result = IndicatorResult.builder()
+                .stockId(series.getStockId())
+                .calculationDate(columns.dateAt(columns.size() - 1))
+                .diagnostics(new Diagnostics())
+                .build();
+
+        // 先推進副本，全部成功才寫回
+        Map<String, IndicatorState> advanced = new HashMap<>();
+        for (Map.Entry<String, Map<String, Object>> entry : plan.getIndicators().entrySet()) {
+            String indicatorName = entry.getKey();
+            if (!(calculators.get(indicatorName) instanceof IncrementalIndicatorCalculator calculator)) {
+                log.debug("遞推失敗（非遞推型指標）: stockId={}, indicator={}",
+                        series.getStockId(), indicatorName);
+                return Optional.empty();
+            }
+
+            IndicatorState state = states.get(indicatorName);
+            IndicatorState next = state != null ? state.copy() : null;
+            Map<String, Object> values = tryAdvance(series.getStockId(), calculator, entry.getValue(), next, columns);
+            if (values == null) {
+                return Optional.empty();
+            }
+
+            result.getValues().putAll(calculator.getCategory(), values);
+            advanced.put(indicatorName, next);
+        }
+
+        states.putAll(advanced);
+        return Optional.of(result);
+    }
 
-                log.debug("✅ 計算完成: {}, values={}", indicatorName, values);
+    /**
+     * 遞推計算單一股票（寬鬆模式）
+     * <p>
+     * 狀態有效的指標只推進新 K 棒；其餘指標全量計算，可遞推者同時重建狀態
+     * </p>
+     *
+     * @param series 價格序列（完整回溯區間）
+     * @param plan   計算計劃
+     * @param states 指標名稱 → 遞推狀態（就地更新）
+     * @return 計算結果
+     */
+    public IndicatorResult computeIncremental(
+            PriceSeries series,
+            IndicatorPlan plan,
+            Map<String, IndicatorState> states) {
 
+        IndicatorResult result = IndicatorResult.builder()
+                .stockId(series.getStockId())
+                .calculationDate(LocalDate.now())
+                .diagnostics(new Diagnostics())
+                .build();
+
+        PriceColumns columns = series.getColumns();
+        IndicatorContext context = IndicatorContext.of(series);
+
+        plan.getIndicators().forEach((indicatorName, params) -> {
+            if (!(calculators.get(indicatorName) instanceof IncrementalIndicatorCalculator calculator)
+                    || columns.size() == 0) {
+                computeIndicator(result, series, context, indicatorName, params);
+                return;
+            }
+
+            // 1. 狀態有效：只推進新 K 棒
+            IndicatorState state = states.get(indicatorName);
+            IndicatorState next = state != null ? state.copy() : null;
+            Map<String, Object> values = tryAdvance(series.getStockId(), calculator, params, next, columns);
+            if (values != null) {
+                result.getValues().putAll(calculator.getCategory(), values);
+                states.put(indicatorName, next);
+                return;
+            }
+
+            // 2. 狀態失效：全量計算並重建狀態
+            computeIndicator(result, series, context, indicatorName, params);
+            try {
+                Map<String, Double> initial = calculator.initState(series, params);
+                if (initial == null) {
+                    states.remove(indicatorName);
+                    return;
+                }
+                IndicatorState rebuilt = IndicatorState.builder()
+                        .stockId(series.getStockId())
+                        .indicatorName(indicatorName)
+                        .paramsKey(IndicatorState.paramsKey(params, calculator.getMetadata().getVersion()))
+                        .values(initial)
+                        .build();
+                rebuilt.anchorTo(columns, columns.size() - 1);
+                states.put(indicatorName, rebuilt);
             } catch (Exception e) {
-                log.error("❌ 計算失敗: {}, error={}", indicatorName, e.getMessage());
-                result.getDiagnostics().addError(indicatorName, e.getMessage());
+                log.warn("⚠️ 建立遞推狀態失敗: stockId={}, indicator={}, error={}",
+                        series.getStockId(), indicatorName, e.getMessage());
+                states.remove(indicatorName);
             }
         });
 
+        recordContext(series.getStockId(), context);
         return result;
     }
 
+    /**
+     * 嘗試由狀態推進到最後一根 K 棒
+     *
+     * @return 最後一根 K 棒的結果；狀態無法使用時回傳 null（state 內容不保證）
+     */
+    private Map<String, Object> tryAdvance(
+            String stockId,
+            IncrementalIndicatorCalculator calculator,
+            Map<String, Object> params,
+            IndicatorState state,
+            PriceColumns columns) {
+
+        String indicatorName = calculator.getName();
+        if (state == null) {
+            log.debug("遞推失敗（無狀態）: stockId={}, indicator={}", stockId, indicatorName);
+            return null;
+        }
+        if (!IndicatorState.paramsKey(params, calculator.getMetadata().getVersion()).equals(state.getParamsKey())) {
+            log.debug("遞推失敗（參數變更）: stockId={}, indicator={}", stockId, indicatorName);
+            return null;
+        }
+
+        int anchor = state.getLastDate() != null
+                ? Arrays.binarySearch(columns.dates(), (int) state.getLastDate().toEpochDay())
+                : -1;
+        if (anchor < 0 || !state.matchesBar(columns, anchor)) {
+            log.debug("遞推失敗（錨點不存在或價格修正）: stockId={}, indicator={}, lastDate={}",
+                    stockId, indicatorName, state.getLastDate());
+            return null;
+        }
+        if (anchor == columns.size() - 1) {
+            log.debug("遞推略過（無新 K 棒）: stockId={}, indicator={}", stockId, indicatorName);
+            return null;
+        }
+
+        try {
+            Map<String, Object> values = null;
+            for (int i = anchor + 1; i < columns.size(); i++) {
+                values = calculator.advance(state.getValues(), columns, i, params);
+            }
+            state.anchorTo(columns, columns.size() - 1);
+            return values;
+        } catch (Exception e) {
+            log.warn("⚠️ 遞推失敗: stockId={}, indicator={}, error={}", stockId, indicatorName, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 累計共用中間結果的命中統計
+     */
+    private void recordContext(String stockId, IndicatorContext context) {
+        contextRequests.add(context.getRequests());
+        contextHits.add(context.getHits());
+        log.debug("🧮 共用中間結果: stockId={}, requests={}, hits={}",
+                stockId, context.getRequests(), context.getHits());
+    }
+
+    /**
+     * 共用中間結果命中率（引擎啟動後累計）
+     */
+    public double getContextHitRate() {
+        long requests = contextRequests.sum();
+        return requests == 0 ? 0 : (double) contextHits.sum() / requests;
+    }
+
     @Override
     public Map<String, IndicatorResult> batchCompute(
             Map<String, PriceSeries> seriesMap,
             IndicatorPlan plan) {
 
-        Map<String, IndicatorResult> results = new HashMap<>();
+        if (batchPool == null || seriesMap.size() <= 1) {
+            return batchComputeSerial(seriesMap, plan);
+        }
+        return batchComputeParallel(seriesMap, (stockId, series) -> compute(series, plan));
+    }
+
+    @Override
+    public Map<String, IndicatorResult> batchComputeIncremental(
+            Map<String, PriceSeries> seriesMap,
+            IndicatorPlan plan,
+            Map<String, Map<String, IndicatorState>> states) {
+
+        // 先建立每支股票的狀態容器，並行任務只修改各自的內層 Map
+        seriesMap.keySet().forEach(stockId -> states.computeIfAbsent(stockId, k -> new HashMap<>()));
+
+        StockTask task = (stockId, series) -> computeIncremental(series, plan, states.get(stockId));
+        if (batchPool == null || seriesMap.size() <= 1) {
+            return batchComputeSerial(seriesMap, task);
+        }
+        return batchComputeParallel(seriesMap, task);
+    }
+
+    /**
+     * 序列批次計算（除錯用）
+     */
+    public Map<String, IndicatorResult> batchComputeSerial(
+            Map<String, PriceSeries> seriesMap,
+            IndicatorPlan plan) {
+        return batchComputeSerial(seriesMap, (stockId, series) -> compute(series, plan));
+    }
+
+    private Map<String, IndicatorResult> batchComputeSerial(
+            Map<String, PriceSeries> seriesMap,
+            StockTask task) {
+
+        Map<String, IndicatorResult> results = new TreeMap<>();
+
+        seriesMap.forEach((stockId, series) ->
+                results.put(stockId, computeIsolated(stockId, series, task)));
+
+        return results;
+    }
+
+    /**
+     * 並行批次計算
+     * <p>
+     * 每支股票為獨立任務，單一股票失敗不影響其他股票
+     * </p>
+     */
+    private Map<String, IndicatorResult> batchComputeParallel(
+            Map<String, PriceSeries> seriesMap,
+            StockTask task) {
+
+        long start = System.currentTimeMillis();
+
+        List<String> stockIds = new ArrayList<>(seriesMap.size());
+        List<CompletableFuture<IndicatorResult>> futures = new ArrayList<>(seriesMap.size());
 
         seriesMap.forEach((stockId, series) -> {
-            IndicatorResult result = compute(series, plan);
-            results.put(stockId, result);
+            stockIds.add(stockId);
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> computeIsolated(stockId, series, task), batchPool));
         });
 
+        Map<String, IndicatorResult> results = new TreeMap<>();
+        for (int i = 0; i < stockIds.size(); i++) {
+            results.put(stockIds.get(i), futures.get(i).join());
+        }
+
+        log.info("⚡ 並行批次計算完成: stocks={}, parallelism={}, elapsed={}ms, contextHitRate={}",
+                results.size(), parallelism, System.currentTimeMillis() - start,
+                String.format("%.1f%%", getContextHitRate() * 100));
+
         return results;
     }
+
+    /**
+     * 計算單一股票（隔離例外，錯誤寫入 Diagnostics）
+     */
+    private IndicatorResult computeIsolated(String stockId, PriceSeries series, StockTask task) {
+        try {
+            return task.compute(stockId, series);
+        } catch (Exception e) {
+            log.error("❌ 股票計算失敗: stockId={}, error={}", stockId, e.getMessage());
+            Diagnostics diagnostics = new Diagnostics();
+            diagnostics.addError(BATCH_DIAGNOSTIC, e.getMessage());
+            return IndicatorResult.builder()
+                    .stockId(stockId)
+                    .calculationDate(LocalDate.now())
+                    .diagnostics(diagnostics)
+                    .build();
+        }
+    }
+
+    /**
+     * 單一股票的計算任務
+     */
+    @FunctionalInterface
+    private interface StockTask {
+        IndicatorResult compute(String stockId, PriceSeries series);
+    }
+
+    /**
+     * 建立批次計算專用 ForkJoinPool
+     */
+    private static ForkJoinPool createBatchPool(int parallelism) {
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("m07-indicator-" + thread.getPoolIndex());
+            return thread;
+        };
+        return new ForkJoinPool(parallelism, factory, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batchPool != null) {
+            batchPool.shutdown();
+        }
+    }
 }
@@ -1,8 +1,12 @@
 package com.chris.fin_shark.m07.engine;
 
+import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorState;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 
+import java.time.LocalDate;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * 技術指標計算引擎
@@ -27,6 +31,13 @@ public interface IndicatorEngine {
      */
     IndicatorResult compute(PriceSeries series, IndicatorPlan plan);
 
+    /**
+     * 執行期註冊計算器（例如運算式指標），同名者取代
+     *
+     * @param calculator 計算器
+     */
+    void register(IndicatorCalculator calculator);
+
     /**
      * 批次計算
      *
@@ -38,4 +49,65 @@ public interface IndicatorEngine {
             Map<String, PriceSeries> seriesMap,
             IndicatorPlan plan
     );
+
+    /**
+     * 整段序列計算（回補用）
+     * <p>
+     * 每個計算器只掃描一次價格序列，輸出每個交易日的結果
+     * </p>
+     *
+     * @param series   價格序列
+     * @param plan     計算計劃
+     * @param fromDate 只輸出此日期（含）之後的結果
+     * @return 交易日 → 計算結果（依日期排序）
+     */
+    Map<LocalDate, IndicatorResult> computeSeries(
+            PriceSeries series,
+            IndicatorPlan plan,
+            LocalDate fromDate
+    );
+
+    /**
+     * 計劃內的指標是否全部可遞推
+     * <p>
+     * 全部可遞推時，每日計算只需載入錨點日之後的 K 棒
+     * </p>
+     */
+    boolean isIncremental(IndicatorPlan plan);
+
+    /**
+     * 由遞推狀態推進到價格序列的最後一根 K 棒（嚴格模式）
+     * <p>
+     * series 只需包含錨點日（含）之後的 K 棒。任一指標無法推進
+     * （非遞推型、狀態缺失、參數變更、價格修正）即回傳 empty 且不修改 states，
+     * 呼叫端應改走全量計算。
+     * </p>
+     *
+     * @param series 價格序列（錨點日起）
+     * @param plan   計算計劃
+     * @param states 指標名稱 → 遞推狀態（成功時就地更新）
+     * @return 最後一根 K 棒的計算結果
+     */
+    Optional<IndicatorResult> advance(
+            PriceSeries series,
+            IndicatorPlan plan,
+            Map<String, IndicatorState> states
+    );
+
+    /**
+     * 批次遞推計算（寬鬆模式）
+     * <p>
+     * 每個指標獨立判斷：狀態有效者只推進新 K 棒，其餘全量計算並重建狀態
+     * </p>
+     *
+     * @param seriesMap 股票代碼 → 價格序列（完整回溯區間）
+     * @param plan      計算計劃
+     * @param states    股票代碼 → (指標名稱 → 遞推狀態)，就地更新
+     * @return 股票代碼 → 計算結果
+     */
+    Map<String, IndicatorResult> batchComputeIncremental(
+            Map<String, PriceSeries> seriesMap,
+            IndicatorPlan plan,
+            Map<String, Map<String, IndicatorState>> states
+    );
 }
@@ -1,12 +1,16 @@
 package com.chris.fin_shark.m07.engine;
 
+import com.chris.fin_shark.m07.engine.calculator.PeriodSweepCalculator;
+import com.chris.fin_shark.m07.engine.model.Timeframe;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 /**
  * 指標計算計劃
@@ -27,6 +31,17 @@ public class IndicatorPlan {
     /** 優先級（P0, P1, P2...） */
     private String priority;
 
+    /** K 棒週期（週線 / 月線由重新取樣服務提供價格） */
+    @Builder.Default
+    private Timeframe timeframe = Timeframe.DAILY;
+
+    /**
+     * K 棒週期（未指定時為日線）
+     */
+    public Timeframe getTimeframe() {
+        return timeframe != null ? timeframe : Timeframe.DAILY;
+    }
+
     /**
      * 新增指標到計劃
      */
@@ -38,6 +53,21 @@ public class IndicatorPlan {
         return this;
     }
 
+    /**
+     * 新增多週期掃描（週期 fromPeriod ~ toPeriod，指標須實作 {@link PeriodSweepCalculator}）
+     * <p>
+     * 例如 addSweep("RSI", 2, 60) 會在一次掃描中輸出 rsi_2 ... rsi_60
+     * </p>
+     */
+    public IndicatorPlan addSweep(String name, int fromPeriod, int toPeriod) {
+        if (fromPeriod <= 0 || toPeriod < fromPeriod) {
+            throw new IllegalArgumentException(
+                    String.format("掃描週期範圍無效：%d ~ %d", fromPeriod, toPeriod));
+        }
+        List<Integer> periods = IntStream.rangeClosed(fromPeriod, toPeriod).boxed().toList();
+        return addIndicator(name, Map.of(PeriodSweepCalculator.PERIODS, periods));
+    }
+
     /**
      * 快速建立計劃（使用預設參數）
      */
@@ -1,12 +1,15 @@
 package com.chris.fin_shark.m07.engine;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.expression.ExpressionCompiler;
+import com.chris.fin_shark.m07.engine.expression.ExpressionIndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -25,6 +28,12 @@ public class IndicatorRegistry {
     private final Map<String, IndicatorCalculator> calculators = new ConcurrentHashMap<>();
     private final Map<String, IndicatorMetadata> metadata = new ConcurrentHashMap<>();
 
+    /** 自訂指標名稱（英數與底線，字母開頭） */
+    private static final Pattern EXPRESSION_NAME = Pattern.compile("[A-Za-z][A-Za-z0-9_]*");
+
+    /** 所有運算式指標共用的編譯器（相同子運算式共用節點） */
+    private final ExpressionCompiler expressionCompiler = new ExpressionCompiler();
+
     /**
      * 建構子：自動註冊所有計算器
      */
@@ -55,6 +64,35 @@ public class IndicatorRegistry {
         metadata.put(name, calculator.getMetadata());
     }
 
+    /**
+     * 以運算式註冊自訂指標（執行期新增，不需撰寫計算器類別）
+     * <p>
+     * 例如 registerExpression("MACD_FAST", "EMA(close,12) - EMA(close,26)")。
+     * 同名的運算式指標會被取代；名稱不可與內建指標相同。
+     * </p>
+     *
+     * @param name       指標名稱
+     * @param expression 運算式（語法見 {@link ExpressionCompiler}）
+     * @return 註冊的計算器
+     * @throws IllegalArgumentException 名稱無效、與內建指標衝突或運算式語法錯誤
+     */
+    public ExpressionIndicatorCalculator registerExpression(String name, String expression) {
+        if (name == null || !EXPRESSION_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("自訂指標名稱無效: " + name);
+        }
+        IndicatorCalculator existing = calculators.get(name);
+        if (existing != null && !(existing instanceof ExpressionIndicatorCalculator)) {
+            throw new IllegalArgumentException("指標名稱已被內建指標使用: " + name);
+        }
+
+        ExpressionIndicatorCalculator calculator = new ExpressionIndicatorCalculator(
+                name, expression, expressionCompiler.compile(expression));
+        register(calculator);
+        log.info("✅ 已註冊自訂指標: {} = {}（共用節點表 {} 個節點）",
+                name, calculator.getRoot(), expressionCompiler.size());
+        return calculator;
+    }
+
     /**
      * 取得計算器
      */
@@ -69,6 +107,22 @@ public class IndicatorRegistry {
         return Optional.ofNullable(metadata.get(indicatorName));
     }
 
+    /**
+     * 取得指標輸出鍵的前綴
+     * <p>
+     * 依元資料宣告的前綴，未宣告時為指標名稱小寫；未註冊的名稱視為輸出鍵本身（例如 rsi_14）
+     * </p>
+     */
+    public List<String> getOutputKeyPrefixes(String indicatorName) {
+        String name = indicatorName.trim();
+        return getMetadata(name)
+                .or(() -> getMetadata(name.toUpperCase()))
+                .map(meta -> meta.getOutputKeyPrefixes() != null
+                        ? meta.getOutputKeyPrefixes()
+                        : List.of(meta.getName().toLowerCase()))
+                .orElse(List.of(name.toLowerCase()));
+    }
+
     /**
      * 取得所有已註冊的指標名稱
      */
@@ -1,16 +1,20 @@
 package com.chris.fin_shark.m07.engine;
 
+import com.chris.fin_shark.m07.engine.model.IndicatorValues;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
  * 指標計算結果
+ * <p>
+ * 指標值保存在型別化的 {@link IndicatorValues}（原生陣列，依類別標記），
+ * 四個類別的 Map 只在持久化與 API 邊界由 getXxxIndicators() 產生，每次呼叫回傳新的 Map。
+ * </p>
  *
  * @author chris
  * @since 1.0.0
@@ -21,48 +25,65 @@ import java.util.Map;
 @AllArgsConstructor
 public class IndicatorResult {
 
+    public static final String TREND = "TREND";
+    public static final String MOMENTUM = "MOMENTUM";
+    public static final String VOLATILITY = "VOLATILITY";
+    public static final String VOLUME = "VOLUME";
+    public static final String CUSTOM = "CUSTOM";
+
     /** 股票代碼 */
     private String stockId;
 
     /** 計算日期 */
     private LocalDate calculationDate;
 
-    /** 趨勢指標 */
-    @Builder.Default
-    private Map<String, Object> trendIndicators = new HashMap<>();
-
-    /** 動能指標 */
-    @Builder.Default
-    private Map<String, Object> momentumIndicators = new HashMap<>();
-
-    /** 波動性指標 */
-    @Builder.Default
-    private Map<String, Object> volatilityIndicators = new HashMap<>();
-
-    /** 成交量指標 */
+    /** 指標值（型別化儲存） */
     @Builder.Default
-    private Map<String, Object> volumeIndicators = new HashMap<>();
+    private IndicatorValues values = new IndicatorValues();
 
     /** 診斷訊息 */
     private Diagnostics diagnostics;
 
     /**
-     * 取得指標值（自動從各類別中查找）
+     * 趨勢指標
      */
-    public Object getValue(String key) {
-        Object value = trendIndicators.get(key);
-        if (value != null) return value;
+    public Map<String, Object> getTrendIndicators() {
+        return values.toMap(TREND);
+    }
 
-        value = momentumIndicators.get(key);
-        if (value != null) return value;
+    /**
+     * 動能指標
+     */
+    public Map<String, Object> getMomentumIndicators() {
+        return values.toMap(MOMENTUM);
+    }
 
-        value = volatilityIndicators.get(key);
-        if (value != null) return value;
+    /**
+     * 波動性指標
+     */
+    public Map<String, Object> getVolatilityIndicators() {
+        return values.toMap(VOLATILITY);
+    }
+
+    /**
+     * 成交量指標
+     */
+    public Map<String, Object> getVolumeIndicators() {
+        return values.toMap(VOLUME);
+    }
 
-        value = volumeIndicators.get(key);
-        if (value != null) return value;
+    /**
+     * 自訂（運算式）指標
+     */
+    public Map<String, Object> getCustomIndicators() {
+        return values.toMap(CUSTOM);
+    }
 
-        return null;
+    /**
+     * 取得指標值（數值為 Double、文字為 String、巢狀輸出為 Map）
+     */
+    public Object getValue(String key) {
+        return values.get(key);
     }
 
     /**
@@ -83,39 +104,27 @@ public class IndicatorResult {
      * 加入趨勢指標
      */
     public void addTrendIndicator(String key, Object value) {
-        if (trendIndicators == null) {
-            trendIndicators = new HashMap<>();
-        }
-        trendIndicators.put(key, value);
+        values.put(TREND, key, value);
     }
 
     /**
      * 加入動能指標
      */
     public void addMomentumIndicator(String key, Object value) {
-        if (momentumIndicators == null) {
-            momentumIndicators = new HashMap<>();
-        }
-        momentumIndicators.put(key, value);
+        values.put(MOMENTUM, key, value);
     }
 
     /**
      * 加入波動性指標
      */
     public void addVolatilityIndicator(String key, Object value) {
-        if (volatilityIndicators == null) {
-            volatilityIndicators = new HashMap<>();
-        }
-        volatilityIndicators.put(key, value);
+        values.put(VOLATILITY, key, value);
     }
 
     /**
      * 加入成交量指標
      */
     public void addVolumeIndicator(String key, Object value) {
-        if (volumeIndicators == null) {
-            volumeIndicators = new HashMap<>();
-        }
-        volumeIndicators.put(key, value);
+        values.put(VOLUME, key, value);
     }
 }
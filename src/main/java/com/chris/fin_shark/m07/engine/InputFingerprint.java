@@ -0,0 +1,98 @@
+package com.chris.fin_shark.m07.engine;
+
+import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorState;
+import com.chris.fin_shark.m07.vo.PriceWindowVO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 計算輸入指紋
+ * <p>
+ * 指紋為 SHA-256（十六進位），涵蓋三部分：
+ * 1. 價格區間摘要：K 棒數、首末日期、最後異動時間與最新 K 棒（補進遲到的 K 棒或修正價格都會改變指紋），
+ *    不需載入整段價格
+ * 2. 計劃參數：依指標名稱排序的參數識別字串
+ * 3. 計算器版本：{@link IndicatorMetadata#getVersion()} 與呼叫端的持久化版本
+ * </p>
+ * <p>
+ * 計劃部分每次執行只組一次（{@link #planKey}），每支股票只需雜湊價格；
+ * 輸入相同時指紋相同，重跑時即可略過已寫入且輸入未變的股票。
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class InputFingerprint {
+
+    private InputFingerprint() {
+    }
+
+    /**
+     * 計劃識別字串（指標名稱、參數與計算器版本）
+     *
+     * @param plan               計算計劃
+     * @param metadata           指標名稱 → 元資料
+     * @param calculationVersion 持久化格式版本
+     */
+    public static String planKey(IndicatorPlan plan,
+                                 Function<String, Optional<IndicatorMetadata>> metadata,
+                                 String calculationVersion) {
+        StringBuilder key = new StringBuilder(calculationVersion);
+        new TreeMap<>(plan.getIndicators()).forEach((name, params) -> key
+                .append('|').append(name)
+                .append('@').append(metadata.apply(name).map(IndicatorMetadata::getVersion).orElse("?"))
+                .append(IndicatorState.paramsKey(params)));
+        return key.toString();
+    }
+
+    /**
+     * 以價格區間摘要計算單支股票的輸入指紋
+     * <p>
+     * 補進 K 棒改變筆數或首末日期；修正任一根 K 棒會更新最後異動時間；
+     * 最新 K 棒的開高低收量另外納入，即使異動時間未更新也能察覺當日價格變更
+     * </p>
+     *
+     * @param window  價格區間摘要（與實際計算使用的區間相同）
+     * @param planKey {@link #planKey} 的結果
+     */
+    public static String of(PriceWindowVO window, String planKey) {
+        String key = planKey
+                + '|' + window.getBarCount()
+                + '|' + window.getFirstDate()
+                + '|' + window.getLastDate()
+                + '|' + window.getLastUpdatedAt()
+                + '|' + window.getLastOpen()
+                + '|' + window.getLastHigh()
+                + '|' + window.getLastLow()
+                + '|' + window.getLastClose()
+                + '|' + window.getLastVolume();
+        return HexFormat.of().formatHex(sha256().digest(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 以價格區間摘要計算多支股票的輸入指紋
+     *
+     * @return 股票代碼 → 指紋
+     */
+    public static Map<String, String> ofWindows(Map<String, PriceWindowVO> windows, String planKey) {
+        Map<String, String> fingerprints = new TreeMap<>();
+        windows.forEach((stockId, window) -> fingerprints.put(stockId, of(window, planKey)));
+        return fingerprints;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JVM 不支援 SHA-256", e);
+        }
+    }
+}
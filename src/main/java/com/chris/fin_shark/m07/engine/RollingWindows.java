@@ -0,0 +1,173 @@
+package com.chris.fin_shark.m07.engine;
+
+/**
+ * 滑動視窗計算工具
+ * <p>
+ * 提供整段序列的滑動最大/最小值（含位置）與滑動總和/平均，
+ * 最大/最小值以單調佇列實作，每個元素最多進出佇列一次，整段序列為 O(N)，與週期無關。
+ * </p>
+ * <p>
+ * 輸出規則：
+ * 1. 輸出陣列與輸入等長，第 i 筆為 [i - period + 1, i] 視窗的結果
+ * 2. 視窗未滿（i &lt; period - 1）時，數值為 NaN、位置為 -1
+ * 3. 第 i 筆只依賴前 i + 1 筆輸入，對前段序列計算的結果與整段計算的對應值相同
+ * </p>
+ * <p>
+ * 注意：輸入假設為有限值，NaN 不參與比較
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class RollingWindows {
+
+    private RollingWindows() {
+    }
+
+    // ========================================================================
+    // 整段序列（O(N)）
+    // ========================================================================
+
+    /**
+     * 滑動最大值
+     */
+    public static double[] rollingMax(double[] values, int period) {
+        return valuesAt(values, rollingArgMax(values, period));
+    }
+
+    /**
+     * 滑動最小值
+     */
+    public static double[] rollingMin(double[] values, int period) {
+        return valuesAt(values, rollingArgMin(values, period));
+    }
+
+    /**
+     * 滑動最大值位置（相同值取最近的一筆）
+     */
+    public static int[] rollingArgMax(double[] values, int period) {
+        return rollingExtremum(values, period, true);
+    }
+
+    /**
+     * 滑動最小值位置（相同值取最近的一筆）
+     */
+    public static int[] rollingArgMin(double[] values, int period) {
+        return rollingExtremum(values, period, false);
+    }
+
+    /**
+     * 滑動總和（逐筆加入新值、移出舊值）
+     */
+    public static double[] rollingSum(double[] values, int period) {
+        checkPeriod(period);
+        int length = values.length;
+        double[] sums = new double[length];
+
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += values[i];
+            if (i >= period) {
+                sum -= values[i - period];
+            }
+            sums[i] = i >= period - 1 ? sum : Double.NaN;
+        }
+        return sums;
+    }
+
+    /**
+     * 滑動平均（SMA）
+     */
+    public static double[] rollingMean(double[] values, int period) {
+        double[] means = rollingSum(values, period);
+        for (int i = period - 1; i < means.length; i++) {
+            means[i] /= period;
+        }
+        return means;
+    }
+
+    // ========================================================================
+    // 單一視窗（O(period)，只需最新值時使用）
+    // ========================================================================
+
+    /**
+     * [end - period, end) 視窗的最大值
+     */
+    public static double max(double[] values, int end, int period) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = end - period; i < end; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    /**
+     * [end - period, end) 視窗的最小值
+     */
+    public static double min(double[] values, int end, int period) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = end - period; i < end; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    // ========================================================================
+    // 單調佇列
+    // ========================================================================
+
+    /**
+     * 單調佇列求滑動極值位置
+     * <p>
+     * 佇列由前到後保存候選位置，對應值單調遞減（最大值）或遞增（最小值）；
+     * 新值加入時移除後端不優於它的位置，前端超出視窗的位置移出。
+     * 佇列以環狀陣列實作，容量為 period，不另外配置節點。
+     * </p>
+     */
+    private static int[] rollingExtremum(double[] values, int period, boolean max) {
+        checkPeriod(period);
+        int length = values.length;
+        int[] positions = new int[length];
+        int[] deque = new int[period];
+        int head = 0;
+        int count = 0;
+
+        for (int i = 0; i < length; i++) {
+            // 前端超出視窗
+            if (count > 0 && deque[head] <= i - period) {
+                head = (head + 1) % period;
+                count--;
+            }
+
+            // 後端不優於新值者移除（相等也移除，保留最近的一筆）
+            while (count > 0) {
+                double back = values[deque[(head + count - 1) % period]];
+                if (max ? back <= values[i] : back >= values[i]) {
+                    count--;
+                } else {
+                    break;
+                }
+            }
+
+            deque[(head + count) % period] = i;
+            count++;
+
+            positions[i] = i >= period - 1 ? deque[head] : -1;
+        }
+        return positions;
+    }
+
+    private static double[] valuesAt(double[] values, int[] positions) {
+        double[] result = new double[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            result[i] = positions[i] >= 0 ? values[positions[i]] : Double.NaN;
+        }
+        return result;
+    }
+
+    private static void checkPeriod(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("週期必須大於 0: " + period);
+        }
+    }
+}
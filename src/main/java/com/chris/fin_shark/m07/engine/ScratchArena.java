@@ -0,0 +1,121 @@
+package com.chris.fin_shark.m07.engine;
+
+import java.util.Arrays;
+
+/**
+ * 計算暫存緩衝區（執行緒專屬）
+ * <p>
+ * 計算器的中間陣列（漲跌幅、對數報酬率、MACD 線等）只在單次計算內使用，
+ * 改由此處借用，避免每支股票、每個指標都配置短命的陣列。
+ * 緩衝區隨最長的序列成長後保留重用，穩定後不再配置記憶體。
+ * </p>
+ * <p>
+ * 使用方式（巢狀呼叫各自開一層，離開時歸還本層借用的緩衝區）：
+ * <pre>
+ * try (ScratchArena arena = ScratchArena.open()) {
+ *     double[] changes = arena.doubles(prices.length);
+ *     ...
+ * }
+ * </pre>
+ * </p>
+ * <p>
+ * 注意：
+ * 1. 借出的陣列長度可能大於要求，內容為前一次使用的殘值，使用前須自行寫入
+ * 2. 借出的陣列不可保存到計算結果或快取，離開 try 區塊後即可能被其他計算覆寫
+ * 3. 每個執行緒一個實例，不可跨執行緒傳遞
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class ScratchArena implements AutoCloseable {
+
+    private static final ThreadLocal<ScratchArena> CURRENT = ThreadLocal.withInitial(ScratchArena::new);
+
+    /** 新緩衝區的最小長度（一年交易日） */
+    private static final int MIN_CAPACITY = 256;
+
+    private double[][] doubleBuffers = new double[8][];
+    private int doubleTop;
+
+    private int[][] intBuffers = new int[4][];
+    private int intTop;
+
+    /** 每層開始時的 [doubleTop, intTop] */
+    private int[] frames = new int[16];
+    private int depth;
+
+    private ScratchArena() {
+    }
+
+    /**
+     * 開啟目前執行緒的新一層暫存區
+     */
+    public static ScratchArena open() {
+        ScratchArena arena = CURRENT.get();
+        arena.push();
+        return arena;
+    }
+
+    /**
+     * 借用 double 緩衝區（長度至少為 length，內容未清除）
+     */
+    public double[] doubles(int length) {
+        if (doubleTop == doubleBuffers.length) {
+            doubleBuffers = Arrays.copyOf(doubleBuffers, doubleBuffers.length * 2);
+        }
+        double[] buffer = doubleBuffers[doubleTop];
+        if (buffer == null || buffer.length < length) {
+            buffer = new double[grow(buffer == null ? 0 : buffer.length, length)];
+            doubleBuffers[doubleTop] = buffer;
+        }
+        doubleTop++;
+        return buffer;
+    }
+
+    /**
+     * 借用 int 緩衝區（長度至少為 length，內容未清除）
+     */
+    public int[] ints(int length) {
+        if (intTop == intBuffers.length) {
+            intBuffers = Arrays.copyOf(intBuffers, intBuffers.length * 2);
+        }
+        int[] buffer = intBuffers[intTop];
+        if (buffer == null || buffer.length < length) {
+            buffer = new int[grow(buffer == null ? 0 : buffer.length, length)];
+            intBuffers[intTop] = buffer;
+        }
+        intTop++;
+        return buffer;
+    }
+
+    /**
+     * 目前巢狀層數（測試用）
+     */
+    int depth() {
+        return depth;
+    }
+
+    /**
+     * 離開本層，歸還本層借用的所有緩衝區
+     */
+    @Override
+    public void close() {
+        depth--;
+        doubleTop = frames[2 * depth];
+        intTop = frames[2 * depth + 1];
+    }
+
+    private void push() {
+        if (2 * depth + 1 >= frames.length) {
+            frames = Arrays.copyOf(frames, frames.length * 2);
+        }
+        frames[2 * depth] = doubleTop;
+        frames[2 * depth + 1] = intTop;
+        depth++;
+    }
+
+    private static int grow(int current, int required) {
+        return Math.max(required, Math.max(MIN_CAPACITY, current + (current >> 1)));
+    }
+}
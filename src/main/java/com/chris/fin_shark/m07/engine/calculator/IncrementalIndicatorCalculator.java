@@ -0,0 +1,47 @@
+package com.chris.fin_shark.m07.engine.calculator;
+
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+
+import java.util.Map;
+
+/**
+ * 可遞推的指標計算器
+ * <p>
+ * 遞迴型指標只依賴前一根 K 棒的中間值，實作此介面後，
+ * 每日計算只需推進最新一根 K 棒（O(1)），不必重算整段序列。
+ * </p>
+ * <p>
+ * 約定：由 {@link #initState} 建立的狀態連續呼叫 {@link #advance}，
+ * 每一步的輸出須與對同一段價格呼叫 {@link #calculate} 完全相同。
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public interface IncrementalIndicatorCalculator extends IndicatorCalculator {
+
+    /**
+     * 由完整價格序列建立遞推狀態（對應最後一根 K 棒）
+     *
+     * @param series 價格序列
+     * @param params 參數
+     * @return 遞推值；資料不足時回傳 null
+     */
+    Map<String, Double> initState(PriceSeries series, Map<String, Object> params);
+
+    /**
+     * 推進一根 K 棒
+     * <p>
+     * 會直接修改傳入的 state
+     * </p>
+     *
+     * @param state  上一根 K 棒的遞推值
+     * @param bars   價格資料
+     * @param index  要推進的 K 棒位置
+     * @param params 參數
+     * @return 該 K 棒的計算結果（與 calculate 相同格式）
+     */
+    Map<String, Object> advance(Map<String, Double> state, PriceColumns bars, int index,
+                                Map<String, Object> params);
+}
@@ -1,6 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator;
 
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.IndicatorValues;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 
 import java.util.Map;
@@ -40,6 +43,63 @@ public interface IndicatorCalculator {
      */
     Map<String, Object> calculate(PriceSeries series, Map<String, Object> params);
 
+    /**
+     * 計算指標（共用計算上下文）
+     * <p>
+     * 引擎在同一支股票的計劃執行中傳入同一個上下文，
+     * 需要 EMA、ATR 等共用中間序列的計算器應覆寫此方法並由上下文取得。
+     * </p>
+     *
+     * @param series  價格序列
+     * @param params  參數
+     * @param context 計算上下文
+     * @return 計算結果
+     */
+    default Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                          IndicatorContext context) {
+        return calculate(series, params);
+    }
+
+    /**
+     * 計算指標並直接寫入型別化結果
+     * <p>
+     * 引擎使用此方法收集結果。預設實作把 {@link #calculate} 的 Map 攤平寫入；
+     * 每日批次必算的指標應覆寫為直接寫入槽位，不配置 Map 與裝箱的 Double。
+     * 寫入的鍵值須與 {@link #calculate} 的結果相同。
+     * </p>
+     *
+     * @param series  價格序列
+     * @param params  參數
+     * @param context 計算上下文
+     * @param out     寫入目標
+     */
+    default void calculateInto(PriceSeries series, Map<String, Object> params,
+                               IndicatorContext context, IndicatorValues out) {
+        out.putAll(getCategory(), calculate(series, params, context));
+    }
+
+    /**
+     * 計算整段指標序列（每個交易日一筆）
+     * <p>
+     * 第 i 筆結果須等同於對前 i+1 筆價格呼叫 {@link #calculate}。
+     * 預設實作逐日重算（O(N²)），只作為新計算器的正確性基準；
+     * 回補會對整段歷史呼叫此方法，內建計算器皆已覆寫為單次掃描，新增的計算器也應覆寫。
+     * </p>
+     *
+     * @param series 價格序列
+     * @param params 參數
+     * @return 與價格序列等長的指標序列
+     */
+    default IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int size = series.size();
+        IndicatorSeries output = IndicatorSeries.ofSize(size);
+        int required = Math.max(getMetadata().getMinDataPoints(), 1);
+        for (int end = required; end <= size; end++) {
+            output.put(end - 1, calculate(series.head(end), params));
+        }
+        return output;
+    }
+
     /**
      * 驗證資料是否足夠
      */
@@ -0,0 +1,61 @@
+package com.chris.fin_shark.m07.engine.calculator;
+
+import com.chris.fin_shark.m07.engine.model.PeriodMatrix;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 可多週期掃描的指標計算器
+ * <p>
+ * 研究用的參數掃描（例如 RSI 2~60）若逐週期呼叫，每個週期都要重新讀取價格、
+ * 重新計算差分與漲跌幅。實作此介面的計算器在一次掃描中同時更新所有週期，
+ * 共用的中間值（差分、前綴和）每根 K 棒只計算一次。
+ * </p>
+ * <p>
+ * 計劃參數帶有 {@link #PERIODS}（週期清單）時，calculate / calculateSeries 也改用掃描，
+ * 輸出每個週期的數值欄位（例如 rsi_2 ... rsi_60），不輸出信號。
+ * 可用 {@link com.chris.fin_shark.m07.engine.IndicatorPlan#addSweep} 建立。
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public interface PeriodSweepCalculator extends IndicatorCalculator {
+
+    /** 多週期參數鍵 */
+    String PERIODS = "periods";
+
+    /**
+     * 一次掃描計算多個週期的整段序列
+     *
+     * @param series  價格序列
+     * @param periods 週期
+     * @param params  其他參數（例如 BBands 的 std_dev）
+     * @return 輸出名稱 → 週期 × K 棒矩陣
+     */
+    Map<String, PeriodMatrix> sweep(PriceSeries series, int[] periods, Map<String, Object> params);
+
+    /**
+     * 取出參數中的週期清單
+     *
+     * @return 週期陣列；未指定時為 null
+     * @throws IllegalArgumentException 週期小於等於 0
+     */
+    static int[] sweepPeriods(Map<String, Object> params) {
+        if (!(params.get(PERIODS) instanceof Collection<?> periods)) {
+            return null;
+        }
+        int[] result = new int[periods.size()];
+        int r = 0;
+        for (Object period : periods) {
+            result[r] = ((Number) period).intValue();
+            if (result[r] <= 0) {
+                throw new IllegalArgumentException("週期必須大於 0: " + result[r]);
+            }
+            r++;
+        }
+        return result;
+    }
+}
@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator.momentum;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -57,10 +59,14 @@ public class CCICalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        return calculate(series, params, IndicatorContext.of(series));
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
         int period = (int) params.getOrDefault("period", 20);
 
-        double[] highPrices = series.getHighArray();
-        double[] lowPrices = series.getLowArray();
         double[] closePrices = series.getCloseArray();
 
         if (closePrices.length < period) {
@@ -68,35 +74,59 @@ public class CCICalculator implements IndicatorCalculator {
         }
 
         // 計算典型價格（TP）序列
-        double[] tp = new double[closePrices.length];
-        for (int i = 0; i < closePrices.length; i++) {
-            tp[i] = (highPrices[i] + lowPrices[i] + closePrices[i]) / 3;
+        double[] tp = context.typicalPrice();
+
+        return toResult(period, cciAt(tp, tp.length, period));
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 20);
+
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (closePrices.length < period) {
+            return output;
+        }
+
+        // 平均偏差依賴視窗平均，每個視窗各自累加（O(N × period)，與逐日計算逐位相同）
+        double[] tp = IndicatorContext.of(series).typicalPrice();
+        for (int i = period - 1; i < tp.length; i++) {
+            output.put(i, toResult(period, cciAt(tp, i + 1, period)));
         }
 
+        return output;
+    }
+
+    /**
+     * 計算 [end - period, end) 的 CCI
+     */
+    private double cciAt(double[] tp, int end, int period) {
         // 計算最近 period 天的 TP 平均值
-        int startIndex = tp.length - period;
+        int startIndex = end - period;
         double tpSum = 0;
-        for (int i = startIndex; i < tp.length; i++) {
+        for (int i = startIndex; i < end; i++) {
             tpSum += tp[i];
         }
         double tpSMA = tpSum / period;
 
         // 計算平均偏差（Mean Deviation）
         double mdSum = 0;
-        for (int i = startIndex; i < tp.length; i++) {
+        for (int i = startIndex; i < end; i++) {
             mdSum += Math.abs(tp[i] - tpSMA);
         }
         double md = mdSum / period;
 
         // 計算 CCI
-        double currentTP = tp[tp.length - 1];
-        double cci;
+        double currentTP = tp[end - 1];
         if (md == 0) {
-            cci = 0;  // 避免除以零
-        } else {
-            cci = (currentTP - tpSMA) / (CONSTANT * md);
+            return 0;  // 避免除以零
         }
+        return (currentTP - tpSMA) / (CONSTANT * md);
+    }
 
+    private Map<String, Object> toResult(int period, double cci) {
         Map<String, Object> result = new HashMap<>();
         result.put("cci_" + period, round(cci));
         result.put("cci_signal", getSignal(cci));
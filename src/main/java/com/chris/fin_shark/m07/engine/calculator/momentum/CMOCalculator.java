@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.momentum;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -57,7 +58,7 @@ public class CMOCalculator implements IndicatorCalculator {
         Map<String, Object> result = new HashMap<>();
 
         if (closePrices.length >= period + 1) {
-            double cmo = calculateCMO(closePrices, period);
+            double cmo = calculateCMO(closePrices, closePrices.length, period);
             result.put("cmo", round(cmo));
             result.put("cmo_signal", getSignal(cmo));
         }
@@ -65,12 +66,32 @@ public class CMOCalculator implements IndicatorCalculator {
         return result;
     }
 
-    private double calculateCMO(double[] prices, int period) {
-        int startIndex = prices.length - period - 1;
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 14);
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        double[] cmoColumn = output.numberColumn("cmo");
+        String[] signalColumn = output.labelColumn("cmo_signal");
+        for (int i = period; i < closePrices.length; i++) {
+            double cmo = calculateCMO(closePrices, i + 1, period);
+            cmoColumn[i] = round(cmo);
+            signalColumn[i] = getSignal(cmo);
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算 prices[0, end) 最近 period 筆漲跌的 CMO
+     */
+    private double calculateCMO(double[] prices, int end, int period) {
+        int startIndex = end - period - 1;
         double sumUp = 0;
         double sumDown = 0;
 
-        for (int i = startIndex + 1; i < prices.length; i++) {
+        for (int i = startIndex + 1; i < end; i++) {
             double change = prices[i] - prices[i - 1];
             if (change > 0) {
                 sumUp += change;
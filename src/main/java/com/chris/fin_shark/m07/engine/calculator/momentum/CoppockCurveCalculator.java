@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.momentum;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -74,6 +75,39 @@ public class CoppockCurveCalculator implements IndicatorCalculator {
         return result;
     }
 
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int rocPeriod1 = (int) params.getOrDefault("rocPeriod1", 14);
+        int rocPeriod2 = (int) params.getOrDefault("rocPeriod2", 11);
+        int wmaPeriod = (int) params.getOrDefault("wmaPeriod", 10);
+
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        int maxRocPeriod = Math.max(rocPeriod1, rocPeriod2);
+        int minRequired = maxRocPeriod + wmaPeriod;
+        if (closePrices.length < minRequired) {
+            return output;
+        }
+
+        // ROC 總和只依賴當日與 N 日前價格，整段計算一次後逐日取最近 wmaPeriod 筆做 WMA
+        double[] rocSum = new double[closePrices.length - maxRocPeriod];
+        for (int i = 0; i < rocSum.length; i++) {
+            int idx = i + maxRocPeriod;
+            rocSum[i] = calculateROC(closePrices, idx, rocPeriod1) + calculateROC(closePrices, idx, rocPeriod2);
+        }
+
+        double[] coppockColumn = output.numberColumn("coppock");
+        String[] signalColumn = output.labelColumn("coppock_signal");
+        for (int i = minRequired - 1; i < closePrices.length; i++) {
+            double coppock = calculateWMA(rocSum, i + 1 - maxRocPeriod, wmaPeriod);
+            coppockColumn[i] = round(coppock);
+            signalColumn[i] = coppock > 0 ? "BULLISH" : "BEARISH";
+        }
+
+        return output;
+    }
+
     private double calculateCoppock(double[] prices, int rocPeriod1, int rocPeriod2, int wmaPeriod) {
         int length = prices.length;
 
@@ -96,7 +130,7 @@ public class CoppockCurveCalculator implements IndicatorCalculator {
         }
 
         // 計算 WMA
-        return calculateWMA(rocSum, wmaPeriod);
+        return calculateWMA(rocSum, rocSum.length, wmaPeriod);
     }
 
     private double calculateROC(double[] prices, int currentIndex, int period) {
@@ -107,15 +141,18 @@ public class CoppockCurveCalculator implements IndicatorCalculator {
         return 0;
     }
 
-    private double calculateWMA(double[] values, int period) {
-        int startIndex = values.length - period;
+    /**
+     * 計算 values[0, end) 最近 period 筆的 WMA
+     */
+    private double calculateWMA(double[] values, int end, int period) {
+        int startIndex = end - period;
         if (startIndex < 0) startIndex = 0;
 
         double weightedSum = 0;
         double weightSum = 0;
         int weight = 1;
 
-        for (int i = startIndex; i < values.length; i++) {
+        for (int i = startIndex; i < end; i++) {
             weightedSum += values[i] * weight;
             weightSum += weight;
             weight++;
@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.momentum;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -57,7 +58,7 @@ public class DPOCalculator implements IndicatorCalculator {
 
         int displacement = period / 2 + 1;
         if (closePrices.length >= period + displacement) {
-            double dpo = calculateDPO(closePrices, period);
+            double dpo = calculateDPO(closePrices, closePrices.length, period);
             result.put("dpo", round(dpo));
             result.put("dpo_signal", dpo > 0 ? "BULLISH" : "BEARISH");
         }
@@ -65,9 +66,29 @@ public class DPOCalculator implements IndicatorCalculator {
         return result;
     }
 
-    private double calculateDPO(double[] prices, int period) {
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 20);
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        int displacement = period / 2 + 1;
+        double[] dpoColumn = output.numberColumn("dpo");
+        String[] signalColumn = output.labelColumn("dpo_signal");
+        for (int i = period + displacement - 1; i < closePrices.length; i++) {
+            double dpo = calculateDPO(closePrices, i + 1, period);
+            dpoColumn[i] = round(dpo);
+            signalColumn[i] = dpo > 0 ? "BULLISH" : "BEARISH";
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算 prices[0, length) 最後一日的 DPO
+     */
+    private double calculateDPO(double[] prices, int length, int period) {
         int displacement = period / 2 + 1;
-        int length = prices.length;
 
         // 計算位移後的 SMA
         int smaEndIndex = length - displacement;
@@ -1,10 +1,13 @@
 package com.chris.fin_shark.m07.engine.calculator.momentum;
 
+import com.chris.fin_shark.m07.engine.ScratchArena;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -66,15 +69,21 @@ public class KSTCalculator implements IndicatorCalculator {
 
         // 需要足夠的數據：最長 ROC (30) + 最長 SMA (15) + 信號線 (9)
         if (closePrices.length >= 60) {
-            double[] kstSeries = calculateKSTSeries(closePrices);
+            int kstLength = kstLength(closePrices.length);
+            if (kstLength <= 0) {
+                return result;
+            }
+
+            try (ScratchArena arena = ScratchArena.open()) {
+                double[] kstSeries = arena.doubles(kstLength);
+                calculateKSTSeries(closePrices, kstSeries, kstLength, arena);
 
-            if (kstSeries.length > 0) {
-                double kst = kstSeries[kstSeries.length - 1];
+                double kst = kstSeries[kstLength - 1];
                 result.put("kst", round(kst));
 
                 // 計算信號線
-                if (kstSeries.length >= signalPeriod) {
-                    double signal = calculateSMA(kstSeries, signalPeriod);
+                if (kstLength >= signalPeriod) {
+                    double signal = calculateSMA(kstSeries, kstLength, signalPeriod);
                     result.put("kst_signal", round(signal));
                     result.put("kst_crossover", kst > signal ? "BULLISH" : "BEARISH");
                 }
@@ -84,53 +93,81 @@ public class KSTCalculator implements IndicatorCalculator {
         return result;
     }
 
-    private double[] calculateKSTSeries(double[] prices) {
-        int length = prices.length;
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int signalPeriod = (int) params.getOrDefault("signalPeriod", 9);
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
 
-        // 計算各 ROC
-        double[][] rocSeries = new double[4][];
-        for (int i = 0; i < 4; i++) {
-            rocSeries[i] = calculateROCSeries(prices, ROC_PERIODS[i]);
+        int kstLength = kstLength(closePrices.length);
+        if (closePrices.length < 60 || kstLength <= 0) {
+            return output;
         }
 
-        // 找出最短的 ROC 序列長度
-        int minLength = Integer.MAX_VALUE;
-        for (double[] roc : rocSeries) {
-            minLength = Math.min(minLength, roc.length);
+        // 每個 KST 值只依賴所在交易日之前的價格：整段計算一次，
+        // kstSeries[k] 對應第 offset + k 個交易日
+        int offset = closePrices.length - kstLength;
+        double[] kstColumn = output.numberColumn("kst");
+        double[] signalColumn = output.numberColumn("kst_signal");
+        String[] crossoverColumn = output.labelColumn("kst_crossover");
+        try (ScratchArena arena = ScratchArena.open()) {
+            double[] kstSeries = arena.doubles(kstLength);
+            calculateKSTSeries(closePrices, kstSeries, kstLength, arena);
+
+            for (int i = Math.max(offset, 59); i < closePrices.length; i++) {
+                int length = i - offset + 1;
+                double kst = kstSeries[length - 1];
+                kstColumn[i] = round(kst);
+                if (length >= signalPeriod) {
+                    double signal = calculateSMA(kstSeries, length, signalPeriod);
+                    signalColumn[i] = round(signal);
+                    crossoverColumn[i] = kst > signal ? "BULLISH" : "BEARISH";
+                }
+            }
         }
 
-        // 計算各 SMA 並組合成 KST
-        int kstLength = minLength - Math.max(Math.max(SMA_PERIODS[0], SMA_PERIODS[1]),
-                Math.max(SMA_PERIODS[2], SMA_PERIODS[3])) + 1;
+        return output;
+    }
 
-        if (kstLength <= 0) {
-            return new double[0];
+    /**
+     * KST 序列長度（最短的 ROC 序列扣除最長的 SMA 週期）
+     */
+    private int kstLength(int length) {
+        int minLength = Integer.MAX_VALUE;
+        for (int rocPeriod : ROC_PERIODS) {
+            minLength = Math.min(minLength, length - rocPeriod);
         }
+        return minLength - Math.max(Math.max(SMA_PERIODS[0], SMA_PERIODS[1]),
+                Math.max(SMA_PERIODS[2], SMA_PERIODS[3])) + 1;
+    }
 
-        double[] kst = new double[kstLength];
-
-        for (int i = 0; i < kstLength; i++) {
-            double kstValue = 0;
-            for (int j = 0; j < 4; j++) {
-                // 取對應位置的 SMA
-                int rocIndex = rocSeries[j].length - kstLength + i;
-                double[] subRoc = getSubArray(rocSeries[j], rocIndex - SMA_PERIODS[j] + 1, SMA_PERIODS[j]);
-                double sma = calculateArrayMean(subRoc);
-                kstValue += sma * WEIGHTS[j];
+    /**
+     * 計算 KST 序列，寫入 kst[0, kstLength)
+     * <p>
+     * 依 ROC 週期逐一累加（每個位置的加總順序與逐點計算相同），同一時間只借用一個 ROC 緩衝區
+     * </p>
+     */
+    private void calculateKSTSeries(double[] prices, double[] kst, int kstLength, ScratchArena arena) {
+        Arrays.fill(kst, 0, kstLength, 0);
+
+        double[] roc = arena.doubles(prices.length);
+        for (int j = 0; j < 4; j++) {
+            int rocLength = calculateROCSeries(prices, ROC_PERIODS[j], roc);
+
+            // 取對應位置的 SMA
+            for (int i = 0; i < kstLength; i++) {
+                int rocIndex = rocLength - kstLength + i;
+                double sma = windowMean(roc, rocLength, rocIndex - SMA_PERIODS[j] + 1, SMA_PERIODS[j]);
+                kst[i] += sma * WEIGHTS[j];
             }
-            kst[i] = kstValue;
         }
-
-        return kst;
     }
 
-    private double[] calculateROCSeries(double[] prices, int period) {
+    /**
+     * 計算 ROC 序列，寫入 roc[0, 回傳長度)
+     */
+    private int calculateROCSeries(double[] prices, int period, double[] roc) {
         int length = prices.length - period;
-        if (length <= 0) {
-            return new double[0];
-        }
-
-        double[] roc = new double[length];
         for (int i = 0; i < length; i++) {
             int current = i + period;
             if (prices[i] != 0) {
@@ -139,34 +176,30 @@ public class KSTCalculator implements IndicatorCalculator {
                 roc[i] = 0;
             }
         }
-
-        return roc;
+        return Math.max(length, 0);
     }
 
-    private double[] getSubArray(double[] array, int start, int length) {
+    /**
+     * array[start, start + length) 的平均（超出 [0, arrayLength) 的部分截掉）
+     */
+    private double windowMean(double[] array, int arrayLength, int start, int length) {
         start = Math.max(0, start);
-        int end = Math.min(array.length, start + length);
-        double[] result = new double[end - start];
-        System.arraycopy(array, start, result, 0, result.length);
-        return result;
-    }
-
-    private double calculateArrayMean(double[] array) {
-        if (array.length == 0) return 0;
+        int end = Math.min(arrayLength, start + length);
+        if (end <= start) return 0;
         double sum = 0;
-        for (double v : array) {
-            sum += v;
+        for (int i = start; i < end; i++) {
+            sum += array[i];
         }
-        return sum / array.length;
+        return sum / (end - start);
     }
 
-    private double calculateSMA(double[] values, int period) {
-        int startIndex = values.length - period;
+    private double calculateSMA(double[] values, int length, int period) {
+        int startIndex = length - period;
         if (startIndex < 0) startIndex = 0;
 
         double sum = 0;
         int count = 0;
-        for (int i = startIndex; i < values.length; i++) {
+        for (int i = startIndex; i < length; i++) {
             sum += values[i];
             count++;
         }
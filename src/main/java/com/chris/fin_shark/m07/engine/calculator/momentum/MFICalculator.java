@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator.momentum;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -63,10 +65,14 @@ public class MFICalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        return calculate(series, params, IndicatorContext.of(series));
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
         int period = (int) params.getOrDefault("period", 14);
 
-        double[] highPrices = series.getHighArray();
-        double[] lowPrices = series.getLowArray();
         double[] closePrices = series.getCloseArray();
         long[] volumes = series.getVolumeArray();
 
@@ -75,17 +81,40 @@ public class MFICalculator implements IndicatorCalculator {
         }
 
         // 計算典型價格（TP）
-        double[] tp = new double[closePrices.length];
-        for (int i = 0; i < closePrices.length; i++) {
-            tp[i] = (highPrices[i] + lowPrices[i] + closePrices[i]) / 3;
+        double[] tp = context.typicalPrice();
+
+        return toResult(period, mfiAt(tp, volumes, tp.length, period));
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 14);
+
+        double[] closePrices = series.getCloseArray();
+        long[] volumes = series.getVolumeArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (closePrices.length < period + 1) {
+            return output;
+        }
+
+        double[] tp = IndicatorContext.of(series).typicalPrice();
+        for (int i = period; i < tp.length; i++) {
+            output.put(i, toResult(period, mfiAt(tp, volumes, i + 1, period)));
         }
 
+        return output;
+    }
+
+    /**
+     * 計算 [end - period, end) 的 MFI
+     */
+    private double mfiAt(double[] tp, long[] volumes, int end, int period) {
         // 計算最近 period 天的正/負資金流量
         double positiveMF = 0;
         double negativeMF = 0;
 
-        int startIndex = tp.length - period;
-        for (int i = startIndex; i < tp.length; i++) {
+        for (int i = end - period; i < end; i++) {
             double rawMF = tp[i] * volumes[i];
 
             if (tp[i] > tp[i - 1]) {
@@ -97,14 +126,14 @@ public class MFICalculator implements IndicatorCalculator {
         }
 
         // 計算 MFI
-        double mfi;
         if (negativeMF == 0) {
-            mfi = 100.0;  // 全部為正資金流量
-        } else {
-            double moneyRatio = positiveMF / negativeMF;
-            mfi = 100.0 - (100.0 / (1.0 + moneyRatio));
+            return 100.0;  // 全部為正資金流量
         }
+        double moneyRatio = positiveMF / negativeMF;
+        return 100.0 - (100.0 / (1.0 + moneyRatio));
+    }
 
+    private Map<String, Object> toResult(int period, double mfi) {
         Map<String, Object> result = new HashMap<>();
         result.put("mfi_" + period, round(mfi));
         result.put("mfi_signal", getSignal(mfi));
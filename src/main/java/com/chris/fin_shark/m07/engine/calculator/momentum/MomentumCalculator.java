@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.momentum;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -61,14 +62,33 @@ public class MomentumCalculator implements IndicatorCalculator {
         }
 
         // 計算 Momentum
-        int lastIndex = closePrices.length - 1;
+        return toResult(period, closePrices, closePrices.length - 1);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 10);
+
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        for (int i = period; i < closePrices.length; i++) {
+            output.put(i, toResult(period, closePrices, i));
+        }
+
+        return output;
+    }
+
+    private Map<String, Object> toResult(int period, double[] closePrices, int lastIndex) {
         double currentPrice = closePrices[lastIndex];
         double pastPrice = closePrices[lastIndex - period];
 
         double momentum = currentPrice - pastPrice;
 
-        // 計算前一日的 Momentum（用於判斷零線穿越）
-        double prevMomentum = closePrices[lastIndex - 1] - closePrices[lastIndex - period - 1];
+        // 計算前一日的 Momentum（用於判斷零線穿越；資料剛好 period + 1 筆時沒有前一日，不判斷穿越）
+        double prevMomentum = lastIndex > period
+                ? closePrices[lastIndex - 1] - closePrices[lastIndex - period - 1]
+                : Double.NaN;
 
         Map<String, Object> result = new HashMap<>();
         result.put("mom_" + period, round(momentum));
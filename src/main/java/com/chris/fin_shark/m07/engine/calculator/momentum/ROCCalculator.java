@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator.momentum;
 
-import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.calculator.PeriodSweepCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.PeriodMatrix;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -20,12 +22,15 @@ import java.util.Map;
  * - ROC < 0：價格下跌
  * - ROC 的絕對值越大，漲跌幅度越大
  * </p>
+ * <p>
+ * 參數帶有 periods 時改為多週期掃描，只輸出各週期的 roc_N（不輸出信號）
+ * </p>
  *
  * @author chris
  * @since 1.0.0
  */
 @Component
-public class ROCCalculator implements IndicatorCalculator {
+public class ROCCalculator implements PeriodSweepCalculator {
 
     @Override
     public String getName() {
@@ -52,6 +57,19 @@ public class ROCCalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        int[] periods = PeriodSweepCalculator.sweepPeriods(params);
+        if (periods != null) {
+            Map<String, Object> result = new HashMap<>();
+            PeriodMatrix rocValues = sweep(series, periods, params).get("roc");
+            for (int r = 0; r < periods.length; r++) {
+                double roc = rocValues.latest(r);
+                if (!Double.isNaN(roc)) {
+                    result.put("roc_" + periods[r], roc);
+                }
+            }
+            return result;
+        }
+
         int period = (int) params.getOrDefault("period", 12);
 
         double[] closePrices = series.getCloseArray();
@@ -61,7 +79,51 @@ public class ROCCalculator implements IndicatorCalculator {
         }
 
         // 計算 ROC
-        int lastIndex = closePrices.length - 1;
+        return toResult(period, closePrices, closePrices.length - 1);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int[] periods = PeriodSweepCalculator.sweepPeriods(params);
+        IndicatorSeries output = IndicatorSeries.ofSize(series.size());
+        if (periods == null) {
+            int period = (int) params.getOrDefault("period", 12);
+            double[] closePrices = series.getCloseArray();
+            for (int i = period; i < closePrices.length; i++) {
+                output.put(i, toResult(period, closePrices, i));
+            }
+            return output;
+        }
+
+        PeriodMatrix rocValues = sweep(series, periods, params).get("roc");
+        for (int r = 0; r < periods.length; r++) {
+            if (series.size() >= periods[r] + 1) {
+                System.arraycopy(rocValues.row(r), 0, output.numberColumn("roc_" + periods[r]), 0, series.size());
+            }
+        }
+        return output;
+    }
+
+    @Override
+    public Map<String, PeriodMatrix> sweep(PriceSeries series, int[] periods, Map<String, Object> params) {
+        double[] closePrices = series.getCloseArray();
+        PeriodMatrix matrix = PeriodMatrix.of(periods, closePrices.length);
+
+        for (int r = 0; r < periods.length; r++) {
+            int period = periods[r];
+            double[] row = matrix.row(r);
+            for (int i = period; i < closePrices.length; i++) {
+                double pastPrice = closePrices[i - period];
+                if (pastPrice != 0) {
+                    row[i] = round(((closePrices[i] - pastPrice) / pastPrice) * 100);
+                }
+            }
+        }
+
+        return Map.of("roc", matrix);
+    }
+
+    private Map<String, Object> toResult(int period, double[] closePrices, int lastIndex) {
         double currentPrice = closePrices[lastIndex];
         double pastPrice = closePrices[lastIndex - period];
 
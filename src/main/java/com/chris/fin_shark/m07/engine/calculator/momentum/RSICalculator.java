@@ -1,7 +1,15 @@
 package com.chris.fin_shark.m07.engine.calculator.momentum;
 
-import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.ScratchArena;
+import com.chris.fin_shark.m07.engine.calculator.IncrementalIndicatorCalculator;
+import com.chris.fin_shark.m07.engine.calculator.PeriodSweepCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
+import com.chris.fin_shark.m07.engine.model.IndicatorKeys;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.IndicatorValues;
+import com.chris.fin_shark.m07.engine.model.PeriodMatrix;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -15,12 +23,20 @@ import java.util.Map;
  * RS = 平均漲幅 / 平均跌幅
  * RSI = 100 - (100 / (1 + RS))
  * </p>
+ * <p>
+ * 參數帶有 periods 時改為多週期掃描：差分與漲跌幅每根 K 棒只計算一次，
+ * 所有週期共用，只輸出各週期的 rsi_N（不輸出信號）
+ * </p>
  *
  * @author chris
  * @since 1.0.0
  */
 @Component
-public class RSICalculator implements IndicatorCalculator {
+public class RSICalculator implements IncrementalIndicatorCalculator, PeriodSweepCalculator {
+
+    private static final IndicatorKeys.PeriodSlots RSI_SLOTS = new IndicatorKeys.PeriodSlots("rsi_");
+
+    private static final int RSI_SIGNAL = IndicatorKeys.slot("rsi_signal");
 
     @Override
     public String getName() {
@@ -47,6 +63,19 @@ public class RSICalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        int[] periods = PeriodSweepCalculator.sweepPeriods(params);
+        if (periods != null) {
+            Map<String, Object> result = new HashMap<>();
+            PeriodMatrix rsiValues = sweep(series, periods, params).get("rsi");
+            for (int r = 0; r < periods.length; r++) {
+                double rsi = rsiValues.latest(r);
+                if (!Double.isNaN(rsi)) {
+                    result.put("rsi_" + periods[r], rsi);
+                }
+            }
+            return result;
+        }
+
         // 取得參數
         int period = (int) params.getOrDefault("period", 14);
 
@@ -69,6 +98,113 @@ public class RSICalculator implements IndicatorCalculator {
         return result;
     }
 
+    @Override
+    public void calculateInto(PriceSeries series, Map<String, Object> params,
+                              IndicatorContext context, IndicatorValues out) {
+        int[] periods = PeriodSweepCalculator.sweepPeriods(params);
+        if (periods != null) {
+            PeriodMatrix rsiValues = sweep(series, periods, params).get("rsi");
+            for (int r = 0; r < periods.length; r++) {
+                double rsi = rsiValues.latest(r);
+                if (!Double.isNaN(rsi)) {
+                    out.putNumber(getCategory(), RSI_SLOTS.slot(periods[r]), rsi);
+                }
+            }
+            return;
+        }
+
+        int period = (int) params.getOrDefault("period", 14);
+        double[] closePrices = series.getCloseArray();
+        if (closePrices.length < period + 1) {
+            return;
+        }
+
+        double rsi = calculateRSI(closePrices, period);
+        out.putNumber(getCategory(), RSI_SLOTS.slot(period), rsi);
+        out.putLabel(getCategory(), RSI_SIGNAL, getSignal(rsi));
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int[] periods = PeriodSweepCalculator.sweepPeriods(params);
+        if (periods != null) {
+            IndicatorSeries output = IndicatorSeries.ofSize(series.size());
+            PeriodMatrix rsiValues = sweep(series, periods, params).get("rsi");
+            for (int r = 0; r < periods.length; r++) {
+                if (series.size() >= periods[r] + 1) {
+                    double[] row = rsiValues.row(r);
+                    System.arraycopy(row, periods[r], output.numberColumn("rsi_" + periods[r]), periods[r],
+                            row.length - periods[r]);
+                }
+            }
+            return output;
+        }
+
+        int period = (int) params.getOrDefault("period", 14);
+
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (closePrices.length < period + 1) {
+            return output;
+        }
+
+        double[] rsiColumn = output.numberColumn("rsi_" + period);
+        calculateRSISeries(closePrices, period, rsiColumn, null);
+        String[] signalColumn = output.labelColumn("rsi_signal");
+        for (int i = period; i < closePrices.length; i++) {
+            signalColumn[i] = getSignal(rsiColumn[i]);
+        }
+
+        return output;
+    }
+
+    @Override
+    public Map<String, Double> initState(PriceSeries series, Map<String, Object> params) {
+        if (PeriodSweepCalculator.sweepPeriods(params) != null) {
+            return null;  // 多週期掃描不遞推，每次全量計算
+        }
+
+        int period = (int) params.getOrDefault("period", 14);
+        double[] closePrices = series.getCloseArray();
+
+        if (closePrices.length < period + 1) {
+            return null;
+        }
+
+        double[] averages = new double[2];
+        calculateRSISeries(closePrices, period, null, averages);
+
+        Map<String, Double> state = new HashMap<>();
+        state.put("avg_gain", averages[0]);
+        state.put("avg_loss", averages[1]);
+        state.put("close", closePrices[closePrices.length - 1]);
+        return state;
+    }
+
+    @Override
+    public Map<String, Object> advance(Map<String, Double> state, PriceColumns bars, int index,
+                                       Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 14);
+        double price = bars.close()[index];
+
+        double change = price - state.get("close");
+        double gain = change > 0 ? change : 0;
+        double loss = change > 0 ? 0 : Math.abs(change);
+        double avgGain = ((state.get("avg_gain") * (period - 1)) + gain) / period;
+        double avgLoss = ((state.get("avg_loss") * (period - 1)) + loss) / period;
+
+        state.put("avg_gain", avgGain);
+        state.put("avg_loss", avgLoss);
+        state.put("close", price);
+
+        double rsi = toRSI(avgGain, avgLoss);
+        Map<String, Object> result = new HashMap<>();
+        result.put("rsi_" + period, rsi);
+        result.put("rsi_signal", getSignal(rsi));
+        return result;
+    }
+
     /**
      * 計算 RSI
      *
@@ -77,41 +213,108 @@ public class RSICalculator implements IndicatorCalculator {
      * @return RSI 值
      */
     private double calculateRSI(double[] prices, int period) {
-        // 計算價格變動
-        double[] changes = new double[prices.length - 1];
-        for (int i = 1; i < prices.length; i++) {
-            changes[i - 1] = prices[i] - prices[i - 1];
-        }
-
-        // 分離漲跌
-        double[] gains = new double[changes.length];
-        double[] losses = new double[changes.length];
-        for (int i = 0; i < changes.length; i++) {
-            if (changes[i] > 0) {
-                gains[i] = changes[i];
-                losses[i] = 0;
-            } else {
-                gains[i] = 0;
-                losses[i] = Math.abs(changes[i]);
-            }
-        }
+        return calculateRSISeries(prices, period, null, null);
+    }
 
+    /**
+     * 計算整段 RSI 序列（Wilder 平滑，單次掃描）
+     *
+     * @param prices    價格陣列
+     * @param period    週期
+     * @param rsiValues 若不為 null，寫入 RSI 序列（只寫入 [period, length)，前段維持原值）
+     * @param averages  若不為 null，回填最後的 [平均漲幅, 平均跌幅]（遞推狀態用）
+     * @return 最後一筆 RSI（只需最新值時不配置序列陣列）
+     */
+    private double calculateRSISeries(double[] prices, int period, double[] rsiValues, double[] averages) {
         // 計算初始平均漲跌幅（使用 SMA）
         double avgGain = 0;
         double avgLoss = 0;
-        for (int i = 0; i < period; i++) {
-            avgGain += gains[i];
-            avgLoss += losses[i];
+        for (int i = 1; i <= period; i++) {
+            double change = prices[i] - prices[i - 1];
+            if (change > 0) {
+                avgGain += change;
+            } else {
+                avgLoss += Math.abs(change);
+            }
         }
         avgGain /= period;
         avgLoss /= period;
+        double rsi = toRSI(avgGain, avgLoss);
+        if (rsiValues != null) {
+            rsiValues[period] = rsi;
+        }
 
         // 使用指數平滑計算後續的平均漲跌幅
-        for (int i = period; i < changes.length; i++) {
-            avgGain = ((avgGain * (period - 1)) + gains[i]) / period;
-            avgLoss = ((avgLoss * (period - 1)) + losses[i]) / period;
+        for (int i = period + 1; i < prices.length; i++) {
+            double change = prices[i] - prices[i - 1];
+            double gain = change > 0 ? change : 0;
+            double loss = change > 0 ? 0 : Math.abs(change);
+            avgGain = ((avgGain * (period - 1)) + gain) / period;
+            avgLoss = ((avgLoss * (period - 1)) + loss) / period;
+            rsi = toRSI(avgGain, avgLoss);
+            if (rsiValues != null) {
+                rsiValues[i] = rsi;
+            }
+        }
+
+        if (averages != null) {
+            averages[0] = avgGain;
+            averages[1] = avgLoss;
+        }
+
+        return rsi;
+    }
+
+    @Override
+    public Map<String, PeriodMatrix> sweep(PriceSeries series, int[] periods, Map<String, Object> params) {
+        double[] prices = series.getCloseArray();
+        PeriodMatrix matrix = PeriodMatrix.of(periods, prices.length);
+
+        int length = prices.length;
+        try (ScratchArena arena = ScratchArena.open()) {
+            // 差分與漲跌幅只計算一次，所有週期共用；
+            // 初始平均使用前綴和：加上 0 不改變數值，與單一週期的逐筆累加逐位相同
+            double[] gains = arena.doubles(length);
+            double[] losses = arena.doubles(length);
+            double[] gainSums = arena.doubles(length);
+            double[] lossSums = arena.doubles(length);
+            double gainSum = 0;
+            double lossSum = 0;
+            for (int i = 1; i < length; i++) {
+                double change = prices[i] - prices[i - 1];
+                gains[i] = change > 0 ? change : 0;
+                losses[i] = change > 0 ? 0 : Math.abs(change);
+                gainSum += gains[i];
+                lossSum += losses[i];
+                gainSums[i] = gainSum;
+                lossSums[i] = lossSum;
+            }
+
+            // 每個週期各自做 Wilder 平滑（逐列寫入，記憶體連續）
+            for (int r = 0; r < periods.length; r++) {
+                int period = periods[r];
+                if (length < period + 1) {
+                    continue;
+                }
+                double[] row = matrix.row(r);
+                double avgGain = gainSums[period] / period;
+                double avgLoss = lossSums[period] / period;
+                row[period] = toRSI(avgGain, avgLoss);
+                for (int i = period + 1; i < length; i++) {
+                    avgGain = ((avgGain * (period - 1)) + gains[i]) / period;
+                    avgLoss = ((avgLoss * (period - 1)) + losses[i]) / period;
+                    row[i] = toRSI(avgGain, avgLoss);
+                }
+            }
         }
 
+        return Map.of("rsi", matrix);
+    }
+
+    /**
+     * 由平均漲跌幅計算 RSI
+     */
+    private double toRSI(double avgGain, double avgLoss) {
         // 計算 RS 和 RSI
         if (avgLoss == 0) {
             return 100.0;  // 沒有下跌，RSI = 100
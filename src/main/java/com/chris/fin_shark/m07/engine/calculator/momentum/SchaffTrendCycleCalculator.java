@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.momentum;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -62,15 +63,43 @@ public class SchaffTrendCycleCalculator implements IndicatorCalculator {
         Map<String, Object> result = new HashMap<>();
 
         if (closePrices.length >= slowPeriod + cyclePeriod * 2) {
-            double stc = calculateSTC(closePrices, fastPeriod, slowPeriod, cyclePeriod, smoothFactor);
-            result.put("stc", round(stc));
-            result.put("stc_signal", getSignal(stc));
+            double[] stc = calculateSTC(closePrices, fastPeriod, slowPeriod, cyclePeriod, smoothFactor);
+            double latest = stc[stc.length - 1];
+            result.put("stc", round(latest));
+            result.put("stc_signal", getSignal(latest));
         }
 
         return result;
     }
 
-    private double calculateSTC(double[] prices, int fastPeriod, int slowPeriod, int cyclePeriod, double smoothFactor) {
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int fastPeriod = (int) params.getOrDefault("fastPeriod", 23);
+        int slowPeriod = (int) params.getOrDefault("slowPeriod", 50);
+        int cyclePeriod = (int) params.getOrDefault("cyclePeriod", 10);
+        double smoothFactor = (double) params.getOrDefault("smoothFactor", 0.5);
+
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        int required = slowPeriod + cyclePeriod * 2;
+        if (closePrices.length < required) {
+            return output;
+        }
+
+        // EMA 與兩次 Stochastic 平滑皆只依賴前段資料，整段計算一次即可
+        double[] stc = calculateSTC(closePrices, fastPeriod, slowPeriod, cyclePeriod, smoothFactor);
+        double[] stcColumn = output.numberColumn("stc");
+        String[] signalColumn = output.labelColumn("stc_signal");
+        for (int i = required - 1; i < closePrices.length; i++) {
+            stcColumn[i] = round(stc[i]);
+            signalColumn[i] = getSignal(stc[i]);
+        }
+
+        return output;
+    }
+
+    private double[] calculateSTC(double[] prices, int fastPeriod, int slowPeriod, int cyclePeriod, double smoothFactor) {
         int length = prices.length;
 
         // 計算 MACD 線序列
@@ -86,9 +115,7 @@ public class SchaffTrendCycleCalculator implements IndicatorCalculator {
         double[] stoch1 = calculateStochasticSeries(macdLine, cyclePeriod, smoothFactor);
 
         // 第二次 Stochastic
-        double[] stc = calculateStochasticSeries(stoch1, cyclePeriod, smoothFactor);
-
-        return stc[stc.length - 1];
+        return calculateStochasticSeries(stoch1, cyclePeriod, smoothFactor);
     }
 
     private double[] calculateEMASeries(double[] prices, int period) {
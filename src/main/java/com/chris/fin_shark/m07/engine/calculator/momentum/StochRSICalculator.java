@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator.momentum;
 
+import com.chris.fin_shark.m07.engine.RollingWindows;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -83,6 +85,43 @@ public class StochRSICalculator implements IndicatorCalculator {
             return Map.of();
         }
 
+        double[][] lines = calculateLines(closePrices, rsiPeriod, stochPeriod, smoothK, smoothD);
+
+        // 取最新值
+        return toResult(lines[0], lines[1], closePrices.length - 1);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int rsiPeriod = (int) params.getOrDefault("rsiPeriod", 14);
+        int stochPeriod = (int) params.getOrDefault("stochPeriod", 14);
+        int smoothK = (int) params.getOrDefault("smoothK", 3);
+        int smoothD = (int) params.getOrDefault("smoothD", 3);
+
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        int minRequired = rsiPeriod + stochPeriod + smoothK + smoothD;
+        if (closePrices.length < minRequired) {
+            return output;
+        }
+
+        // 每條線第 i 筆只依賴前 i + 1 筆收盤價，整段計算一次即可
+        double[][] lines = calculateLines(closePrices, rsiPeriod, stochPeriod, smoothK, smoothD);
+        for (int i = minRequired - 1; i < closePrices.length; i++) {
+            output.put(i, toResult(lines[0], lines[1], i));
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算 %K、%D 整段序列（0-1）
+     *
+     * @return [kValues, dValues]
+     */
+    private double[][] calculateLines(double[] closePrices, int rsiPeriod, int stochPeriod,
+                                      int smoothK, int smoothD) {
         // 1. 計算 RSI 序列
         double[] rsiValues = calculateRSISeries(closePrices, rsiPeriod);
 
@@ -95,14 +134,20 @@ public class StochRSICalculator implements IndicatorCalculator {
         // 4. 計算 %D（對 %K 做 SMA）
         double[] dValues = calculateSMA(kValues, smoothD);
 
-        // 取最新值
-        double k = kValues[kValues.length - 1] * 100;  // 轉換為 0-100
-        double d = dValues[dValues.length - 1] * 100;
+        return new double[][]{kValues, dValues};
+    }
+
+    /**
+     * 第 index 筆的輸出
+     */
+    private Map<String, Object> toResult(double[] kValues, double[] dValues, int index) {
+        double k = kValues[index] * 100;  // 轉換為 0-100
+        double d = dValues[index] * 100;
 
         Map<String, Object> result = new HashMap<>();
         result.put("stochrsi_k", round(k));
         result.put("stochrsi_d", round(d));
-        result.put("stochrsi_signal", getSignal(k, d, kValues, dValues));
+        result.put("stochrsi_signal", getSignal(k, d, kValues, dValues, index));
 
         return result;
     }
@@ -167,29 +212,26 @@ public class StochRSICalculator implements IndicatorCalculator {
 
     /**
      * 計算 Stochastic（對 RSI 序列）
+     * <p>
+     * 滑動最高/最低以單調佇列計算，整段序列為 O(N)
+     * </p>
      */
     private double[] calculateStochastic(double[] rsi, int period) {
         int length = rsi.length;
         double[] stoch = new double[length];
+        double[] max = RollingWindows.rollingMax(rsi, period);
+        double[] min = RollingWindows.rollingMin(rsi, period);
 
-        for (int i = 0; i < period - 1; i++) {
+        for (int i = 0; i < period - 1 && i < length; i++) {
             stoch[i] = 0.5;  // 填充初始值
         }
 
         for (int i = period - 1; i < length; i++) {
-            double max = Double.MIN_VALUE;
-            double min = Double.MAX_VALUE;
-
-            for (int j = i - period + 1; j <= i; j++) {
-                max = Math.max(max, rsi[j]);
-                min = Math.min(min, rsi[j]);
-            }
-
-            double range = max - min;
+            double range = max[i] - min[i];
             if (range == 0) {
                 stoch[i] = 0.5;
             } else {
-                stoch[i] = (rsi[i] - min) / range;
+                stoch[i] = (rsi[i] - min[i]) / range;
             }
         }
 
@@ -197,30 +239,20 @@ public class StochRSICalculator implements IndicatorCalculator {
     }
 
     /**
-     * 計算 SMA
+     * 計算 SMA（視窗未滿時沿用原值）
      */
     private double[] calculateSMA(double[] values, int period) {
-        int length = values.length;
-        double[] sma = new double[length];
+        double[] sma = RollingWindows.rollingMean(values, period);
 
-        for (int i = 0; i < period - 1; i++) {
+        for (int i = 0; i < period - 1 && i < values.length; i++) {
             sma[i] = values[i];
         }
 
-        for (int i = period - 1; i < length; i++) {
-            double sum = 0;
-            for (int j = i - period + 1; j <= i; j++) {
-                sum += values[j];
-            }
-            sma[i] = sum / period;
-        }
-
         return sma;
     }
 
-    private String getSignal(double k, double d, double[] kValues, double[] dValues) {
+    private String getSignal(double k, double d, double[] kValues, double[] dValues, int last) {
         // 檢查交叉
-        int last = kValues.length - 1;
         if (last < 1) return "NEUTRAL";
 
         double prevK = kValues[last - 1] * 100;
@@ -1,7 +1,10 @@
 package com.chris.fin_shark.m07.engine.calculator.momentum;
 
-import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.calculator.IncrementalIndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -20,12 +23,16 @@ import java.util.Map;
  * <p>
  * 特點：動能指標，過濾短期波動，適合識別趨勢方向
  * </p>
+ * <p>
+ * 三層 EMA 與信號線取自 {@link IndicatorContext}（以第一筆值為初始值），
+ * 同一計劃內重複使用的中間序列只計算一次
+ * </p>
  *
  * @author chris
  * @since 1.0.0
  */
 @Component
-public class TRIXCalculator implements IndicatorCalculator {
+public class TRIXCalculator implements IncrementalIndicatorCalculator {
 
     @Override
     public String getName() {
@@ -52,72 +59,147 @@ public class TRIXCalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        return calculate(series, params, IndicatorContext.of(series));
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
         int period = (int) params.getOrDefault("period", 15);
         int signalPeriod = (int) params.getOrDefault("signalPeriod", 9);
 
         double[] closePrices = series.getCloseArray();
-        Map<String, Object> result = new HashMap<>();
 
-        if (closePrices.length >= period * 3 + signalPeriod) {
-            double[] trixSeries = calculateTRIXSeries(closePrices, period);
-            int length = trixSeries.length;
+        if (closePrices.length < period * 3 + signalPeriod) {
+            return new HashMap<>();
+        }
+
+        int lastIndex = closePrices.length - 1;
+        double[] trixSeries = trixSeries(context, period);
 
-            double trix = trixSeries[length - 1];
-            result.put("trix", round(trix));
+        // 信號線 (TRIX 的 EMA)
+        double[] signals = signalSeries(context, period, signalPeriod);
 
-            // 計算信號線 (TRIX 的 EMA)
-            double signal = calculateEMA(trixSeries, signalPeriod);
-            result.put("trix_signal", round(signal));
+        return toResult(trixSeries[lastIndex], signals[lastIndex]);
+    }
 
-            // 判斷交叉信號
-            result.put("trix_crossover", getCrossoverSignal(trix, signal));
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 15);
+        int signalPeriod = (int) params.getOrDefault("signalPeriod", 9);
+
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        int required = period * 3 + signalPeriod;
+        if (closePrices.length < required) {
+            return output;
         }
 
-        return result;
+        // 三重 EMA、TRIX 與信號線皆為遞推序列，第 i 筆只依賴前 i + 1 筆
+        IndicatorContext context = IndicatorContext.of(series);
+        double[] trixSeries = trixSeries(context, period);
+        double[] signals = signalSeries(context, period, signalPeriod);
+        for (int i = required - 1; i < closePrices.length; i++) {
+            output.put(i, toResult(trixSeries[i], signals[i]));
+        }
+
+        return output;
     }
 
-    private double[] calculateTRIXSeries(double[] prices, int period) {
-        // 三重 EMA
-        double[] ema1 = calculateEMASeries(prices, period);
-        double[] ema2 = calculateEMASeries(ema1, period);
-        double[] ema3 = calculateEMASeries(ema2, period);
-
-        // 計算 TRIX (百分比變化)
-        double[] trix = new double[ema3.length - 1];
-        for (int i = 1; i < ema3.length; i++) {
-            if (ema3[i - 1] != 0) {
-                trix[i - 1] = ((ema3[i] - ema3[i - 1]) / ema3[i - 1]) * 100;
-            } else {
-                trix[i - 1] = 0;
-            }
+    @Override
+    public Map<String, Double> initState(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 15);
+        int signalPeriod = (int) params.getOrDefault("signalPeriod", 9);
+
+        double[] closePrices = series.getCloseArray();
+        if (closePrices.length < period * 3 + signalPeriod) {
+            return null;
         }
 
-        return trix;
+        IndicatorContext context = IndicatorContext.of(series);
+        double[][] emas = tripleEma(context, period);
+
+        int lastIndex = closePrices.length - 1;
+        Map<String, Double> state = new HashMap<>();
+        state.put("ema1", emas[0][lastIndex]);
+        state.put("ema2", emas[1][lastIndex]);
+        state.put("ema3", emas[2][lastIndex]);
+        state.put("signal", signalSeries(context, period, signalPeriod)[lastIndex]);
+        return state;
     }
 
-    private double[] calculateEMASeries(double[] prices, int period) {
-        double[] ema = new double[prices.length];
+    @Override
+    public Map<String, Object> advance(Map<String, Double> state, PriceColumns bars, int index,
+                                       Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 15);
+        int signalPeriod = (int) params.getOrDefault("signalPeriod", 9);
+
+        // 與 IndicatorContext.emaFirstSeeded 相同的遞推式，結果逐位相同
         double multiplier = 2.0 / (period + 1);
+        double signalMultiplier = 2.0 / (signalPeriod + 1);
 
-        // 初始 EMA = 第一個價格
-        ema[0] = prices[0];
+        double prevEma3 = state.get("ema3");
+        double ema1 = (bars.close()[index] - state.get("ema1")) * multiplier + state.get("ema1");
+        double ema2 = (ema1 - state.get("ema2")) * multiplier + state.get("ema2");
+        double ema3 = (ema2 - prevEma3) * multiplier + prevEma3;
 
-        for (int i = 1; i < prices.length; i++) {
-            ema[i] = (prices[i] - ema[i - 1]) * multiplier + ema[i - 1];
-        }
+        double trix = prevEma3 != 0 ? ((ema3 - prevEma3) / prevEma3) * 100 : 0;
+        double signal = (trix - state.get("signal")) * signalMultiplier + state.get("signal");
+
+        state.put("ema1", ema1);
+        state.put("ema2", ema2);
+        state.put("ema3", ema3);
+        state.put("signal", signal);
 
-        return ema;
+        return toResult(trix, signal);
     }
 
-    private double calculateEMA(double[] values, int period) {
-        double multiplier = 2.0 / (period + 1);
-        double ema = values[0];
+    private Map<String, Object> toResult(double trix, double signal) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("trix", round(trix));
+        result.put("trix_signal", round(signal));
 
-        for (int i = 1; i < values.length; i++) {
-            ema = (values[i] - ema) * multiplier + ema;
-        }
+        // 判斷交叉信號
+        result.put("trix_crossover", getCrossoverSignal(trix, signal));
+        return result;
+    }
+
+    /**
+     * 三重 EMA（上下文快取，每層以前一層的第一筆為初始值）
+     *
+     * @return [EMA1, EMA2, EMA3]
+     */
+    private double[][] tripleEma(IndicatorContext context, int period) {
+        String ema1Key = IndicatorContext.key("ema_first", IndicatorContext.CLOSE, period);
+        String ema2Key = IndicatorContext.key("ema_first", ema1Key, period);
+        double[] ema1 = context.emaFirstSeeded(IndicatorContext.CLOSE, period, 0);
+        double[] ema2 = context.emaFirstSeeded(ema1Key, period, 0);
+        double[] ema3 = context.emaFirstSeeded(ema2Key, period, 0);
+        return new double[][]{ema1, ema2, ema3};
+    }
+
+    /**
+     * TRIX 序列 (EMA3 - EMA3[1]) / EMA3[1] * 100，自第 1 筆起有效
+     */
+    private double[] trixSeries(IndicatorContext context, int period) {
+        return context.memo(IndicatorContext.key("trix", IndicatorContext.CLOSE, period), () -> {
+            double[] ema3 = tripleEma(context, period)[2];
+            double[] trix = new double[ema3.length];
+            for (int i = 1; i < ema3.length; i++) {
+                trix[i] = ema3[i - 1] != 0 ? ((ema3[i] - ema3[i - 1]) / ema3[i - 1]) * 100 : 0;
+            }
+            return trix;
+        });
+    }
 
-        return ema;
+    /**
+     * 信號線 EMA(TRIX, signalPeriod)，以 TRIX 第一筆為初始值
+     */
+    private double[] signalSeries(IndicatorContext context, int period, int signalPeriod) {
+        trixSeries(context, period);
+        return context.emaFirstSeeded(IndicatorContext.key("trix", IndicatorContext.CLOSE, period),
+                signalPeriod, 1);
     }
 
     private String getCrossoverSignal(double trix, double signal) {
@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.momentum;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -77,6 +78,45 @@ public class TSICalculator implements IndicatorCalculator {
         return result;
     }
 
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int longPeriod = (int) params.getOrDefault("longPeriod", 25);
+        int shortPeriod = (int) params.getOrDefault("shortPeriod", 13);
+        int signalPeriod = (int) params.getOrDefault("signalPeriod", 7);
+
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        int required = longPeriod + shortPeriod + 1;
+        if (closePrices.length < required) {
+            return output;
+        }
+
+        // 雙重平滑與信號線皆為遞推，第 i 日的 TSI 存於 tsiSeries[i - 1]
+        double[] tsiSeries = calculateTSISeries(closePrices, longPeriod, shortPeriod);
+        double multiplier = 2.0 / (signalPeriod + 1);
+        double[] tsiColumn = output.numberColumn("tsi");
+        double[] signalColumn = output.numberColumn("tsi_signal_line");
+        String[] crossoverColumn = output.labelColumn("tsi_crossover");
+        double signal = tsiSeries[0];
+        for (int i = 1; i < closePrices.length; i++) {
+            double tsi = tsiSeries[i - 1];
+            if (i > 1) {
+                signal = (tsi - signal) * multiplier + signal;
+            }
+            if (i < required - 1) {
+                continue;
+            }
+            tsiColumn[i] = round(tsi);
+            if (i >= signalPeriod) {
+                signalColumn[i] = round(signal);
+                crossoverColumn[i] = tsi > signal ? "BULLISH" : "BEARISH";
+            }
+        }
+
+        return output;
+    }
+
     private double[] calculateTSISeries(double[] prices, int longPeriod, int shortPeriod) {
         int length = prices.length;
 
@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator.momentum;
 
+import com.chris.fin_shark.m07.engine.RollingWindows;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -66,16 +68,52 @@ public class UltimateOscillatorCalculator implements IndicatorCalculator {
 
         int minRequired = period3 + 1;
         if (closePrices.length >= minRequired) {
-            double uo = calculateUO(highPrices, lowPrices, closePrices, period1, period2, period3);
-            result.put("ultimate_osc", round(uo));
-            result.put("ultimate_osc_signal", getSignal(uo));
+            double[] uo = calculateUOSeries(highPrices, lowPrices, closePrices, period1, period2, period3);
+            double last = uo[uo.length - 1];
+            result.put("ultimate_osc", round(last));
+            result.put("ultimate_osc_signal", getSignal(last));
         }
 
         return result;
     }
 
-    private double calculateUO(double[] highs, double[] lows, double[] closes,
-                                int period1, int period2, int period3) {
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period1 = (int) params.getOrDefault("period1", 7);
+        int period2 = (int) params.getOrDefault("period2", 14);
+        int period3 = (int) params.getOrDefault("period3", 28);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        int minRequired = period3 + 1;
+        if (closePrices.length < minRequired) {
+            return output;
+        }
+
+        double[] uo = calculateUOSeries(highPrices, lowPrices, closePrices, period1, period2, period3);
+        double[] values = output.numberColumn("ultimate_osc");
+        String[] signals = output.labelColumn("ultimate_osc_signal");
+
+        // uo[j] 對應第 j + 1 根 K 棒
+        for (int i = minRequired - 1; i < closePrices.length; i++) {
+            values[i] = round(uo[i - 1]);
+            signals[i] = getSignal(uo[i - 1]);
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算整段 UO 序列（長度 length - 1，第 j 筆對應第 j + 1 根 K 棒）
+     * <p>
+     * 各週期的 BP/TR 總和以滑動總和計算，整段序列為 O(N)
+     * </p>
+     */
+    private double[] calculateUOSeries(double[] highs, double[] lows, double[] closes,
+                                       int period1, int period2, int period3) {
         int length = closes.length;
 
         // 計算 BP 和 TR 序列
@@ -93,27 +131,30 @@ public class UltimateOscillatorCalculator implements IndicatorCalculator {
         }
 
         // 計算各週期的平均
-        double avg1 = calculateAverage(bp, tr, period1);
-        double avg2 = calculateAverage(bp, tr, period2);
-        double avg3 = calculateAverage(bp, tr, period3);
+        double[] avg1 = calculateAverages(bp, tr, period1);
+        double[] avg2 = calculateAverages(bp, tr, period2);
+        double[] avg3 = calculateAverages(bp, tr, period3);
 
         // UO = [(Avg1 * 4) + (Avg2 * 2) + Avg3] / 7 * 100
-        return ((avg1 * 4) + (avg2 * 2) + avg3) / 7 * 100;
+        double[] uo = new double[bp.length];
+        for (int j = 0; j < bp.length; j++) {
+            uo[j] = ((avg1[j] * 4) + (avg2[j] * 2) + avg3[j]) / 7 * 100;
+        }
+        return uo;
     }
 
-    private double calculateAverage(double[] bp, double[] tr, int period) {
-        int startIndex = bp.length - period;
-        if (startIndex < 0) startIndex = 0;
+    /**
+     * Sum(BP, period) / Sum(TR, period) 的整段序列（視窗未滿時為 NaN）
+     */
+    private double[] calculateAverages(double[] bp, double[] tr, int period) {
+        double[] sumBP = RollingWindows.rollingSum(bp, period);
+        double[] sumTR = RollingWindows.rollingSum(tr, period);
 
-        double sumBP = 0;
-        double sumTR = 0;
-
-        for (int i = startIndex; i < bp.length; i++) {
-            sumBP += bp[i];
-            sumTR += tr[i];
+        double[] averages = new double[bp.length];
+        for (int j = 0; j < bp.length; j++) {
+            averages[j] = sumTR[j] != 0 ? sumBP[j] / sumTR[j] : 0;
         }
-
-        return sumTR != 0 ? sumBP / sumTR : 0;
+        return averages;
     }
 
     private String getSignal(double uo) {
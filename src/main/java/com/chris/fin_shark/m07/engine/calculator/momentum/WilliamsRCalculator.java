@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator.momentum;
 
+import com.chris.fin_shark.m07.engine.RollingWindows;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -63,17 +65,39 @@ public class WilliamsRCalculator implements IndicatorCalculator {
         }
 
         // 找出最近 period 天的最高價和最低價
-        double highestHigh = Double.MIN_VALUE;
-        double lowestLow = Double.MAX_VALUE;
+        int length = highPrices.length;
+        double highestHigh = RollingWindows.max(highPrices, length, period);
+        double lowestLow = RollingWindows.min(lowPrices, length, period);
 
-        int startIndex = highPrices.length - period;
-        for (int i = startIndex; i < highPrices.length; i++) {
-            highestHigh = Math.max(highestHigh, highPrices[i]);
-            lowestLow = Math.min(lowestLow, lowPrices[i]);
+        return toResult(period, highestHigh, lowestLow, closePrices[length - 1]);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 14);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (closePrices.length < period) {
+            return output;
         }
 
+        // 單調佇列求整段滑動最高/最低價
+        double[] highestHighs = RollingWindows.rollingMax(highPrices, period);
+        double[] lowestLows = RollingWindows.rollingMin(lowPrices, period);
+
+        for (int i = period - 1; i < closePrices.length; i++) {
+            output.put(i, toResult(period, highestHighs[i], lowestLows[i], closePrices[i]));
+        }
+
+        return output;
+    }
+
+    private Map<String, Object> toResult(int period, double highestHigh, double lowestLow, double currentClose) {
         // 計算 Williams %R
-        double currentClose = closePrices[closePrices.length - 1];
         double range = highestHigh - lowestLow;
 
         if (range == 0) {
@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.oscillator;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -60,7 +61,8 @@ public class BalanceOfPowerCalculator implements IndicatorCalculator {
         Map<String, Object> result = new HashMap<>();
 
         if (closePrices.length >= period) {
-            double smoothedBop = calculateBOP(openPrices, highPrices, lowPrices, closePrices, period);
+            double[] bop = calculateBOPSeries(openPrices, highPrices, lowPrices, closePrices);
+            double smoothedBop = smoothBOP(bop, bop.length, period);
             result.put("bop", round(smoothedBop));
             result.put("bop_signal", getSignal(smoothedBop));
         }
@@ -68,10 +70,39 @@ public class BalanceOfPowerCalculator implements IndicatorCalculator {
         return result;
     }
 
-    private double calculateBOP(double[] opens, double[] highs, double[] lows, double[] closes, int period) {
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 14);
+
+        double[] openPrices = series.getOpenArray();
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (closePrices.length < period) {
+            return output;
+        }
+
+        // BOP 序列只計算一次，各視窗依序累加（與逐日計算逐位相同）
+        double[] bop = calculateBOPSeries(openPrices, highPrices, lowPrices, closePrices);
+        double[] bopColumn = output.numberColumn("bop");
+        String[] signalColumn = output.labelColumn("bop_signal");
+        for (int i = period - 1; i < closePrices.length; i++) {
+            double smoothedBop = smoothBOP(bop, i + 1, period);
+            bopColumn[i] = round(smoothedBop);
+            signalColumn[i] = getSignal(smoothedBop);
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算 BOP 序列
+     */
+    private double[] calculateBOPSeries(double[] opens, double[] highs, double[] lows, double[] closes) {
         int length = closes.length;
 
-        // 計算 BOP 序列
         double[] bop = new double[length];
         for (int i = 0; i < length; i++) {
             double range = highs[i] - lows[i];
@@ -81,11 +112,16 @@ public class BalanceOfPowerCalculator implements IndicatorCalculator {
                 bop[i] = (closes[i] - opens[i]) / range;
             }
         }
+        return bop;
+    }
 
-        // 計算 BOP 的 SMA
-        int startIndex = length - period;
+    /**
+     * 計算 [end - period, end) 的 BOP SMA
+     */
+    private double smoothBOP(double[] bop, int end, int period) {
+        int startIndex = end - period;
         double sum = 0;
-        for (int i = startIndex; i < length; i++) {
+        for (int i = startIndex; i < end; i++) {
             sum += bop[i];
         }
 
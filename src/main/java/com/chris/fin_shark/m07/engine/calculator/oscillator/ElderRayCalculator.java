@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.oscillator;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -75,6 +76,41 @@ public class ElderRayCalculator implements IndicatorCalculator {
         return result;
     }
 
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 13);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (closePrices.length < period) {
+            return output;
+        }
+
+        // EMA 以第一筆為初始值逐筆推進，第 i 筆只依賴前 i + 1 筆
+        double multiplier = 2.0 / (period + 1);
+        double[] bullColumn = output.numberColumn("bull_power");
+        double[] bearColumn = output.numberColumn("bear_power");
+        String[] signalColumn = output.labelColumn("elder_ray_signal");
+        double ema = closePrices[0];
+        for (int i = 0; i < closePrices.length; i++) {
+            if (i > 0) {
+                ema = (closePrices[i] - ema) * multiplier + ema;
+            }
+            if (i >= period - 1) {
+                double bullPower = highPrices[i] - ema;
+                double bearPower = lowPrices[i] - ema;
+                bullColumn[i] = round(bullPower);
+                bearColumn[i] = round(bearPower);
+                signalColumn[i] = getSignal(bullPower, bearPower);
+            }
+        }
+
+        return output;
+    }
+
     private double[] calculateElderRay(double[] highs, double[] lows, double[] closes, int period) {
         int length = closes.length;
 
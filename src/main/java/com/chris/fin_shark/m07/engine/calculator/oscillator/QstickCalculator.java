@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.oscillator;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -57,7 +58,7 @@ public class QstickCalculator implements IndicatorCalculator {
         Map<String, Object> result = new HashMap<>();
 
         if (closePrices.length >= period) {
-            double qstick = calculateQstick(openPrices, closePrices, period);
+            double qstick = calculateQstick(openPrices, closePrices, closePrices.length, period);
             result.put("qstick", round(qstick));
             result.put("qstick_signal", getSignal(qstick));
         }
@@ -65,11 +66,33 @@ public class QstickCalculator implements IndicatorCalculator {
         return result;
     }
 
-    private double calculateQstick(double[] opens, double[] closes, int period) {
-        int startIndex = closes.length - period;
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 8);
+
+        double[] openPrices = series.getOpenArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        double[] qstickColumn = output.numberColumn("qstick");
+        String[] signalColumn = output.labelColumn("qstick_signal");
+        for (int i = period - 1; i < closePrices.length; i++) {
+            double qstick = calculateQstick(openPrices, closePrices, i + 1, period);
+            qstickColumn[i] = round(qstick);
+            signalColumn[i] = getSignal(qstick);
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算 [end - period, end) 的 Qstick
+     */
+    private double calculateQstick(double[] opens, double[] closes, int end, int period) {
+        int startIndex = end - period;
 
         double sum = 0;
-        for (int i = startIndex; i < closes.length; i++) {
+        for (int i = startIndex; i < end; i++) {
             sum += closes[i] - opens[i];
         }
 
@@ -1,11 +1,15 @@
 package com.chris.fin_shark.m07.engine.calculator.statistics;
 
+import com.chris.fin_shark.m07.engine.ScratchArena;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m07.engine.stats.RescaledRange;
+import com.chris.fin_shark.m07.engine.stats.RollingMoments;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -20,6 +24,11 @@ import java.util.Map;
  * 計算方法：R/S Analysis（重新調整範圍分析）
  * </p>
  * <p>
+ * 整段序列計算時，各時間尺度的子序列由序列起點切分、互不重疊，
+ * 每個子序列完成時只計算一次 R/S 並累加到該尺度的總和，
+ * 之後每根 K 棒的 R/S 平均直接由累加值取得，不重算已完成的子序列
+ * </p>
+ * <p>
  * TODO: Hurst 指數有多種計算方法：
  * - R/S 分析（此實現）
  * - DFA (Detrended Fluctuation Analysis)
@@ -61,47 +70,113 @@ public class HurstExponentCalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        double[] closePrices = series.getCloseArray();
+        if (closePrices.length == 0) {
+            return Map.of();
+        }
+        return calculateSeries(series, params).valuesAt(closePrices.length - 1);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
         int minLag = (int) params.getOrDefault("minLag", 10);
         int maxLag = (int) params.getOrDefault("maxLag", 100);
 
         double[] closePrices = series.getCloseArray();
-        Map<String, Object> result = new HashMap<>();
+        int length = closePrices.length;
+        IndicatorSeries output = IndicatorSeries.ofSize(length);
+
+        if (length < maxLag || length < 2) {
+            return output;
+        }
+
+        double[] hurstValues = output.numberColumn("hurst");
+        String[] signals = output.labelColumn("hurst_signal");
+
+        try (ScratchArena arena = ScratchArena.open()) {
+            double[] logReturns = logReturns(closePrices, arena.doubles(length - 1));
+
+            // 時間尺度：minLag, 2·minLag, ... ≤ maxLag
+            int numScales = 0;
+            for (int n = minLag; n <= maxLag; n *= 2) {
+                numScales++;
+            }
+            int[] scales = arena.ints(numScales);
+            for (int s = 0, n = minLag; s < numScales; s++, n *= 2) {
+                scales[s] = n;
+            }
 
-        if (closePrices.length >= maxLag) {
-            double hurst = calculateHurst(closePrices, minLag, maxLag);
-            result.put("hurst", round(hurst));
-            result.put("hurst_signal", getSignal(hurst));
+            // 各尺度已完成子序列的 R/S 總和
+            double[] totalRS = arena.doubles(numScales);
+            Arrays.fill(totalRS, 0, numScales, 0);
+            RollingMoments moments = new RollingMoments();
+
+            fillHurst(logReturns, scales, totalRS, numScales, maxLag, moments, hurstValues, signals);
         }
 
-        return result;
+        return output;
     }
 
     /**
-     * 使用簡化的 R/S 分析計算 Hurst 指數
-     * TODO: 這是簡化版本，完整實現需要更複雜的對數回歸
+     * 逐日累加各尺度的 R/S 並回歸出 Hurst 指數
      */
-    private double calculateHurst(double[] prices, int minLag, int maxLag) {
-        int length = prices.length;
+    private void fillHurst(double[] logReturns, int[] scales, double[] totalRS, int numScales, int maxLag,
+                           RollingMoments moments, double[] hurstValues, String[] signals) {
+        int length = hurstValues.length;
 
-        // 計算對數報酬率
-        double[] logReturns = new double[length - 1];
         for (int i = 1; i < length; i++) {
+            // 第 i 根 K 棒可用的報酬率筆數
+            int m = i;
+            for (int s = 0; s < numScales; s++) {
+                int n = scales[s];
+                if (m % n == 0) {
+                    totalRS[s] += RescaledRange.of(logReturns, m - n, n, moments);
+                }
+            }
+
+            if (i < maxLag - 1) {
+                continue;
+            }
+
+            double hurst = regressHurst(scales, totalRS, numScales, m);
+            hurstValues[i] = round(hurst);
+            signals[i] = getSignal(hurst);
+        }
+    }
+
+    /**
+     * 計算對數報酬率（寫入 logReturns[0, prices.length - 1)）
+     */
+    private double[] logReturns(double[] prices, double[] logReturns) {
+        for (int i = 1; i < prices.length; i++) {
             if (prices[i - 1] > 0) {
                 logReturns[i - 1] = Math.log(prices[i] / prices[i - 1]);
             } else {
                 logReturns[i - 1] = 0;
             }
         }
+        return logReturns;
+    }
 
-        // 使用多個時間尺度計算 R/S 並做線性回歸
+    /**
+     * 以 log(n) 對 log(R/S) 線性回歸求斜率（Hurst 指數）
+     *
+     * @param scales  時間尺度
+     * @param totalRS 各尺度已完成子序列的 R/S 總和
+     * @param count   尺度數量（陣列可能較長）
+     * @param m       報酬率筆數
+     */
+    private double regressHurst(int[] scales, double[] totalRS, int count, int m) {
         int numScales = 0;
         double sumLogN = 0;
         double sumLogRS = 0;
         double sumLogNLogRS = 0;
         double sumLogN2 = 0;
 
-        for (int n = minLag; n <= maxLag; n *= 2) {
-            double rs = calculateRS(logReturns, n);
+        for (int s = 0; s < count; s++) {
+            int n = scales[s];
+            int numSubseries = n > m ? 0 : m / n;
+            double rs = numSubseries == 0 ? 0 : totalRS[s] / numSubseries;
             if (rs > 0) {
                 double logN = Math.log(n);
                 double logRS = Math.log(rs);
@@ -118,7 +193,6 @@ public class HurstExponentCalculator implements IndicatorCalculator {
             return 0.5;  // 無法計算時返回隨機漫步
         }
 
-        // 線性回歸求斜率（Hurst 指數）
         double hurst = (numScales * sumLogNLogRS - sumLogN * sumLogRS) /
                        (numScales * sumLogN2 - sumLogN * sumLogN);
 
@@ -126,65 +200,6 @@ public class HurstExponentCalculator implements IndicatorCalculator {
         return Math.max(0, Math.min(1, hurst));
     }
 
-    /**
-     * 計算特定時間尺度的 R/S 值
-     */
-    private double calculateRS(double[] returns, int n) {
-        int length = returns.length;
-        if (n > length) {
-            return 0;
-        }
-
-        int numSubseries = length / n;
-        if (numSubseries == 0) {
-            return 0;
-        }
-
-        double totalRS = 0;
-
-        for (int i = 0; i < numSubseries; i++) {
-            int start = i * n;
-
-            // 計算子序列的均值
-            double mean = 0;
-            for (int j = start; j < start + n; j++) {
-                mean += returns[j];
-            }
-            mean /= n;
-
-            // 計算累積偏差和標準差
-            double[] cumulativeDeviation = new double[n];
-            double sumDeviation = 0;
-            double sumSquaredDeviation = 0;
-
-            for (int j = 0; j < n; j++) {
-                double deviation = returns[start + j] - mean;
-                sumDeviation += deviation;
-                cumulativeDeviation[j] = sumDeviation;
-                sumSquaredDeviation += deviation * deviation;
-            }
-
-            // 範圍 R = max(累積偏差) - min(累積偏差)
-            double maxCum = Double.MIN_VALUE;
-            double minCum = Double.MAX_VALUE;
-            for (double cum : cumulativeDeviation) {
-                maxCum = Math.max(maxCum, cum);
-                minCum = Math.min(minCum, cum);
-            }
-            double range = maxCum - minCum;
-
-            // 標準差 S
-            double stdDev = Math.sqrt(sumSquaredDeviation / n);
-
-            // R/S
-            if (stdDev > 0) {
-                totalRS += range / stdDev;
-            }
-        }
-
-        return totalRS / numSubseries;
-    }
-
     private String getSignal(double hurst) {
         if (hurst > 0.6) {
             return "TRENDING";  // 趨勢市場
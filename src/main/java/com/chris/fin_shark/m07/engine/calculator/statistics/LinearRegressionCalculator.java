@@ -2,7 +2,9 @@ package com.chris.fin_shark.m07.engine.calculator.statistics;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m07.engine.stats.RollingRegression;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
@@ -28,6 +30,11 @@ import java.util.Map;
  * - linreg_r2: R²（0-1，越接近 1 表示線性關係越強）
  * - linreg_intercept: 截距
  * </p>
+ * <p>
+ * 以 {@link RollingRegression} 滑動計算（x 為序列索引，截距換算到視窗起點），
+ * R² 以相關係數平方 Cov(x,y)² / (Var(x)·Var(y)) 計算，與 1 - SS_res / SS_tot 相等；
+ * 整段序列為 O(N)
+ * </p>
  *
  * @author chris
  * @since 1.0.0
@@ -60,77 +67,51 @@ public class LinearRegressionCalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
-        int period = (int) params.getOrDefault("period", 14);
-
         double[] closePrices = series.getCloseArray();
-
-        if (closePrices.length < period) {
+        if (closePrices.length == 0) {
             return Map.of();
         }
-
-        // 取最近 period 天的資料
-        double[] y = new double[period];
-        int startIndex = closePrices.length - period;
-        System.arraycopy(closePrices, startIndex, y, 0, period);
-
-        // 計算線性回歸
-        LinearRegressionResult result = calculateLinearRegression(y);
-
-        Map<String, Object> output = new HashMap<>();
-        output.put("linreg_" + period, round(result.predictedValue));
-        output.put("linreg_slope_" + period, round(result.slope));
-        output.put("linreg_r2_" + period, round4(result.rSquared));
-        output.put("linreg_intercept_" + period, round(result.intercept));
-        output.put("linreg_signal", getSignal(result.slope, result.rSquared));
-
-        return output;
+        return calculateSeries(series, params).valuesAt(closePrices.length - 1);
     }
 
-    /**
-     * 計算線性回歸
-     */
-    private LinearRegressionResult calculateLinearRegression(double[] y) {
-        int n = y.length;
-
-        // x 為 0, 1, 2, ..., n-1
-        double sumX = 0;
-        double sumY = 0;
-        double sumXY = 0;
-        double sumX2 = 0;
-
-        for (int i = 0; i < n; i++) {
-            sumX += i;
-            sumY += y[i];
-            sumXY += i * y[i];
-            sumX2 += i * i;
-        }
-
-        double meanY = sumY / n;
-
-        // 計算斜率和截距
-        double denominator = n * sumX2 - sumX * sumX;
-        double slope = (n * sumXY - sumX * sumY) / denominator;
-        double intercept = (sumY - slope * sumX) / n;
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 14);
 
-        // 計算 R²
-        double ssTot = 0;  // 總變異
-        double ssRes = 0;  // 殘差變異
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
 
-        for (int i = 0; i < n; i++) {
-            double predicted = slope * i + intercept;
-            ssTot += (y[i] - meanY) * (y[i] - meanY);
-            ssRes += (y[i] - predicted) * (y[i] - predicted);
+        if (closePrices.length < period) {
+            return output;
         }
 
-        double rSquared = 1.0;
-        if (ssTot > 0) {
-            rSquared = 1.0 - (ssRes / ssTot);
+        double[] values = output.numberColumn("linreg_" + period);
+        double[] slopes = output.numberColumn("linreg_slope_" + period);
+        double[] rSquareds = output.numberColumn("linreg_r2_" + period);
+        double[] intercepts = output.numberColumn("linreg_intercept_" + period);
+        String[] signals = output.labelColumn("linreg_signal");
+
+        RollingRegression regression = new RollingRegression();
+        for (int i = 0; i < closePrices.length; i++) {
+            regression.add(i, closePrices[i]);
+            if (i >= period) {
+                regression.remove(i - period, closePrices[i - period]);
+            }
+            if (i < period - 1) {
+                continue;
+            }
+
+            // 視窗起點為 x = 0，預測值為最後一點的回歸值
+            double slope = regression.slope();
+            double rSquared = regression.rSquared();
+            values[i] = round(regression.valueAt(i));
+            slopes[i] = round(slope);
+            rSquareds[i] = round4(rSquared);
+            intercepts[i] = round(regression.interceptAt(i - period + 1));
+            signals[i] = getSignal(slope, rSquared);
         }
 
-        // 預測值（在最後一點的回歸值）
-        double predictedValue = slope * (n - 1) + intercept;
-
-        return new LinearRegressionResult(slope, intercept, rSquared, predictedValue);
+        return output;
     }
 
     private String getSignal(double slope, double rSquared) {
@@ -159,21 +140,4 @@ public class LinearRegressionCalculator implements IndicatorCalculator {
     private double round4(double value) {
         return Math.round(value * 10000.0) / 10000.0;
     }
-
-    /**
-     * 線性回歸結果
-     */
-    private static class LinearRegressionResult {
-        final double slope;
-        final double intercept;
-        final double rSquared;
-        final double predictedValue;
-
-        LinearRegressionResult(double slope, double intercept, double rSquared, double predictedValue) {
-            this.slope = slope;
-            this.intercept = intercept;
-            this.rSquared = rSquared;
-            this.predictedValue = predictedValue;
-        }
-    }
 }
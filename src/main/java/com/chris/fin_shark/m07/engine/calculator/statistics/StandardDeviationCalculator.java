@@ -1,8 +1,11 @@
 package com.chris.fin_shark.m07.engine.calculator.statistics;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m07.engine.stats.RollingMoments;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
@@ -18,6 +21,10 @@ import java.util.Map;
  * <p>
  * 特點：衡量價格波動的離散程度
  * </p>
+ * <p>
+ * 以 {@link RollingMoments} 滑動計算，整段序列為 O(N)；
+ * 均值與標準差取自 {@link IndicatorContext}，與布林通道、Z 分數共用
+ * </p>
  *
  * @author chris
  * @since 1.0.0
@@ -50,55 +57,59 @@ public class StandardDeviationCalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        return calculate(series, params, IndicatorContext.of(series));
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
+        double[] closePrices = series.getCloseArray();
+        if (closePrices.length == 0) {
+            return new HashMap<>();
+        }
+        return calculateSeries(series, params, context).valuesAt(closePrices.length - 1);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        return calculateSeries(series, params, IndicatorContext.of(series));
+    }
+
+    private IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params,
+                                            IndicatorContext context) {
         @SuppressWarnings("unchecked")
         List<Integer> periods = (List<Integer>) params.getOrDefault("periods", List.of(10, 20));
 
         double[] closePrices = series.getCloseArray();
-        Map<String, Object> result = new HashMap<>();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
 
         for (Integer period : periods) {
             if (closePrices.length >= period) {
-                double stdDev = calculateStdDev(closePrices, period);
-                result.put("std_dev_" + period, round(stdDev));
+                double[] stdDevs = context.rollingStdDev(IndicatorContext.CLOSE, period);
+                double[] column = output.numberColumn("std_dev_" + period);
+                for (int i = period - 1; i < closePrices.length; i++) {
+                    column[i] = round(stdDevs[i]);
+                }
             }
         }
 
         // 計算波動率百分比（相對於均值）
         if (closePrices.length >= 20) {
-            double stdDev20 = calculateStdDev(closePrices, 20);
-            double mean20 = calculateMean(closePrices, 20);
-            if (mean20 != 0) {
-                double volatilityPct = (stdDev20 / mean20) * 100;
-                result.put("volatility_pct", round(volatilityPct));
-                result.put("volatility_signal", getVolatilitySignal(volatilityPct));
+            double[] means = context.rollingMean(IndicatorContext.CLOSE, 20);
+            double[] stdDevs = context.rollingStdDev(IndicatorContext.CLOSE, 20);
+            double[] volatilityPcts = output.numberColumn("volatility_pct");
+            String[] signals = output.labelColumn("volatility_signal");
+            for (int i = 19; i < closePrices.length; i++) {
+                double mean20 = means[i];
+                if (mean20 != 0) {
+                    double volatilityPct = (stdDevs[i] / mean20) * 100;
+                    volatilityPcts[i] = round(volatilityPct);
+                    signals[i] = getVolatilitySignal(volatilityPct);
+                }
             }
         }
 
-        return result;
-    }
-
-    private double calculateStdDev(double[] prices, int period) {
-        int startIndex = prices.length - period;
-
-        // 計算均值
-        double mean = calculateMean(prices, period);
-
-        // 計算標準差
-        double sumSquaredDiff = 0;
-        for (int i = startIndex; i < prices.length; i++) {
-            sumSquaredDiff += Math.pow(prices[i] - mean, 2);
-        }
-
-        return Math.sqrt(sumSquaredDiff / period);
-    }
-
-    private double calculateMean(double[] prices, int period) {
-        int startIndex = prices.length - period;
-        double sum = 0;
-        for (int i = startIndex; i < prices.length; i++) {
-            sum += prices[i];
-        }
-        return sum / period;
+        return output;
     }
 
     private String getVolatilitySignal(double volatilityPct) {
@@ -1,8 +1,11 @@
 package com.chris.fin_shark.m07.engine.calculator.statistics;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m07.engine.stats.RollingMoments;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
@@ -17,6 +20,10 @@ import java.util.Map;
  * <p>
  * 特點：衡量價格偏離均值的程度，用於識別極端值
  * </p>
+ * <p>
+ * 均值與標準差以 {@link RollingMoments} 滑動計算，整段序列為 O(N)；
+ * 取自 {@link IndicatorContext}，與布林通道、標準差共用
+ * </p>
  *
  * @author chris
  * @since 1.0.0
@@ -49,44 +56,49 @@ public class ZScoreCalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
-        int period = (int) params.getOrDefault("period", 20);
-        double[] closePrices = series.getCloseArray();
-
-        Map<String, Object> result = new HashMap<>();
+        return calculate(series, params, IndicatorContext.of(series));
+    }
 
-        if (closePrices.length >= period) {
-            double zScore = calculateZScore(closePrices, period);
-            result.put("z_score", round(zScore));
-            result.put("z_score_signal", getSignal(zScore));
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
+        double[] closePrices = series.getCloseArray();
+        if (closePrices.length == 0) {
+            return new HashMap<>();
         }
+        return calculateSeries(series, params, context).valuesAt(closePrices.length - 1);
+    }
 
-        return result;
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        return calculateSeries(series, params, IndicatorContext.of(series));
     }
 
-    private double calculateZScore(double[] prices, int period) {
-        int startIndex = prices.length - period;
+    private IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params,
+                                            IndicatorContext context) {
+        int period = (int) params.getOrDefault("period", 20);
+        double[] closePrices = series.getCloseArray();
 
-        // 計算均值
-        double sum = 0;
-        for (int i = startIndex; i < prices.length; i++) {
-            sum += prices[i];
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+        if (closePrices.length < period) {
+            return output;
         }
-        double mean = sum / period;
 
-        // 計算標準差
-        double sumSquaredDiff = 0;
-        for (int i = startIndex; i < prices.length; i++) {
-            sumSquaredDiff += Math.pow(prices[i] - mean, 2);
-        }
-        double stdDev = Math.sqrt(sumSquaredDiff / period);
+        double[] means = context.rollingMean(IndicatorContext.CLOSE, period);
+        double[] stdDevs = context.rollingStdDev(IndicatorContext.CLOSE, period);
+        double[] zScores = output.numberColumn("z_score");
+        String[] signals = output.labelColumn("z_score_signal");
+
+        for (int i = period - 1; i < closePrices.length; i++) {
+            double stdDev = stdDevs[i];
 
-        // 避免除以零
-        if (stdDev == 0) {
-            return 0;
+            // Z-Score = (當前價格 - 均值) / 標準差（避免除以零）
+            double zScore = stdDev == 0 ? 0 : (closePrices[i] - means[i]) / stdDev;
+            zScores[i] = round(zScore);
+            signals[i] = getSignal(zScore);
         }
 
-        // Z-Score = (當前價格 - 均值) / 標準差
-        return (prices[prices.length - 1] - mean) / stdDev;
+        return output;
     }
 
     private String getSignal(double zScore) {
@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.support;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -76,8 +77,34 @@ public class FibonacciExtensionCalculator implements IndicatorCalculator {
             return result;
         }
 
+        return calculateAt(lookbackPeriod, highPrices, lowPrices, closePrices, closePrices.length);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int lookbackPeriod = (int) params.getOrDefault("lookbackPeriod", 50);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        // 同價取較早的高低點（決定趨勢方向），每個視窗各自掃描（O(N × lookbackPeriod)）
+        for (int i = lookbackPeriod - 1; i < closePrices.length; i++) {
+            output.put(i, calculateAt(lookbackPeriod, highPrices, lowPrices, closePrices, i + 1));
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算 [length - lookbackPeriod, length) 區間的延伸水平
+     */
+    private Map<String, Object> calculateAt(int lookbackPeriod, double[] highPrices, double[] lowPrices,
+                                            double[] closePrices, int length) {
+        Map<String, Object> result = new HashMap<>();
+
         // 找出回顧期間的最高點和最低點
-        int length = closePrices.length;
         int startIndex = length - lookbackPeriod;
 
         double swingHigh = Double.MIN_VALUE;
@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.support;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -73,14 +74,39 @@ public class FibonacciRetracementCalculator implements IndicatorCalculator {
             return Map.of();
         }
 
+        return calculateAt(period, highPrices, lowPrices, closePrices, highPrices.length);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 20);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        // 同價取較早的高低點（決定趨勢方向），每個視窗各自掃描（O(N × period)）
+        for (int i = period - 1; i < highPrices.length; i++) {
+            output.put(i, calculateAt(period, highPrices, lowPrices, closePrices, i + 1));
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算 [end - period, end) 區間的斐波那契水準
+     */
+    private Map<String, Object> calculateAt(int period, double[] highPrices, double[] lowPrices,
+                                            double[] closePrices, int end) {
         // 找出期間內的最高價和最低價及其位置
         double periodHigh = Double.MIN_VALUE;
         double periodLow = Double.MAX_VALUE;
         int highIndex = 0;
         int lowIndex = 0;
 
-        int startIndex = highPrices.length - period;
-        for (int i = startIndex; i < highPrices.length; i++) {
+        int startIndex = end - period;
+        for (int i = startIndex; i < end; i++) {
             if (highPrices[i] > periodHigh) {
                 periodHigh = highPrices[i];
                 highIndex = i;
@@ -122,7 +148,7 @@ public class FibonacciRetracementCalculator implements IndicatorCalculator {
         }
 
         // 判斷當前價格所在的斐波那契區間
-        double currentClose = closePrices[closePrices.length - 1];
+        double currentClose = closePrices[end - 1];
         result.put("fib_signal", getSignal(currentClose, periodHigh, periodLow, range, isUptrend));
 
         return result;
@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.support;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -68,8 +69,33 @@ public class PivotPointsCalculator implements IndicatorCalculator {
             return Map.of();
         }
 
+        return calculateAt(type, highPrices, lowPrices, closePrices, closePrices.length - 1);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        String type = (String) params.getOrDefault("type", "standard");
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        // 每日只依賴前一交易日與當日價格
+        for (int i = 1; i < closePrices.length; i++) {
+            output.put(i, calculateAt(type, highPrices, lowPrices, closePrices, i));
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算第 index 日的 Pivot Points
+     */
+    private Map<String, Object> calculateAt(String type, double[] highPrices, double[] lowPrices,
+                                            double[] closePrices, int index) {
         // 使用前一交易日的 HLC 計算今日的 Pivot Points
-        int prevIndex = closePrices.length - 2;
+        int prevIndex = index - 1;
         double prevHigh = highPrices[prevIndex];
         double prevLow = lowPrices[prevIndex];
         double prevClose = closePrices[prevIndex];
@@ -81,7 +107,7 @@ public class PivotPointsCalculator implements IndicatorCalculator {
                 result = calculateFibonacciPivot(prevHigh, prevLow, prevClose);
                 break;
             case "woodie":
-                result = calculateWoodiePivot(prevHigh, prevLow, closePrices[closePrices.length - 1]);
+                result = calculateWoodiePivot(prevHigh, prevLow, closePrices[index]);
                 break;
             case "camarilla":
                 result = calculateCamarillaPivot(prevHigh, prevLow, prevClose);
@@ -91,8 +117,7 @@ public class PivotPointsCalculator implements IndicatorCalculator {
         }
 
         // 判斷當前價格位置
-        double currentClose = closePrices[closePrices.length - 1];
-        double pp = (Double) result.get("pivot_pp");
+        double currentClose = closePrices[index];
         result.put("pivot_signal", getSignal(currentClose, result));
 
         return result;
@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.support;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -72,6 +73,33 @@ public class SupportResistanceCalculator implements IndicatorCalculator {
             return result;
         }
 
+        return calculateAt(lookbackPeriod, numLevels, highPrices, lowPrices, closePrices, length);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int lookbackPeriod = (int) params.getOrDefault("lookbackPeriod", 60);
+        int numLevels = (int) params.getOrDefault("numLevels", 3);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        // 價格區間的分箱依視窗高低點而定，每個視窗各自統計（O(N × lookbackPeriod)）
+        for (int i = lookbackPeriod - 1; i < closePrices.length; i++) {
+            output.put(i, calculateAt(lookbackPeriod, numLevels, highPrices, lowPrices, closePrices, i + 1));
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算 [length - lookbackPeriod, length) 區間的支撐壓力水平
+     */
+    private Map<String, Object> calculateAt(int lookbackPeriod, int numLevels, double[] highPrices,
+                                            double[] lowPrices, double[] closePrices, int length) {
+        Map<String, Object> result = new HashMap<>();
         int startIndex = length - lookbackPeriod;
 
         // 找出價格範圍
@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator.trend;
 
+import com.chris.fin_shark.m07.engine.RollingWindows;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -63,11 +65,11 @@ public class AroonCalculator implements IndicatorCalculator {
             return Map.of();
         }
 
-        // 找出最近 period+1 天內的最高價和最低價位置
+        // 找出最近 period+1 天內的最高價和最低價位置（相同價格取最近的）
         int highestIndex = 0;
         int lowestIndex = 0;
-        double highestPrice = Double.MIN_VALUE;
-        double lowestPrice = Double.MAX_VALUE;
+        double highestPrice = Double.NEGATIVE_INFINITY;
+        double lowestPrice = Double.POSITIVE_INFINITY;
 
         int startIndex = highPrices.length - period - 1;
         for (int i = 0; i <= period; i++) {
@@ -83,9 +85,33 @@ public class AroonCalculator implements IndicatorCalculator {
         }
 
         // 計算距離最高/最低價的天數（從最近一天算起）
-        int daysSinceHigh = period - highestIndex;
-        int daysSinceLow = period - lowestIndex;
+        return toResult(period, period - highestIndex, period - lowestIndex);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 25);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(highPrices.length);
+
+        if (highPrices.length < period + 1 || lowPrices.length < period + 1) {
+            return output;
+        }
+
+        // 單調佇列求整段滑動最高/最低價位置（視窗 period+1 天）
+        int[] highestIndexes = RollingWindows.rollingArgMax(highPrices, period + 1);
+        int[] lowestIndexes = RollingWindows.rollingArgMin(lowPrices, period + 1);
+
+        for (int i = period; i < highPrices.length; i++) {
+            output.put(i, toResult(period, i - highestIndexes[i], i - lowestIndexes[i]));
+        }
+
+        return output;
+    }
 
+    private Map<String, Object> toResult(int period, int daysSinceHigh, int daysSinceLow) {
         // 計算 Aroon 指標
         double aroonUp = ((double) (period - daysSinceHigh) / period) * 100;
         double aroonDown = ((double) (period - daysSinceLow) / period) * 100;
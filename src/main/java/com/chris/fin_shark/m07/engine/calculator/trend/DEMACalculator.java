@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator.trend;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -50,6 +52,12 @@ public class DEMACalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        return calculate(series, params, IndicatorContext.of(series));
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
         @SuppressWarnings("unchecked")
         List<Integer> periods = (List<Integer>) params.getOrDefault("periods", List.of(10, 20));
 
@@ -58,7 +66,7 @@ public class DEMACalculator implements IndicatorCalculator {
 
         for (Integer period : periods) {
             if (closePrices.length >= period * 2) {
-                double dema = calculateDEMA(closePrices, period);
+                double dema = calculateDEMA(context, period);
                 result.put("dema_" + period, round(dema));
             }
         }
@@ -66,37 +74,42 @@ public class DEMACalculator implements IndicatorCalculator {
         return result;
     }
 
-    private double calculateDEMA(double[] prices, int period) {
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        @SuppressWarnings("unchecked")
+        List<Integer> periods = (List<Integer>) params.getOrDefault("periods", List.of(10, 20));
+
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+        IndicatorContext context = IndicatorContext.of(series);
+
+        // EMA 與 EMA(EMA) 皆為遞推序列，第 i 筆只依賴前 i + 1 筆
+        for (Integer period : periods) {
+            if (closePrices.length >= period * 2) {
+                double[] ema = context.ema(IndicatorContext.CLOSE, period);
+                double[] emaOfEma = context.ema(IndicatorContext.key("ema", IndicatorContext.CLOSE, period), period);
+                double[] column = output.numberColumn("dema_" + period);
+                for (int i = period * 2 - 1; i < closePrices.length; i++) {
+                    column[i] = round(2 * ema[i] - emaOfEma[i]);
+                }
+            }
+        }
+
+        return output;
+    }
+
+    private double calculateDEMA(IndicatorContext context, int period) {
         // 計算 EMA
-        double[] ema = calculateEMASeries(prices, period);
+        double[] ema = context.ema(IndicatorContext.CLOSE, period);
 
         // 計算 EMA of EMA
-        double[] emaOfEma = calculateEMASeries(ema, period);
+        double[] emaOfEma = context.ema(IndicatorContext.key("ema", IndicatorContext.CLOSE, period), period);
 
         // DEMA = 2 * EMA - EMA(EMA)
         int lastIndex = ema.length - 1;
         return 2 * ema[lastIndex] - emaOfEma[lastIndex];
     }
 
-    private double[] calculateEMASeries(double[] prices, int period) {
-        double[] ema = new double[prices.length];
-        double multiplier = 2.0 / (period + 1);
-
-        // 初始 EMA = SMA
-        double sum = 0;
-        for (int i = 0; i < period; i++) {
-            sum += prices[i];
-        }
-        ema[period - 1] = sum / period;
-
-        // 計算後續 EMA
-        for (int i = period; i < prices.length; i++) {
-            ema[i] = (prices[i] - ema[i - 1]) * multiplier + ema[i - 1];
-        }
-
-        return ema;
-    }
-
     private double round(double value) {
         return Math.round(value * 100.0) / 100.0;
     }
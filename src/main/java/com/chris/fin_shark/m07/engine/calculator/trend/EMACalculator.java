@@ -1,10 +1,18 @@
 package com.chris.fin_shark.m07.engine.calculator.trend;
 
-import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.calculator.IncrementalIndicatorCalculator;
+import com.chris.fin_shark.m07.engine.calculator.PeriodSweepCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
+import com.chris.fin_shark.m07.engine.model.IndicatorKeys;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.IndicatorValues;
+import com.chris.fin_shark.m07.engine.model.PeriodMatrix;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,12 +24,18 @@ import java.util.Map;
  * EMA(today) = Price(today) * k + EMA(yesterday) * (1 - k)
  * 其中 k = 2 / (period + 1)
  * </p>
+ * <p>
+ * 多個週期在同一次掃描中計算（{@link IndicatorContext#emaSeries(double[], int, int[], double[][])}），
+ * 週期數增加時不需重複讀取價格
+ * </p>
  *
  * @author chris
  * @since 1.0.0
  */
 @Component
-public class EMACalculator implements IndicatorCalculator {
+public class EMACalculator implements IncrementalIndicatorCalculator, PeriodSweepCalculator {
+
+    private static final IndicatorKeys.PeriodSlots EMA_SLOTS = new IndicatorKeys.PeriodSlots("ema");
 
     @Override
     public String getName() {
@@ -47,29 +61,127 @@ public class EMACalculator implements IndicatorCalculator {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        return calculate(series, params, IndicatorContext.of(series));
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
         // 取得參數
-        List<Integer> periods = (List<Integer>) params.getOrDefault(
-                "periods",
-                List.of(12, 26)
-        );
+        int[] periods = getPeriodArray(params);
 
         // 取得收盤價
         double[] closePrices = series.getCloseArray();
 
-        // 計算每個週期的 EMA
+        // 一次掃描計算尚未快取的週期（與 MACD 等共用同一份 EMA 序列）
+        double[][] emaValues = context.ema(IndicatorContext.CLOSE, periods);
         Map<String, Object> result = new HashMap<>();
-        for (Integer period : periods) {
-            if (closePrices.length >= period) {
-                double ema = calculateEMA(closePrices, period);
-                result.put("ema" + period, ema);
+        for (int r = 0; r < periods.length; r++) {
+            if (emaValues[r].length > 0) {
+                double ema = emaValues[r][closePrices.length - 1];
+                result.put("ema" + periods[r], Math.round(ema * 100.0) / 100.0);
             }
         }
 
         return result;
     }
 
+    @Override
+    public void calculateInto(PriceSeries series, Map<String, Object> params,
+                              IndicatorContext context, IndicatorValues out) {
+        int[] periods = getPeriodArray(params);
+        double[] closePrices = series.getCloseArray();
+        double[][] emaValues = context.ema(IndicatorContext.CLOSE, periods);
+        for (int r = 0; r < periods.length; r++) {
+            if (emaValues[r].length > 0) {
+                double ema = emaValues[r][closePrices.length - 1];
+                out.putNumber(getCategory(), EMA_SLOTS.slot(periods[r]), Math.round(ema * 100.0) / 100.0);
+            }
+        }
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int[] periods = getPeriodArray(params);
+        IndicatorSeries output = IndicatorSeries.ofSize(series.size());
+
+        PeriodMatrix emaValues = sweep(series, periods, params).get("ema");
+        for (int r = 0; r < periods.length; r++) {
+            if (series.size() < periods[r]) {
+                continue;
+            }
+            double[] row = emaValues.row(r);
+            double[] column = output.numberColumn("ema" + periods[r]);
+            System.arraycopy(row, periods[r] - 1, column, periods[r] - 1, row.length - periods[r] + 1);
+        }
+
+        return output;
+    }
+
+    @Override
+    public Map<String, PeriodMatrix> sweep(PriceSeries series, int[] periods, Map<String, Object> params) {
+        double[] closePrices = series.getCloseArray();
+        PeriodMatrix matrix = PeriodMatrix.of(periods, closePrices.length);
+
+        double[][] rows = new double[periods.length][];
+        for (int r = 0; r < periods.length; r++) {
+            rows[r] = matrix.row(r);
+        }
+        IndicatorContext.emaSeries(closePrices, closePrices.length, periods, rows);
+
+        // 四捨五入到小數點後 2 位（只處理已有值的區段）
+        for (int r = 0; r < periods.length; r++) {
+            for (int i = periods[r] - 1; i < closePrices.length; i++) {
+                rows[r][i] = Math.round(rows[r][i] * 100.0) / 100.0;
+            }
+        }
+        return Map.of("ema", matrix);
+    }
+
+    @Override
+    public Map<String, Double> initState(PriceSeries series, Map<String, Object> params) {
+        List<Integer> periods = getPeriods(params);
+        double[] closePrices = series.getCloseArray();
+
+        if (periods.isEmpty() || closePrices.length < Collections.max(periods)) {
+            return null;
+        }
+
+        // 保存未四捨五入的 EMA，推進時才能與全量計算一致
+        Map<String, Double> state = new HashMap<>();
+        for (Integer period : periods) {
+            double[] emaValues = calculateEMASeries(closePrices, period);
+            state.put("ema" + period, emaValues[closePrices.length - 1]);
+        }
+        return state;
+    }
+
+    @Override
+    public Map<String, Object> advance(Map<String, Double> state, PriceColumns bars, int index,
+                                       Map<String, Object> params) {
+        double price = bars.close()[index];
+
+        Map<String, Object> result = new HashMap<>();
+        for (Integer period : getPeriods(params)) {
+            double k = 2.0 / (period + 1);
+            double ema = (price * k) + (state.get("ema" + period) * (1 - k));
+            state.put("ema" + period, ema);
+            result.put("ema" + period, Math.round(ema * 100.0) / 100.0);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> getPeriods(Map<String, Object> params) {
+        return (List<Integer>) params.getOrDefault("periods", List.of(12, 26));
+    }
+
+    private int[] getPeriodArray(Map<String, Object> params) {
+        int[] periods = PeriodSweepCalculator.sweepPeriods(params);
+        return periods != null ? periods : new int[]{12, 26};
+    }
+
     /**
      * 計算 EMA
      *
@@ -84,23 +196,10 @@ public class EMACalculator implements IndicatorCalculator {
             );
         }
 
-        // 計算平滑係數
-        double k = 2.0 / (period + 1);
-
-        // 使用 SMA 作為初始 EMA
-        double ema = 0;
-        for (int i = 0; i < period; i++) {
-            ema += prices[i];
-        }
-        ema /= period;
-
-        // 計算後續的 EMA
-        for (int i = period; i < prices.length; i++) {
-            ema = (prices[i] * k) + (ema * (1 - k));
-        }
+        double[] emaValues = IndicatorContext.emaSeries(prices, period);
 
         // 四捨五入到小數點後 2 位
-        return Math.round(ema * 100.0) / 100.0;
+        return Math.round(emaValues[prices.length - 1] * 100.0) / 100.0;
     }
 
     /**
@@ -111,27 +210,19 @@ public class EMACalculator implements IndicatorCalculator {
      * @return EMA 序列
      */
     public double[] calculateEMASeries(double[] prices, int period) {
-        if (prices.length < period) {
-            return new double[0];
-        }
-
-        double[] emaValues = new double[prices.length];
-        double k = 2.0 / (period + 1);
-
-        // 初始 EMA（使用 SMA）
-        double ema = 0;
-        for (int i = 0; i < period; i++) {
-            ema += prices[i];
-        }
-        ema /= period;
-        emaValues[period - 1] = ema;
-
-        // 計算後續的 EMA
-        for (int i = period; i < prices.length; i++) {
-            ema = (prices[i] * k) + (ema * (1 - k));
-            emaValues[i] = ema;
-        }
+        return IndicatorContext.emaSeries(prices, period);
+    }
 
-        return emaValues;
+    /**
+     * 計算 prices[from, to) 的 EMA 序列，寫入 output 的相同位置（不配置陣列）
+     *
+     * @param prices 價格陣列
+     * @param from   起始位置（含）
+     * @param to     結束位置（不含）
+     * @param period 週期
+     * @param output 輸出陣列
+     */
+    public void calculateEMASeries(double[] prices, int from, int to, int period, double[] output) {
+        IndicatorContext.emaSeries(prices, from, to, period, output);
     }
 }
@@ -1,7 +1,10 @@
 package com.chris.fin_shark.m07.engine.calculator.trend;
 
+import com.chris.fin_shark.m07.engine.ScratchArena;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.kernel.Kernels;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -81,6 +84,43 @@ public class HMACalculator implements IndicatorCalculator {
         return result;
     }
 
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        @SuppressWarnings("unchecked")
+        List<Integer> periods = (List<Integer>) params.getOrDefault("periods", List.of(9, 16));
+
+        double[] closePrices = series.getCloseArray();
+        int length = closePrices.length;
+        IndicatorSeries output = IndicatorSeries.ofSize(length);
+
+        try (ScratchArena arena = ScratchArena.open()) {
+            double[] wmaHalf = arena.doubles(length);
+            double[] rawHMA = arena.doubles(length);
+            for (Integer period : periods) {
+                int halfPeriod = period / 2;
+                int sqrtPeriod = (int) Math.round(Math.sqrt(period));
+                int requiredLength = period + sqrtPeriod - 1;
+                if (length < requiredLength) {
+                    continue;
+                }
+
+                // rawHMA 整段計算一次（與 calculateWMA 逐位相同），再逐日對最近 sqrtPeriod 筆做 WMA
+                Kernels.current().weightedWindowMean(closePrices, length, halfPeriod, wmaHalf);
+                Kernels.current().weightedWindowMean(closePrices, length, period, rawHMA);
+                for (int i = period - 1; i < length; i++) {
+                    rawHMA[i] = 2 * wmaHalf[i] - rawHMA[i];
+                }
+
+                double[] column = output.numberColumn("hma_" + period);
+                for (int i = requiredLength - 1; i < length; i++) {
+                    column[i] = round(calculateWMAFromArray(rawHMA, i - sqrtPeriod + 1, sqrtPeriod));
+                }
+            }
+        }
+
+        return output;
+    }
+
     /**
      * 計算 HMA
      * <p>
@@ -115,16 +155,16 @@ public class HMACalculator implements IndicatorCalculator {
         }
 
         // 對 rawHMA 做 WMA(sqrtPeriod)
-        return calculateWMAFromArray(rawHMA, sqrtPeriod);
+        return calculateWMAFromArray(rawHMA, 0, sqrtPeriod);
     }
 
-    private double calculateWMAFromArray(double[] values, int period) {
+    private double calculateWMAFromArray(double[] values, int from, int period) {
         double weightedSum = 0;
         double weightSum = 0;
 
         for (int i = 0; i < period; i++) {
             int weight = i + 1;
-            weightedSum += values[i] * weight;
+            weightedSum += values[from + i] * weight;
             weightSum += weight;
         }
 
@@ -1,11 +1,14 @@
 package com.chris.fin_shark.m07.engine.calculator.trend;
 
+import com.chris.fin_shark.m07.engine.RollingWindows;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -53,6 +56,7 @@ public class IchimokuCloudCalculator implements IndicatorCalculator {
                 .minDataPoints(60)  // 需要 52 期 + 緩衝
                 .defaultParams(Map.of("tenkanPeriod", 9, "kijunPeriod", 26, "senkouBPeriod", 52))
                 .priority("P2")
+                .outputKeyPrefixes(List.of("tenkan_sen", "kijun_sen", "senkou_span", "chikou_span", "cloud_status", "tk_cross_signal"))
                 .build();
     }
 
@@ -66,54 +70,87 @@ public class IchimokuCloudCalculator implements IndicatorCalculator {
         double[] lowPrices = series.getLowArray();
         double[] closePrices = series.getCloseArray();
 
-        Map<String, Object> result = new HashMap<>();
-
         if (closePrices.length < senkouBPeriod) {
-            return result;
+            return new HashMap<>();
         }
 
         int length = closePrices.length;
 
-        // 計算轉換線 (Tenkan-sen)
-        double tenkan = calculateMidpoint(highPrices, lowPrices, tenkanPeriod);
-        result.put("tenkan_sen", round(tenkan));
+        // 計算轉換線 (Tenkan-sen)、基準線 (Kijun-sen)、先行帶 B (Senkou Span B)
+        double tenkan = calculateMidpoint(highPrices, lowPrices, length, tenkanPeriod);
+        double kijun = calculateMidpoint(highPrices, lowPrices, length, kijunPeriod);
+        double senkouB = calculateMidpoint(highPrices, lowPrices, length, senkouBPeriod);
+
+        return toResult(tenkan, kijun, senkouB, closePrices[length - 1]);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int tenkanPeriod = (int) params.getOrDefault("tenkanPeriod", 9);
+        int kijunPeriod = (int) params.getOrDefault("kijunPeriod", 26);
+        int senkouBPeriod = (int) params.getOrDefault("senkouBPeriod", 52);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
 
-        // 計算基準線 (Kijun-sen)
-        double kijun = calculateMidpoint(highPrices, lowPrices, kijunPeriod);
+        if (closePrices.length < senkouBPeriod) {
+            return output;
+        }
+
+        // 單調佇列求三條中線的整段序列
+        double[] tenkans = calculateMidpoints(highPrices, lowPrices, tenkanPeriod);
+        double[] kijuns = calculateMidpoints(highPrices, lowPrices, kijunPeriod);
+        double[] senkouBs = calculateMidpoints(highPrices, lowPrices, senkouBPeriod);
+
+        for (int i = senkouBPeriod - 1; i < closePrices.length; i++) {
+            output.put(i, toResult(tenkans[i], kijuns[i], senkouBs[i], closePrices[i]));
+        }
+
+        return output;
+    }
+
+    private Map<String, Object> toResult(double tenkan, double kijun, double senkouB, double currentPrice) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("tenkan_sen", round(tenkan));
         result.put("kijun_sen", round(kijun));
 
-        // 計算先行帶 A (Senkou Span A) - 當前值，實際使用需位移 26 期
+        // 先行帶 A (Senkou Span A) - 當前值，實際使用需位移 26 期
         double senkouA = (tenkan + kijun) / 2;
         result.put("senkou_span_a", round(senkouA));
 
-        // 計算先行帶 B (Senkou Span B) - 當前值，實際使用需位移 26 期
-        double senkouB = calculateMidpoint(highPrices, lowPrices, senkouBPeriod);
+        // 先行帶 B (Senkou Span B) - 當前值，實際使用需位移 26 期
         result.put("senkou_span_b", round(senkouB));
 
         // 遲行帶 (Chikou Span) = 當前收盤價 (位移在視覺化時處理)
-        result.put("chikou_span", round(closePrices[length - 1]));
+        result.put("chikou_span", round(currentPrice));
 
         // 雲帶狀態和信號
-        double currentPrice = closePrices[length - 1];
         result.put("cloud_status", getCloudStatus(currentPrice, senkouA, senkouB));
         result.put("tk_cross_signal", getTKCrossSignal(tenkan, kijun));
 
         return result;
     }
 
-    private double calculateMidpoint(double[] highs, double[] lows, int period) {
-        int length = highs.length;
-        int startIndex = length - period;
-
-        double highestHigh = Double.MIN_VALUE;
-        double lowestLow = Double.MAX_VALUE;
+    /**
+     * [end - period, end) 視窗的 (最高價 + 最低價) / 2
+     */
+    private double calculateMidpoint(double[] highs, double[] lows, int end, int period) {
+        return (RollingWindows.max(highs, end, period) + RollingWindows.min(lows, end, period)) / 2;
+    }
 
-        for (int i = startIndex; i < length; i++) {
-            highestHigh = Math.max(highestHigh, highs[i]);
-            lowestLow = Math.min(lowestLow, lows[i]);
+    /**
+     * 整段序列的 (最高價 + 最低價) / 2
+     */
+    private double[] calculateMidpoints(double[] highs, double[] lows, int period) {
+        double[] highestHighs = RollingWindows.rollingMax(highs, period);
+        double[] lowestLows = RollingWindows.rollingMin(lows, period);
+        double[] midpoints = new double[highs.length];
+        for (int i = 0; i < highs.length; i++) {
+            midpoints[i] = (highestHighs[i] + lowestLows[i]) / 2;
         }
-
-        return (highestHigh + lowestLow) / 2;
+        return midpoints;
     }
 
     /**
@@ -1,7 +1,13 @@
 package com.chris.fin_shark.m07.engine.calculator.trend;
 
-import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.ScratchArena;
+import com.chris.fin_shark.m07.engine.calculator.IncrementalIndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
+import com.chris.fin_shark.m07.engine.model.IndicatorKeys;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.IndicatorValues;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -23,7 +29,12 @@ import java.util.Map;
  */
 @Component
 @RequiredArgsConstructor
-public class MACDCalculator implements IndicatorCalculator {
+public class MACDCalculator implements IncrementalIndicatorCalculator {
+
+    private static final int MACD_LINE = IndicatorKeys.slot("macd.macd_line");
+    private static final int SIGNAL_LINE = IndicatorKeys.slot("macd.signal_line");
+    private static final int HISTOGRAM = IndicatorKeys.slot("macd.histogram");
+    private static final int MACD_SIGNAL = IndicatorKeys.slot("macd.macd_signal");
 
     private final EMACalculator emaCalculator;
 
@@ -56,6 +67,12 @@ public class MACDCalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        return calculate(series, params, IndicatorContext.of(series));
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
         // 取得參數
         int fast = (int) params.getOrDefault("fast", 12);
         int slow = (int) params.getOrDefault("slow", 26);
@@ -69,33 +86,143 @@ public class MACDCalculator implements IndicatorCalculator {
             return Map.of();
         }
 
-        // 計算 EMA
-        double[] emaFast = emaCalculator.calculateEMASeries(closePrices, fast);
-        double[] emaSlow = emaCalculator.calculateEMASeries(closePrices, slow);
+        try (ScratchArena arena = ScratchArena.open()) {
+            // 計算 MACD Line / Signal Line（EMA 與其他計算器共用）
+            double[] macdLine = arena.doubles(closePrices.length);
+            double[] signalLine = arena.doubles(closePrices.length);
+            calculateLines(context, fast, slow, signal, macdLine, signalLine);
+
+            // 計算 Histogram
+            int lastIndex = closePrices.length - 1;
+            double macdValue = macdLine[lastIndex];
+            double signalValue = signalLine[lastIndex];
+            double histogram = macdValue - signalValue;
+
+            return toResult(macdValue, signalValue, histogram);
+        }
+    }
+
+    @Override
+    public void calculateInto(PriceSeries series, Map<String, Object> params,
+                              IndicatorContext context, IndicatorValues out) {
+        int fast = (int) params.getOrDefault("fast", 12);
+        int slow = (int) params.getOrDefault("slow", 26);
+        int signal = (int) params.getOrDefault("signal", 9);
+
+        double[] closePrices = series.getCloseArray();
+        if (closePrices.length < slow + signal) {
+            return;
+        }
+
+        try (ScratchArena arena = ScratchArena.open()) {
+            double[] macdLine = arena.doubles(closePrices.length);
+            double[] signalLine = arena.doubles(closePrices.length);
+            calculateLines(context, fast, slow, signal, macdLine, signalLine);
+
+            int lastIndex = closePrices.length - 1;
+            double macdValue = macdLine[lastIndex];
+            double signalValue = signalLine[lastIndex];
+            double histogram = macdValue - signalValue;
+
+            out.putNumber(getCategory(), MACD_LINE, round(macdValue));
+            out.putNumber(getCategory(), SIGNAL_LINE, round(signalValue));
+            out.putNumber(getCategory(), HISTOGRAM, round(histogram));
+            out.putLabel(getCategory(), MACD_SIGNAL, getSignal(macdValue, signalValue, histogram));
+        }
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int fast = (int) params.getOrDefault("fast", 12);
+        int slow = (int) params.getOrDefault("slow", 26);
+        int signal = (int) params.getOrDefault("signal", 9);
+
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (closePrices.length < slow + signal) {
+            return output;
+        }
 
-        // 計算 MACD Line
         double[] macdLine = new double[closePrices.length];
-        for (int i = slow - 1; i < closePrices.length; i++) {
-            macdLine[i] = emaFast[i] - emaSlow[i];
+        double[] signalLine = new double[closePrices.length];
+        calculateLines(IndicatorContext.of(series), fast, slow, signal, macdLine, signalLine);
+
+        double[] macdColumn = output.numberColumn("macd.macd_line");
+        double[] signalColumn = output.numberColumn("macd.signal_line");
+        double[] histogramColumn = output.numberColumn("macd.histogram");
+        String[] signalLabels = output.labelColumn("macd.macd_signal");
+
+        for (int i = slow + signal - 1; i < closePrices.length; i++) {
+            double histogram = macdLine[i] - signalLine[i];
+            macdColumn[i] = round(macdLine[i]);
+            signalColumn[i] = round(signalLine[i]);
+            histogramColumn[i] = round(histogram);
+            signalLabels[i] = getSignal(macdLine[i], signalLine[i], histogram);
         }
 
-        // 計算 Signal Line（MACD 的 EMA）
-        double[] signalLine = calculateSignalLine(macdLine, slow - 1, signal);
+        return output;
+    }
 
-        // 計算 Histogram
+    @Override
+    public Map<String, Double> initState(PriceSeries series, Map<String, Object> params) {
+        int fast = (int) params.getOrDefault("fast", 12);
+        int slow = (int) params.getOrDefault("slow", 26);
+        int signal = (int) params.getOrDefault("signal", 9);
+
+        double[] closePrices = series.getCloseArray();
+        if (closePrices.length < slow + signal) {
+            return null;
+        }
+
+        IndicatorContext context = IndicatorContext.of(series);
+        double[] macdLine = new double[closePrices.length];
+        double[] signalLine = new double[closePrices.length];
+        calculateLines(context, fast, slow, signal, macdLine, signalLine);
         int lastIndex = closePrices.length - 1;
-        double macdValue = macdLine[lastIndex];
-        double signalValue = signalLine[lastIndex];
-        double histogram = macdValue - signalValue;
 
-        // 組裝結果（MACD 是複合指標，用 Map 包裝）
+        Map<String, Double> state = new HashMap<>();
+        state.put("ema_fast", context.ema(IndicatorContext.CLOSE, fast)[lastIndex]);
+        state.put("ema_slow", context.ema(IndicatorContext.CLOSE, slow)[lastIndex]);
+        state.put("signal_line", signalLine[lastIndex]);
+        return state;
+    }
+
+    @Override
+    public Map<String, Object> advance(Map<String, Double> state, PriceColumns bars, int index,
+                                       Map<String, Object> params) {
+        int fast = (int) params.getOrDefault("fast", 12);
+        int slow = (int) params.getOrDefault("slow", 26);
+        int signal = (int) params.getOrDefault("signal", 9);
+
+        double price = bars.close()[index];
+
+        // 與 EMACalculator.calculateEMASeries 相同的遞推式
+        double kFast = 2.0 / (fast + 1);
+        double kSlow = 2.0 / (slow + 1);
+        double kSignal = 2.0 / (signal + 1);
+        double emaFast = (price * kFast) + (state.get("ema_fast") * (1 - kFast));
+        double emaSlow = (price * kSlow) + (state.get("ema_slow") * (1 - kSlow));
+        double macdValue = emaFast - emaSlow;
+        double signalValue = (macdValue * kSignal) + (state.get("signal_line") * (1 - kSignal));
+
+        state.put("ema_fast", emaFast);
+        state.put("ema_slow", emaSlow);
+        state.put("signal_line", signalValue);
+
+        return toResult(macdValue, signalValue, macdValue - signalValue);
+    }
+
+    /**
+     * 組裝結果（MACD 是複合指標，用 Map 包裝）
+     */
+    private Map<String, Object> toResult(double macdValue, double signalValue, double histogram) {
         Map<String, Object> macdResult = new HashMap<>();
         macdResult.put("macd_line", round(macdValue));
         macdResult.put("signal_line", round(signalValue));
         macdResult.put("histogram", round(histogram));
         macdResult.put("macd_signal", getSignal(macdValue, signalValue, histogram));
 
-        // 返回
         Map<String, Object> result = new HashMap<>();
         result.put("macd", macdResult);
 
@@ -103,22 +230,27 @@ public class MACDCalculator implements IndicatorCalculator {
     }
 
     /**
-     * 計算 Signal Line
+     * 計算整段 MACD Line 與 Signal Line
+     * <p>
+     * 寫入呼叫端提供的陣列（可為暫存緩衝區），只寫入有效區段：
+     * macdLine[slow - 1, length)、signalLine[slow - 1, length)
+     * </p>
      */
-    private double[] calculateSignalLine(double[] macdLine, int startIndex, int period) {
-        // 從 MACD Line 中提取有效資料
-        int validLength = macdLine.length - startIndex;
-        double[] validMacd = new double[validLength];
-        System.arraycopy(macdLine, startIndex, validMacd, 0, validLength);
+    private void calculateLines(IndicatorContext context, int fast, int slow, int signal,
+                                double[] macdLine, double[] signalLine) {
+        double[] closePrices = context.source(IndicatorContext.CLOSE);
 
-        // 計算 Signal Line（MACD 的 EMA）
-        double[] signalFull = emaCalculator.calculateEMASeries(validMacd, period);
+        // 計算 EMA
+        double[] emaFast = context.ema(IndicatorContext.CLOSE, fast);
+        double[] emaSlow = context.ema(IndicatorContext.CLOSE, slow);
 
-        // 將結果對齊到原始陣列長度
-        double[] signal = new double[macdLine.length];
-        System.arraycopy(signalFull, 0, signal, startIndex, signalFull.length);
+        // 計算 MACD Line
+        for (int i = slow - 1; i < closePrices.length; i++) {
+            macdLine[i] = emaFast[i] - emaSlow[i];
+        }
 
-        return signal;
+        // 計算 Signal Line（從 MACD Line 的有效資料起算的 EMA，直接對齊到原始位置）
+        emaCalculator.calculateEMASeries(macdLine, slow - 1, closePrices.length, signal, signalLine);
     }
 
     /**
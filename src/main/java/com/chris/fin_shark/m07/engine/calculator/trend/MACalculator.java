@@ -1,7 +1,12 @@
 package com.chris.fin_shark.m07.engine.calculator.trend;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.kernel.Kernels;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
+import com.chris.fin_shark.m07.engine.model.IndicatorKeys;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.IndicatorValues;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -21,6 +26,8 @@ import java.util.Map;
 @Component
 public class MACalculator implements IndicatorCalculator {
 
+    private static final IndicatorKeys.PeriodSlots MA_SLOTS = new IndicatorKeys.PeriodSlots("ma");
+
     @Override
     public String getName() {
         return "MA";
@@ -45,13 +52,9 @@ public class MACalculator implements IndicatorCalculator {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
         // 取得參數
-        List<Integer> periods = (List<Integer>) params.getOrDefault(
-                "periods",
-                List.of(5, 20, 60)
-        );
+        List<Integer> periods = getPeriods(params);
 
         // 取得收盤價
         double[] closePrices = series.getCloseArray();
@@ -68,6 +71,17 @@ public class MACalculator implements IndicatorCalculator {
         return result;
     }
 
+    @Override
+    public void calculateInto(PriceSeries series, Map<String, Object> params,
+                              IndicatorContext context, IndicatorValues out) {
+        double[] closePrices = series.getCloseArray();
+        for (Integer period : getPeriods(params)) {
+            if (closePrices.length >= period) {
+                out.putNumber(getCategory(), MA_SLOTS.slot(period), calculateMA(closePrices, period));
+            }
+        }
+    }
+
     /**
      * 計算移動平均
      *
@@ -82,12 +96,39 @@ public class MACalculator implements IndicatorCalculator {
             );
         }
 
-        // 計算最近 period 天的平均
+        return windowMean(prices, prices.length, period);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        for (Integer period : getPeriods(params)) {
+            if (closePrices.length < period) {
+                continue;
+            }
+            // 與 windowMean 相同的逐視窗累加（SIMD 實作逐位相同）
+            double[] column = output.numberColumn("ma" + period);
+            Kernels.current().windowMean(closePrices, closePrices.length, period, column);
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算 [end - period, end) 區間的平均
+     */
+    private double windowMean(double[] prices, int end, int period) {
         double sum = 0;
-        for (int i = prices.length - period; i < prices.length; i++) {
+        for (int i = end - period; i < end; i++) {
             sum += prices[i];
         }
-
         return sum / period;
     }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> getPeriods(Map<String, Object> params) {
+        return (List<Integer>) params.getOrDefault("periods", List.of(5, 20, 60));
+    }
 }
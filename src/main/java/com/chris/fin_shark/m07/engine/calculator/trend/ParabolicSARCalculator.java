@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator.trend;
 
-import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.calculator.IncrementalIndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -28,7 +30,7 @@ import java.util.Map;
  * @since 1.0.0
  */
 @Component
-public class ParabolicSARCalculator implements IndicatorCalculator {
+public class ParabolicSARCalculator implements IncrementalIndicatorCalculator {
 
     @Override
     public String getName() {
@@ -75,9 +77,36 @@ public class ParabolicSARCalculator implements IndicatorCalculator {
         double[] sarValues = calculateSARSeries(highPrices, lowPrices, afStart, afStep, afMax);
 
         // 取最新值
-        int lastIndex = sarValues.length - 1;
+        return toResult(sarValues, closePrices, sarValues.length - 1);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        double afStart = ((Number) params.getOrDefault("afStart", 0.02)).doubleValue();
+        double afStep = ((Number) params.getOrDefault("afStep", 0.02)).doubleValue();
+        double afMax = ((Number) params.getOrDefault("afMax", 0.2)).doubleValue();
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (highPrices.length < 5) {
+            return output;
+        }
+
+        // SAR 為遞推序列，第 i 筆只依賴前 i + 1 筆，整段計算一次即可
+        double[] sarValues = calculateSARSeries(highPrices, lowPrices, afStart, afStep, afMax);
+        for (int i = 4; i < sarValues.length; i++) {
+            output.put(i, toResult(sarValues, closePrices, i));
+        }
+
+        return output;
+    }
+
+    private Map<String, Object> toResult(double[] sarValues, double[] closePrices, int lastIndex) {
         double sar = sarValues[lastIndex];
-        double currentClose = closePrices[closePrices.length - 1];
+        double currentClose = closePrices[lastIndex];
 
         // 判斷趨勢
         boolean isUptrend = currentClose > sar;
@@ -85,11 +114,61 @@ public class ParabolicSARCalculator implements IndicatorCalculator {
         Map<String, Object> result = new HashMap<>();
         result.put("sar", round(sar));
         result.put("sar_trend", isUptrend ? "UPTREND" : "DOWNTREND");
-        result.put("sar_signal", getSignal(sarValues, closePrices));
+        result.put("sar_signal", getSignal(sarValues, closePrices, lastIndex));
 
         return result;
     }
 
+    @Override
+    public Map<String, Double> initState(PriceSeries series, Map<String, Object> params) {
+        double afStart = ((Number) params.getOrDefault("afStart", 0.02)).doubleValue();
+        double afStep = ((Number) params.getOrDefault("afStep", 0.02)).doubleValue();
+        double afMax = ((Number) params.getOrDefault("afMax", 0.2)).doubleValue();
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+
+        if (highPrices.length < 5) {
+            return null;
+        }
+
+        SarTracker tracker = new SarTracker(highPrices, lowPrices, afStart, afStep, afMax);
+        for (int i = 2; i < highPrices.length; i++) {
+            tracker.next(highPrices[i], lowPrices[i]);
+        }
+
+        Map<String, Double> state = tracker.toState();
+        state.put("close", closePrices[closePrices.length - 1]);
+        return state;
+    }
+
+    @Override
+    public Map<String, Object> advance(Map<String, Double> state, PriceColumns bars, int index,
+                                       Map<String, Object> params) {
+        double afStart = ((Number) params.getOrDefault("afStart", 0.02)).doubleValue();
+        double afStep = ((Number) params.getOrDefault("afStep", 0.02)).doubleValue();
+        double afMax = ((Number) params.getOrDefault("afMax", 0.2)).doubleValue();
+
+        SarTracker tracker = SarTracker.fromState(state, afStart, afStep, afMax);
+        double prevSar = tracker.sar;
+        double prevClose = state.get("close");
+
+        tracker.next(bars.high()[index], bars.low()[index]);
+        double sar = tracker.sar;
+        double currentClose = bars.close()[index];
+
+        state.putAll(tracker.toState());
+        state.put("close", currentClose);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("sar", round(sar));
+        result.put("sar_trend", currentClose > sar ? "UPTREND" : "DOWNTREND");
+        result.put("sar_signal", getSignal(
+                new double[]{prevSar, sar}, new double[]{prevClose, currentClose}, 1));
+        return result;
+    }
+
     /**
      * 計算 SAR 序列
      */
@@ -97,85 +176,156 @@ public class ParabolicSARCalculator implements IndicatorCalculator {
                                          double afStart, double afStep, double afMax) {
         int length = high.length;
         double[] sar = new double[length];
-        boolean[] isUptrend = new boolean[length];
 
         // 初始化：假設從第 2 天開始，判斷初始趨勢
-        // 如果第 1 天收盤價高於第 0 天，假設上升趨勢
-        isUptrend[0] = high[1] > high[0];
-        isUptrend[1] = isUptrend[0];
+        SarTracker tracker = new SarTracker(high, low, afStart, afStep, afMax);
+        sar[0] = tracker.sar;
+        sar[1] = tracker.sar;
 
-        double af = afStart;
-        double ep;  // 極值點
+        // 計算後續 SAR
+        for (int i = 2; i < length; i++) {
+            tracker.next(high[i], low[i]);
+            sar[i] = tracker.sar;
+        }
 
-        if (isUptrend[0]) {
-            sar[0] = low[0];
-            sar[1] = low[0];
-            ep = high[1];
-        } else {
-            sar[0] = high[0];
-            sar[1] = high[0];
-            ep = low[1];
+        return sar;
+    }
+
+    /**
+     * SAR 遞推器（全量計算與逐日推進共用同一套規則）
+     */
+    private static final class SarTracker {
+
+        private final double afStart;
+        private final double afStep;
+        private final double afMax;
+
+        private double sar;
+        private double ep;      // 極值點
+        private double af;
+        private boolean uptrend;
+
+        /** 前一天 / 前兩天的最高價與最低價 */
+        private double high1;
+        private double high2;
+        private double low1;
+        private double low2;
+
+        private SarTracker(double afStart, double afStep, double afMax) {
+            this.afStart = afStart;
+            this.afStep = afStep;
+            this.afMax = afMax;
         }
 
-        // 計算後續 SAR
-        for (int i = 2; i < length; i++) {
+        /**
+         * 以前兩天初始化
+         */
+        private SarTracker(double[] high, double[] low, double afStart, double afStep, double afMax) {
+            this(afStart, afStep, afMax);
+
+            // 如果第 1 天最高價高於第 0 天，假設上升趨勢
+            this.uptrend = high[1] > high[0];
+            this.af = afStart;
+
+            if (uptrend) {
+                this.sar = low[0];
+                this.ep = high[1];
+            } else {
+                this.sar = high[0];
+                this.ep = low[1];
+            }
+
+            this.high1 = high[1];
+            this.high2 = high[0];
+            this.low1 = low[1];
+            this.low2 = low[0];
+        }
+
+        /**
+         * 推進一天
+         */
+        private void next(double high, double low) {
             // 計算新的 SAR
-            sar[i] = sar[i - 1] + af * (ep - sar[i - 1]);
+            double next = sar + af * (ep - sar);
 
             // 檢查是否需要反轉
-            if (isUptrend[i - 1]) {
+            if (uptrend) {
                 // 上升趨勢中，SAR 不能高於前兩天的最低價
-                sar[i] = Math.min(sar[i], Math.min(low[i - 1], low[i - 2]));
+                next = Math.min(next, Math.min(low1, low2));
 
                 // 檢查是否被觸及（價格跌破 SAR）
-                if (low[i] < sar[i]) {
+                if (low < next) {
                     // 反轉為下降趨勢
-                    isUptrend[i] = false;
-                    sar[i] = ep;  // SAR 設為之前的極值點
-                    ep = low[i];
+                    uptrend = false;
+                    next = ep;  // SAR 設為之前的極值點
+                    ep = low;
                     af = afStart;
-                } else {
-                    isUptrend[i] = true;
+                } else if (high > ep) {
                     // 更新極值點
-                    if (high[i] > ep) {
-                        ep = high[i];
-                        af = Math.min(af + afStep, afMax);
-                    }
+                    ep = high;
+                    af = Math.min(af + afStep, afMax);
                 }
             } else {
                 // 下降趨勢中，SAR 不能低於前兩天的最高價
-                sar[i] = Math.max(sar[i], Math.max(high[i - 1], high[i - 2]));
+                next = Math.max(next, Math.max(high1, high2));
 
                 // 檢查是否被觸及（價格突破 SAR）
-                if (high[i] > sar[i]) {
+                if (high > next) {
                     // 反轉為上升趨勢
-                    isUptrend[i] = true;
-                    sar[i] = ep;  // SAR 設為之前的極值點
-                    ep = high[i];
+                    uptrend = true;
+                    next = ep;  // SAR 設為之前的極值點
+                    ep = high;
                     af = afStart;
-                } else {
-                    isUptrend[i] = false;
+                } else if (low < ep) {
                     // 更新極值點
-                    if (low[i] < ep) {
-                        ep = low[i];
-                        af = Math.min(af + afStep, afMax);
-                    }
+                    ep = low;
+                    af = Math.min(af + afStep, afMax);
                 }
             }
+
+            sar = next;
+            high2 = high1;
+            high1 = high;
+            low2 = low1;
+            low1 = low;
         }
 
-        return sar;
+        private Map<String, Double> toState() {
+            Map<String, Double> state = new HashMap<>();
+            state.put("sar", sar);
+            state.put("ep", ep);
+            state.put("af", af);
+            state.put("uptrend", uptrend ? 1.0 : 0.0);
+            state.put("high1", high1);
+            state.put("high2", high2);
+            state.put("low1", low1);
+            state.put("low2", low2);
+            return state;
+        }
+
+        private static SarTracker fromState(Map<String, Double> state,
+                                            double afStart, double afStep, double afMax) {
+            SarTracker tracker = new SarTracker(afStart, afStep, afMax);
+            tracker.sar = state.get("sar");
+            tracker.ep = state.get("ep");
+            tracker.af = state.get("af");
+            tracker.uptrend = state.get("uptrend") > 0;
+            tracker.high1 = state.get("high1");
+            tracker.high2 = state.get("high2");
+            tracker.low1 = state.get("low1");
+            tracker.low2 = state.get("low2");
+            return tracker;
+        }
     }
 
     /**
      * 判斷信號（趨勢反轉）
      */
-    private String getSignal(double[] sar, double[] close) {
-        if (sar.length < 2 || close.length < 2) {
+    private String getSignal(double[] sar, double[] close, int last) {
+        if (last < 1) {
             return "NEUTRAL";
         }
 
-        int last = sar.length - 1;
         boolean currentAbove = close[last] > sar[last];
         boolean prevAbove = close[last - 1] > sar[last - 1];
 
@@ -1,7 +1,10 @@
 package com.chris.fin_shark.m07.engine.calculator.trend;
 
-import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.calculator.IncrementalIndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -29,7 +32,7 @@ import java.util.Map;
  * @since 1.0.0
  */
 @Component
-public class SupertrendCalculator implements IndicatorCalculator {
+public class SupertrendCalculator implements IncrementalIndicatorCalculator {
 
     @Override
     public String getName() {
@@ -59,6 +62,12 @@ public class SupertrendCalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        return calculate(series, params, IndicatorContext.of(series));
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
         int period = (int) params.getOrDefault("period", 10);
         double multiplier = ((Number) params.getOrDefault("multiplier", 3.0)).doubleValue();
 
@@ -70,124 +79,239 @@ public class SupertrendCalculator implements IndicatorCalculator {
             return Map.of();
         }
 
-        // 計算 ATR
-        double[] atr = calculateATR(highPrices, lowPrices, closePrices, period);
+        // 計算 ATR（與 Keltner 共用）
+        double[] atr = context.atr(period);
 
         // 計算 Supertrend
-        double[] supertrend = calculateSupertrend(highPrices, lowPrices, closePrices, atr, multiplier);
+        double[] supertrend = calculateSupertrend(highPrices, lowPrices, closePrices, atr, period, multiplier);
 
         int lastIndex = supertrend.length - 1;
         double currentSupertrend = supertrend[lastIndex];
         double currentClose = closePrices[closePrices.length - 1];
-        boolean isUptrend = currentClose > currentSupertrend;
 
-        Map<String, Object> result = new HashMap<>();
-        result.put("supertrend_" + period + "_" + (int) multiplier, round(currentSupertrend));
-        result.put("supertrend_trend", isUptrend ? "UPTREND" : "DOWNTREND");
-        result.put("supertrend_signal", getSignal(supertrend, closePrices));
-
-        return result;
+        return toResult(period, multiplier, currentSupertrend, currentClose,
+                getSignal(supertrend, closePrices, lastIndex));
     }
 
-    /**
-     * 計算 ATR（平均真實範圍）
-     */
-    private double[] calculateATR(double[] high, double[] low, double[] close, int period) {
-        int length = high.length;
-        double[] tr = new double[length];
-        double[] atr = new double[length];
-
-        // 計算 True Range
-        tr[0] = high[0] - low[0];
-        for (int i = 1; i < length; i++) {
-            double hl = high[i] - low[i];
-            double hc = Math.abs(high[i] - close[i - 1]);
-            double lc = Math.abs(low[i] - close[i - 1]);
-            tr[i] = Math.max(hl, Math.max(hc, lc));
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 10);
+        double multiplier = ((Number) params.getOrDefault("multiplier", 3.0)).doubleValue();
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (closePrices.length < period + 1) {
+            return output;
         }
 
-        // 計算 ATR（使用 RMA/Wilder's smoothing）
-        double sum = 0;
-        for (int i = 0; i < period; i++) {
-            sum += tr[i];
+        // ATR 與 Supertrend 皆為遞推序列，第 i 筆只依賴前 i + 1 筆，整段計算一次即可
+        double[] atr = IndicatorContext.of(series).atr(period);
+        double[] supertrend = calculateSupertrend(highPrices, lowPrices, closePrices, atr, period, multiplier);
+        for (int i = period; i < closePrices.length; i++) {
+            output.put(i, toResult(period, multiplier, supertrend[i], closePrices[i],
+                    getSignal(supertrend, closePrices, i)));
+        }
+
+        return output;
+    }
+
+    @Override
+    public Map<String, Double> initState(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 10);
+        double multiplier = ((Number) params.getOrDefault("multiplier", 3.0)).doubleValue();
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+
+        if (closePrices.length < period + 1) {
+            return null;
         }
-        atr[period - 1] = sum / period;
 
-        for (int i = period; i < length; i++) {
-            atr[i] = (atr[i - 1] * (period - 1) + tr[i]) / period;
+        SupertrendTracker tracker = new SupertrendTracker(period, multiplier);
+        for (int i = 0; i < closePrices.length; i++) {
+            tracker.next(highPrices[i], lowPrices[i], closePrices[i]);
         }
+        return tracker.toState();
+    }
+
+    @Override
+    public Map<String, Object> advance(Map<String, Double> state, PriceColumns bars, int index,
+                                       Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 10);
+        double multiplier = ((Number) params.getOrDefault("multiplier", 3.0)).doubleValue();
+
+        SupertrendTracker tracker = SupertrendTracker.fromState(state, period, multiplier);
+        double prevSupertrend = tracker.supertrend;
+        double prevClose = tracker.prevClose;
 
-        return atr;
+        double currentClose = bars.close()[index];
+        tracker.next(bars.high()[index], bars.low()[index], currentClose);
+        state.putAll(tracker.toState());
+
+        String signal = getSignal(
+                new double[]{prevSupertrend, tracker.supertrend},
+                new double[]{prevClose, currentClose}, 1);
+        return toResult(period, multiplier, tracker.supertrend, currentClose, signal);
+    }
+
+    private Map<String, Object> toResult(int period, double multiplier, double currentSupertrend,
+                                         double currentClose, String signal) {
+        boolean isUptrend = currentClose > currentSupertrend;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("supertrend_" + period + "_" + (int) multiplier, round(currentSupertrend));
+        result.put("supertrend_trend", isUptrend ? "UPTREND" : "DOWNTREND");
+        result.put("supertrend_signal", signal);
+        return result;
     }
 
     /**
-     * 計算 Supertrend
+     * 計算 Supertrend 序列
      */
     private double[] calculateSupertrend(double[] high, double[] low, double[] close,
-                                          double[] atr, double multiplier) {
+                                          double[] atr, int period, double multiplier) {
         int length = close.length;
         double[] supertrend = new double[length];
-        double[] upperBand = new double[length];
-        double[] lowerBand = new double[length];
-        boolean[] isUptrend = new boolean[length];
 
-        // 初始化
+        SupertrendTracker tracker = new SupertrendTracker(period, multiplier);
         for (int i = 0; i < length; i++) {
-            double midPoint = (high[i] + low[i]) / 2;
-            upperBand[i] = midPoint + multiplier * atr[i];
-            lowerBand[i] = midPoint - multiplier * atr[i];
+            tracker.step(high[i], low[i], close[i], atr[i]);
+            supertrend[i] = tracker.supertrend;
         }
 
-        // 設定初始趨勢
-        isUptrend[0] = true;
-        supertrend[0] = lowerBand[0];
+        return supertrend;
+    }
+
+    /**
+     * Supertrend 遞推器（全量計算與逐日推進共用同一套規則）
+     * <p>
+     * ATR 使用 RMA/Wilder's smoothing，暖機期（前 period - 1 天）ATR 視為 0
+     * </p>
+     */
+    private static final class SupertrendTracker {
+
+        private final int period;
+        private final double multiplier;
 
-        for (int i = 1; i < length; i++) {
-            // 調整上下軌（保持在有利方向）
-            if (lowerBand[i] > lowerBand[i - 1] || close[i - 1] < lowerBand[i - 1]) {
-                // 保持或更新下軌
+        /** 已處理天數 */
+        private int count;
+
+        /** 暖機期 True Range 累計 */
+        private double trSum;
+
+        private double atr;
+        private double prevClose;
+        private double upperBand;
+        private double lowerBand;
+        private boolean uptrend;
+        private double supertrend;
+
+        private SupertrendTracker(int period, double multiplier) {
+            this.period = period;
+            this.multiplier = multiplier;
+        }
+
+        /**
+         * 推進一天
+         */
+        private void next(double high, double low, double close) {
+            // 計算 True Range
+            double tr;
+            if (count == 0) {
+                tr = high - low;
             } else {
-                lowerBand[i] = lowerBand[i - 1];
+                double hl = high - low;
+                double hc = Math.abs(high - prevClose);
+                double lc = Math.abs(low - prevClose);
+                tr = Math.max(hl, Math.max(hc, lc));
             }
 
-            if (upperBand[i] < upperBand[i - 1] || close[i - 1] > upperBand[i - 1]) {
-                // 保持或更新上軌
+            // 計算 ATR
+            if (count < period) {
+                trSum += tr;
+                atr = count == period - 1 ? trSum / period : 0;
             } else {
-                upperBand[i] = upperBand[i - 1];
+                atr = (atr * (period - 1) + tr) / period;
             }
 
-            // 判斷趨勢
-            if (isUptrend[i - 1]) {
-                if (close[i] < lowerBand[i]) {
-                    isUptrend[i] = false;
-                    supertrend[i] = upperBand[i];
-                } else {
-                    isUptrend[i] = true;
-                    supertrend[i] = lowerBand[i];
-                }
+            step(high, low, close, atr);
+        }
+
+        /**
+         * 以指定 ATR 推進一天（全量計算時 ATR 由計算上下文提供）
+         */
+        private void step(double high, double low, double close, double atrValue) {
+            double midPoint = (high + low) / 2;
+            double upper = midPoint + multiplier * atrValue;
+            double lower = midPoint - multiplier * atrValue;
+
+            if (count == 0) {
+                // 設定初始趨勢
+                uptrend = true;
+                supertrend = lower;
             } else {
-                if (close[i] > upperBand[i]) {
-                    isUptrend[i] = true;
-                    supertrend[i] = lowerBand[i];
+                // 調整上下軌（保持在有利方向）
+                if (!(lower > lowerBand || prevClose < lowerBand)) {
+                    lower = lowerBand;
+                }
+                if (!(upper < upperBand || prevClose > upperBand)) {
+                    upper = upperBand;
+                }
+
+                // 判斷趨勢
+                if (uptrend) {
+                    uptrend = !(close < lower);
                 } else {
-                    isUptrend[i] = false;
-                    supertrend[i] = upperBand[i];
+                    uptrend = close > upper;
                 }
+                supertrend = uptrend ? lower : upper;
             }
+
+            upperBand = upper;
+            lowerBand = lower;
+            prevClose = close;
+            count++;
         }
 
-        return supertrend;
+        private Map<String, Double> toState() {
+            Map<String, Double> state = new HashMap<>();
+            state.put("count", (double) count);
+            state.put("tr_sum", trSum);
+            state.put("atr", atr);
+            state.put("close", prevClose);
+            state.put("upper_band", upperBand);
+            state.put("lower_band", lowerBand);
+            state.put("uptrend", uptrend ? 1.0 : 0.0);
+            state.put("supertrend", supertrend);
+            return state;
+        }
+
+        private static SupertrendTracker fromState(Map<String, Double> state, int period, double multiplier) {
+            SupertrendTracker tracker = new SupertrendTracker(period, multiplier);
+            tracker.count = state.get("count").intValue();
+            tracker.trSum = state.get("tr_sum");
+            tracker.atr = state.get("atr");
+            tracker.prevClose = state.get("close");
+            tracker.upperBand = state.get("upper_band");
+            tracker.lowerBand = state.get("lower_band");
+            tracker.uptrend = state.get("uptrend") > 0;
+            tracker.supertrend = state.get("supertrend");
+            return tracker;
+        }
     }
 
     /**
      * 判斷信號
      */
-    private String getSignal(double[] supertrend, double[] close) {
-        if (supertrend.length < 2 || close.length < 2) {
+    private String getSignal(double[] supertrend, double[] close, int last) {
+        if (last < 1) {
             return "NEUTRAL";
         }
 
-        int last = supertrend.length - 1;
         boolean currentAbove = close[last] > supertrend[last];
         boolean prevAbove = close[last - 1] > supertrend[last - 1];
 
@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator.trend;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -50,6 +52,12 @@ public class TEMACalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        return calculate(series, params, IndicatorContext.of(series));
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
         @SuppressWarnings("unchecked")
         List<Integer> periods = (List<Integer>) params.getOrDefault("periods", List.of(10, 20));
 
@@ -58,7 +66,7 @@ public class TEMACalculator implements IndicatorCalculator {
 
         for (Integer period : periods) {
             if (closePrices.length >= period * 3) {
-                double tema = calculateTEMA(closePrices, period);
+                double tema = calculateTEMA(context, period);
                 result.put("tema_" + period, round(tema));
             }
         }
@@ -66,41 +74,51 @@ public class TEMACalculator implements IndicatorCalculator {
         return result;
     }
 
-    private double calculateTEMA(double[] prices, int period) {
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        @SuppressWarnings("unchecked")
+        List<Integer> periods = (List<Integer>) params.getOrDefault("periods", List.of(10, 20));
+
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+        IndicatorContext context = IndicatorContext.of(series);
+
+        // 三層 EMA 皆為遞推序列，第 i 筆只依賴前 i + 1 筆
+        for (Integer period : periods) {
+            if (closePrices.length >= period * 3) {
+                String ema1Key = IndicatorContext.key("ema", IndicatorContext.CLOSE, period);
+                String ema2Key = IndicatorContext.key("ema", ema1Key, period);
+                double[] ema1 = context.ema(IndicatorContext.CLOSE, period);
+                double[] ema2 = context.ema(ema1Key, period);
+                double[] ema3 = context.ema(ema2Key, period);
+                double[] column = output.numberColumn("tema_" + period);
+                for (int i = period * 3 - 1; i < closePrices.length; i++) {
+                    column[i] = round(3 * ema1[i] - 3 * ema2[i] + ema3[i]);
+                }
+            }
+        }
+
+        return output;
+    }
+
+    private double calculateTEMA(IndicatorContext context, int period) {
+        String ema1Key = IndicatorContext.key("ema", IndicatorContext.CLOSE, period);
+        String ema2Key = IndicatorContext.key("ema", ema1Key, period);
+
         // 計算 EMA1
-        double[] ema1 = calculateEMASeries(prices, period);
+        double[] ema1 = context.ema(IndicatorContext.CLOSE, period);
 
         // 計算 EMA2 = EMA(EMA1)
-        double[] ema2 = calculateEMASeries(ema1, period);
+        double[] ema2 = context.ema(ema1Key, period);
 
         // 計算 EMA3 = EMA(EMA2)
-        double[] ema3 = calculateEMASeries(ema2, period);
+        double[] ema3 = context.ema(ema2Key, period);
 
         // TEMA = 3 * EMA1 - 3 * EMA2 + EMA3
         int lastIndex = ema1.length - 1;
         return 3 * ema1[lastIndex] - 3 * ema2[lastIndex] + ema3[lastIndex];
     }
 
-    private double[] calculateEMASeries(double[] prices, int period) {
-        double[] ema = new double[prices.length];
-        double multiplier = 2.0 / (period + 1);
-
-        // 初始 EMA = SMA
-        double sum = 0;
-        for (int i = 0; i < period && i < prices.length; i++) {
-            sum += prices[i];
-        }
-        int startIndex = Math.min(period - 1, prices.length - 1);
-        ema[startIndex] = sum / Math.min(period, prices.length);
-
-        // 計算後續 EMA
-        for (int i = startIndex + 1; i < prices.length; i++) {
-            ema[i] = (prices[i] - ema[i - 1]) * multiplier + ema[i - 1];
-        }
-
-        return ema;
-    }
-
     private double round(double value) {
         return Math.round(value * 100.0) / 100.0;
     }
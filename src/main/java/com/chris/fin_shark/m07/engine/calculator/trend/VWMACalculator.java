@@ -1,7 +1,10 @@
 package com.chris.fin_shark.m07.engine.calculator.trend;
 
+import com.chris.fin_shark.m07.engine.ScratchArena;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.kernel.Kernels;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -72,6 +75,36 @@ public class VWMACalculator implements IndicatorCalculator {
         return result;
     }
 
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        @SuppressWarnings("unchecked")
+        List<Integer> periods = (List<Integer>) params.getOrDefault("periods", List.of(10, 20));
+
+        double[] closePrices = series.getCloseArray();
+        long[] volumes = series.getVolumeArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (volumes.length == 0) {
+            return output;  // 無成交量資料
+        }
+
+        try (ScratchArena arena = ScratchArena.open()) {
+            double[] vwma = arena.doubles(closePrices.length);
+            for (Integer period : periods) {
+                if (closePrices.length >= period) {
+                    // 與 calculateVWMA 相同的逐視窗累加（SIMD 實作逐位相同）
+                    Kernels.current().volumeWeightedMean(closePrices, volumes, closePrices.length, period, vwma);
+                    double[] column = output.numberColumn("vwma_" + period);
+                    for (int i = period - 1; i < closePrices.length; i++) {
+                        column[i] = round(vwma[i]);
+                    }
+                }
+            }
+        }
+
+        return output;
+    }
+
     private double calculateVWMA(double[] prices, long[] volumes, int period) {
         int startIndex = prices.length - period;
         double sumPriceVolume = 0;
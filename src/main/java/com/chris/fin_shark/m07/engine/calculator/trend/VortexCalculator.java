@@ -2,10 +2,12 @@ package com.chris.fin_shark.m07.engine.calculator.trend;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -48,6 +50,7 @@ public class VortexCalculator implements IndicatorCalculator {
                 .minDataPoints(20)
                 .defaultParams(Map.of("period", 14))
                 .priority("P2")
+                .outputKeyPrefixes(List.of("vi_plus", "vi_minus", "vortex"))
                 .build();
     }
 
@@ -62,7 +65,8 @@ public class VortexCalculator implements IndicatorCalculator {
         Map<String, Object> result = new HashMap<>();
 
         if (closePrices.length >= period + 1) {
-            double[] vortex = calculateVortex(highPrices, lowPrices, closePrices, period);
+            double[][] movements = calculateMovements(highPrices, lowPrices, closePrices);
+            double[] vortex = calculateVortex(movements, movements[0].length, period);
             result.put("vi_plus", round(vortex[0]));
             result.put("vi_minus", round(vortex[1]));
             result.put("vortex_signal", getSignal(vortex[0], vortex[1]));
@@ -71,7 +75,38 @@ public class VortexCalculator implements IndicatorCalculator {
         return result;
     }
 
-    private double[] calculateVortex(double[] highs, double[] lows, double[] closes, int period) {
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 14);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (closePrices.length < period + 1) {
+            return output;
+        }
+
+        // VM+、VM-、TR 只計算一次（第 i 日存於索引 i - 1），各視窗依序累加
+        double[][] movements = calculateMovements(highPrices, lowPrices, closePrices);
+        double[] plusColumn = output.numberColumn("vi_plus");
+        double[] minusColumn = output.numberColumn("vi_minus");
+        String[] signalColumn = output.labelColumn("vortex_signal");
+        for (int i = period; i < closePrices.length; i++) {
+            double[] vortex = calculateVortex(movements, i, period);
+            plusColumn[i] = round(vortex[0]);
+            minusColumn[i] = round(vortex[1]);
+            signalColumn[i] = getSignal(vortex[0], vortex[1]);
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算 VM+, VM-, TR 序列（長度為價格筆數 - 1）
+     */
+    private double[][] calculateMovements(double[] highs, double[] lows, double[] closes) {
         int length = closes.length;
 
         // 計算 VM+, VM-, TR 序列
@@ -89,13 +124,24 @@ public class VortexCalculator implements IndicatorCalculator {
             tr[i - 1] = Math.max(hl, Math.max(hc, lc));
         }
 
+        return new double[][]{vmPlus, vmMinus, tr};
+    }
+
+    /**
+     * 計算 [end - period, end) 的 VI+ / VI-
+     */
+    private double[] calculateVortex(double[][] movements, int end, int period) {
+        double[] vmPlus = movements[0];
+        double[] vmMinus = movements[1];
+        double[] tr = movements[2];
+
         // 計算 n 日總和
-        int startIndex = vmPlus.length - period;
+        int startIndex = end - period;
         double sumVMPlus = 0;
         double sumVMMinus = 0;
         double sumTR = 0;
 
-        for (int i = startIndex; i < vmPlus.length; i++) {
+        for (int i = startIndex; i < end; i++) {
             sumVMPlus += vmPlus[i];
             sumVMMinus += vmMinus[i];
             sumTR += tr[i];
@@ -1,7 +1,10 @@
 package com.chris.fin_shark.m07.engine.calculator.trend;
 
+import com.chris.fin_shark.m07.engine.ScratchArena;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.kernel.Kernels;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -64,6 +67,31 @@ public class WMACalculator implements IndicatorCalculator {
         return result;
     }
 
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        @SuppressWarnings("unchecked")
+        List<Integer> periods = (List<Integer>) params.getOrDefault("periods", List.of(10, 20));
+
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        try (ScratchArena arena = ScratchArena.open()) {
+            double[] wma = arena.doubles(closePrices.length);
+            for (Integer period : periods) {
+                if (closePrices.length >= period) {
+                    // 與 calculateWMA 相同的逐視窗累加（SIMD 實作逐位相同）
+                    Kernels.current().weightedWindowMean(closePrices, closePrices.length, period, wma);
+                    double[] column = output.numberColumn("wma_" + period);
+                    for (int i = period - 1; i < closePrices.length; i++) {
+                        column[i] = round(wma[i]);
+                    }
+                }
+            }
+        }
+
+        return output;
+    }
+
     /**
      * 計算 WMA
      *
@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator.trend;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -20,6 +22,9 @@ import java.util.Map;
  * <p>
  * 特點：透過調整價格來消除滯後性
  * </p>
+ * <p>
+ * 調整價格與 EMA（以第一筆調整價格為初始值）皆由 {@link IndicatorContext} 快取
+ * </p>
  *
  * @author chris
  * @since 1.0.0
@@ -52,6 +57,12 @@ public class ZLEMACalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        return calculate(series, params, IndicatorContext.of(series));
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
         @SuppressWarnings("unchecked")
         List<Integer> periods = (List<Integer>) params.getOrDefault("periods", List.of(10, 20));
 
@@ -61,7 +72,7 @@ public class ZLEMACalculator implements IndicatorCalculator {
         for (Integer period : periods) {
             int lag = (period - 1) / 2;
             if (closePrices.length >= period + lag) {
-                double zlema = calculateZLEMA(closePrices, period);
+                double zlema = zlemaSeries(context, period)[closePrices.length - 1];
                 result.put("zlema_" + period, round(zlema));
             }
         }
@@ -69,29 +80,51 @@ public class ZLEMACalculator implements IndicatorCalculator {
         return result;
     }
 
-    private double calculateZLEMA(double[] prices, int period) {
-        int lag = (period - 1) / 2;
-        int length = prices.length;
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        @SuppressWarnings("unchecked")
+        List<Integer> periods = (List<Integer>) params.getOrDefault("periods", List.of(10, 20));
 
-        // 計算調整後的價格序列
-        double[] adjustedPrices = new double[length];
-        for (int i = lag; i < length; i++) {
-            adjustedPrices[i] = prices[i] + (prices[i] - prices[i - lag]);
-        }
-        // 填充前面的值
-        for (int i = 0; i < lag; i++) {
-            adjustedPrices[i] = prices[i];
-        }
+        double[] closePrices = series.getCloseArray();
+        int length = closePrices.length;
+        IndicatorSeries output = IndicatorSeries.ofSize(length);
+        IndicatorContext context = IndicatorContext.of(series);
 
-        // 計算 EMA
-        double multiplier = 2.0 / (period + 1);
-        double ema = adjustedPrices[0];
+        // 調整價格與 EMA 皆為逐筆序列，第 i 筆只依賴前 i + 1 筆
+        for (Integer period : periods) {
+            int lag = (period - 1) / 2;
+            if (length < period + lag) {
+                continue;
+            }
 
-        for (int i = 1; i < length; i++) {
-            ema = (adjustedPrices[i] - ema) * multiplier + ema;
+            double[] zlema = zlemaSeries(context, period);
+            double[] column = output.numberColumn("zlema_" + period);
+            for (int i = period + lag - 1; i < length; i++) {
+                column[i] = round(zlema[i]);
+            }
         }
 
-        return ema;
+        return output;
+    }
+
+    /**
+     * ZLEMA 序列：調整價格以上下文快取，再由 {@link IndicatorContext#emaFirstSeeded(String, int, int)} 計算
+     */
+    private double[] zlemaSeries(IndicatorContext context, int period) {
+        int lag = (period - 1) / 2;
+        String adjustedKey = IndicatorContext.key("zlag", IndicatorContext.CLOSE, lag);
+
+        // 調整後的價格序列（前 lag 筆沿用原價）
+        context.memo(adjustedKey, () -> {
+            double[] prices = context.source(IndicatorContext.CLOSE);
+            double[] adjustedPrices = new double[prices.length];
+            for (int i = 0; i < prices.length; i++) {
+                adjustedPrices[i] = i >= lag ? prices[i] + (prices[i] - prices[i - lag]) : prices[i];
+            }
+            return adjustedPrices;
+        });
+
+        return context.emaFirstSeeded(adjustedKey, period, 0);
     }
 
     private double round(double value) {
@@ -1,8 +1,16 @@
 package com.chris.fin_shark.m07.engine.calculator.volatility;
 
-import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.ScratchArena;
+import com.chris.fin_shark.m07.engine.calculator.PeriodSweepCalculator;
+import com.chris.fin_shark.m07.engine.kernel.Kernels;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
+import com.chris.fin_shark.m07.engine.model.IndicatorKeys;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.IndicatorValues;
+import com.chris.fin_shark.m07.engine.model.PeriodMatrix;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m07.engine.stats.RollingMoments;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
@@ -16,12 +24,27 @@ import java.util.Map;
  * Upper Band = SMA(20) + (2 * STD)
  * Lower Band = SMA(20) - (2 * STD)
  * </p>
+ * <p>
+ * 均值與標準差取自 {@link IndicatorContext#rollingMean} / {@link IndicatorContext#rollingStdDev}
+ * （{@link RollingMoments} 滑動計算），同一計劃內的標準差、Z 分數計算器共用同一次掃描
+ * </p>
+ * <p>
+ * 參數帶有 periods 時改為多週期掃描，暫存緩衝區由各週期共用、結果寫入週期矩陣，
+ * 輸出 bbands_N.upper / middle / lower / percent_b / bandwidth（不輸出信號）
+ * </p>
  *
  * @author chris
  * @since 1.0.0
  */
 @Component
-public class BBandsCalculator implements IndicatorCalculator {
+public class BBandsCalculator implements PeriodSweepCalculator {
+
+    private static final int UPPER = IndicatorKeys.slot("bbands.upper");
+    private static final int MIDDLE = IndicatorKeys.slot("bbands.middle");
+    private static final int LOWER = IndicatorKeys.slot("bbands.lower");
+    private static final int PERCENT_B = IndicatorKeys.slot("bbands.percent_b");
+    private static final int BANDWIDTH = IndicatorKeys.slot("bbands.bandwidth");
+    private static final int SIGNAL = IndicatorKeys.slot("bbands.signal");
 
     @Override
     public String getName() {
@@ -51,6 +74,17 @@ public class BBandsCalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        return calculate(series, params, IndicatorContext.of(series));
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
+        int[] periods = PeriodSweepCalculator.sweepPeriods(params);
+        if (periods != null) {
+            return calculateSweep(series, periods, params);
+        }
+
         // 取得參數
         int period = (int) params.getOrDefault("period", 20);
         double stdDevMultiplier = params.containsKey("std_dev")
@@ -65,60 +99,227 @@ public class BBandsCalculator implements IndicatorCalculator {
             return Map.of();
         }
 
-        // 計算 Middle Band（SMA）
-        double middleBand = calculateSMA(closePrices, period);
+        // 組裝結果
+        Map<String, Object> bbandsResult = new HashMap<>();
+        try (ScratchArena arena = ScratchArena.open()) {
+            double[] bands = lastBands(closePrices, period, stdDevMultiplier, context, arena);
+            bbandsResult.put("upper", round(bands[0]));
+            bbandsResult.put("middle", round(bands[1]));
+            bbandsResult.put("lower", round(bands[2]));
+            bbandsResult.put("percent_b", round(bands[3]));
+            bbandsResult.put("bandwidth", round(bands[4]));
+            bbandsResult.put("signal", getSignal(bands[3]));
+        }
+
+        // 返回
+        Map<String, Object> result = new HashMap<>();
+        result.put("bbands", bbandsResult);
+
+        return result;
+    }
+
+    @Override
+    public void calculateInto(PriceSeries series, Map<String, Object> params,
+                              IndicatorContext context, IndicatorValues out) {
+        int[] periods = PeriodSweepCalculator.sweepPeriods(params);
+        if (periods != null) {
+            out.putAll(getCategory(), calculateSweep(series, periods, params));
+            return;
+        }
+
+        int period = (int) params.getOrDefault("period", 20);
+        double stdDevMultiplier = params.containsKey("std_dev")
+                ? ((Number) params.get("std_dev")).doubleValue()
+                : 2.0;
 
-        // 計算標準差
-        double stdDev = calculateStdDev(closePrices, period, middleBand);
+        double[] closePrices = series.getCloseArray();
+        if (closePrices.length < period) {
+            return;
+        }
+
+        try (ScratchArena arena = ScratchArena.open()) {
+            double[] bands = lastBands(closePrices, period, stdDevMultiplier, context, arena);
+            out.putNumber(getCategory(), UPPER, round(bands[0]));
+            out.putNumber(getCategory(), MIDDLE, round(bands[1]));
+            out.putNumber(getCategory(), LOWER, round(bands[2]));
+            out.putNumber(getCategory(), PERCENT_B, round(bands[3]));
+            out.putNumber(getCategory(), BANDWIDTH, round(bands[4]));
+            out.putLabel(getCategory(), SIGNAL, getSignal(bands[3]));
+        }
+    }
+
+    /**
+     * 計算最新一筆的通道（未四捨五入，結果借用暫存緩衝區）
+     *
+     * @return [upper, middle, lower, percentB, bandwidth]（長度可能大於 5）
+     */
+    private double[] lastBands(double[] closePrices, int period, double stdDevMultiplier,
+                               IndicatorContext context, ScratchArena arena) {
+        // Middle Band（SMA）與標準差（上下文快取）
+        int last = closePrices.length - 1;
+        double middleBand = context.rollingMean(IndicatorContext.CLOSE, period)[last];
+        double stdDev = context.rollingStdDev(IndicatorContext.CLOSE, period)[last];
 
         // 計算 Upper/Lower Band
         double upperBand = middleBand + (stdDevMultiplier * stdDev);
         double lowerBand = middleBand - (stdDevMultiplier * stdDev);
 
         // 計算當前價格位置（%B）
-        double currentPrice = closePrices[closePrices.length - 1];
-        double percentB = (currentPrice - lowerBand) / (upperBand - lowerBand);
+        double percentB = (closePrices[last] - lowerBand) / (upperBand - lowerBand);
 
         // 計算頻寬（Bandwidth）
         double bandwidth = (upperBand - lowerBand) / middleBand;
 
-        // 組裝結果
-        Map<String, Object> bbandsResult = new HashMap<>();
-        bbandsResult.put("upper", round(upperBand));
-        bbandsResult.put("middle", round(middleBand));
-        bbandsResult.put("lower", round(lowerBand));
-        bbandsResult.put("percent_b", round(percentB));
-        bbandsResult.put("bandwidth", round(bandwidth));
-        bbandsResult.put("signal", getSignal(percentB));
+        double[] bands = arena.doubles(5);
+        bands[0] = upperBand;
+        bands[1] = middleBand;
+        bands[2] = lowerBand;
+        bands[3] = percentB;
+        bands[4] = bandwidth;
+        return bands;
+    }
 
-        // 返回
-        Map<String, Object> result = new HashMap<>();
-        result.put("bbands", bbandsResult);
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int[] periods = PeriodSweepCalculator.sweepPeriods(params);
+        if (periods != null) {
+            IndicatorSeries output = IndicatorSeries.ofSize(series.size());
+            Map<String, PeriodMatrix> bands = sweep(series, periods, params);
+            for (int r = 0; r < periods.length; r++) {
+                if (series.size() < periods[r]) {
+                    continue;
+                }
+                for (Map.Entry<String, PeriodMatrix> band : bands.entrySet()) {
+                    String column = "bbands_" + periods[r] + IndicatorSeries.KEY_SEPARATOR + band.getKey();
+                    System.arraycopy(band.getValue().row(r), 0, output.numberColumn(column), 0, series.size());
+                }
+            }
+            return output;
+        }
 
-        return result;
+        int period = (int) params.getOrDefault("period", 20);
+        double stdDevMultiplier = params.containsKey("std_dev")
+                ? ((Number) params.get("std_dev")).doubleValue()
+                : 2.0;
+
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (closePrices.length < period) {
+            return output;
+        }
+
+        double[] upper = output.numberColumn("bbands.upper");
+        double[] middle = output.numberColumn("bbands.middle");
+        double[] lower = output.numberColumn("bbands.lower");
+        double[] percentBs = output.numberColumn("bbands.percent_b");
+        double[] bandwidths = output.numberColumn("bbands.bandwidth");
+        String[] signals = output.labelColumn("bbands.signal");
+
+        IndicatorContext context = IndicatorContext.of(series);
+        try (ScratchArena arena = ScratchArena.open()) {
+            int length = closePrices.length;
+            double[] means = context.rollingMean(IndicatorContext.CLOSE, period);
+            double[] stdDevs = context.rollingStdDev(IndicatorContext.CLOSE, period);
+            double[] upperBands = arena.doubles(length);
+            double[] lowerBands = arena.doubles(length);
+            Kernels.current().bands(means, stdDevs, stdDevMultiplier, period - 1, length, upperBands, lowerBands);
+
+            for (int i = period - 1; i < length; i++) {
+                double middleBand = means[i];
+                double upperBand = upperBands[i];
+                double lowerBand = lowerBands[i];
+                double percentB = (closePrices[i] - lowerBand) / (upperBand - lowerBand);
+                double bandwidth = (upperBand - lowerBand) / middleBand;
+
+                upper[i] = round(upperBand);
+                middle[i] = round(middleBand);
+                lower[i] = round(lowerBand);
+                percentBs[i] = round(percentB);
+                bandwidths[i] = round(bandwidth);
+                signals[i] = getSignal(percentB);
+            }
+        }
+
+        return output;
     }
 
-    /**
-     * 計算 SMA
-     */
-    private double calculateSMA(double[] prices, int period) {
-        double sum = 0;
-        for (int i = prices.length - period; i < prices.length; i++) {
-            sum += prices[i];
+    @Override
+    public Map<String, PeriodMatrix> sweep(PriceSeries series, int[] periods, Map<String, Object> params) {
+        double stdDevMultiplier = params.containsKey("std_dev")
+                ? ((Number) params.get("std_dev")).doubleValue()
+                : 2.0;
+
+        double[] closePrices = series.getCloseArray();
+        int length = closePrices.length;
+        PeriodMatrix upper = PeriodMatrix.of(periods, length);
+        PeriodMatrix middle = PeriodMatrix.of(periods, length);
+        PeriodMatrix lower = PeriodMatrix.of(periods, length);
+        PeriodMatrix percentBs = PeriodMatrix.of(periods, length);
+        PeriodMatrix bandwidths = PeriodMatrix.of(periods, length);
+
+        try (ScratchArena arena = ScratchArena.open()) {
+            // 暫存緩衝區由所有週期輪流使用
+            double[] stdDevs = arena.doubles(length);
+            double[] upperBands = arena.doubles(length);
+            double[] lowerBands = arena.doubles(length);
+            for (int r = 0; r < periods.length; r++) {
+                int period = periods[r];
+                if (length < period) {
+                    continue;
+                }
+                // 均值直接寫入 middle 列，再就地四捨五入
+                double[] means = middle.row(r);
+                RollingMoments.rollingMeanStdDev(closePrices, length, period, false, means, stdDevs);
+                Kernels.current().bands(means, stdDevs, stdDevMultiplier, period - 1, length,
+                        upperBands, lowerBands);
+
+                double[] upperRow = upper.row(r);
+                double[] lowerRow = lower.row(r);
+                double[] percentBRow = percentBs.row(r);
+                double[] bandwidthRow = bandwidths.row(r);
+                for (int i = period - 1; i < length; i++) {
+                    double middleBand = means[i];
+                    double upperBand = upperBands[i];
+                    double lowerBand = lowerBands[i];
+                    double percentB = (closePrices[i] - lowerBand) / (upperBand - lowerBand);
+                    double bandwidth = (upperBand - lowerBand) / middleBand;
+
+                    upperRow[i] = round(upperBand);
+                    means[i] = round(middleBand);
+                    lowerRow[i] = round(lowerBand);
+                    percentBRow[i] = round(percentB);
+                    bandwidthRow[i] = round(bandwidth);
+                }
+            }
         }
-        return sum / period;
+
+        return Map.of(
+                "upper", upper,
+                "middle", middle,
+                "lower", lower,
+                "percent_b", percentBs,
+                "bandwidth", bandwidths
+        );
     }
 
     /**
-     * 計算標準差
+     * 多週期掃描的最新一筆（bbands_N → 通道數值）
      */
-    private double calculateStdDev(double[] prices, int period, double mean) {
-        double sumSquaredDiff = 0;
-        for (int i = prices.length - period; i < prices.length; i++) {
-            double diff = prices[i] - mean;
-            sumSquaredDiff += diff * diff;
+    private Map<String, Object> calculateSweep(PriceSeries series, int[] periods, Map<String, Object> params) {
+        Map<String, PeriodMatrix> bands = sweep(series, periods, params);
+        Map<String, Object> result = new HashMap<>();
+        for (int r = 0; r < periods.length; r++) {
+            if (series.size() < periods[r]) {
+                continue;
+            }
+            Map<String, Object> bbandsResult = new HashMap<>();
+            for (Map.Entry<String, PeriodMatrix> band : bands.entrySet()) {
+                bbandsResult.put(band.getKey(), band.getValue().latest(r));
+            }
+            result.put("bbands_" + periods[r], bbandsResult);
         }
-        return Math.sqrt(sumSquaredDiff / period);
+        return result;
     }
 
     /**
@@ -2,10 +2,12 @@ package com.chris.fin_shark.m07.engine.calculator.volatility;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -49,6 +51,7 @@ public class ChaikinVolatilityCalculator implements IndicatorCalculator {
                 .minDataPoints(30)
                 .defaultParams(Map.of("emaPeriod", 10, "rocPeriod", 10))
                 .priority("P2")
+                .outputKeyPrefixes(List.of("chaikin_volatility", "chaikin_vol"))
                 .build();
     }
 
@@ -71,7 +74,41 @@ public class ChaikinVolatilityCalculator implements IndicatorCalculator {
         return result;
     }
 
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int emaPeriod = (int) params.getOrDefault("emaPeriod", 10);
+        int rocPeriod = (int) params.getOrDefault("rocPeriod", 10);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(highPrices.length);
+
+        if (highPrices.length < emaPeriod + rocPeriod) {
+            return output;
+        }
+
+        // EMA(High - Low) 為遞推序列，整段計算一次後逐日取 ROC
+        double[] emaHL = calculateEMAOfRange(highPrices, lowPrices, emaPeriod);
+        double[] volatilityColumn = output.numberColumn("chaikin_volatility");
+        String[] signalColumn = output.labelColumn("chaikin_vol_signal");
+        for (int i = emaPeriod + rocPeriod - 1; i < highPrices.length; i++) {
+            double chaikinVol = rateOfChange(emaHL, i, rocPeriod);
+            volatilityColumn[i] = round(chaikinVol);
+            signalColumn[i] = getSignal(chaikinVol);
+        }
+
+        return output;
+    }
+
     private double calculateChaikinVolatility(double[] highs, double[] lows, int emaPeriod, int rocPeriod) {
+        double[] emaHL = calculateEMAOfRange(highs, lows, emaPeriod);
+        return rateOfChange(emaHL, highs.length - 1, rocPeriod);
+    }
+
+    /**
+     * 計算 EMA(High - Low) 序列
+     */
+    private double[] calculateEMAOfRange(double[] highs, double[] lows, int emaPeriod) {
         int length = highs.length;
 
         // 計算 High - Low 序列
@@ -81,10 +118,13 @@ public class ChaikinVolatilityCalculator implements IndicatorCalculator {
         }
 
         // 計算 EMA of HL
-        double[] emaHL = calculateEMASeries(hl, emaPeriod);
+        return calculateEMASeries(hl, emaPeriod);
+    }
 
-        // 計算 ROC of EMA
-        int currentIndex = length - 1;
+    /**
+     * 計算 ROC of EMA
+     */
+    private double rateOfChange(double[] emaHL, int currentIndex, int rocPeriod) {
         int pastIndex = currentIndex - rocPeriod;
 
         if (emaHL[pastIndex] != 0) {
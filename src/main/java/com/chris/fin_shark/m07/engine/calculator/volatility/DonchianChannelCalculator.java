@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator.volatility;
 
+import com.chris.fin_shark.m07.engine.RollingWindows;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -65,18 +67,40 @@ public class DonchianChannelCalculator implements IndicatorCalculator {
         }
 
         // 找出最近 period 天的最高價和最低價
-        double upperBand = Double.MIN_VALUE;
-        double lowerBand = Double.MAX_VALUE;
+        int length = highPrices.length;
+        double upperBand = RollingWindows.max(highPrices, length, period);
+        double lowerBand = RollingWindows.min(lowPrices, length, period);
 
-        int startIndex = highPrices.length - period;
-        for (int i = startIndex; i < highPrices.length; i++) {
-            upperBand = Math.max(upperBand, highPrices[i]);
-            lowerBand = Math.min(lowerBand, lowPrices[i]);
+        return toResult(period, upperBand, lowerBand, closePrices[length - 1]);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 20);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (highPrices.length < period) {
+            return output;
         }
 
+        // 單調佇列求整段滑動最高/最低價
+        double[] upperBands = RollingWindows.rollingMax(highPrices, period);
+        double[] lowerBands = RollingWindows.rollingMin(lowPrices, period);
+
+        for (int i = period - 1; i < closePrices.length; i++) {
+            output.put(i, toResult(period, upperBands[i], lowerBands[i], closePrices[i]));
+        }
+
+        return output;
+    }
+
+    private Map<String, Object> toResult(int period, double upperBand, double lowerBand, double currentClose) {
         double middleBand = (upperBand + lowerBand) / 2;
         double bandwidth = upperBand - lowerBand;
-        double currentClose = closePrices[closePrices.length - 1];
 
         // 計算價格在通道中的位置（0-100%）
         double position = 0;
@@ -1,8 +1,11 @@
 package com.chris.fin_shark.m07.engine.calculator.volatility;
 
+import com.chris.fin_shark.m07.engine.ScratchArena;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m07.engine.stats.RollingMoments;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
@@ -19,6 +22,9 @@ import java.util.Map;
  * <p>
  * 特點：年化波動率，用於選擇權定價和風險評估
  * </p>
+ * <p>
+ * 報酬率標準差以 {@link RollingMoments} 滑動計算，整段序列為 O(N)
+ * </p>
  *
  * @author chris
  * @since 1.0.0
@@ -48,62 +54,86 @@ public class HistoricalVolatilityCalculator implements IndicatorCalculator {
                 .minDataPoints(30)
                 .defaultParams(Map.of("periods", List.of(10, 20, 30)))
                 .priority("P2")
+                .outputKeyPrefixes(List.of("hv", "volatility_rank"))
                 .build();
     }
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        double[] closePrices = series.getCloseArray();
+        if (closePrices.length == 0) {
+            return new HashMap<>();
+        }
+        return calculateSeries(series, params).valuesAt(closePrices.length - 1);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
         @SuppressWarnings("unchecked")
         List<Integer> periods = (List<Integer>) params.getOrDefault("periods", List.of(10, 20, 30));
 
         double[] closePrices = series.getCloseArray();
-        Map<String, Object> result = new HashMap<>();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+        if (closePrices.length < 2) {
+            return output;
+        }
 
-        for (Integer period : periods) {
-            if (closePrices.length >= period + 1) {
-                double hv = calculateHV(closePrices, period);
-                result.put("hv_" + period, round(hv));
+        try (ScratchArena arena = ScratchArena.open()) {
+            // 對數報酬率（第 j 筆對應第 j + 1 根 K 棒）
+            double[] logReturns = calculateLogReturns(closePrices, arena.doubles(closePrices.length - 1));
+            double[] means = arena.doubles(logReturns.length);
+            double[] hv = arena.doubles(logReturns.length);
+
+            for (Integer period : periods) {
+                if (closePrices.length >= period + 1) {
+                    calculateHVSeries(logReturns, closePrices.length - 1, period, means, hv);
+                    double[] column = output.numberColumn("hv_" + period);
+                    for (int i = period; i < closePrices.length; i++) {
+                        column[i] = round(hv[i - 1]);
+                    }
+                }
             }
-        }
 
-        // 波動率排名
-        if (closePrices.length >= 21) {
-            double hv20 = calculateHV(closePrices, 20);
-            result.put("volatility_rank", getVolatilityRank(hv20));
+            // 波動率排名
+            if (closePrices.length >= 21) {
+                calculateHVSeries(logReturns, closePrices.length - 1, 20, means, hv);
+                String[] ranks = output.labelColumn("volatility_rank");
+                for (int i = 20; i < closePrices.length; i++) {
+                    ranks[i] = getVolatilityRank(hv[i - 1]);
+                }
+            }
         }
 
-        return result;
+        return output;
     }
 
-    private double calculateHV(double[] prices, int period) {
-        int length = prices.length;
-
-        // 計算對數報酬率
-        double[] logReturns = new double[period];
-        for (int i = 0; i < period; i++) {
-            int idx = length - period + i;
-            if (prices[idx - 1] > 0) {
-                logReturns[i] = Math.log(prices[idx] / prices[idx - 1]);
+    /**
+     * 對數報酬率（寫入 logReturns[0, prices.length - 1)）
+     */
+    private double[] calculateLogReturns(double[] prices, double[] logReturns) {
+        for (int i = 1; i < prices.length; i++) {
+            if (prices[i - 1] > 0) {
+                logReturns[i - 1] = Math.log(prices[i] / prices[i - 1]);
             } else {
-                logReturns[i] = 0;
+                logReturns[i - 1] = 0;
             }
         }
+        return logReturns;
+    }
 
-        // 計算標準差
-        double mean = 0;
-        for (double ret : logReturns) {
-            mean += ret;
-        }
-        mean /= period;
-
-        double sumSquaredDiff = 0;
-        for (double ret : logReturns) {
-            sumSquaredDiff += Math.pow(ret - mean, 2);
+    /**
+     * 年化波動率序列：樣本標準差 * sqrt(252) * 100（寫入 hv[period - 1, count)）
+     *
+     * @param logReturns 對數報酬率（前 count 筆有效，陣列可能較長）
+     * @param count      報酬率筆數
+     * @param means      均值暫存
+     * @param hv         輸出
+     */
+    private void calculateHVSeries(double[] logReturns, int count, int period, double[] means, double[] hv) {
+        RollingMoments.rollingMeanStdDev(logReturns, count, period, true, means, hv);
+        for (int j = period - 1; j < count; j++) {
+            hv[j] = hv[j] * Math.sqrt(TRADING_DAYS_PER_YEAR) * 100;
         }
-        double stdDev = Math.sqrt(sumSquaredDiff / (period - 1));  // 樣本標準差
-
-        // 年化 (乘以 sqrt(252) 並轉為百分比)
-        return stdDev * Math.sqrt(TRADING_DAYS_PER_YEAR) * 100;
     }
 
     private String getVolatilityRank(double hv) {
@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m07.engine.calculator.volatility;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -64,12 +66,16 @@ public class KeltnerChannelCalculator implements IndicatorCalculator {
 
     @Override
     public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        return calculate(series, params, IndicatorContext.of(series));
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
         int emaPeriod = (int) params.getOrDefault("emaPeriod", 20);
         int atrPeriod = (int) params.getOrDefault("atrPeriod", 10);
         double multiplier = ((Number) params.getOrDefault("multiplier", 2.0)).doubleValue();
 
-        double[] highPrices = series.getHighArray();
-        double[] lowPrices = series.getLowArray();
         double[] closePrices = series.getCloseArray();
 
         int minRequired = Math.max(emaPeriod, atrPeriod);
@@ -77,16 +83,18 @@ public class KeltnerChannelCalculator implements IndicatorCalculator {
             return Map.of();
         }
 
-        // 計算 EMA
-        double ema = calculateEMA(closePrices, emaPeriod);
+        int lastIndex = closePrices.length - 1;
 
-        // 計算 ATR
-        double atr = calculateATR(highPrices, lowPrices, closePrices, atrPeriod);
+        // 計算 EMA（與 EMA/MACD 共用）
+        double ema = context.ema(IndicatorContext.CLOSE, emaPeriod)[lastIndex];
+
+        // 計算 ATR（與 Supertrend 共用 True Range）
+        double atr = context.atr(atrPeriod)[lastIndex];
 
         // 計算通道
         double upperBand = ema + multiplier * atr;
         double lowerBand = ema - multiplier * atr;
-        double currentClose = closePrices[closePrices.length - 1];
+        double currentClose = closePrices[lastIndex];
 
         // 計算價格在通道中的位置
         double bandwidth = upperBand - lowerBand;
@@ -106,56 +114,50 @@ public class KeltnerChannelCalculator implements IndicatorCalculator {
         return result;
     }
 
-    /**
-     * 計算 EMA
-     */
-    private double calculateEMA(double[] prices, int period) {
-        double multiplier = 2.0 / (period + 1);
-
-        // 初始 EMA = 第一個價格的 SMA
-        double ema = 0;
-        for (int i = 0; i < period; i++) {
-            ema += prices[i];
-        }
-        ema /= period;
-
-        // 計算後續 EMA
-        for (int i = period; i < prices.length; i++) {
-            ema = (prices[i] - ema) * multiplier + ema;
-        }
-
-        return ema;
-    }
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int emaPeriod = (int) params.getOrDefault("emaPeriod", 20);
+        int atrPeriod = (int) params.getOrDefault("atrPeriod", 10);
+        double multiplier = ((Number) params.getOrDefault("multiplier", 2.0)).doubleValue();
 
-    /**
-     * 計算 ATR
-     */
-    private double calculateATR(double[] high, double[] low, double[] close, int period) {
-        int length = high.length;
-
-        // 計算 True Range 序列
-        double[] tr = new double[length];
-        tr[0] = high[0] - low[0];
-
-        for (int i = 1; i < length; i++) {
-            double hl = high[i] - low[i];
-            double hc = Math.abs(high[i] - close[i - 1]);
-            double lc = Math.abs(low[i] - close[i - 1]);
-            tr[i] = Math.max(hl, Math.max(hc, lc));
-        }
+        double[] closePrices = series.getCloseArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
 
-        // 計算 ATR（使用 RMA/Wilder's smoothing）
-        double atr = 0;
-        for (int i = 0; i < period; i++) {
-            atr += tr[i];
+        int minRequired = Math.max(emaPeriod, atrPeriod);
+        if (closePrices.length < minRequired) {
+            return output;
         }
-        atr /= period;
 
-        for (int i = period; i < length; i++) {
-            atr = (atr * (period - 1) + tr[i]) / period;
+        IndicatorContext context = IndicatorContext.of(series);
+        double[] emaValues = context.ema(IndicatorContext.CLOSE, emaPeriod);
+        double[] atrValues = context.atr(atrPeriod);
+
+        double[] upper = output.numberColumn("keltner_upper");
+        double[] middle = output.numberColumn("keltner_middle");
+        double[] lower = output.numberColumn("keltner_lower");
+        double[] bandwidths = output.numberColumn("keltner_bandwidth");
+        double[] positions = output.numberColumn("keltner_position");
+        String[] signals = output.labelColumn("keltner_signal");
+
+        for (int i = minRequired - 1; i < closePrices.length; i++) {
+            double ema = emaValues[i];
+            double upperBand = ema + multiplier * atrValues[i];
+            double lowerBand = ema - multiplier * atrValues[i];
+            double bandwidth = upperBand - lowerBand;
+            double position = 0;
+            if (bandwidth > 0) {
+                position = ((closePrices[i] - lowerBand) / bandwidth) * 100;
+            }
+
+            upper[i] = round(upperBand);
+            middle[i] = round(ema);
+            lower[i] = round(lowerBand);
+            bandwidths[i] = round(bandwidth);
+            positions[i] = round(position);
+            signals[i] = getSignal(closePrices[i], upperBand, lowerBand, ema);
         }
 
-        return atr;
+        return output;
     }
 
     private String getSignal(double close, double upper, double lower, double middle) {
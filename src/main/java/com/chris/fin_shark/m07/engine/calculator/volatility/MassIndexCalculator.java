@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.volatility;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -64,7 +65,8 @@ public class MassIndexCalculator implements IndicatorCalculator {
         Map<String, Object> result = new HashMap<>();
 
         if (highPrices.length >= emaPeriod * 2 + sumPeriod) {
-            double massIndex = calculateMassIndex(highPrices, lowPrices, emaPeriod, sumPeriod);
+            double[] emaRatio = calculateEMARatio(highPrices, lowPrices, emaPeriod);
+            double massIndex = sumRatio(emaRatio, emaRatio.length, sumPeriod);
             result.put("mass_index", round(massIndex));
             result.put("mass_index_signal", getSignal(massIndex));
         }
@@ -72,7 +74,37 @@ public class MassIndexCalculator implements IndicatorCalculator {
         return result;
     }
 
-    private double calculateMassIndex(double[] highs, double[] lows, int emaPeriod, int sumPeriod) {
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int emaPeriod = (int) params.getOrDefault("emaPeriod", 9);
+        int sumPeriod = (int) params.getOrDefault("sumPeriod", 25);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(highPrices.length);
+
+        int required = emaPeriod * 2 + sumPeriod;
+        if (highPrices.length < required) {
+            return output;
+        }
+
+        // EMA 比率為遞推序列，整段計算一次後各視窗依序累加
+        double[] emaRatio = calculateEMARatio(highPrices, lowPrices, emaPeriod);
+        double[] massColumn = output.numberColumn("mass_index");
+        String[] signalColumn = output.labelColumn("mass_index_signal");
+        for (int i = required - 1; i < highPrices.length; i++) {
+            double massIndex = sumRatio(emaRatio, i + 1, sumPeriod);
+            massColumn[i] = round(massIndex);
+            signalColumn[i] = getSignal(massIndex);
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算 EMA 比率序列（Single EMA / Double EMA）
+     */
+    private double[] calculateEMARatio(double[] highs, double[] lows, int emaPeriod) {
         int length = highs.length;
 
         // 計算 High - Low 序列
@@ -93,10 +125,16 @@ public class MassIndexCalculator implements IndicatorCalculator {
             emaRatio[i] = doubleEma[i] != 0 ? singleEma[i] / doubleEma[i] : 1;
         }
 
-        // Mass Index = Sum of EMA Ratio over sumPeriod
+        return emaRatio;
+    }
+
+    /**
+     * Mass Index = [end - sumPeriod, end) 的 EMA 比率總和
+     */
+    private double sumRatio(double[] emaRatio, int end, int sumPeriod) {
         double sum = 0;
-        int startIndex = length - sumPeriod;
-        for (int i = startIndex; i < length; i++) {
+        int startIndex = end - sumPeriod;
+        for (int i = startIndex; i < end; i++) {
             sum += emaRatio[i];
         }
 
@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.volume;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -66,7 +67,31 @@ public class ADLineCalculator implements IndicatorCalculator {
         double[] adLine = calculateADLine(highPrices, lowPrices, closePrices, volumes);
 
         // 取最新值和前一日值
-        int lastIndex = adLine.length - 1;
+        return toResult(adLine, closePrices, adLine.length - 1);
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        long[] volumes = series.getVolumeArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (closePrices.length < 2 || volumes.length < 2) {
+            return output;
+        }
+
+        // AD 線為累加序列，第 i 筆只依賴前 i + 1 筆，整段計算一次即可
+        double[] adLine = calculateADLine(highPrices, lowPrices, closePrices, volumes);
+        for (int i = 1; i < adLine.length; i++) {
+            output.put(i, toResult(adLine, closePrices, i));
+        }
+
+        return output;
+    }
+
+    private Map<String, Object> toResult(double[] adLine, double[] closePrices, int lastIndex) {
         double currentAD = adLine[lastIndex];
         double prevAD = adLine[lastIndex - 1];
 
@@ -76,7 +101,7 @@ public class ADLineCalculator implements IndicatorCalculator {
         Map<String, Object> result = new HashMap<>();
         result.put("ad", round(currentAD));
         result.put("ad_change", round(adChange));
-        result.put("ad_signal", getSignal(adChange, closePrices));
+        result.put("ad_signal", getSignal(adChange, closePrices, lastIndex));
 
         return result;
     }
@@ -109,9 +134,8 @@ public class ADLineCalculator implements IndicatorCalculator {
         return ((close - low) - (high - close)) / range;
     }
 
-    private String getSignal(double adChange, double[] closePrices) {
+    private String getSignal(double adChange, double[] closePrices, int last) {
         // 檢查價格變化
-        int last = closePrices.length - 1;
         double priceChange = closePrices[last] - closePrices[last - 1];
 
         // 檢查背離
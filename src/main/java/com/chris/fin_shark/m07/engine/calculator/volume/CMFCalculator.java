@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.volume;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -68,21 +69,63 @@ public class CMFCalculator implements IndicatorCalculator {
         }
 
         // 計算最近 period 天的 CMF
+        double[] moneyFlowVolumes = calculateMoneyFlowVolumes(highPrices, lowPrices, closePrices, volumes);
+        return toResult(period, cmfAt(moneyFlowVolumes, volumes, closePrices.length, period));
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 20);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        double[] closePrices = series.getCloseArray();
+        long[] volumes = series.getVolumeArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (closePrices.length < period || volumes.length < period) {
+            return output;
+        }
+
+        // 資金流量只計算一次，各視窗依序累加（與逐日計算逐位相同）
+        double[] moneyFlowVolumes = calculateMoneyFlowVolumes(highPrices, lowPrices, closePrices, volumes);
+        for (int i = period - 1; i < closePrices.length; i++) {
+            output.put(i, toResult(period, cmfAt(moneyFlowVolumes, volumes, i + 1, period)));
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算每日資金流量（MFM × 成交量）
+     */
+    private double[] calculateMoneyFlowVolumes(double[] high, double[] low, double[] close, long[] volume) {
+        double[] moneyFlowVolumes = new double[close.length];
+        for (int i = 0; i < close.length; i++) {
+            moneyFlowVolumes[i] = calculateMFM(high[i], low[i], close[i]) * volume[i];
+        }
+        return moneyFlowVolumes;
+    }
+
+    /**
+     * 計算 [end - period, end) 的 CMF
+     */
+    private double cmfAt(double[] moneyFlowVolumes, long[] volumes, int end, int period) {
         double mfvSum = 0;
         double volumeSum = 0;
 
-        int startIndex = closePrices.length - period;
-        for (int i = startIndex; i < closePrices.length; i++) {
-            double mfm = calculateMFM(highPrices[i], lowPrices[i], closePrices[i]);
-            mfvSum += mfm * volumes[i];
+        for (int i = end - period; i < end; i++) {
+            mfvSum += moneyFlowVolumes[i];
             volumeSum += volumes[i];
         }
 
-        double cmf = 0;
         if (volumeSum > 0) {
-            cmf = mfvSum / volumeSum;
+            return mfvSum / volumeSum;
         }
+        return 0;
+    }
 
+    private Map<String, Object> toResult(int period, double cmf) {
         Map<String, Object> result = new HashMap<>();
         result.put("cmf_" + period, round(cmf));
         result.put("cmf_signal", getSignal(cmf));
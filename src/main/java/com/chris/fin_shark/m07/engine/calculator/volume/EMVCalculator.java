@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.volume;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -66,14 +67,44 @@ public class EMVCalculator implements IndicatorCalculator {
             return result;
         }
 
-        double emvSma = calculateEMV(highPrices, lowPrices, volumes, period);
+        double[] emv = calculateEMVSeries(highPrices, lowPrices, volumes);
+        double emvSma = smoothEMV(emv, emv.length, period);
         result.put("emv", round(emvSma));
         result.put("emv_signal", emvSma > 0 ? "BULLISH" : "BEARISH");
 
         return result;
     }
 
-    private double calculateEMV(double[] highs, double[] lows, long[] volumes, int period) {
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 14);
+
+        double[] highPrices = series.getHighArray();
+        double[] lowPrices = series.getLowArray();
+        long[] volumes = series.getVolumeArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(highPrices.length);
+
+        if (volumes.length == 0 || highPrices.length < period + 1) {
+            return output;
+        }
+
+        // 每日 EMV 只計算一次（第 i 日存於 emv[i - 1]），各視窗依序累加
+        double[] emv = calculateEMVSeries(highPrices, lowPrices, volumes);
+        double[] emvColumn = output.numberColumn("emv");
+        String[] signalColumn = output.labelColumn("emv_signal");
+        for (int i = period; i < highPrices.length; i++) {
+            double emvSma = smoothEMV(emv, i, period);
+            emvColumn[i] = round(emvSma);
+            signalColumn[i] = emvSma > 0 ? "BULLISH" : "BEARISH";
+        }
+
+        return output;
+    }
+
+    /**
+     * 計算每日 EMV（長度為價格筆數 - 1）
+     */
+    private double[] calculateEMVSeries(double[] highs, double[] lows, long[] volumes) {
         int length = highs.length;
         double[] emv = new double[length - 1];
 
@@ -89,15 +120,21 @@ public class EMVCalculator implements IndicatorCalculator {
             }
         }
 
-        // 計算 EMV 的 SMA
-        int startIndex = emv.length - period;
+        return emv;
+    }
+
+    /**
+     * 計算 emv[0, end) 最近 period 筆的 SMA
+     */
+    private double smoothEMV(double[] emv, int end, int period) {
+        int startIndex = end - period;
         if (startIndex < 0) {
             startIndex = 0;
         }
 
         double sum = 0;
         int count = 0;
-        for (int i = startIndex; i < emv.length; i++) {
+        for (int i = startIndex; i < end; i++) {
             sum += emv[i];
             count++;
         }
@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.volume;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -69,6 +70,36 @@ public class ForceIndexCalculator implements IndicatorCalculator {
         return result;
     }
 
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int period = (int) params.getOrDefault("period", 13);
+        double[] closePrices = series.getCloseArray();
+        long[] volumes = series.getVolumeArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (closePrices.length < period + 1 || volumes.length < period + 1) {
+            return output;
+        }
+
+        // Force Index 的 EMA 以第一筆為初始值逐筆推進，第 i 筆只依賴前 i + 1 筆
+        double multiplier = 2.0 / (period + 1);
+        double[] forceColumn = output.numberColumn("force_index");
+        String[] signalColumn = output.labelColumn("force_index_signal");
+        double ema = (closePrices[1] - closePrices[0]) * volumes[1];
+        for (int i = 1; i < closePrices.length; i++) {
+            if (i > 1) {
+                double forceIndex = (closePrices[i] - closePrices[i - 1]) * volumes[i];
+                ema = (forceIndex - ema) * multiplier + ema;
+            }
+            if (i >= period) {
+                forceColumn[i] = round(ema);
+                signalColumn[i] = ema > 0 ? "BULLISH" : "BEARISH";
+            }
+        }
+
+        return output;
+    }
+
     private double calculateForceIndex(double[] prices, long[] volumes, int period) {
         int length = prices.length;
 
@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.volume;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -79,6 +80,39 @@ public class NVICalculator implements IndicatorCalculator {
         return result;
     }
 
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int signalPeriod = (int) params.getOrDefault("signalPeriod", 255);
+
+        double[] closePrices = series.getCloseArray();
+        long[] volumes = series.getVolumeArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (volumes.length == 0 || closePrices.length < signalPeriod) {
+            return output;
+        }
+
+        // NVI 與信號線皆為遞推序列，信號線隨 NVI 逐筆推進
+        double[] nviSeries = calculateNVISeries(closePrices, volumes);
+        double multiplier = 2.0 / (signalPeriod + 1);
+        double[] nviColumn = output.numberColumn("nvi");
+        double[] signalColumn = output.numberColumn("nvi_signal");
+        String[] trendColumn = output.labelColumn("nvi_trend");
+        double signal = nviSeries[0];
+        for (int i = 0; i < nviSeries.length; i++) {
+            if (i > 0) {
+                signal = (nviSeries[i] - signal) * multiplier + signal;
+            }
+            if (i >= signalPeriod - 1) {
+                nviColumn[i] = round(nviSeries[i]);
+                signalColumn[i] = round(signal);
+                trendColumn[i] = nviSeries[i] > signal ? "BULLISH" : "BEARISH";
+            }
+        }
+
+        return output;
+    }
+
     private double[] calculateNVISeries(double[] prices, long[] volumes) {
         int length = prices.length;
         double[] nvi = new double[length];
@@ -2,6 +2,7 @@ package com.chris.fin_shark.m07.engine.calculator.volume;
 
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -79,6 +80,39 @@ public class PVICalculator implements IndicatorCalculator {
         return result;
     }
 
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int signalPeriod = (int) params.getOrDefault("signalPeriod", 255);
+
+        double[] closePrices = series.getCloseArray();
+        long[] volumes = series.getVolumeArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (volumes.length == 0 || closePrices.length < signalPeriod) {
+            return output;
+        }
+
+        // PVI 與信號線皆為遞推序列，信號線隨 PVI 逐筆推進
+        double[] pviSeries = calculatePVISeries(closePrices, volumes);
+        double multiplier = 2.0 / (signalPeriod + 1);
+        double[] pviColumn = output.numberColumn("pvi");
+        double[] signalColumn = output.numberColumn("pvi_signal");
+        String[] trendColumn = output.labelColumn("pvi_trend");
+        double signal = pviSeries[0];
+        for (int i = 0; i < pviSeries.length; i++) {
+            if (i > 0) {
+                signal = (pviSeries[i] - signal) * multiplier + signal;
+            }
+            if (i >= signalPeriod - 1) {
+                pviColumn[i] = round(pviSeries[i]);
+                signalColumn[i] = round(signal);
+                trendColumn[i] = pviSeries[i] > signal ? "BULLISH" : "BEARISH";
+            }
+        }
+
+        return output;
+    }
+
     private double[] calculatePVISeries(double[] prices, long[] volumes) {
         int length = prices.length;
         double[] pvi = new double[length];
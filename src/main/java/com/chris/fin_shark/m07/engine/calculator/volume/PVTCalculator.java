@@ -1,7 +1,10 @@
 package com.chris.fin_shark.m07.engine.calculator.volume;
 
+import com.chris.fin_shark.m07.engine.ScratchArena;
 import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.kernel.Kernels;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.springframework.stereotype.Component;
 
@@ -65,25 +68,58 @@ public class PVTCalculator implements IndicatorCalculator {
 
         // 計算 PVT 趨勢（比較 5 日前）
         if (length > 5) {
-            double pvtChange = pvtSeries[length - 1] - pvtSeries[length - 6];
-            result.put("pvt_trend", pvtChange > 0 ? "UP" : "DOWN");
+            result.put("pvt_trend", getTrend(pvtSeries, length - 1));
         }
 
         return result;
     }
 
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        double[] closePrices = series.getCloseArray();
+        long[] volumes = series.getVolumeArray();
+        IndicatorSeries output = IndicatorSeries.ofSize(closePrices.length);
+
+        if (volumes.length == 0 || closePrices.length < 2) {
+            return output;
+        }
+
+        // PVT 為累加序列，第 i 筆只依賴前 i + 1 筆，整段計算一次即可
+        double[] pvtSeries = calculatePVTSeries(closePrices, volumes);
+        double[] pvtColumn = output.numberColumn("pvt");
+        String[] trendColumn = output.labelColumn("pvt_trend");
+        for (int i = 1; i < pvtSeries.length; i++) {
+            pvtColumn[i] = round(pvtSeries[i]);
+            if (i >= 5) {
+                trendColumn[i] = getTrend(pvtSeries, i);
+            }
+        }
+
+        return output;
+    }
+
+    private String getTrend(double[] pvtSeries, int index) {
+        double pvtChange = pvtSeries[index] - pvtSeries[index - 5];
+        return pvtChange > 0 ? "UP" : "DOWN";
+    }
+
     private double[] calculatePVTSeries(double[] prices, long[] volumes) {
         int length = prices.length;
         double[] pvt = new double[length];
 
         pvt[0] = 0;  // 初始值
 
-        for (int i = 1; i < length; i++) {
-            if (prices[i - 1] != 0) {
-                double priceChange = (prices[i] - prices[i - 1]) / prices[i - 1];
-                pvt[i] = pvt[i - 1] + priceChange * volumes[i];
-            } else {
-                pvt[i] = pvt[i - 1];
+        try (ScratchArena arena = ScratchArena.open()) {
+            // 逐日漲跌幅（前收為 0 時為 0，下方仍以前收判斷是否累加）
+            double[] priceChanges = arena.doubles(length);
+            Kernels.current().returns(prices, length, priceChanges);
+
+            for (int i = 1; i < length; i++) {
+                if (prices[i - 1] != 0) {
+                    pvt[i] = pvt[i - 1] + priceChanges[i] * volumes[i];
+                } else {
+                    pvt[i] = pvt[i - 1];
+                }
             }
         }
 
@@ -0,0 +1,245 @@
+package com.chris.fin_shark.m07.engine.expression;
+
+import com.chris.fin_shark.m07.engine.expression.ExpressionNode.Op;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 指標運算式編譯器
+ * <p>
+ * 把 EMA(close,12) - EMA(close,26)、(close - SMA(close,20)) / STDEV(close,20)
+ * 這類運算式解析為 {@link ExpressionNode} 組成的 DAG。
+ * 同一個編譯器編譯的所有運算式共用節點表：相同的子運算式（以正規化鍵比對）只建立一次，
+ * 全為常數的子運算式在編譯時摺疊。
+ * </p>
+ * <p>
+ * 語法：
+ * <pre>
+ * expr    := term (('+' | '-') term)*
+ * term    := unary (('*' | '/') unary)*
+ * unary   := '-' unary | primary
+ * primary := number | column | function '(' args ')' | '(' expr ')'
+ * column  := open | high | low | close | volume
+ * function:= SMA | EMA | WMA | STDEV | HIGHEST | LOWEST | LAG（expr, 週期） | ABS（expr）
+ * </pre>
+ * 名稱不分大小寫，週期須為正整數常數。STDEV 為母體標準差（與布林通道相同）。
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class ExpressionCompiler {
+
+    private static final Set<String> COLUMNS = Set.of(
+            IndicatorContext.OPEN, IndicatorContext.HIGH, IndicatorContext.LOW,
+            IndicatorContext.CLOSE, IndicatorContext.VOLUME);
+
+    /** 節點表（正規化鍵 → 節點） */
+    private final Map<String, ExpressionNode> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * 編譯運算式
+     *
+     * @param expression 運算式
+     * @return DAG 的根節點
+     * @throws IllegalArgumentException 語法錯誤
+     */
+    public ExpressionNode compile(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("運算式不可為空");
+        }
+        return new Parser(expression).parse();
+    }
+
+    /**
+     * 目前節點表中的節點數（共用的子運算式只算一次）
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    private ExpressionNode intern(ExpressionNode node) {
+        ExpressionNode existing = nodes.putIfAbsent(node.getKey(), node);
+        return existing != null ? existing : node;
+    }
+
+    /**
+     * 遞迴下降解析器（每次編譯一個實例）
+     */
+    private final class Parser {
+
+        private final String text;
+
+        private int position;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        ExpressionNode parse() {
+            ExpressionNode node = expression();
+            skipSpaces();
+            if (position < text.length()) {
+                throw error("無法解析的字元 '" + text.charAt(position) + "'");
+            }
+            return node;
+        }
+
+        private ExpressionNode expression() {
+            ExpressionNode node = term();
+            while (true) {
+                if (accept('+')) {
+                    node = binary(Op.ADD, node, term());
+                } else if (accept('-')) {
+                    node = binary(Op.SUB, node, term());
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        private ExpressionNode term() {
+            ExpressionNode node = unary();
+            while (true) {
+                if (accept('*')) {
+                    node = binary(Op.MUL, node, unary());
+                } else if (accept('/')) {
+                    node = binary(Op.DIV, node, unary());
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        private ExpressionNode unary() {
+            if (accept('-')) {
+                ExpressionNode child = unary();
+                return child.isConstant()
+                        ? intern(ExpressionNode.constant(-child.getConstant()))
+                        : intern(ExpressionNode.unary(Op.NEG, child));
+            }
+            return primary();
+        }
+
+        private ExpressionNode primary() {
+            skipSpaces();
+            if (accept('(')) {
+                ExpressionNode node = expression();
+                expect(')');
+                return node;
+            }
+            if (position < text.length()
+                    && (Character.isDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+                return intern(ExpressionNode.constant(number()));
+            }
+
+            int start = position;
+            String name = identifier();
+            if (name.isEmpty()) {
+                throw error(position < text.length() ? "預期數值、欄位或函數" : "運算式不完整");
+            }
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (COLUMNS.contains(lower)) {
+                return intern(ExpressionNode.column(lower));
+            }
+
+            Op op = function(name.toUpperCase(Locale.ROOT), start);
+            expect('(');
+            ExpressionNode argument = expression();
+            if (op == Op.ABS) {
+                expect(')');
+                return intern(ExpressionNode.unary(Op.ABS, argument));
+            }
+            expect(',');
+            skipSpaces();
+            int periodStart = position;
+            double period = number();
+            if (period != Math.rint(period) || period < 1 || period > Integer.MAX_VALUE) {
+                position = periodStart;
+                throw error(op + " 的週期須為正整數");
+            }
+            expect(')');
+            return intern(ExpressionNode.window(op, argument, (int) period));
+        }
+
+        private ExpressionNode binary(Op op, ExpressionNode left, ExpressionNode right) {
+            if (left.isConstant() && right.isConstant()) {
+                return intern(ExpressionNode.constant(
+                        ExpressionNode.apply(op, left.getConstant(), right.getConstant())));
+            }
+            return intern(ExpressionNode.binary(op, left, right));
+        }
+
+        private Op function(String name, int start) {
+            return switch (name) {
+                case "SMA", "MA" -> Op.SMA;
+                case "EMA" -> Op.EMA;
+                case "WMA" -> Op.WMA;
+                case "STDEV", "STD" -> Op.STDEV;
+                case "HIGHEST", "MAX" -> Op.HIGHEST;
+                case "LOWEST", "MIN" -> Op.LOWEST;
+                case "LAG", "REF" -> Op.LAG;
+                case "ABS" -> Op.ABS;
+                default -> {
+                    position = start;
+                    throw error("未知的欄位或函數 '" + name + "'");
+                }
+            };
+        }
+
+        private double number() {
+            skipSpaces();
+            int start = position;
+            while (position < text.length()
+                    && (Character.isDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+                position++;
+            }
+            try {
+                return Double.parseDouble(text.substring(start, position));
+            } catch (NumberFormatException e) {
+                position = start;
+                throw error("無效的數值");
+            }
+        }
+
+        private String identifier() {
+            skipSpaces();
+            int start = position;
+            while (position < text.length()
+                    && (Character.isLetterOrDigit(text.charAt(position)) || text.charAt(position) == '_')) {
+                position++;
+            }
+            return text.substring(start, position);
+        }
+
+        private boolean accept(char expected) {
+            skipSpaces();
+            if (position < text.length() && text.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char expected) {
+            if (!accept(expected)) {
+                throw error("預期 '" + expected + "'");
+            }
+        }
+
+        private void skipSpaces() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(
+                    String.format("運算式語法錯誤（位置 %d）: %s，運算式: %s", position, message, text));
+        }
+    }
+}
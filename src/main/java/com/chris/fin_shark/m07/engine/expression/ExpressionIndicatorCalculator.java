@@ -0,0 +1,146 @@
+package com.chris.fin_shark.m07.engine.expression;
+
+import com.chris.fin_shark.m07.engine.IndicatorResult;
+import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
+import com.chris.fin_shark.m07.engine.model.IndicatorKeys;
+import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.IndicatorValues;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 運算式指標計算器
+ * <p>
+ * 由 {@link com.chris.fin_shark.m07.engine.IndicatorRegistry#registerExpression} 在執行期建立，
+ * 不是 Spring 元件。輸出單一數值，鍵為指標名稱的小寫（例如 MACD_FAST → macd_fast），
+ * 四捨五入到小數點後 4 位（比值型運算式需要較高精度）；
+ * 結果非有限值（除以零）或資料不足時不輸出。
+ * </p>
+ * <p>
+ * 子運算式的中間序列快取在計算上下文，同一次計劃中的其他運算式與內建計算器共用。
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public class ExpressionIndicatorCalculator implements IndicatorCalculator {
+
+    public static final String CATEGORY = IndicatorResult.CUSTOM;
+
+    private final String name;
+
+    private final String expression;
+
+    private final ExpressionNode root;
+
+    private final String outputKey;
+
+    private final int outputSlot;
+
+    public ExpressionIndicatorCalculator(String name, String expression, ExpressionNode root) {
+        this.name = name;
+        this.expression = expression;
+        this.root = root;
+        this.outputKey = name.toLowerCase(Locale.ROOT);
+        this.outputSlot = IndicatorKeys.slot(outputKey);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getCategory() {
+        return CATEGORY;
+    }
+
+    @Override
+    public IndicatorMetadata getMetadata() {
+        return IndicatorMetadata.builder()
+                .name(name)
+                .category(CATEGORY)
+                .nameZh(name)
+                .description(expression)
+                .minDataPoints(root.getWarmup() + 1)
+                .defaultParams(Map.of())
+                .priority("P2")
+                .version(root.getKey())
+                .build();
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public ExpressionNode getRoot() {
+        return root;
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params) {
+        return calculate(series, params, IndicatorContext.of(series));
+    }
+
+    @Override
+    public Map<String, Object> calculate(PriceSeries series, Map<String, Object> params,
+                                         IndicatorContext context) {
+        double value = latest(series, context);
+        if (Double.isNaN(value)) {
+            return Map.of();
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put(outputKey, value);
+        return result;
+    }
+
+    @Override
+    public void calculateInto(PriceSeries series, Map<String, Object> params,
+                              IndicatorContext context, IndicatorValues out) {
+        double value = latest(series, context);
+        if (!Double.isNaN(value)) {
+            out.putNumber(CATEGORY, outputSlot, value);
+        }
+    }
+
+    @Override
+    public IndicatorSeries calculateSeries(PriceSeries series, Map<String, Object> params) {
+        int length = series.size();
+        IndicatorSeries output = IndicatorSeries.ofSize(length);
+        if (length <= root.getWarmup()) {
+            return output;
+        }
+
+        double[] values = root.evaluate(IndicatorContext.of(series));
+        double[] column = output.numberColumn(outputKey);
+        for (int i = root.getWarmup(); i < length; i++) {
+            if (Double.isFinite(values[i])) {
+                column[i] = round(values[i]);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * 最新一筆（無值時為 NaN）
+     */
+    private double latest(PriceSeries series, IndicatorContext context) {
+        int length = series.size();
+        if (length <= root.getWarmup()) {
+            return Double.NaN;
+        }
+        double value = root.evaluate(context)[length - 1];
+        return Double.isFinite(value) ? round(value) : Double.NaN;
+    }
+
+    private double round(double value) {
+        // 超過 long 範圍的值（例如成交量乘積）四捨五入會飽和，維持原值
+        return Math.abs(value) < 1e14 ? Math.round(value * 10000.0) / 10000.0 : value;
+    }
+}
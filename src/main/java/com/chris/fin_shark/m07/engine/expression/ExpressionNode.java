@@ -0,0 +1,231 @@
+package com.chris.fin_shark.m07.engine.expression;
+
+import com.chris.fin_shark.m07.engine.RollingWindows;
+import com.chris.fin_shark.m07.engine.ScratchArena;
+import com.chris.fin_shark.m07.engine.kernel.Kernels;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
+import com.chris.fin_shark.m07.engine.stats.RollingMoments;
+
+import java.util.Arrays;
+
+/**
+ * 運算式節點（DAG 的一個節點）
+ * <p>
+ * 每個節點有正規化鍵（例如 SMA(close,20)、(close-SMA(close,20))），
+ * {@link ExpressionCompiler} 以此鍵駐留節點，相同子運算式只有一個節點。
+ * 執行時節點結果以同一個鍵快取在 {@link IndicatorContext}，
+ * 同一次計劃執行中的所有運算式共用；來源為價格欄位的 EMA 直接使用
+ * {@link IndicatorContext#ema(String, int)}，與內建的 EMA / MACD 計算器共用；
+ * 來源為價格欄位的 STDEV 使用 {@link IndicatorContext#rollingStdDev}，與布林通道共用。
+ * </p>
+ * <p>
+ * 輸出規則：
+ * 1. 輸出陣列與價格序列等長，[warmup, length) 為有效值，warmup 之前的內容未定義
+ * 2. 視窗函數的 warmup 為來源 warmup + period - 1，LAG 為來源 warmup + period
+ * 3. 第 i 筆只依賴前 i + 1 筆輸入，對前段序列計算的結果與整段計算的對應值相同
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class ExpressionNode {
+
+    /**
+     * 節點運算
+     */
+    public enum Op {
+        CONSTANT, COLUMN,
+        ADD, SUB, MUL, DIV, NEG, ABS,
+        SMA, EMA, WMA, STDEV, HIGHEST, LOWEST, LAG
+    }
+
+    private final Op op;
+
+    private final String key;
+
+    private final double constant;
+
+    private final String column;
+
+    private final int period;
+
+    private final ExpressionNode[] children;
+
+    private final int warmup;
+
+    private ExpressionNode(Op op, String key, double constant, String column, int period,
+                           ExpressionNode[] children, int warmup) {
+        this.op = op;
+        this.key = key;
+        this.constant = constant;
+        this.column = column;
+        this.period = period;
+        this.children = children;
+        this.warmup = warmup;
+    }
+
+    // ========================================================================
+    // 建立節點
+    // ========================================================================
+
+    static ExpressionNode constant(double value) {
+        String key = value == Math.rint(value) && Math.abs(value) < 1e15
+                ? Long.toString((long) value)
+                : Double.toString(value);
+        return new ExpressionNode(Op.CONSTANT, key, value, null, 0, new ExpressionNode[0], 0);
+    }
+
+    static ExpressionNode column(String name) {
+        return new ExpressionNode(Op.COLUMN, name, 0, name, 0, new ExpressionNode[0], 0);
+    }
+
+    static ExpressionNode unary(Op op, ExpressionNode child) {
+        String key = op == Op.NEG ? "(-" + child.key + ")" : op.name() + "(" + child.key + ")";
+        return new ExpressionNode(op, key, 0, null, 0, new ExpressionNode[]{child}, child.warmup);
+    }
+
+    static ExpressionNode binary(Op op, ExpressionNode left, ExpressionNode right) {
+        // 加法與乘法可交換（IEEE 754 下逐位相同），以鍵排序讓 a+b 與 b+a 共用節點
+        if ((op == Op.ADD || op == Op.MUL) && left.key.compareTo(right.key) > 0) {
+            ExpressionNode swap = left;
+            left = right;
+            right = swap;
+        }
+        String key = "(" + left.key + symbol(op) + right.key + ")";
+        return new ExpressionNode(op, key, 0, null, 0, new ExpressionNode[]{left, right},
+                Math.max(left.warmup, right.warmup));
+    }
+
+    static ExpressionNode window(Op op, ExpressionNode child, int period) {
+        String key = op.name() + "(" + child.key + "," + period + ")";
+        int warmup = child.warmup + period - (op == Op.LAG ? 0 : 1);
+        return new ExpressionNode(op, key, 0, null, period, new ExpressionNode[]{child}, warmup);
+    }
+
+    // ========================================================================
+    // 屬性
+    // ========================================================================
+
+    public Op getOp() {
+        return op;
+    }
+
+    /**
+     * 正規化鍵（同時是上下文快取鍵）
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 第一筆有效值的位置
+     */
+    public int getWarmup() {
+        return warmup;
+    }
+
+    double getConstant() {
+        return constant;
+    }
+
+    boolean isConstant() {
+        return op == Op.CONSTANT;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+
+    // ========================================================================
+    // 計算
+    // ========================================================================
+
+    /**
+     * 計算整段序列（結果快取在上下文，呼叫端不可修改）
+     * <p>
+     * 呼叫端須確認序列長度大於 warmup
+     * </p>
+     */
+    public double[] evaluate(IndicatorContext context) {
+        if (op == Op.COLUMN) {
+            return context.source(column);
+        }
+        if (op == Op.EMA && children[0].op == Op.COLUMN) {
+            return context.ema(children[0].column, period);
+        }
+        if (op == Op.STDEV && children[0].op == Op.COLUMN) {
+            return context.rollingStdDev(children[0].column, period);
+        }
+        return context.memo(key, () -> compute(context));
+    }
+
+    private double[] compute(IndicatorContext context) {
+        int length = context.source(IndicatorContext.CLOSE).length;
+        double[] output = new double[length];
+
+        switch (op) {
+            case CONSTANT -> Arrays.fill(output, constant);
+            case ADD, SUB, MUL, DIV -> {
+                double[] left = children[0].evaluate(context);
+                double[] right = children[1].evaluate(context);
+                for (int i = warmup; i < length; i++) {
+                    output[i] = apply(op, left[i], right[i]);
+                }
+            }
+            case NEG, ABS -> {
+                double[] source = children[0].evaluate(context);
+                for (int i = warmup; i < length; i++) {
+                    output[i] = op == Op.NEG ? -source[i] : Math.abs(source[i]);
+                }
+            }
+            case SMA -> Kernels.current().windowMean(children[0].evaluate(context), length, period, output);
+            case WMA -> Kernels.current().weightedWindowMean(children[0].evaluate(context), length, period, output);
+            case EMA -> {
+                // 來源為衍生序列時，以來源第一筆有效值起算 SMA 初始值
+                int from = children[0].warmup;
+                IndicatorContext.emaSeries(children[0].evaluate(context), from, length, period, output);
+            }
+            case STDEV -> {
+                try (ScratchArena arena = ScratchArena.open()) {
+                    double[] means = arena.doubles(length);
+                    RollingMoments.rollingMeanStdDev(children[0].evaluate(context), length, period, false,
+                            means, output);
+                }
+            }
+            case HIGHEST -> output = RollingWindows.rollingMax(children[0].evaluate(context), period);
+            case LOWEST -> output = RollingWindows.rollingMin(children[0].evaluate(context), period);
+            case LAG -> {
+                double[] source = children[0].evaluate(context);
+                for (int i = warmup; i < length; i++) {
+                    output[i] = source[i - period];
+                }
+            }
+            default -> throw new IllegalStateException("無法計算的節點: " + key);
+        }
+        return output;
+    }
+
+    /**
+     * 四則運算（常數摺疊與逐筆計算共用）
+     */
+    static double apply(Op op, double left, double right) {
+        return switch (op) {
+            case ADD -> left + right;
+            case SUB -> left - right;
+            case MUL -> left * right;
+            case DIV -> left / right;
+            default -> throw new IllegalStateException("不是四則運算: " + op);
+        };
+    }
+
+    private static String symbol(Op op) {
+        return switch (op) {
+            case ADD -> "+";
+            case SUB -> "-";
+            case MUL -> "*";
+            case DIV -> "/";
+            default -> throw new IllegalArgumentException("不是四則運算: " + op);
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package com.chris.fin_shark.m07.engine.kernel;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 價格運算核心選擇
+ * <p>
+ * 預設使用純量實作；設定 m07.engine.simd.enabled=true 且 JVM 以
+ * --add-modules jdk.incubator.vector 啟動時改用 SIMD 實作，
+ * 模組未載入或初始化失敗時記錄警告並維持純量實作。
+ * </p>
+ * <p>
+ * 兩種實作結果逐位相同，切換不影響計算結果，只影響全歷史重算的速度。
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Slf4j
+public final class Kernels {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private static final String VECTOR_IMPLEMENTATION = "com.chris.fin_shark.m07.engine.kernel.VectorPriceKernels";
+
+    private static volatile PriceKernels current = ScalarPriceKernels.INSTANCE;
+
+    private Kernels() {
+    }
+
+    /**
+     * 目前選用的實作
+     */
+    public static PriceKernels current() {
+        return current;
+    }
+
+    /**
+     * 純量實作
+     */
+    public static PriceKernels scalar() {
+        return ScalarPriceKernels.INSTANCE;
+    }
+
+    /**
+     * SIMD 實作（模組未載入時為 null）
+     */
+    public static PriceKernels vector() {
+        return VectorHolder.INSTANCE;
+    }
+
+    /**
+     * JVM 是否已載入 Vector API 模組
+     */
+    public static boolean isVectorAvailable() {
+        return vector() != null;
+    }
+
+    /**
+     * 依設定選用實作
+     *
+     * @param simdEnabled 是否啟用 SIMD
+     * @return 實際選用的實作
+     */
+    public static PriceKernels configure(boolean simdEnabled) {
+        PriceKernels selected = ScalarPriceKernels.INSTANCE;
+        if (simdEnabled) {
+            PriceKernels vector = vector();
+            if (vector != null) {
+                selected = vector;
+            } else {
+                log.warn("⚠️ 已啟用 SIMD 計算核心，但 JVM 未載入 {} 模組（需加 --add-modules {}），改用純量實作",
+                        VECTOR_MODULE, VECTOR_MODULE);
+            }
+        }
+        current = selected;
+        log.info("🚀 價格運算核心: {}", selected.name());
+        return selected;
+    }
+
+    /**
+     * 延遲載入 SIMD 實作（只有確認模組存在才載入類別）
+     */
+    private static final class VectorHolder {
+
+        private static final PriceKernels INSTANCE = load();
+
+        private static PriceKernels load() {
+            if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+                return null;
+            }
+            try {
+                return (PriceKernels) Class.forName(VECTOR_IMPLEMENTATION)
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                log.warn("⚠️ SIMD 計算核心初始化失敗，改用純量實作: {}", e.getMessage());
+                return null;
+            }
+        }
+    }
+}
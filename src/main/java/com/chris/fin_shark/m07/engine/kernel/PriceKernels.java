@@ -0,0 +1,83 @@
+package com.chris.fin_shark.m07.engine.kernel;
+
+/**
+ * 逐元素價格運算核心
+ * <p>
+ * 整段序列計算（全歷史重算、回補）最常用的基本運算：
+ * 移動平均視窗、True Range、典型價格、漲跌幅、布林通道上下軌。
+ * 由 {@link Kernels#current()} 取得目前選用的實作（純量或 SIMD）。
+ * </p>
+ * <p>
+ * 約定：
+ * 1. 輸入只讀取 [0, length)，輸出只寫入各方法註明的區段，其餘位置維持原值
+ * 2. 所有實作的結果必須與 {@link ScalarPriceKernels} 逐位相同（各視窗依相同順序累加）
+ * 3. 輸入與輸出可為長度較長的暫存緩衝區
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public interface PriceKernels {
+
+    /**
+     * 實作名稱（日誌、基準測試用）
+     */
+    String name();
+
+    /**
+     * 簡單移動平均：output[i] = (values[i - period + 1] + ... + values[i]) / period
+     * <p>
+     * 寫入 [period - 1, length)
+     * </p>
+     */
+    void windowMean(double[] values, int length, int period, double[] output);
+
+    /**
+     * 線性加權移動平均（權重 1..period，最新一筆權重最大）
+     * <p>
+     * 寫入 [period - 1, length)
+     * </p>
+     */
+    void weightedWindowMean(double[] values, int length, int period, double[] output);
+
+    /**
+     * 成交量加權移動平均：sum(price * volume) / sum(volume)，視窗成交量為 0 時退化為簡單平均
+     * <p>
+     * 寫入 [period - 1, length)
+     * </p>
+     */
+    void volumeWeightedMean(double[] prices, long[] volumes, int length, int period, double[] output);
+
+    /**
+     * True Range：max(High - Low, |High - 前收|, |Low - 前收|)，第一筆為 High - Low
+     * <p>
+     * 寫入 [0, length)
+     * </p>
+     */
+    void trueRange(double[] high, double[] low, double[] close, int length, double[] output);
+
+    /**
+     * 典型價格：(High + Low + Close) / 3
+     * <p>
+     * 寫入 [0, length)
+     * </p>
+     */
+    void typicalPrice(double[] high, double[] low, double[] close, int length, double[] output);
+
+    /**
+     * 逐日漲跌幅：(values[i] - values[i - 1]) / values[i - 1]，前值為 0 時為 0
+     * <p>
+     * 寫入 [0, length)，第一筆為 0
+     * </p>
+     */
+    void returns(double[] values, int length, double[] output);
+
+    /**
+     * 通道上下軌：upper = middle + multiplier * width，lower = middle - multiplier * width
+     * <p>
+     * 寫入 [from, to)
+     * </p>
+     */
+    void bands(double[] middle, double[] width, double multiplier, int from, int to,
+               double[] upper, double[] lower);
+}
@@ -0,0 +1,140 @@
+package com.chris.fin_shark.m07.engine.kernel;
+
+/**
+ * 純量價格運算核心（預設實作，也是 SIMD 實作的對照基準）
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class ScalarPriceKernels implements PriceKernels {
+
+    public static final ScalarPriceKernels INSTANCE = new ScalarPriceKernels();
+
+    private ScalarPriceKernels() {
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public void windowMean(double[] values, int length, int period, double[] output) {
+        windowMean(values, period - 1, length, period, output);
+    }
+
+    @Override
+    public void weightedWindowMean(double[] values, int length, int period, double[] output) {
+        weightedWindowMean(values, period - 1, length, period, output);
+    }
+
+    @Override
+    public void volumeWeightedMean(double[] prices, long[] volumes, int length, int period, double[] output) {
+        volumeWeightedMean(prices, volumes, period - 1, length, period, output);
+    }
+
+    @Override
+    public void trueRange(double[] high, double[] low, double[] close, int length, double[] output) {
+        if (length == 0) {
+            return;
+        }
+        output[0] = high[0] - low[0];
+        trueRange(high, low, close, 1, length, output);
+    }
+
+    @Override
+    public void typicalPrice(double[] high, double[] low, double[] close, int length, double[] output) {
+        typicalPrice(high, low, close, 0, length, output);
+    }
+
+    @Override
+    public void returns(double[] values, int length, double[] output) {
+        if (length == 0) {
+            return;
+        }
+        output[0] = 0;
+        returns(values, 1, length, output);
+    }
+
+    @Override
+    public void bands(double[] middle, double[] width, double multiplier, int from, int to,
+                      double[] upper, double[] lower) {
+        for (int i = from; i < to; i++) {
+            upper[i] = middle[i] + (multiplier * width[i]);
+            lower[i] = middle[i] - (multiplier * width[i]);
+        }
+    }
+
+    // ========================================================================
+    // 區段版本（SIMD 實作處理尾端不足一個向量的部分）
+    // ========================================================================
+
+    static void windowMean(double[] values, int from, int to, int period, double[] output) {
+        for (int i = from; i < to; i++) {
+            double sum = 0;
+            for (int j = i - period + 1; j <= i; j++) {
+                sum += values[j];
+            }
+            output[i] = sum / period;
+        }
+    }
+
+    static void weightedWindowMean(double[] values, int from, int to, int period, double[] output) {
+        double weightSum = weightSum(period);
+        for (int i = from; i < to; i++) {
+            int start = i - period + 1;
+            double weightedSum = 0;
+            for (int k = 0; k < period; k++) {
+                weightedSum += values[start + k] * (k + 1);
+            }
+            output[i] = weightedSum / weightSum;
+        }
+    }
+
+    static void volumeWeightedMean(double[] prices, long[] volumes, int from, int to, int period,
+                                   double[] output) {
+        for (int i = from; i < to; i++) {
+            double sumPriceVolume = 0;
+            long sumVolume = 0;
+            double sumPrice = 0;
+            for (int j = i - period + 1; j <= i; j++) {
+                sumPriceVolume += prices[j] * volumes[j];
+                sumVolume += volumes[j];
+                sumPrice += prices[j];
+            }
+            output[i] = sumVolume == 0 ? sumPrice / period : sumPriceVolume / sumVolume;
+        }
+    }
+
+    static void trueRange(double[] high, double[] low, double[] close, int from, int to, double[] output) {
+        for (int i = from; i < to; i++) {
+            double hl = high[i] - low[i];
+            double hc = Math.abs(high[i] - close[i - 1]);
+            double lc = Math.abs(low[i] - close[i - 1]);
+            output[i] = Math.max(hl, Math.max(hc, lc));
+        }
+    }
+
+    static void typicalPrice(double[] high, double[] low, double[] close, int from, int to, double[] output) {
+        for (int i = from; i < to; i++) {
+            output[i] = (high[i] + low[i] + close[i]) / 3;
+        }
+    }
+
+    static void returns(double[] values, int from, int to, double[] output) {
+        for (int i = from; i < to; i++) {
+            output[i] = values[i - 1] != 0 ? (values[i] - values[i - 1]) / values[i - 1] : 0;
+        }
+    }
+
+    /**
+     * WMA 權重總和 1 + 2 + ... + period（依序累加，與逐點計算相同）
+     */
+    static double weightSum(int period) {
+        double weightSum = 0;
+        for (int k = 0; k < period; k++) {
+            weightSum += k + 1;
+        }
+        return weightSum;
+    }
+}
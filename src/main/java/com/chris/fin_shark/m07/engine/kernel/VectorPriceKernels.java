@@ -0,0 +1,160 @@
+package com.chris.fin_shark.m07.engine.kernel;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD 價格運算核心（jdk.incubator.vector）
+ * <p>
+ * 以「每個向量通道負責一個輸出位置」的方式平行化：
+ * 通道內依與純量版本相同的順序累加視窗，結果與 {@link ScalarPriceKernels} 逐位相同
+ * （不做跨通道的水平加總，避免改變浮點運算順序）。
+ * 不足一個向量寬度的尾端交由純量版本處理。
+ * </p>
+ * <p>
+ * 注意：只能由 {@link Kernels} 在確認模組已載入後以反射建立，
+ * 其他類別不可直接引用，否則未加 --add-modules jdk.incubator.vector 的 JVM 會無法載入
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+final class VectorPriceKernels implements PriceKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /** 與 SPECIES 相同寬度的 long 向量（成交量） */
+    private static final VectorSpecies<Long> LONG_SPECIES = VectorSpecies.of(long.class, SPECIES.vectorShape());
+
+    private static final int LANES = SPECIES.length();
+
+    VectorPriceKernels() {
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + LANES + "x64";
+    }
+
+    @Override
+    public void windowMean(double[] values, int length, int period, double[] output) {
+        int i = period - 1;
+        for (; i + LANES <= length; i += LANES) {
+            int start = i - period + 1;
+            DoubleVector sum = DoubleVector.zero(SPECIES);
+            for (int j = 0; j < period; j++) {
+                sum = sum.add(DoubleVector.fromArray(SPECIES, values, start + j));
+            }
+            sum.div(period).intoArray(output, i);
+        }
+        ScalarPriceKernels.windowMean(values, i, length, period, output);
+    }
+
+    @Override
+    public void weightedWindowMean(double[] values, int length, int period, double[] output) {
+        double weightSum = ScalarPriceKernels.weightSum(period);
+        int i = period - 1;
+        for (; i + LANES <= length; i += LANES) {
+            int start = i - period + 1;
+            DoubleVector weightedSum = DoubleVector.zero(SPECIES);
+            for (int k = 0; k < period; k++) {
+                weightedSum = weightedSum.add(DoubleVector.fromArray(SPECIES, values, start + k).mul(k + 1));
+            }
+            weightedSum.div(weightSum).intoArray(output, i);
+        }
+        ScalarPriceKernels.weightedWindowMean(values, i, length, period, output);
+    }
+
+    @Override
+    public void volumeWeightedMean(double[] prices, long[] volumes, int length, int period, double[] output) {
+        int i = period - 1;
+        for (; i + LANES <= length; i += LANES) {
+            int start = i - period + 1;
+            DoubleVector sumPriceVolume = DoubleVector.zero(SPECIES);
+            LongVector sumVolume = LongVector.zero(LONG_SPECIES);
+            DoubleVector sumPrice = DoubleVector.zero(SPECIES);
+            for (int j = start; j <= start + period - 1; j++) {
+                DoubleVector price = DoubleVector.fromArray(SPECIES, prices, j);
+                LongVector volume = LongVector.fromArray(LONG_SPECIES, volumes, j);
+                sumPriceVolume = sumPriceVolume.add(price.mul(toDouble(volume)));
+                sumVolume = sumVolume.add(volume);
+                sumPrice = sumPrice.add(price);
+            }
+            VectorMask<Double> noVolume = sumVolume.compare(VectorOperators.EQ, 0L).cast(SPECIES);
+            sumPriceVolume.div(toDouble(sumVolume))
+                    .blend(sumPrice.div(period), noVolume)
+                    .intoArray(output, i);
+        }
+        ScalarPriceKernels.volumeWeightedMean(prices, volumes, i, length, period, output);
+    }
+
+    @Override
+    public void trueRange(double[] high, double[] low, double[] close, int length, double[] output) {
+        if (length == 0) {
+            return;
+        }
+        output[0] = high[0] - low[0];
+        int i = 1;
+        for (; i + LANES <= length; i += LANES) {
+            DoubleVector h = DoubleVector.fromArray(SPECIES, high, i);
+            DoubleVector l = DoubleVector.fromArray(SPECIES, low, i);
+            DoubleVector previousClose = DoubleVector.fromArray(SPECIES, close, i - 1);
+            DoubleVector hl = h.sub(l);
+            DoubleVector hc = h.sub(previousClose).abs();
+            DoubleVector lc = l.sub(previousClose).abs();
+            hl.max(hc.max(lc)).intoArray(output, i);
+        }
+        ScalarPriceKernels.trueRange(high, low, close, i, length, output);
+    }
+
+    @Override
+    public void typicalPrice(double[] high, double[] low, double[] close, int length, double[] output) {
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            DoubleVector.fromArray(SPECIES, high, i)
+                    .add(DoubleVector.fromArray(SPECIES, low, i))
+                    .add(DoubleVector.fromArray(SPECIES, close, i))
+                    .div(3)
+                    .intoArray(output, i);
+        }
+        ScalarPriceKernels.typicalPrice(high, low, close, i, length, output);
+    }
+
+    @Override
+    public void returns(double[] values, int length, double[] output) {
+        if (length == 0) {
+            return;
+        }
+        output[0] = 0;
+        int i = 1;
+        for (; i + LANES <= length; i += LANES) {
+            DoubleVector previous = DoubleVector.fromArray(SPECIES, values, i - 1);
+            DoubleVector current = DoubleVector.fromArray(SPECIES, values, i);
+            VectorMask<Double> zero = previous.compare(VectorOperators.EQ, 0.0);
+            current.sub(previous).div(previous)
+                    .blend(0.0, zero)
+                    .intoArray(output, i);
+        }
+        ScalarPriceKernels.returns(values, i, length, output);
+    }
+
+    @Override
+    public void bands(double[] middle, double[] width, double multiplier, int from, int to,
+                      double[] upper, double[] lower) {
+        int i = from;
+        for (; i + LANES <= to; i += LANES) {
+            DoubleVector m = DoubleVector.fromArray(SPECIES, middle, i);
+            DoubleVector offset = DoubleVector.fromArray(SPECIES, width, i).mul(multiplier);
+            m.add(offset).intoArray(upper, i);
+            m.sub(offset).intoArray(lower, i);
+        }
+        ScalarPriceKernels.INSTANCE.bands(middle, width, multiplier, i, to, upper, lower);
+    }
+
+    private static DoubleVector toDouble(LongVector values) {
+        return (DoubleVector) values.convertShape(VectorOperators.L2D, SPECIES, 0);
+    }
+}
@@ -0,0 +1,402 @@
+package com.chris.fin_shark.m07.engine.model;
+
+import com.chris.fin_shark.m07.engine.ScratchArena;
+import com.chris.fin_shark.m07.engine.kernel.Kernels;
+import com.chris.fin_shark.m07.engine.stats.RollingMoments;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 單一股票的計算上下文
+ * <p>
+ * 在同一次計劃執行中快取共用的中間序列（EMA、滑動均值 / 標準差、True Range、ATR、典型價格），
+ * 多個計算器需要相同的中間結果時只計算一次。
+ * </p>
+ * <p>
+ * 快取鍵格式：kind(source,period)，例如 ema(close,12)。
+ * 衍生序列可作為其他序列的來源，例如 ema(ema(close,10),10)。
+ * </p>
+ * <p>
+ * 注意：
+ * 1. 非執行緒安全，每支股票、每次計劃執行各自建立
+ * 2. 回傳的陣列為共用唯讀，計算器不可修改其內容
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class IndicatorContext {
+
+    public static final String OPEN = "open";
+    public static final String HIGH = "high";
+    public static final String LOW = "low";
+    public static final String CLOSE = "close";
+    public static final String VOLUME = "volume";
+
+    private final PriceColumns columns;
+
+    private final Map<String, double[]> cache = new HashMap<>();
+
+    /** 查詢次數 */
+    private int requests;
+
+    /** 命中次數 */
+    private int hits;
+
+    private IndicatorContext(PriceColumns columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * 為價格序列建立新的上下文
+     */
+    public static IndicatorContext of(PriceSeries series) {
+        return new IndicatorContext(series.getColumns());
+    }
+
+    /**
+     * 快取鍵
+     */
+    public static String key(String kind, String source, int period) {
+        return kind + "(" + source + "," + period + ")";
+    }
+
+    /**
+     * 自指定位置起算的快取鍵（from 為 0 時與 {@link #key(String, String, int)} 相同）
+     */
+    public static String key(String kind, String source, int period, int from) {
+        return from == 0 ? key(kind, source, period) : kind + "(" + source + "," + period + "@" + from + ")";
+    }
+
+    // ========================================================================
+    // 共用中間序列
+    // ========================================================================
+
+    /**
+     * 取得來源序列（原始價格欄位、成交量（轉為 double 後快取）或已快取的衍生序列）
+     */
+    public double[] source(String name) {
+        return switch (name) {
+            case OPEN -> columns.open();
+            case HIGH -> columns.high();
+            case LOW -> columns.low();
+            case CLOSE -> columns.close();
+            case VOLUME -> memo(VOLUME, () -> Arrays.stream(columns.volume()).asDoubleStream().toArray());
+            default -> {
+                double[] derived = cache.get(name);
+                if (derived == null) {
+                    throw new IllegalArgumentException("未知的來源序列: " + name);
+                }
+                yield derived;
+            }
+        };
+    }
+
+    /**
+     * EMA 序列（SMA 作為初始值，資料不足時回傳空陣列）
+     */
+    public double[] ema(String source, int period) {
+        return memo(key("ema", source, period), () -> emaSeries(source(source), period));
+    }
+
+    /**
+     * 以第一筆值為初始值的 EMA 序列（自 from 起算，前 from 筆為 0）
+     * <p>
+     * EMA(from) = Price(from)，之後 EMA = (Price - EMA) * k + EMA；
+     * 與 SMA 初始值的 {@link #ema(String, int)} 數值不同，以 {@link #key(String, String, int, int)}
+     * 的 ema_first 鍵分開快取，供沿用第一筆初始值的計算器（ZLEMA、TRIX）共用
+     * </p>
+     */
+    public double[] emaFirstSeeded(String source, int period, int from) {
+        return memo(key("ema_first", source, period, from), () -> {
+            double[] prices = source(source);
+            double[] emaValues = new double[prices.length];
+            if (prices.length <= from) {
+                return emaValues;
+            }
+
+            double multiplier = 2.0 / (period + 1);
+            double ema = prices[from];
+            emaValues[from] = ema;
+            for (int i = from + 1; i < prices.length; i++) {
+                ema = (prices[i] - ema) * multiplier + ema;
+                emaValues[i] = ema;
+            }
+            return emaValues;
+        });
+    }
+
+    /**
+     * 多個週期的 EMA 序列
+     * <p>
+     * 尚未快取的週期以 {@link #emaSeries(double[], int, int[], double[][])} 一起計算（共用前綴和），
+     * 每個週期各自快取，之後 {@link #ema(String, int)} 直接命中
+     * </p>
+     *
+     * @return 與 periods 同順序的 EMA 序列
+     */
+    public double[][] ema(String source, int[] periods) {
+        double[] prices = source(source);
+        double[][] series = new double[periods.length][];
+        int[] missingPeriods = new int[periods.length];
+        double[][] missingSeries = new double[periods.length][];
+        int missing = 0;
+
+        for (int r = 0; r < periods.length; r++) {
+            String key = key("ema", source, periods[r]);
+            requests++;
+            double[] cached = cache.get(key);
+            if (cached != null) {
+                hits++;
+                series[r] = cached;
+                continue;
+            }
+            // 資料不足的週期與 emaSeries 相同回傳空陣列
+            series[r] = new double[prices.length < periods[r] ? 0 : prices.length];
+            cache.put(key, series[r]);
+            if (series[r].length > 0) {
+                missingPeriods[missing] = periods[r];
+                missingSeries[missing] = series[r];
+                missing++;
+            }
+        }
+
+        if (missing > 0) {
+            emaSeries(prices, prices.length,
+                    Arrays.copyOf(missingPeriods, missing), Arrays.copyOf(missingSeries, missing));
+        }
+        return series;
+    }
+
+    /**
+     * 滑動均值序列（視窗未滿時為 NaN）
+     * <p>
+     * 與 {@link #rollingStdDev} 同一次掃描計算並各自快取，
+     * 布林通道、標準差、Z 分數等同一來源、同一週期的計算器只掃描一次
+     * </p>
+     */
+    public double[] rollingMean(String source, int period) {
+        return rollingMoments(source, period)[RollingMoments.MEAN];
+    }
+
+    /**
+     * 滑動母體標準差序列（視窗未滿時為 NaN）
+     */
+    public double[] rollingStdDev(String source, int period) {
+        return rollingMoments(source, period)[RollingMoments.STD_DEV];
+    }
+
+    /**
+     * True Range 序列（第一筆為 High - Low）
+     */
+    public double[] trueRange() {
+        return memo("tr", () -> trueRange(columns.high(), columns.low(), columns.close()));
+    }
+
+    /**
+     * ATR 序列（RMA/Wilder's smoothing，前 period - 1 筆為 0）
+     */
+    public double[] atr(int period) {
+        return memo(key("atr", "tr", period), () -> wilderAverage(trueRange(), period));
+    }
+
+    /**
+     * 典型價格序列 (High + Low + Close) / 3
+     */
+    public double[] typicalPrice() {
+        return memo("tp", () -> {
+            double[] close = columns.close();
+            double[] tp = new double[close.length];
+            Kernels.current().typicalPrice(columns.high(), columns.low(), close, close.length, tp);
+            return tp;
+        });
+    }
+
+    /**
+     * 取得或計算指定鍵的序列
+     * <p>
+     * 不使用 computeIfAbsent：衍生序列在計算時會再查詢快取
+     * </p>
+     */
+    public double[] memo(String key, Supplier<double[]> supplier) {
+        requests++;
+        double[] cached = cache.get(key);
+        if (cached != null) {
+            hits++;
+            return cached;
+        }
+        double[] computed = supplier.get();
+        cache.put(key, computed);
+        return computed;
+    }
+
+    /**
+     * 滑動均值與標準差（以 {@link RollingMoments#rollingMeanStdDev} 一次計算，分別快取於 mean / std 鍵）
+     */
+    private double[][] rollingMoments(String source, int period) {
+        String meanKey = key("mean", source, period);
+        String stdDevKey = key("std", source, period);
+        requests++;
+        double[] means = cache.get(meanKey);
+        double[] stdDevs = cache.get(stdDevKey);
+        if (means != null && stdDevs != null) {
+            hits++;
+            return new double[][]{means, stdDevs};
+        }
+        double[][] moments = RollingMoments.rollingMeanStdDev(source(source), period, false);
+        cache.put(meanKey, moments[RollingMoments.MEAN]);
+        cache.put(stdDevKey, moments[RollingMoments.STD_DEV]);
+        return moments;
+    }
+
+    // ========================================================================
+    // 統計
+    // ========================================================================
+
+    public int getRequests() {
+        return requests;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * 命中率（無查詢時為 0）
+     */
+    public double getHitRate() {
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    // ========================================================================
+    // 計算核心（無狀態，可單獨使用）
+    // ========================================================================
+
+    /**
+     * 計算整個 EMA 序列
+     * <p>
+     * EMA(today) = Price(today) * k + EMA(yesterday) * (1 - k)，k = 2 / (period + 1)
+     * 以前 period 筆的 SMA 作為初始值，前 period - 1 筆為 0
+     * </p>
+     *
+     * @param prices 價格陣列
+     * @param period 週期
+     * @return EMA 序列（資料不足時為空陣列）
+     */
+    public static double[] emaSeries(double[] prices, int period) {
+        if (prices.length < period) {
+            return new double[0];
+        }
+
+        double[] emaValues = new double[prices.length];
+        emaSeries(prices, 0, prices.length, period, emaValues);
+        return emaValues;
+    }
+
+    /**
+     * 計算 prices[from, to) 的 EMA 序列，寫入 output 的相同位置（output 可由呼叫端重用）
+     * <p>
+     * 與 {@link #emaSeries(double[], int)} 的結果逐位相同，
+     * output[from, from + period - 1) 填 0，[from + period - 1, to) 為 EMA
+     * </p>
+     *
+     * @param prices 價格陣列
+     * @param from   起始位置（含）
+     * @param to     結束位置（不含），須滿足 to - from >= period
+     * @param period 週期
+     * @param output 輸出陣列（長度至少為 to）
+     */
+    public static void emaSeries(double[] prices, int from, int to, int period, double[] output) {
+        double k = 2.0 / (period + 1);
+
+        // 初始 EMA（使用 SMA）
+        double ema = 0;
+        for (int i = from; i < from + period; i++) {
+            ema += prices[i];
+        }
+        ema /= period;
+        Arrays.fill(output, from, from + period - 1, 0);
+        output[from + period - 1] = ema;
+
+        // 計算後續的 EMA
+        for (int i = from + period; i < to; i++) {
+            ema = (prices[i] * k) + (ema * (1 - k));
+            output[i] = ema;
+        }
+    }
+
+    /**
+     * 計算多個週期的 EMA 序列
+     * <p>
+     * 各週期的 SMA 初始值取自同一份前綴和（依序累加，與單一週期的初始值逐位相同），
+     * 價格只累加一次；每個週期的結果與 {@link #emaSeries(double[], int)} 逐位相同。
+     * </p>
+     *
+     * @param prices  價格陣列
+     * @param length  有效筆數
+     * @param periods 週期
+     * @param outputs 每個週期的輸出（長度至少為 length），只寫入 [period - 1, length)；
+     *                length &lt; period 的週期不寫入
+     */
+    public static void emaSeries(double[] prices, int length, int[] periods, double[][] outputs) {
+        try (ScratchArena arena = ScratchArena.open()) {
+            double[] prefixSums = arena.doubles(length);
+            double sum = 0;
+            for (int i = 0; i < length; i++) {
+                sum += prices[i];
+                prefixSums[i] = sum;
+            }
+
+            for (int r = 0; r < periods.length; r++) {
+                int period = periods[r];
+                if (length < period) {
+                    continue;
+                }
+                double k = 2.0 / (period + 1);
+                double[] output = outputs[r];
+                double ema = prefixSums[period - 1] / period;
+                output[period - 1] = ema;
+                for (int i = period; i < length; i++) {
+                    ema = (prices[i] * k) + (ema * (1 - k));
+                    output[i] = ema;
+                }
+            }
+        }
+    }
+
+    /**
+     * 計算 True Range 序列
+     */
+    public static double[] trueRange(double[] high, double[] low, double[] close) {
+        double[] tr = new double[high.length];
+        Kernels.current().trueRange(high, low, close, high.length, tr);
+        return tr;
+    }
+
+    /**
+     * Wilder 平滑（RMA）：以前 period 筆平均為初始值，前 period - 1 筆為 0
+     */
+    public static double[] wilderAverage(double[] values, int period) {
+        int length = values.length;
+        double[] averages = new double[length];
+        if (length < period) {
+            return averages;
+        }
+
+        double average = 0;
+        for (int i = 0; i < period; i++) {
+            average += values[i];
+        }
+        average /= period;
+        averages[period - 1] = average;
+
+        for (int i = period; i < length; i++) {
+            average = (average * (period - 1) + values[i]) / period;
+            averages[i] = average;
+        }
+        return averages;
+    }
+}
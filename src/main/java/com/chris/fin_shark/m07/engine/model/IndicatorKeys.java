@@ -0,0 +1,155 @@
+package com.chris.fin_shark.m07.engine.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 指標輸出鍵註冊表（全域字串駐留）
+ * <p>
+ * 1. 輸出鍵（如 ma20、macd.macd_line）對應固定的槽位編號，{@link IndicatorValues} 以槽位索引原生陣列
+ * 2. 文字值（信號、類別，如 BULLISH、TREND）對應固定的代碼，結果只保存 int 代碼
+ * 巢狀輸出以 {@link IndicatorSeries#KEY_SEPARATOR} 攤平，與 IndicatorSeries 的欄位鍵相同。
+ * </p>
+ * <p>
+ * 注意：
+ * 1. 編號只在同一個 JVM 內有效，不可持久化
+ * 2. 註冊只增不減，鍵的數量由指標與參數組合決定（數百個）
+ * 3. 執行緒安全：查詢不加鎖，只有第一次註冊時同步
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class IndicatorKeys {
+
+    private static final Registry KEYS = new Registry(0);
+
+    /** 文字代碼 0 保留為「無值」 */
+    private static final Registry LABELS = new Registry(1);
+
+    private IndicatorKeys() {
+    }
+
+    /**
+     * 取得（或註冊）輸出鍵的槽位
+     */
+    public static int slot(String key) {
+        return KEYS.code(key);
+    }
+
+    /**
+     * 查詢輸出鍵的槽位（未註冊時回傳 -1，不會註冊）
+     */
+    public static int find(String key) {
+        Integer slot = KEYS.codes.get(key);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * 槽位對應的輸出鍵
+     */
+    public static String key(int slot) {
+        return KEYS.name(slot);
+    }
+
+    /**
+     * 目前已註冊的輸出鍵數量
+     */
+    public static int size() {
+        return KEYS.size();
+    }
+
+    /**
+     * 取得（或註冊）文字值的代碼（大於 0）
+     */
+    public static int labelCode(String label) {
+        return LABELS.code(label);
+    }
+
+    /**
+     * 代碼對應的文字值（0 為 null）
+     */
+    public static String label(int code) {
+        return code == 0 ? null : LABELS.name(code);
+    }
+
+    /**
+     * 依週期組成的輸出鍵（如 ma5、rsi_14），快取槽位避免每次組字串
+     * <p>
+     * 快取以週期為索引，多執行緒同時填入時寫入的值相同，不需同步
+     * </p>
+     */
+    public static final class PeriodSlots {
+
+        /** 快取的最大週期 */
+        private static final int MAX_CACHED_PERIOD = 512;
+
+        private final String prefix;
+
+        /** 槽位 + 1（0 表示尚未解析） */
+        private final int[] slots = new int[MAX_CACHED_PERIOD + 1];
+
+        public PeriodSlots(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public int slot(int period) {
+            if (period < 0 || period > MAX_CACHED_PERIOD) {
+                return IndicatorKeys.slot(prefix + period);
+            }
+            int cached = slots[period];
+            if (cached == 0) {
+                cached = IndicatorKeys.slot(prefix + period) + 1;
+                slots[period] = cached;
+            }
+            return cached - 1;
+        }
+    }
+
+    /**
+     * 字串 ↔ 編號對照
+     */
+    private static final class Registry {
+
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+
+        private volatile String[] names = new String[256];
+
+        private int count;
+
+        private Registry(int firstCode) {
+            this.count = firstCode;
+        }
+
+        int code(String name) {
+            Integer code = codes.get(name);
+            return code != null ? code : register(name);
+        }
+
+        String name(int code) {
+            return names[code];
+        }
+
+        synchronized int size() {
+            return count;
+        }
+
+        private synchronized int register(String name) {
+            Integer existing = codes.get(name);
+            if (existing != null) {
+                return existing;
+            }
+            int code = count++;
+            String[] current = names;
+            if (code >= current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[code] = name;
+            names = current;
+            // 名稱寫入後才公開編號，其他執行緒取得編號時必能查到名稱
+            codes.put(name, code);
+            return code;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -39,4 +40,13 @@ public class IndicatorMetadata {
 
     /** 優先級（P0, P1, P2） */
     private String priority;
+
+    /**
+     * 輸出鍵前綴（查詢時由指標名稱找出 JSON 鍵；未指定時為指標名稱小寫，例如 MA → ma5、ma20）
+     */
+    private List<String> outputKeyPrefixes;
+
+    /** 計算邏輯版本（演算法或輸出格式變更時遞增，已儲存的輸入指紋隨之失效） */
+    @Builder.Default
+    private String version = "1";
 }
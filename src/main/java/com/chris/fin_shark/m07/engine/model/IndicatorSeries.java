@@ -0,0 +1,148 @@
+package com.chris.fin_shark.m07.engine.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 指標整段序列輸出（欄式）
+ * <p>
+ * 每個輸出鍵對應一個與價格序列等長的欄位：
+ * 1. 數值欄位：double[]，NaN 表示該日無值
+ * 2. 文字欄位：String[]，null 表示該日無值
+ * 巢狀輸出（如 macd.macd_line）以「.」攤平成欄位鍵，
+ * {@link #valuesAt(int)} 會還原為與 {@code calculate} 相同結構的 Map。
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public class IndicatorSeries {
+
+    /** 巢狀鍵分隔符號 */
+    public static final String KEY_SEPARATOR = ".";
+
+    private final int size;
+
+    private final Map<String, double[]> numbers = new LinkedHashMap<>();
+
+    private final Map<String, String[]> labels = new LinkedHashMap<>();
+
+    private IndicatorSeries(int size) {
+        this.size = size;
+    }
+
+    /**
+     * 建立指定長度的空序列
+     */
+    public static IndicatorSeries ofSize(int size) {
+        return new IndicatorSeries(size);
+    }
+
+    /**
+     * 序列長度（與價格序列相同）
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 取得（或建立）數值欄位，初始值為 NaN
+     */
+    public double[] numberColumn(String key) {
+        return numbers.computeIfAbsent(key, k -> {
+            double[] column = new double[size];
+            Arrays.fill(column, Double.NaN);
+            return column;
+        });
+    }
+
+    /**
+     * 取得（或建立）文字欄位，初始值為 null
+     */
+    public String[] labelColumn(String key) {
+        return labels.computeIfAbsent(key, k -> new String[size]);
+    }
+
+    /**
+     * 所有輸出鍵
+     */
+    public Set<String> keys() {
+        Set<String> keys = new LinkedHashSet<>(numbers.keySet());
+        keys.addAll(labels.keySet());
+        return keys;
+    }
+
+    /**
+     * 數值欄位（鍵 → 欄位，供 {@link IndicatorValues} 直接讀取）
+     */
+    Map<String, double[]> numberColumns() {
+        return numbers;
+    }
+
+    /**
+     * 文字欄位（鍵 → 欄位，供 {@link IndicatorValues} 直接讀取）
+     */
+    Map<String, String[]> labelColumns() {
+        return labels;
+    }
+
+    /**
+     * 寫入單日計算結果（巢狀 Map 會攤平）
+     */
+    public void put(int index, Map<String, Object> values) {
+        if (values == null) {
+            return;
+        }
+        values.forEach((key, value) -> putValue(index, key, value));
+    }
+
+    private void putValue(int index, String key, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Number number) {
+            numberColumn(key)[index] = number.doubleValue();
+        } else if (value instanceof Map<?, ?> nested) {
+            nested.forEach((nestedKey, nestedValue) ->
+                    putValue(index, key + KEY_SEPARATOR + nestedKey, nestedValue));
+        } else {
+            labelColumn(key)[index] = value.toString();
+        }
+    }
+
+    /**
+     * 取得單日結果（還原為巢狀 Map，無值時回傳空 Map）
+     */
+    public Map<String, Object> valuesAt(int index) {
+        Map<String, Object> result = new HashMap<>();
+        numbers.forEach((key, column) -> {
+            double value = column[index];
+            if (!Double.isNaN(value)) {
+                putNested(result, key, value);
+            }
+        });
+        labels.forEach((key, column) -> {
+            String value = column[index];
+            if (value != null) {
+                putNested(result, key, value);
+            }
+        });
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void putNested(Map<String, Object> target, String key, Object value) {
+        int separator = key.indexOf(KEY_SEPARATOR);
+        if (separator < 0) {
+            target.put(key, value);
+            return;
+        }
+        Map<String, Object> nested = (Map<String, Object>) target.computeIfAbsent(
+                key.substring(0, separator), k -> new HashMap<String, Object>());
+        putNested(nested, key.substring(separator + 1), value);
+    }
+}
@@ -0,0 +1,111 @@
+package com.chris.fin_shark.m07.engine.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 指標遞推狀態快照
+ * <p>
+ * 遞迴型指標（EMA、RSI、MACD、TRIX、SAR、Supertrend）只需保存最後一根 K 棒的
+ * 中間值，即可由下一根 K 棒推進，不必每日重算整段歷史。
+ * </p>
+ * <p>
+ * 失效條件：
+ * 1. 參數或計算邏輯版本變更（paramsKey 不同）
+ * 2. 價格修正（錨點 K 棒的高低收與快照不符）
+ * 3. 錨點日期不在新載入的價格中
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndicatorState {
+
+    /** 股票代碼 */
+    private String stockId;
+
+    /** 指標名稱 */
+    private String indicatorName;
+
+    /** 參數識別（參數變更即失效） */
+    private String paramsKey;
+
+    /** 錨點日期（狀態對應的最後一根 K 棒） */
+    private LocalDate lastDate;
+
+    /** 錨點最高價 */
+    private double lastHigh;
+
+    /** 錨點最低價 */
+    private double lastLow;
+
+    /** 錨點收盤價 */
+    private double lastClose;
+
+    /** 計算器自訂的遞推值（如 ema12、avg_gain、sar、af） */
+    @Builder.Default
+    private Map<String, Double> values = new HashMap<>();
+
+    /**
+     * 參數識別字串（依鍵排序，與 Map 實作無關）
+     */
+    public static String paramsKey(Map<String, Object> params) {
+        return params == null ? "{}" : new TreeMap<>(params).toString();
+    }
+
+    /**
+     * 遞推狀態的參數識別字串（含計算邏輯版本，演算法變更後既有狀態隨之失效）
+     *
+     * @param params  參數
+     * @param version {@link IndicatorMetadata#getVersion()}
+     */
+    public static String paramsKey(Map<String, Object> params, String version) {
+        return paramsKey(params) + "@v" + version;
+    }
+
+    /**
+     * 複製（遞推值另建新 Map，推進副本不影響原狀態）
+     */
+    public IndicatorState copy() {
+        return IndicatorState.builder()
+                .stockId(stockId)
+                .indicatorName(indicatorName)
+                .paramsKey(paramsKey)
+                .lastDate(lastDate)
+                .lastHigh(lastHigh)
+                .lastLow(lastLow)
+                .lastClose(lastClose)
+                .values(new HashMap<>(values))
+                .build();
+    }
+
+    /**
+     * 錨點 K 棒是否與價格資料一致（用於偵測價格修正）
+     */
+    public boolean matchesBar(PriceColumns bars, int index) {
+        return Double.compare(lastHigh, bars.high()[index]) == 0
+                && Double.compare(lastLow, bars.low()[index]) == 0
+                && Double.compare(lastClose, bars.close()[index]) == 0;
+    }
+
+    /**
+     * 將錨點移到指定 K 棒
+     */
+    public void anchorTo(PriceColumns bars, int index) {
+        this.lastDate = bars.dateAt(index);
+        this.lastHigh = bars.high()[index];
+        this.lastLow = bars.low()[index];
+        this.lastClose = bars.close()[index];
+    }
+}
@@ -0,0 +1,209 @@
+package com.chris.fin_shark.m07.engine.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 單一股票的指標結果（型別化儲存）
+ * <p>
+ * 以 {@link IndicatorKeys} 的槽位索引原生陣列，計算器直接寫入，不配置 Map 與裝箱的 Double：
+ * 1. 數值：double[]，NaN 表示無值
+ * 2. 文字（信號）：int[] 文字代碼，0 表示無值
+ * 3. 類別：int[] 文字代碼，記錄每個槽位由哪個類別（TREND、MOMENTUM...）寫入
+ * </p>
+ * <p>
+ * Map / JSON 形式只在持久化與 API 邊界由 {@link #toMap(String)} 產生，
+ * 巢狀鍵（如 macd.macd_line）會還原為與 {@code calculate} 相同的巢狀結構。
+ * </p>
+ * <p>
+ * 注意：非執行緒安全，每支股票、每次計算各自建立
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class IndicatorValues {
+
+    private double[] numbers;
+
+    private int[] labels;
+
+    private int[] categories;
+
+    public IndicatorValues() {
+        int capacity = Math.max(IndicatorKeys.size(), 64);
+        numbers = new double[capacity];
+        Arrays.fill(numbers, Double.NaN);
+        labels = new int[capacity];
+        categories = new int[capacity];
+    }
+
+    // ========================================================================
+    // 寫入
+    // ========================================================================
+
+    /**
+     * 寫入數值（NaN 視為無值）
+     */
+    public void putNumber(String category, int slot, double value) {
+        ensureCapacity(slot);
+        numbers[slot] = value;
+        labels[slot] = 0;
+        categories[slot] = IndicatorKeys.labelCode(category);
+    }
+
+    /**
+     * 寫入文字值（null 視為無值）
+     */
+    public void putLabel(String category, int slot, String label) {
+        ensureCapacity(slot);
+        numbers[slot] = Double.NaN;
+        labels[slot] = label != null ? IndicatorKeys.labelCode(label) : 0;
+        categories[slot] = IndicatorKeys.labelCode(category);
+    }
+
+    /**
+     * 寫入 Map 形式的計算結果（巢狀 Map 會攤平）
+     * <p>
+     * 供尚未直接寫入的計算器與遞推結果使用
+     * </p>
+     */
+    public void putAll(String category, Map<String, Object> values) {
+        if (values == null) {
+            return;
+        }
+        values.forEach((key, value) -> put(category, key, value));
+    }
+
+    /**
+     * 寫入單一鍵值（數值、文字或巢狀 Map）
+     */
+    public void put(String category, String key, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Number number) {
+            putNumber(category, IndicatorKeys.slot(key), number.doubleValue());
+        } else if (value instanceof Map<?, ?> nested) {
+            nested.forEach((nestedKey, nestedValue) ->
+                    put(category, key + IndicatorSeries.KEY_SEPARATOR + nestedKey, nestedValue));
+        } else {
+            putLabel(category, IndicatorKeys.slot(key), value.toString());
+        }
+    }
+
+    /**
+     * 寫入整段序列輸出的某一天（直接讀欄位，不經過 Map）
+     */
+    public void putRow(String category, IndicatorSeries series, int index) {
+        series.numberColumns().forEach((key, column) -> {
+            if (!Double.isNaN(column[index])) {
+                putNumber(category, IndicatorKeys.slot(key), column[index]);
+            }
+        });
+        series.labelColumns().forEach((key, column) -> {
+            if (column[index] != null) {
+                putLabel(category, IndicatorKeys.slot(key), column[index]);
+            }
+        });
+    }
+
+    // ========================================================================
+    // 讀取
+    // ========================================================================
+
+    /**
+     * 數值（無值時為 NaN）
+     */
+    public double getNumber(int slot) {
+        return slot < numbers.length ? numbers[slot] : Double.NaN;
+    }
+
+    /**
+     * 數值（無值時為 NaN）
+     */
+    public double getNumber(String key) {
+        int slot = IndicatorKeys.find(key);
+        return slot >= 0 ? getNumber(slot) : Double.NaN;
+    }
+
+    /**
+     * 文字值（無值時為 null）
+     */
+    public String getLabel(int slot) {
+        return slot < labels.length ? IndicatorKeys.label(labels[slot]) : null;
+    }
+
+    /**
+     * 是否有值
+     */
+    public boolean has(int slot) {
+        return slot >= 0 && slot < numbers.length && (!Double.isNaN(numbers[slot]) || labels[slot] != 0);
+    }
+
+    /**
+     * 取得頂層鍵的值（數值為 Double、文字為 String、巢狀輸出為 Map，無值時為 null）
+     */
+    public Object get(String key) {
+        int slot = IndicatorKeys.find(key);
+        if (slot >= 0 && has(slot)) {
+            return boxed(slot);
+        }
+
+        String prefix = key + IndicatorSeries.KEY_SEPARATOR;
+        Map<String, Object> nested = new HashMap<>();
+        for (int i = 0; i < numbers.length; i++) {
+            if (has(i) && IndicatorKeys.key(i).startsWith(prefix)) {
+                putNested(nested, IndicatorKeys.key(i).substring(prefix.length()), boxed(i));
+            }
+        }
+        return nested.isEmpty() ? null : nested;
+    }
+
+    // ========================================================================
+    // 邊界轉換
+    // ========================================================================
+
+    /**
+     * 取得指定類別的結果（還原為巢狀 Map，無值時為空 Map）
+     */
+    public Map<String, Object> toMap(String category) {
+        Map<String, Object> result = new HashMap<>();
+        int code = IndicatorKeys.labelCode(category);
+        for (int i = 0; i < numbers.length; i++) {
+            if (categories[i] == code && has(i)) {
+                putNested(result, IndicatorKeys.key(i), boxed(i));
+            }
+        }
+        return result;
+    }
+
+    private Object boxed(int slot) {
+        return labels[slot] != 0 ? IndicatorKeys.label(labels[slot]) : (Object) numbers[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void putNested(Map<String, Object> target, String key, Object value) {
+        int separator = key.indexOf(IndicatorSeries.KEY_SEPARATOR);
+        if (separator < 0) {
+            target.put(key, value);
+            return;
+        }
+        Map<String, Object> nested = (Map<String, Object>) target.computeIfAbsent(
+                key.substring(0, separator), k -> new HashMap<String, Object>());
+        putNested(nested, key.substring(separator + 1), value);
+    }
+
+    private void ensureCapacity(int slot) {
+        if (slot < numbers.length) {
+            return;
+        }
+        int capacity = Math.max(slot + 1, numbers.length * 2);
+        int oldLength = numbers.length;
+        numbers = Arrays.copyOf(numbers, capacity);
+        Arrays.fill(numbers, oldLength, capacity, Double.NaN);
+        labels = Arrays.copyOf(labels, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+    }
+}
@@ -0,0 +1,92 @@
+package com.chris.fin_shark.m07.engine.model;
+
+import java.util.Arrays;
+
+/**
+ * 多週期掃描結果（週期 × K 棒矩陣）
+ * <p>
+ * 每個週期一列，列內依 K 棒順序排列；尚無值的位置（視窗未滿、除以零）為 NaN。
+ * 第 r 列第 i 欄與單一週期 calculateSeries 的對應欄位值逐位相同。
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class PeriodMatrix {
+
+    private final int[] periods;
+
+    private final int length;
+
+    private final double[][] rows;
+
+    private PeriodMatrix(int[] periods, int length) {
+        this.periods = periods.clone();
+        this.length = length;
+        this.rows = new double[periods.length][length];
+        for (double[] row : rows) {
+            Arrays.fill(row, Double.NaN);
+        }
+    }
+
+    /**
+     * 建立以 NaN 預填的矩陣
+     *
+     * @param periods 週期（列順序）
+     * @param length  K 棒數
+     */
+    public static PeriodMatrix of(int[] periods, int length) {
+        return new PeriodMatrix(periods, length);
+    }
+
+    /**
+     * 週期數（列數）
+     */
+    public int rows() {
+        return periods.length;
+    }
+
+    /**
+     * K 棒數（欄數）
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * 第 row 列的週期
+     */
+    public int periodAt(int row) {
+        return periods[row];
+    }
+
+    /**
+     * 週期所在的列（不存在時為 -1）
+     */
+    public int rowOf(int period) {
+        for (int r = 0; r < periods.length; r++) {
+            if (periods[r] == period) {
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    public double get(int row, int index) {
+        return rows[row][index];
+    }
+
+    /**
+     * 最新一根 K 棒的值
+     */
+    public double latest(int row) {
+        return length == 0 ? Double.NaN : rows[row][length - 1];
+    }
+
+    /**
+     * 列的底層陣列（由掃描核心直接寫入，呼叫端不可保留後再修改）
+     */
+    public double[] row(int row) {
+        return rows[row];
+    }
+}
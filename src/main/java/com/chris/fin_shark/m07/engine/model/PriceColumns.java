@@ -0,0 +1,264 @@
+package com.chris.fin_shark.m07.engine.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 欄式價格序列（Columnar）
+ * <p>
+ * 以原生型別陣列保存 OHLCV，每支股票只建立一次，
+ * 所有計算器共用同一份陣列，避免重複的 BigDecimal 拆箱與複製。
+ * </p>
+ * <p>
+ * 注意：
+ * 1. 陣列為唯讀共用，計算器不可修改其內容
+ * 2. 日期以 epoch day（int）編碼
+ * 3. 缺值價格以 NaN 表示，缺值成交量以 0 表示
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class PriceColumns {
+
+    private static final PriceColumns EMPTY = new PriceColumns(
+            new int[0], new double[0], new double[0], new double[0], new double[0], new long[0]);
+
+    /** 日期（epoch day） */
+    private final int[] dates;
+
+    /** 開盤價 */
+    private final double[] open;
+
+    /** 最高價 */
+    private final double[] high;
+
+    /** 最低價 */
+    private final double[] low;
+
+    /** 收盤價 */
+    private final double[] close;
+
+    /** 成交量 */
+    private final long[] volume;
+
+    private PriceColumns(int[] dates, double[] open, double[] high,
+                         double[] low, double[] close, long[] volume) {
+        this.dates = dates;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    /**
+     * 以既有陣列建立（不複製，呼叫端轉移所有權）
+     */
+    public static PriceColumns wrap(int[] dates, double[] open, double[] high,
+                                    double[] low, double[] close, long[] volume) {
+        return new PriceColumns(dates, open, high, low, close, volume);
+    }
+
+    /**
+     * 空序列
+     */
+    public static PriceColumns empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 由 BigDecimal 清單建立（相容舊版 PriceSeries）
+     */
+    public static PriceColumns fromLists(List<LocalDate> dates,
+                                         List<BigDecimal> open,
+                                         List<BigDecimal> high,
+                                         List<BigDecimal> low,
+                                         List<BigDecimal> close,
+                                         List<Long> volume) {
+        return new PriceColumns(
+                toEpochDays(dates),
+                toDoubles(open),
+                toDoubles(high),
+                toDoubles(low),
+                toDoubles(close),
+                toLongs(volume)
+        );
+    }
+
+    /**
+     * 資料筆數（以收盤價為準）
+     */
+    public int size() {
+        return close.length;
+    }
+
+    public int[] dates() {
+        return dates;
+    }
+
+    public double[] open() {
+        return open;
+    }
+
+    public double[] high() {
+        return high;
+    }
+
+    public double[] low() {
+        return low;
+    }
+
+    public double[] close() {
+        return close;
+    }
+
+    public long[] volume() {
+        return volume;
+    }
+
+    /**
+     * 取前 length 筆（複製陣列）
+     */
+    public PriceColumns head(int length) {
+        return new PriceColumns(
+                Arrays.copyOf(dates, Math.min(length, dates.length)),
+                Arrays.copyOf(open, Math.min(length, open.length)),
+                Arrays.copyOf(high, Math.min(length, high.length)),
+                Arrays.copyOf(low, Math.min(length, low.length)),
+                Arrays.copyOf(close, Math.min(length, close.length)),
+                Arrays.copyOf(volume, Math.min(length, volume.length))
+        );
+    }
+
+    /**
+     * 取得指定位置的日期
+     */
+    public LocalDate dateAt(int index) {
+        return LocalDate.ofEpochDay(dates[index]);
+    }
+
+    // ========================================================================
+    // 相容層：BigDecimal / LocalDate 唯讀視圖（不複製資料）
+    // ========================================================================
+
+    /**
+     * 日期清單視圖
+     */
+    public List<LocalDate> dateView() {
+        return new DateView(dates);
+    }
+
+    /**
+     * 價格清單視圖（NaN 轉為 null）
+     */
+    public static List<BigDecimal> decimalView(double[] values) {
+        return new DecimalView(values);
+    }
+
+    /**
+     * 成交量清單視圖
+     */
+    public List<Long> volumeView() {
+        return new VolumeView(volume);
+    }
+
+    // ========================================================================
+    // 轉換工具
+    // ========================================================================
+
+    private static int[] toEpochDays(List<LocalDate> values) {
+        if (values == null || values.isEmpty()) {
+            return new int[0];
+        }
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            LocalDate date = values.get(i);
+            result[i] = date != null ? (int) date.toEpochDay() : 0;
+        }
+        return result;
+    }
+
+    private static double[] toDoubles(List<BigDecimal> values) {
+        if (values == null || values.isEmpty()) {
+            return new double[0];
+        }
+        double[] result = new double[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            BigDecimal value = values.get(i);
+            result[i] = value != null ? value.doubleValue() : Double.NaN;
+        }
+        return result;
+    }
+
+    private static long[] toLongs(List<Long> values) {
+        if (values == null || values.isEmpty()) {
+            return new long[0];
+        }
+        long[] result = new long[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            Long value = values.get(i);
+            result[i] = value != null ? value : 0L;
+        }
+        return result;
+    }
+
+    private static final class DateView extends AbstractList<LocalDate> implements RandomAccess {
+        private final int[] values;
+
+        private DateView(int[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public LocalDate get(int index) {
+            return LocalDate.ofEpochDay(values[index]);
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    private static final class DecimalView extends AbstractList<BigDecimal> implements RandomAccess {
+        private final double[] values;
+
+        private DecimalView(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public BigDecimal get(int index) {
+            double value = values[index];
+            return Double.isNaN(value) ? null : BigDecimal.valueOf(value);
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    private static final class VolumeView extends AbstractList<Long> implements RandomAccess {
+        private final long[] values;
+
+        private VolumeView(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Long get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
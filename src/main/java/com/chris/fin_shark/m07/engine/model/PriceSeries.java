@@ -1,9 +1,14 @@
 package com.chris.fin_shark.m07.engine.model;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -12,6 +17,10 @@ import java.util.List;
 
 /**
  * 價格序列
+ * <p>
+ * 計算時一律使用 {@link PriceColumns} 原生陣列（每支股票只轉換一次），
+ * BigDecimal 清單僅作為相容舊介面的視圖。
+ * </p>
  *
  * @author chris
  * @since 1.0.0
@@ -49,6 +58,39 @@ public class PriceSeries {
     @Builder.Default
     private List<Long> volume = new ArrayList<>();
 
+    /** 欄式快取（原生陣列，第一次取用時建立，之後所有計算器共用） */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient PriceColumns columns;
+
+    /**
+     * 由欄式資料建立價格序列
+     * <p>
+     * BigDecimal 清單為唯讀視圖，不會額外複製資料
+     * </p>
+     */
+    public static PriceSeries of(String stockId, PriceColumns columns) {
+        return PriceSeries.builder()
+                .stockId(stockId)
+                .dates(columns.dateView())
+                .open(PriceColumns.decimalView(columns.open()))
+                .high(PriceColumns.decimalView(columns.high()))
+                .low(PriceColumns.decimalView(columns.low()))
+                .close(PriceColumns.decimalView(columns.close()))
+                .volume(columns.volumeView())
+                .columns(columns)
+                .build();
+    }
+
+    /**
+     * 取前 length 筆資料組成新序列（用於逐日重算）
+     */
+    public PriceSeries head(int length) {
+        return PriceSeries.of(stockId, getColumns().head(length));
+    }
+
     /**
      * 取得資料筆數
      */
@@ -57,63 +99,82 @@ public class PriceSeries {
     }
 
     /**
-     * 取得收盤價陣列（用於計算）
+     * 取得欄式資料（memoized）
      */
-    public double[] getCloseArray() {
-        if (close == null || close.isEmpty()) {
-            return new double[0];
+    public PriceColumns getColumns() {
+        PriceColumns current = columns;
+        if (current == null) {
+            current = PriceColumns.fromLists(dates, open, high, low, close, volume);
+            columns = current;
         }
-        return close.stream()
-                .mapToDouble(BigDecimal::doubleValue)
-                .toArray();
+        return current;
+    }
+
+    /**
+     * 取得收盤價陣列（用於計算，共用陣列，請勿修改）
+     */
+    public double[] getCloseArray() {
+        return getColumns().close();
     }
 
     /**
-     * 取得開盤價陣列
+     * 取得開盤價陣列（共用陣列，請勿修改）
      */
     public double[] getOpenArray() {
-        if (open == null || open.isEmpty()) {
-            return new double[0];
-        }
-        return open.stream()
-                .mapToDouble(BigDecimal::doubleValue)
-                .toArray();
+        return getColumns().open();
     }
 
     /**
-     * 取得最高價陣列
+     * 取得最高價陣列（共用陣列，請勿修改）
      */
     public double[] getHighArray() {
-        if (high == null || high.isEmpty()) {
-            return new double[0];
-        }
-        return high.stream()
-                .mapToDouble(BigDecimal::doubleValue)
-                .toArray();
+        return getColumns().high();
     }
 
     /**
-     * 取得最低價陣列
+     * 取得最低價陣列（共用陣列，請勿修改）
      */
     public double[] getLowArray() {
-        if (low == null || low.isEmpty()) {
-            return new double[0];
-        }
-        return low.stream()
-                .mapToDouble(BigDecimal::doubleValue)
-                .toArray();
+        return getColumns().low();
     }
 
     /**
-     * 取得成交量陣列
+     * 取得成交量陣列（共用陣列，請勿修改）
      */
     public long[] getVolumeArray() {
-        if (volume == null || volume.isEmpty()) {
-            return new long[0];
-        }
-        return volume.stream()
-                .mapToLong(Long::longValue)
-                .toArray();
+        return getColumns().volume();
+    }
+
+    // 變更任一欄位都需要讓欄式快取失效
+
+    public void setDates(List<LocalDate> dates) {
+        this.dates = dates;
+        this.columns = null;
+    }
+
+    public void setOpen(List<BigDecimal> open) {
+        this.open = open;
+        this.columns = null;
+    }
+
+    public void setHigh(List<BigDecimal> high) {
+        this.high = high;
+        this.columns = null;
+    }
+
+    public void setLow(List<BigDecimal> low) {
+        this.low = low;
+        this.columns = null;
+    }
+
+    public void setClose(List<BigDecimal> close) {
+        this.close = close;
+        this.columns = null;
+    }
+
+    public void setVolume(List<Long> volume) {
+        this.volume = volume;
+        this.columns = null;
     }
 
     /**
@@ -0,0 +1,59 @@
+package com.chris.fin_shark.m07.engine.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * K 棒週期
+ * <p>
+ * 週線以週一至週日為一期（含週六補班交易日），月線以自然月為一期。
+ * 週線、月線由日線重新取樣而來：開盤取首日、收盤取末日、最高 / 最低取極值、成交量加總，
+ * K 棒日期為該期最後一個交易日。
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public enum Timeframe {
+
+    DAILY(1),
+    WEEKLY(7),
+    MONTHLY(31);
+
+    /** 每根 K 棒約涵蓋的日曆天數 */
+    private final int calendarDays;
+
+    Timeframe(int calendarDays) {
+        this.calendarDays = calendarDays;
+    }
+
+    /**
+     * 指定根數大約需要的日曆天數（日線維持原本以日曆天計的回溯區間）
+     */
+    public int lookbackDays(int bars) {
+        return bars * calendarDays;
+    }
+
+    /**
+     * 日期所屬的週期序號（同一期的日期序號相同，且序號隨時間遞增）
+     */
+    public long periodKey(LocalDate date) {
+        return switch (this) {
+            case DAILY -> date.toEpochDay();
+            case WEEKLY -> periodStart(date).toEpochDay();
+            case MONTHLY -> date.getYear() * 12L + date.getMonthValue() - 1;
+        };
+    }
+
+    /**
+     * 日期所屬週期的第一個日曆日
+     */
+    public LocalDate periodStart(LocalDate date) {
+        return switch (this) {
+            case DAILY -> date;
+            case WEEKLY -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> date.withDayOfMonth(1);
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.chris.fin_shark.m07.engine.stats;
+
+/**
+ * 重標極差（R/S）計算
+ * <p>
+ * R = 累積偏差的最大值 - 最小值，S = 母體標準差，R/S = R / S。
+ * 直接在原陣列的區段上計算，不配置累積偏差陣列。
+ * </p>
+ * <p>
+ * 累積偏差依賴整段均值，無法以單一數值增量維護，
+ * 因此均值與標準差由 {@link RollingMoments} 取得，範圍以第二次掃描求得
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class RescaledRange {
+
+    private RescaledRange() {
+    }
+
+    /**
+     * 計算 values[start, start + n) 的 R/S（標準差為 0 時回傳 0）
+     */
+    public static double of(double[] values, int start, int n, RollingMoments moments) {
+        moments.reset();
+        for (int j = start; j < start + n; j++) {
+            moments.add(values[j]);
+        }
+
+        double stdDev = moments.stdDev();
+        if (stdDev <= 0) {
+            return 0;
+        }
+
+        double mean = moments.mean();
+        double cumulative = 0;
+        double maxCum = Double.NEGATIVE_INFINITY;
+        double minCum = Double.POSITIVE_INFINITY;
+        for (int j = start; j < start + n; j++) {
+            cumulative += values[j] - mean;
+            maxCum = Math.max(maxCum, cumulative);
+            minCum = Math.min(minCum, cumulative);
+        }
+
+        return (maxCum - minCum) / stdDev;
+    }
+}
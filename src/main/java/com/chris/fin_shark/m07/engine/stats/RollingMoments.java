@@ -0,0 +1,185 @@
+package com.chris.fin_shark.m07.engine.stats;
+
+/**
+ * 滑動視窗動差（Welford 演算法）
+ * <p>
+ * 以增量方式維護均值與離差平方和 M2，支援加入與移出，
+ * 滑動一格只需 O(1)，不會因 Σx² - (Σx)²/n 相減而損失精度。
+ * </p>
+ * <p>
+ * 使用方式：
+ * <pre>
+ * RollingMoments moments = new RollingMoments();
+ * for (int i = 0; i &lt; values.length; i++) {
+ *     moments.add(values[i]);
+ *     if (i &gt;= period) {
+ *         moments.remove(values[i - period]);
+ *     }
+ * }
+ * </pre>
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class RollingMoments {
+
+    /** {@link #rollingMeanStdDev} 回傳陣列中的均值索引 */
+    public static final int MEAN = 0;
+
+    /** {@link #rollingMeanStdDev} 回傳陣列中的標準差索引 */
+    public static final int STD_DEV = 1;
+
+    private int count;
+    private double mean;
+    private double m2;
+
+    /**
+     * 加入一筆資料
+     */
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * 移出一筆先前加入的資料（Welford 反向更新）
+     */
+    public void remove(double value) {
+        if (count <= 1) {
+            reset();
+            return;
+        }
+        count--;
+        double delta = value - mean;
+        mean -= delta / count;
+        m2 -= delta * (value - mean);
+        if (m2 < 0) {
+            m2 = 0;  // 捨入誤差
+        }
+    }
+
+    /**
+     * 以新值取代視窗中最舊的一筆（筆數不變）
+     * <p>
+     * 等同 add(newValue) 後 remove(oldValue)，但一次更新均值與 M2，
+     * 避免筆數暫時變動造成的額外捨入誤差
+     * </p>
+     */
+    public void replace(double oldValue, double newValue) {
+        if (count == 0) {
+            add(newValue);
+            return;
+        }
+        double delta = newValue - oldValue;
+        double oldMean = mean;
+        mean += delta / count;
+        m2 += delta * (newValue - mean + oldValue - oldMean);
+        if (m2 < 0) {
+            m2 = 0;  // 捨入誤差
+        }
+    }
+
+    /**
+     * 清空
+     */
+    public void reset() {
+        count = 0;
+        mean = 0;
+        m2 = 0;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    /**
+     * 母體變異數 M2 / n
+     */
+    public double variance() {
+        return count > 0 ? m2 / count : 0;
+    }
+
+    /**
+     * 樣本變異數 M2 / (n - 1)
+     */
+    public double sampleVariance() {
+        return count > 1 ? m2 / (count - 1) : 0;
+    }
+
+    /**
+     * 母體標準差
+     */
+    public double stdDev() {
+        return Math.sqrt(variance());
+    }
+
+    /**
+     * 樣本標準差
+     */
+    public double sampleStdDev() {
+        return Math.sqrt(sampleVariance());
+    }
+
+    /**
+     * 整段序列的滑動均值與標準差（O(N)，視窗未滿時為 NaN）
+     * <p>
+     * 第 i 筆只依賴前 i + 1 筆輸入，對前段序列計算的結果與整段計算的對應值完全相同
+     * </p>
+     *
+     * @param values 輸入序列
+     * @param period 視窗長度
+     * @param sample true 為樣本標準差，false 為母體標準差
+     * @return [均值序列, 標準差序列]
+     */
+    public static double[][] rollingMeanStdDev(double[] values, int period, boolean sample) {
+        double[] means = new double[values.length];
+        double[] stdDevs = new double[values.length];
+        rollingMeanStdDev(values, values.length, period, sample, means, stdDevs);
+        return new double[][]{means, stdDevs};
+    }
+
+    /**
+     * 同 {@link #rollingMeanStdDev(double[], int, boolean)}，只處理 values[0, length)，
+     * 寫入呼叫端提供的陣列（輸入與輸出都可為長度較長的暫存緩衝區）
+     *
+     * @param length  有效輸入筆數
+     * @param means   均值輸出（長度至少為 length）
+     * @param stdDevs 標準差輸出（長度至少為 length）
+     */
+    public static void rollingMeanStdDev(double[] values, int length, int period, boolean sample,
+                                         double[] means, double[] stdDevs) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("週期必須大於 0: " + period);
+        }
+
+        RollingMoments moments = new RollingMoments();
+
+        for (int i = 0; i < length; i++) {
+            if (i >= period && (i + 1) % period == 0) {
+                // 每滑動 period 格以整個視窗重建一次，捨入誤差不隨序列長度累積（攤銷 O(1)）
+                moments.reset();
+                for (int j = i - period + 1; j <= i; j++) {
+                    moments.add(values[j]);
+                }
+            } else if (i >= period) {
+                moments.replace(values[i - period], values[i]);
+            } else {
+                moments.add(values[i]);
+            }
+            if (i >= period - 1) {
+                means[i] = moments.mean();
+                stdDevs[i] = sample ? moments.sampleStdDev() : moments.stdDev();
+            } else {
+                means[i] = Double.NaN;
+                stdDevs[i] = Double.NaN;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.chris.fin_shark.m07.engine.stats;
+
+/**
+ * 滑動視窗最小平方法回歸
+ * <p>
+ * 以 Welford 形式同時維護 x、y 的均值、離差平方和與共變動差，
+ * 支援加入與移出，滑動一格只需 O(1)。
+ * </p>
+ * <p>
+ * x 使用序列的絕對位置（如陣列索引）：斜率與 R² 不受平移影響，
+ * 截距與回歸值以 {@link #interceptAt(double)}、{@link #valueAt(double)} 依指定原點換算。
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class RollingRegression {
+
+    private int count;
+    private double meanX;
+    private double meanY;
+    private double m2x;
+    private double m2y;
+    private double cxy;
+
+    /**
+     * 加入一個點
+     */
+    public void add(double x, double y) {
+        count++;
+        double dx = x - meanX;
+        double dy = y - meanY;
+        meanX += dx / count;
+        meanY += dy / count;
+        m2x += dx * (x - meanX);
+        m2y += dy * (y - meanY);
+        cxy += dx * (y - meanY);
+    }
+
+    /**
+     * 移出一個先前加入的點
+     */
+    public void remove(double x, double y) {
+        if (count <= 1) {
+            reset();
+            return;
+        }
+        count--;
+        double dx = x - meanX;
+        double dy = y - meanY;
+        meanX -= dx / count;
+        meanY -= dy / count;
+        m2x -= dx * (x - meanX);
+        m2y -= dy * (y - meanY);
+        cxy -= dx * (y - meanY);
+        if (m2x < 0) {
+            m2x = 0;
+        }
+        if (m2y < 0) {
+            m2y = 0;
+        }
+    }
+
+    /**
+     * 清空
+     */
+    public void reset() {
+        count = 0;
+        meanX = 0;
+        meanY = 0;
+        m2x = 0;
+        m2y = 0;
+        cxy = 0;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public double meanY() {
+        return meanY;
+    }
+
+    /**
+     * 斜率 Cov(x, y) / Var(x)
+     */
+    public double slope() {
+        return m2x > 0 ? cxy / m2x : 0;
+    }
+
+    /**
+     * 以 origin 為 x 原點時的截距
+     */
+    public double interceptAt(double origin) {
+        return meanY - slope() * (meanX - origin);
+    }
+
+    /**
+     * 回歸線在 x 的值
+     */
+    public double valueAt(double x) {
+        return meanY + slope() * (x - meanX);
+    }
+
+    /**
+     * 決定係數 R²（y 無變異時為 1）
+     */
+    public double rSquared() {
+        if (m2y <= 0) {
+            return 1.0;
+        }
+        if (m2x <= 0) {
+            return 0;
+        }
+        return (cxy * cxy) / (m2x * m2y);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.util.List;
 
 /**
  * 指標計算排程 Job
@@ -39,19 +40,11 @@ public class IndicatorCalculationJob {
         LocalDate today = LocalDate.now();
 
         try {
-            // 計算基礎組指標（P0）
-            calculationService.calculateIndicators(
+            // 計算基礎組（P0）與進階組（P1），逐批計算，每批價格只載入一次供兩者共用
+            calculationService.calculateIndicatorsForPriorities(
                     today,
                     null, // 全部股票
-                    "P0",
-                    false
-            );
-
-            // 計算進階組指標（P1）
-            calculationService.calculateIndicators(
-                    today,
-                    null,
-                    "P1",
+                    List.of("P0", "P1"),
                     false
             );
 
@@ -0,0 +1,60 @@
+package com.chris.fin_shark.m07.mapper;
+
+import com.chris.fin_shark.m07.vo.PriceBarVO;
+import com.chris.fin_shark.m07.vo.PriceWindowVO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 價格 K 棒 MyBatis Mapper
+ * <p>
+ * 功能編號: F-M07-013
+ * 功能名稱: 指標計算用價格批次載入
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Mapper
+public interface PriceBarMapper {
+
+    /**
+     * 串流查詢多支股票在日期區間內的 K 棒
+     * <p>
+     * 依 stock_id, trade_date 排序，單一查詢掃描整個區間；
+     * 回傳的 Cursor 需在交易內使用並於用畢後關閉
+     * </p>
+     *
+     * @param stockIds  股票代碼列表
+     * @param startDate 開始日期
+     * @param endDate   結束日期
+     * @return K 棒游標
+     */
+    Cursor<PriceBarVO> streamPriceBars(
+            @Param("stockIds") List<String> stockIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * 查詢多支股票在日期區間內的價格摘要（每支股票一筆）
+     * <p>
+     * K 棒數、首末日期、最後異動時間與最新一根 K 棒，用於計算輸入指紋；
+     * 區間內無資料的股票不會出現在結果中
+     * </p>
+     *
+     * @param stockIds  股票代碼列表
+     * @param startDate 開始日期
+     * @param endDate   結束日期
+     * @return 價格摘要列表
+     */
+    List<PriceWindowVO> summarizePriceWindows(
+            @Param("stockIds") List<String> stockIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+}
@@ -24,7 +24,8 @@ public interface TechnicalIndicatorMapper {
     /**
      * 批次插入或更新技術指標
      * <p>
-     * 使用 PostgreSQL ON CONFLICT DO UPDATE 避免重複插入
+     * 使用 PostgreSQL ON CONFLICT DO UPDATE 避免重複插入；
+     * 每筆綁定 43 個參數，單一語句筆數由 {@link com.chris.fin_shark.m07.service.TechnicalIndicatorWriter} 控制
      * </p>
      *
      * @param indicators 技術指標列表
@@ -44,6 +45,58 @@ public interface TechnicalIndicatorMapper {
             @Param("date") LocalDate date
     );
 
+    /**
+     * 批次查詢指定日期已儲存的輸入指紋
+     * <p>
+     * 只讀取 stock_id 與 input_fingerprints，其餘欄位為 null
+     * </p>
+     *
+     * @param stockIds 股票代碼列表
+     * @param date     計算日期
+     * @return 技術指標列表（僅含指紋）
+     */
+    List<TechnicalIndicator> findFingerprints(
+            @Param("stockIds") List<String> stockIds,
+            @Param("date") LocalDate date
+    );
+
+    /**
+     * 查詢單一股票在日期區間內已有指標資料的交易日
+     *
+     * @param stockId   股票代碼
+     * @param startDate 開始日期
+     * @param endDate   結束日期
+     * @return 計算日期列表
+     */
+    List<LocalDate> findCalculationDates(
+            @Param("stockId") String stockId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * 查詢單一股票的指標歷史（JSONB 投影）
+     * <p>
+     * 常用指標欄位一律帶回；JSONB 只選取 categories 指定的欄位，
+     * 指定 keys 時每個欄位只保留這些鍵（或以其為前綴、下一個字元不是字母的鍵，例如 ma 對應 ma5 而不含 macd），
+     * 未選取的 JSONB 欄位為 null
+     * </p>
+     *
+     * @param stockId    股票代碼
+     * @param startDate  開始日期
+     * @param endDate    結束日期
+     * @param categories JSONB 欄位名稱（由呼叫端以白名單決定，直接組入 SQL）
+     * @param keys       指標輸出鍵或其前綴（null 或空表示整欄）
+     * @return 技術指標列表（依日期排序）
+     */
+    List<TechnicalIndicator> findIndicatorHistory(
+            @Param("stockId") String stockId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("categories") List<String> categories,
+            @Param("keys") List<String> keys
+    );
+
     /**
      * 查詢最新指標
      *
@@ -55,46 +108,77 @@ public interface TechnicalIndicatorMapper {
     /**
      * 查詢黃金交叉候選股票
      * <p>
-     * 偵測 MA5 上穿 MA20 的股票
+     * 偵測 MA5 上穿 MA20 的股票（比對當日列的 ma5/ma20 與 prev_ma5/prev_ma20）
      * </p>
      *
-     * @param date 查詢日期
+     * @param date       查詢日期
+     * @param marketType 市場類型（TWSE, OTC；null 表示不限）
      * @return 黃金交叉候選股票資訊
      */
-    List<Map<String, Object>> findGoldenCrossCandidates(@Param("date") LocalDate date);
+    List<Map<String, Object>> findGoldenCrossCandidates(
+            @Param("date") LocalDate date,
+            @Param("marketType") String marketType
+    );
 
     /**
      * 查詢死亡交叉候選股票
      * <p>
-     * 偵測 MA5 下穿 MA20 的股票
+     * 偵測 MA5 下穿 MA20 的股票（比對當日列的 ma5/ma20 與 prev_ma5/prev_ma20）
      * </p>
      *
-     * @param date 查詢日期
+     * @param date       查詢日期
+     * @param marketType 市場類型（TWSE, OTC；null 表示不限）
      * @return 死亡交叉候選股票資訊
      */
-    List<Map<String, Object>> findDeathCrossCandidates(@Param("date") LocalDate date);
+    List<Map<String, Object>> findDeathCrossCandidates(
+            @Param("date") LocalDate date,
+            @Param("marketType") String marketType
+    );
+
+    /**
+     * 查詢 KD 交叉候選股票
+     * <p>
+     * 偵測 K 上穿 / 下穿 D 的股票，signal_type 為 GOLDEN_CROSS 或 DEATH_CROSS
+     * </p>
+     *
+     * @param date       查詢日期
+     * @param marketType 市場類型（TWSE, OTC；null 表示不限）
+     * @return KD 交叉候選股票資訊
+     */
+    List<Map<String, Object>> findKdCrossCandidates(
+            @Param("date") LocalDate date,
+            @Param("marketType") String marketType
+    );
 
     /**
      * 查詢超買股票
      * <p>
-     * RSI > 70 或 KD > 80
+     * RSI > 70、KD > 80 或 Williams %R > -20，每個指標各一列
      * </p>
      *
-     * @param date 查詢日期
+     * @param date      查詢日期
+     * @param indicator 指標（RSI, KD, WILLIAMS_R；null 表示全部）
      * @return 超買股票列表
      */
-    List<Map<String, Object>> findOverboughtStocks(@Param("date") LocalDate date);
+    List<Map<String, Object>> findOverboughtStocks(
+            @Param("date") LocalDate date,
+            @Param("indicator") String indicator
+    );
 
     /**
      * 查詢超賣股票
      * <p>
-     * RSI < 30 或 KD < 20
+     * RSI < 30、KD < 20 或 Williams %R < -80，每個指標各一列
      * </p>
      *
-     * @param date 查詢日期
+     * @param date      查詢日期
+     * @param indicator 指標（RSI, KD, WILLIAMS_R；null 表示全部）
      * @return 超賣股票列表
      */
-    List<Map<String, Object>> findOversoldStocks(@Param("date") LocalDate date);
+    List<Map<String, Object>> findOversoldStocks(
+            @Param("date") LocalDate date,
+            @Param("indicator") String indicator
+    );
 
     /**
      * 計算並回寫移動平均線
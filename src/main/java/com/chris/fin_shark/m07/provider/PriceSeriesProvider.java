@@ -2,22 +2,35 @@ package com.chris.fin_shark.m07.provider;
 
 import com.chris.fin_shark.m06.domain.StockPrice;
 import com.chris.fin_shark.m06.repository.StockPriceRepository;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m07.mapper.PriceBarMapper;
+import com.chris.fin_shark.m07.vo.PriceBarVO;
+import com.chris.fin_shark.m07.vo.PriceWindowVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 價格序列提供者
  * <p>
  * 從 M06 StockPrice 轉換為 Engine 需要的 PriceSeries
  * </p>
+ * <p>
+ * 批次載入以單一串流查詢取得所有股票的 OHLCV，
+ * 依股票代碼分段直接組成原生陣列，不建立 StockPrice 實體
+ * </p>
  *
  * @author chris
  * @since 1.0.0
@@ -28,6 +41,7 @@ import java.util.stream.Collectors;
 public class PriceSeriesProvider {
 
     private final StockPriceRepository stockPriceRepository;
+    private final PriceBarMapper priceBarMapper;
 
     /**
      * 取得單一股票的價格序列
@@ -64,63 +78,170 @@ public class PriceSeriesProvider {
 
     /**
      * 批次取得多支股票的價格序列
+     * <p>
+     * 單一查詢串流讀取（依 stock_id, trade_date 排序），
+     * 股票代碼切換時即完成前一支股票的序列；無資料的股票不會出現在結果中
+     * </p>
      *
      * @param stockIds 股票代碼列表
      * @param endDate  結束日期
      * @param days     天數
      * @return 股票代碼 → 價格序列
      */
+    @Transactional(readOnly = true)
     public Map<String, PriceSeries> getBatch(List<String> stockIds, LocalDate endDate, int days) {
         log.info("批次取得價格序列: stockCount={}, endDate={}, days={}",
                 stockIds.size(), endDate, days);
 
         Map<String, PriceSeries> result = new HashMap<>();
+        if (stockIds.isEmpty()) {
+            return result;
+        }
 
-        for (String stockId : stockIds) {
-            try {
-                PriceSeries series = get(stockId, endDate, days);
-                if (series.size() > 0) {
-                    result.put(stockId, series);
-                } else {
-                    log.warn("跳過無資料的股票: {}", stockId);
+        long start = System.currentTimeMillis();
+        int rows = 0;
+        SeriesAssembler assembler = null;
+
+        try (Cursor<PriceBarVO> cursor = priceBarMapper.streamPriceBars(
+                stockIds, endDate.minusDays(days), endDate)) {
+            for (PriceBarVO bar : cursor) {
+                if (assembler == null || !assembler.stockId.equals(bar.getStockId())) {
+                    if (assembler != null) {
+                        result.put(assembler.stockId, assembler.build());
+                    }
+                    assembler = new SeriesAssembler(bar.getStockId());
                 }
-            } catch (Exception e) {
-                log.error("取得股價失敗: stockId={}, error={}", stockId, e.getMessage());
+                assembler.add(bar);
+                rows++;
             }
+        } catch (IOException e) {
+            throw new UncheckedIOException("關閉價格游標失敗", e);
+        }
+
+        if (assembler != null) {
+            result.put(assembler.stockId, assembler.build());
         }
 
-        log.info("批次取得完成: 成功={}, 失敗={}",
+        log.info("批次取得完成: 成功={}, 無資料={}, rows={}, elapsed={}ms",
                 result.size(),
-                stockIds.size() - result.size());
+                stockIds.size() - result.size(),
+                rows,
+                System.currentTimeMillis() - start);
+
+        return result;
+    }
+
+    /**
+     * 批次取得多支股票的價格區間摘要
+     * <p>
+     * 每支股票只回傳一筆摘要（不傳輸整段 K 棒），用於計算輸入指紋；
+     * 無資料的股票不會出現在結果中
+     * </p>
+     *
+     * @param stockIds 股票代碼列表
+     * @param endDate  結束日期
+     * @param days     天數
+     * @return 股票代碼 → 價格區間摘要
+     */
+    public Map<String, PriceWindowVO> getWindowSummaries(List<String> stockIds, LocalDate endDate, int days) {
+        Map<String, PriceWindowVO> result = new HashMap<>();
+        if (stockIds.isEmpty()) {
+            return result;
+        }
+
+        for (PriceWindowVO window : priceBarMapper.summarizePriceWindows(stockIds, endDate.minusDays(days), endDate)) {
+            result.put(window.getStockId(), window);
+        }
+        log.debug("取得價格區間摘要: stockCount={}, 有資料={}", stockIds.size(), result.size());
 
         return result;
     }
 
     /**
      * 轉換為 PriceSeries
+     * <p>
+     * 一次掃描直接填入原生陣列，後續所有計算器共用，不再逐一拆箱
+     * </p>
      */
     private PriceSeries convertToPriceSeries(String stockId, List<StockPrice> prices) {
-        return PriceSeries.builder()
-                .stockId(stockId)
-                .dates(prices.stream()
-                        .map(StockPrice::getTradeDate)
-                        .collect(Collectors.toList()))
-                .open(prices.stream()
-                        .map(StockPrice::getOpenPrice)
-                        .collect(Collectors.toList()))
-                .high(prices.stream()
-                        .map(StockPrice::getHighPrice)
-                        .collect(Collectors.toList()))
-                .low(prices.stream()
-                        .map(StockPrice::getLowPrice)
-                        .collect(Collectors.toList()))
-                .close(prices.stream()
-                        .map(StockPrice::getClosePrice)
-                        .collect(Collectors.toList()))
-                .volume(prices.stream()
-                        .map(StockPrice::getVolume)
-                        .collect(Collectors.toList()))
-                .build();
+        int size = prices.size();
+        int[] dates = new int[size];
+        double[] open = new double[size];
+        double[] high = new double[size];
+        double[] low = new double[size];
+        double[] close = new double[size];
+        long[] volume = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            StockPrice price = prices.get(i);
+            dates[i] = (int) price.getTradeDate().toEpochDay();
+            open[i] = toDouble(price.getOpenPrice());
+            high[i] = toDouble(price.getHighPrice());
+            low[i] = toDouble(price.getLowPrice());
+            close[i] = toDouble(price.getClosePrice());
+            volume[i] = price.getVolume() != null ? price.getVolume() : 0L;
+        }
+
+        return PriceSeries.of(stockId, PriceColumns.wrap(dates, open, high, low, close, volume));
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : Double.NaN;
+    }
+
+    private static double toDouble(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    /**
+     * 單一股票的欄式組裝器（陣列倍增，完成時裁切）
+     */
+    private static final class SeriesAssembler {
+
+        private static final int INITIAL_CAPACITY = 256;
+
+        private final String stockId;
+        private int size;
+        private int[] dates = new int[INITIAL_CAPACITY];
+        private double[] open = new double[INITIAL_CAPACITY];
+        private double[] high = new double[INITIAL_CAPACITY];
+        private double[] low = new double[INITIAL_CAPACITY];
+        private double[] close = new double[INITIAL_CAPACITY];
+        private long[] volume = new long[INITIAL_CAPACITY];
+
+        private SeriesAssembler(String stockId) {
+            this.stockId = stockId;
+        }
+
+        private void add(PriceBarVO bar) {
+            if (size == dates.length) {
+                int capacity = size * 2;
+                dates = Arrays.copyOf(dates, capacity);
+                open = Arrays.copyOf(open, capacity);
+                high = Arrays.copyOf(high, capacity);
+                low = Arrays.copyOf(low, capacity);
+                close = Arrays.copyOf(close, capacity);
+                volume = Arrays.copyOf(volume, capacity);
+            }
+
+            dates[size] = (int) bar.getTradeDate().toEpochDay();
+            open[size] = toDouble(bar.getOpenPrice());
+            high[size] = toDouble(bar.getHighPrice());
+            low[size] = toDouble(bar.getLowPrice());
+            close[size] = toDouble(bar.getClosePrice());
+            volume[size] = bar.getVolume() != null ? bar.getVolume() : 0L;
+            size++;
+        }
+
+        private PriceSeries build() {
+            return PriceSeries.of(stockId, PriceColumns.wrap(
+                    Arrays.copyOf(dates, size),
+                    Arrays.copyOf(open, size),
+                    Arrays.copyOf(high, size),
+                    Arrays.copyOf(low, size),
+                    Arrays.copyOf(close, size),
+                    Arrays.copyOf(volume, size)));
+        }
     }
 
     /**
@@ -0,0 +1,336 @@
+package com.chris.fin_shark.m07.provider;
+
+import com.chris.fin_shark.m06.service.TradingCalendarService;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m07.engine.model.Timeframe;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 多週期價格序列（週線 / 月線）
+ * <p>
+ * 由 {@link PriceSeriesProvider} 的日線重新取樣，M07 指標與 M10 型態共用。
+ * 每支股票、每個週期快取已組好的 K 棒與最後一根日線（錨點）：
+ * 之後的呼叫只載入錨點日之後的日線，併入最後一根未完成的 K 棒或開新 K 棒，
+ * 不必每天重新查詢、重新彙總整段歷史。
+ * </p>
+ * <p>
+ * 失效規則：
+ * 1. 錨點日線的 OHLCV 與重新載入的不同（價格修正）→ 整段重建
+ * 2. 要求的區間早於快取起點、或結束日早於錨點日（查詢歷史）→ 整段重建
+ * </p>
+ * <p>
+ * 回溯區間起點落在某一期中間時，若交易日曆顯示該期在起點之前還有交易日，
+ * 該期 K 棒不完整，不輸出。
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PriceSeriesResampler {
+
+    /** 每支股票、每個週期最多快取的 K 棒數 */
+    private static final int MAX_CACHED_BARS = 600;
+
+    private final PriceSeriesProvider priceProvider;
+    private final TradingCalendarService tradingCalendarService;
+
+    /** 股票代碼:週期 → 已重新取樣的 K 棒 */
+    private final Map<String, ResampledBars> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 取得單一股票的價格序列
+     *
+     * @param stockId   股票代碼
+     * @param endDate   結束日期
+     * @param days      回溯日曆天數
+     * @param timeframe K 棒週期
+     * @return 價格序列（無資料時為空序列）
+     */
+    public PriceSeries get(String stockId, LocalDate endDate, int days, Timeframe timeframe) {
+        PriceSeries series = getBatch(List.of(stockId), endDate, days, timeframe).get(stockId);
+        return series != null ? series : PriceSeries.builder().stockId(stockId).build();
+    }
+
+    /**
+     * 批次取得多支股票的價格序列
+     *
+     * @param stockIds  股票代碼列表
+     * @param endDate   結束日期
+     * @param days      回溯日曆天數
+     * @param timeframe K 棒週期
+     * @return 股票代碼 → 價格序列（無資料的股票不會出現在結果中）
+     */
+    public Map<String, PriceSeries> getBatch(List<String> stockIds, LocalDate endDate, int days,
+                                             Timeframe timeframe) {
+        if (timeframe == Timeframe.DAILY) {
+            return priceProvider.getBatch(stockIds, endDate, days);
+        }
+
+        LocalDate windowStart = endDate.minusDays(days);
+        int windowStartDay = (int) windowStart.toEpochDay();
+        int endDay = (int) endDate.toEpochDay();
+
+        // 1. 分流：快取可沿用的股票只載入錨點日之後的日線
+        List<String> cachedStocks = new ArrayList<>();
+        List<String> rebuildStocks = new ArrayList<>();
+        int earliestAnchor = endDay;
+        for (String stockId : stockIds) {
+            ResampledBars bars = cache.get(cacheKey(stockId, timeframe));
+            if (bars == null || bars.coveredFrom > windowStartDay
+                    || bars.anchorDate > endDay || bars.anchorDate < windowStartDay) {
+                rebuildStocks.add(stockId);
+                continue;
+            }
+            cachedStocks.add(stockId);
+            earliestAnchor = Math.min(earliestAnchor, bars.anchorDate);
+        }
+
+        Map<String, ResampledBars> resolved = new HashMap<>();
+        int advanced = 0;
+
+        // 2. 遞增更新：併入錨點日之後的日線
+        if (!cachedStocks.isEmpty()) {
+            Map<String, PriceSeries> recent = priceProvider.getBatch(
+                    cachedStocks, endDate, endDay - earliestAnchor);
+            for (String stockId : cachedStocks) {
+                ResampledBars bars = cache.get(cacheKey(stockId, timeframe));
+                PriceSeries daily = recent.get(stockId);
+                if (daily != null && bars.advance(daily.getColumns())) {
+                    resolved.put(stockId, bars);
+                    advanced++;
+                } else {
+                    rebuildStocks.add(stockId);
+                }
+            }
+        }
+
+        // 3. 整段重建
+        if (!rebuildStocks.isEmpty()) {
+            Map<String, PriceSeries> daily = priceProvider.getBatch(rebuildStocks, endDate, days);
+            daily.forEach((stockId, series) -> {
+                ResampledBars bars = ResampledBars.build(series.getColumns(), timeframe, windowStartDay);
+                bars.trim();
+                cache.put(cacheKey(stockId, timeframe), bars);
+                resolved.put(stockId, bars);
+            });
+        }
+
+        // 4. 裁切到要求的區間（起點所在的不完整週期不輸出）
+        int firstPeriodStart = (int) timeframe.periodStart(windowStart).toEpochDay();
+        boolean partialFirstPeriod = firstPeriodStart < windowStartDay
+                && !tradingCalendarService.getTradingDaysInRange(
+                        timeframe.periodStart(windowStart), windowStart.minusDays(1)).isEmpty();
+        int fromPeriodStart = partialFirstPeriod ? windowStartDay : firstPeriodStart;
+
+        Map<String, PriceSeries> result = new HashMap<>();
+        resolved.forEach((stockId, bars) -> {
+            PriceSeries series = bars.slice(stockId, fromPeriodStart);
+            if (series.size() > 0) {
+                result.put(stockId, series);
+            }
+        });
+
+        log.debug("重新取樣完成: timeframe={}, 遞增={}, 重建={}, 輸出={}",
+                timeframe, advanced, rebuildStocks.size(), result.size());
+        return result;
+    }
+
+    /**
+     * 清除單一股票的快取（例如回補歷史股價後）
+     */
+    public void invalidate(String stockId) {
+        for (Timeframe timeframe : Timeframe.values()) {
+            cache.remove(cacheKey(stockId, timeframe));
+        }
+    }
+
+    /**
+     * 將日線重新取樣為指定週期（不使用快取）
+     */
+    public static PriceSeries resample(PriceSeries daily, Timeframe timeframe) {
+        if (timeframe == Timeframe.DAILY) {
+            return daily;
+        }
+        return ResampledBars.build(daily.getColumns(), timeframe, Integer.MIN_VALUE)
+                .slice(daily.getStockId(), Integer.MIN_VALUE);
+    }
+
+    private static String cacheKey(String stockId, Timeframe timeframe) {
+        return stockId + ":" + timeframe;
+    }
+
+    /**
+     * 單一股票、單一週期的 K 棒（最後一根可能尚未完成）
+     * <p>
+     * 陣列倍增；更新與裁切在同一把鎖內進行，輸出為複本
+     * </p>
+     */
+    private static final class ResampledBars {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final Timeframe timeframe;
+
+        /** 建立時的回溯起點（epoch day） */
+        private int coveredFrom;
+
+        private int size;
+        private long[] periods = new long[INITIAL_CAPACITY];
+        private int[] periodStarts = new int[INITIAL_CAPACITY];
+        private int[] dates = new int[INITIAL_CAPACITY];
+        private double[] open = new double[INITIAL_CAPACITY];
+        private double[] high = new double[INITIAL_CAPACITY];
+        private double[] low = new double[INITIAL_CAPACITY];
+        private double[] close = new double[INITIAL_CAPACITY];
+        private long[] volume = new long[INITIAL_CAPACITY];
+
+        /** 最後併入的日線（錨點） */
+        private int anchorDate = Integer.MIN_VALUE;
+        private double anchorOpen;
+        private double anchorHigh;
+        private double anchorLow;
+        private double anchorClose;
+        private long anchorVolume;
+
+        private ResampledBars(Timeframe timeframe, int coveredFrom) {
+            this.timeframe = timeframe;
+            this.coveredFrom = coveredFrom;
+        }
+
+        static ResampledBars build(PriceColumns daily, Timeframe timeframe, int coveredFrom) {
+            ResampledBars bars = new ResampledBars(timeframe, coveredFrom);
+            for (int i = 0; i < daily.size(); i++) {
+                bars.add(daily, i);
+            }
+            return bars;
+        }
+
+        /**
+         * 併入錨點日之後的日線
+         *
+         * @param daily 由錨點日（含）開始的日線
+         * @return 錨點日線未變更且已併入；false 表示需要整段重建
+         */
+        synchronized boolean advance(PriceColumns daily) {
+            int[] days = daily.dates();
+            int from = Arrays.binarySearch(days, 0, daily.size(), anchorDate);
+            if (from < 0 || !sameAsAnchor(daily, from)) {
+                return false;
+            }
+            for (int i = from + 1; i < daily.size(); i++) {
+                add(daily, i);
+            }
+            trim();
+            return true;
+        }
+
+        /**
+         * 輸出 K 棒起始日不早於 fromPeriodStart 的部分
+         */
+        synchronized PriceSeries slice(String stockId, int fromPeriodStart) {
+            int from = 0;
+            while (from < size && periodStarts[from] < fromPeriodStart) {
+                from++;
+            }
+            return PriceSeries.of(stockId, PriceColumns.wrap(
+                    Arrays.copyOfRange(dates, from, size),
+                    Arrays.copyOfRange(open, from, size),
+                    Arrays.copyOfRange(high, from, size),
+                    Arrays.copyOfRange(low, from, size),
+                    Arrays.copyOfRange(close, from, size),
+                    Arrays.copyOfRange(volume, from, size)));
+        }
+
+        private void add(PriceColumns daily, int i) {
+            LocalDate date = LocalDate.ofEpochDay(daily.dates()[i]);
+            long period = timeframe.periodKey(date);
+
+            if (size > 0 && periods[size - 1] == period) {
+                int last = size - 1;
+                dates[last] = daily.dates()[i];
+                high[last] = Math.max(high[last], daily.high()[i]);
+                low[last] = Math.min(low[last], daily.low()[i]);
+                close[last] = daily.close()[i];
+                volume[last] += volumeAt(daily, i);
+            } else {
+                if (size == dates.length) {
+                    grow();
+                }
+                periods[size] = period;
+                periodStarts[size] = (int) timeframe.periodStart(date).toEpochDay();
+                dates[size] = daily.dates()[i];
+                open[size] = daily.open()[i];
+                high[size] = daily.high()[i];
+                low[size] = daily.low()[i];
+                close[size] = daily.close()[i];
+                volume[size] = volumeAt(daily, i);
+                size++;
+            }
+
+            anchorDate = daily.dates()[i];
+            anchorOpen = daily.open()[i];
+            anchorHigh = daily.high()[i];
+            anchorLow = daily.low()[i];
+            anchorClose = daily.close()[i];
+            anchorVolume = volumeAt(daily, i);
+        }
+
+        private boolean sameAsAnchor(PriceColumns daily, int i) {
+            return Double.compare(daily.open()[i], anchorOpen) == 0
+                    && Double.compare(daily.high()[i], anchorHigh) == 0
+                    && Double.compare(daily.low()[i], anchorLow) == 0
+                    && Double.compare(daily.close()[i], anchorClose) == 0
+                    && volumeAt(daily, i) == anchorVolume;
+        }
+
+        /**
+         * 超過上限時捨棄最舊的 K 棒，快取起點隨之後移
+         */
+        private void trim() {
+            int excess = size - MAX_CACHED_BARS;
+            if (excess <= 0) {
+                return;
+            }
+            System.arraycopy(periods, excess, periods, 0, MAX_CACHED_BARS);
+            System.arraycopy(periodStarts, excess, periodStarts, 0, MAX_CACHED_BARS);
+            System.arraycopy(dates, excess, dates, 0, MAX_CACHED_BARS);
+            System.arraycopy(open, excess, open, 0, MAX_CACHED_BARS);
+            System.arraycopy(high, excess, high, 0, MAX_CACHED_BARS);
+            System.arraycopy(low, excess, low, 0, MAX_CACHED_BARS);
+            System.arraycopy(close, excess, close, 0, MAX_CACHED_BARS);
+            System.arraycopy(volume, excess, volume, 0, MAX_CACHED_BARS);
+            size = MAX_CACHED_BARS;
+            coveredFrom = periodStarts[0];
+        }
+
+        private void grow() {
+            int capacity = dates.length * 2;
+            periods = Arrays.copyOf(periods, capacity);
+            periodStarts = Arrays.copyOf(periodStarts, capacity);
+            dates = Arrays.copyOf(dates, capacity);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+        }
+
+        private static long volumeAt(PriceColumns daily, int i) {
+            return i < daily.volume().length ? daily.volume()[i] : 0L;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.chris.fin_shark.m07.repository;
+
+import com.chris.fin_shark.m07.domain.IndicatorStateSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 指標遞推狀態快照 Repository
+ * <p>
+ * 使用 Spring Data JPA
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Repository
+public interface IndicatorStateSnapshotRepository extends JpaRepository<IndicatorStateSnapshot, Long> {
+
+    /**
+     * 批次查詢多支股票的狀態快照
+     *
+     * @param stockIds 股票代碼列表
+     * @return 快照列表
+     */
+    List<IndicatorStateSnapshot> findByStockIdIn(Collection<String> stockIds);
+}
@@ -1,24 +1,32 @@
 package com.chris.fin_shark.m07.service;
 
 import com.chris.fin_shark.m06.domain.Stock;
-import com.chris.fin_shark.m06.dto.TradingCalendarDTO;
 import com.chris.fin_shark.m06.repository.StockRepository;
-import com.chris.fin_shark.m06.service.TradingCalendarService;
 import com.chris.fin_shark.m07.converter.IndicatorCalculationJobConverter;
 import com.chris.fin_shark.m07.domain.IndicatorCalculationJob;
+import com.chris.fin_shark.m07.domain.IndicatorStateSnapshot;
 import com.chris.fin_shark.m07.domain.TechnicalIndicator;
 import com.chris.fin_shark.m07.dto.IndicatorCalculationJobDTO;
 import com.chris.fin_shark.m07.dto.request.IndicatorCalculationRequest;
+import com.chris.fin_shark.m07.exception.IndicatorCalculationException;
+import com.chris.fin_shark.m07.mapper.TechnicalIndicatorMapper;
 import com.chris.fin_shark.m07.engine.*;
+import com.chris.fin_shark.m07.engine.expression.ExpressionIndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorKeys;
 import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.engine.model.IndicatorState;
+import com.chris.fin_shark.m07.engine.model.IndicatorValues;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m07.engine.model.Timeframe;
 import com.chris.fin_shark.m07.provider.PriceSeriesProvider;
+import com.chris.fin_shark.m07.provider.PriceSeriesResampler;
 import com.chris.fin_shark.m07.repository.IndicatorCalculationJobRepository;
-import com.chris.fin_shark.m07.repository.TechnicalIndicatorRepository;
+import com.chris.fin_shark.m07.repository.IndicatorStateSnapshotRepository;
+import com.chris.fin_shark.m07.vo.PriceWindowVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -37,15 +45,57 @@ import java.util.*;
 @RequiredArgsConstructor
 public class IndicatorCalculationService {
 
+    /** 計算所需的價格回溯天數（日曆天） */
+    private static final int PRICE_LOOKBACK_DAYS = 250;
+
+    /** 週線 / 月線計算所需的 K 棒數 */
+    private static final int RESAMPLED_LOOKBACK_BARS = 120;
+
+    /** 持久化格式版本（展平欄位或 JSON 結構變更時更新，已儲存的輸入指紋隨之失效） */
+    private static final String CALCULATION_VERSION = "v2.0";
+
+    /** 計算全部指標時的計劃標籤（輸入指紋的鍵） */
+    private static final String ALL_PLAN = "ALL";
+
+    // 展平欄位對應的輸出鍵槽位
+    private static final int MA5 = IndicatorKeys.slot("ma5");
+    private static final int MA20 = IndicatorKeys.slot("ma20");
+    private static final int MA60 = IndicatorKeys.slot("ma60");
+    private static final int EMA12 = IndicatorKeys.slot("ema12");
+    private static final int EMA26 = IndicatorKeys.slot("ema26");
+    private static final int MACD_LINE = IndicatorKeys.slot("macd.macd_line");
+    private static final int MACD_SIGNAL_LINE = IndicatorKeys.slot("macd.signal_line");
+    private static final int MACD_HISTOGRAM = IndicatorKeys.slot("macd.histogram");
+    private static final int RSI14 = IndicatorKeys.slot("rsi_14");
+    private static final int STOCH_K = IndicatorKeys.slot("stoch_k");
+    private static final int STOCH_D = IndicatorKeys.slot("stoch_d");
+    private static final int WILLR14 = IndicatorKeys.slot("willr_14");
+    private static final int BBANDS_UPPER = IndicatorKeys.slot("bbands.upper");
+    private static final int BBANDS_MIDDLE = IndicatorKeys.slot("bbands.middle");
+    private static final int BBANDS_LOWER = IndicatorKeys.slot("bbands.lower");
 
     private final IndicatorEngine engine;
     private final IndicatorRegistry registry;
     private final PriceSeriesProvider priceProvider;
-    private final TechnicalIndicatorRepository indicatorRepository;
+    private final TechnicalIndicatorWriter indicatorWriter;
     private final IndicatorCalculationJobRepository jobRepository;
     private final IndicatorCalculationJobConverter jobConverter;
-    private final TradingCalendarService tradingCalendarService;
     private final StockRepository stockRepository;
+    private final IndicatorStateSnapshotRepository stateRepository;
+    private final TechnicalIndicatorMapper indicatorMapper;
+    private final PriceSeriesResampler priceSeriesResampler;
+
+    /**
+     * 是否啟用遞推計算（每日只推進最新 K 棒）
+     */
+    @Value("${m07.engine.incremental.enabled:true}")
+    private boolean incrementalEnabled;
+
+    /**
+     * 每批計算與寫入的股票數（每批獨立交易）
+     */
+    @Value("${m07.persistence.chunk-size:500}")
+    private int chunkSize;
 
     /**
      * API-M07-007: 手動觸發指標計算
@@ -78,92 +128,602 @@ public class IndicatorCalculationService {
 
     /**
      * 計算技術指標（主邏輯 - 整合 Engine）
+     * <p>
+     * 依 chunk-size 分批計算並寫入，記憶體用量與股票總數無關；
+     * 每批獨立提交，某批失敗不會回滾先前已寫入的批次
+     * </p>
+     * <p>
+     * 非強制重算時，輸入指紋（價格區間摘要、計劃參數、計算器版本）與已儲存相同的股票直接略過，
+     * 只重算新增、失敗或價格有異動的股票；forceRecalculate = true 時全部重算。
+     * 指紋只查詢每支股票一筆的區間摘要，需重算的股票才載入價格
+     * </p>
      */
-    @Transactional
     public Long calculateIndicators(
             LocalDate calculationDate,
             List<String> stockIds,
             String indicatorPriority,
             Boolean forceRecalculate) {
 
+        return runCalculation(calculationDate, stockIds, Collections.singletonList(indicatorPriority),
+                forceRecalculate).get(0);
+    }
+
+    /**
+     * 依序計算多個優先級的技術指標（每批價格只載入一次，各優先級共用）
+     * <p>
+     * 例如每日排程的 P0 + P1：與單一優先級相同逐批處理，每批載入需重算股票的價格後依序計算各優先級，
+     * 記憶體用量只與批次大小有關；各優先級各自建立 Job 記錄
+     * </p>
+     *
+     * @return 各優先級的 Job ID（與 priorities 順序相同）
+     */
+    public List<Long> calculateIndicatorsForPriorities(
+            LocalDate calculationDate,
+            List<String> stockIds,
+            List<String> indicatorPriorities,
+            Boolean forceRecalculate) {
+
+        return runCalculation(calculationDate, stockIds, indicatorPriorities, forceRecalculate);
+    }
+
+    /**
+     * 依計劃的 K 棒週期計算指標（不寫入資料庫）
+     * <p>
+     * 週線 / 月線價格由 {@link PriceSeriesResampler} 提供（快取已組好的 K 棒，每日只更新最後一根）；
+     * technical_indicators 只儲存日線結果，因此多週期計算只回傳結果
+     * </p>
+     *
+     * @param calculationDate 計算日期
+     * @param stockIds        股票代碼列表
+     * @param plan            計算計劃（含 K 棒週期）
+     * @return 股票代碼 → 計算結果
+     */
+    public Map<String, IndicatorResult> computeIndicators(
+            LocalDate calculationDate,
+            List<String> stockIds,
+            IndicatorPlan plan) {
+
+        Timeframe timeframe = plan.getTimeframe();
+        int days = timeframe == Timeframe.DAILY
+                ? PRICE_LOOKBACK_DAYS
+                : timeframe.lookbackDays(RESAMPLED_LOOKBACK_BARS);
+
+        Map<String, PriceSeries> seriesMap = priceSeriesResampler.getBatch(
+                getTargetStocks(stockIds), calculationDate, days, timeframe);
+        log.info("📊 {} 價格資料: {} 支股票", timeframe, seriesMap.size());
+
+        return engine.batchCompute(seriesMap, plan);
+    }
+
+    /**
+     * 註冊自訂運算式指標（同時加入註冊表與計算引擎，之後的計算計劃即可使用）
+     *
+     * @param name       指標名稱
+     * @param expression 運算式，例如 (close - SMA(close,20)) / STDEV(close,20)
+     * @return 註冊的計算器
+     */
+    public ExpressionIndicatorCalculator registerExpressionIndicator(String name, String expression) {
+        try {
+            ExpressionIndicatorCalculator calculator = registry.registerExpression(name, expression);
+            engine.register(calculator);
+            return calculator;
+        } catch (IllegalArgumentException e) {
+            throw new IndicatorCalculationException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 執行一或多個優先級的計算
+     * <p>
+     * 逐批處理：先以價格區間摘要找出各優先級需重算的股票；
+     * 多個優先級時只載入一次這些股票的完整回溯價格，供各優先級共用；
+     * 單一優先級時由 {@link #executeWithEngine} 依路徑自行載入（快速路徑只載入錨點日之後的 K 棒）
+     * </p>
+     *
+     * @return 各優先級的 Job ID（與 priorities 順序相同）
+     */
+    private List<Long> runCalculation(
+            LocalDate calculationDate,
+            List<String> stockIds,
+            List<String> indicatorPriorities,
+            Boolean forceRecalculate) {
+
         log.info("========================================");
         log.info("🚀 開始計算技術指標");
         log.info("========================================");
         log.info("計算日期: {}", calculationDate);
-        log.info("優先級: {}", indicatorPriority);
+        log.info("優先級: {}", indicatorPriorities);
 
-        // 1. 建立 Job 記錄
-        IndicatorCalculationJob job = createJob(calculationDate, stockIds, indicatorPriority);
+        // 1. 建立 Job 記錄（每個優先級一筆）
+        List<PriorityRun> runs = new ArrayList<>();
+        for (String priority : indicatorPriorities) {
+            runs.add(new PriorityRun(createJob(calculationDate, stockIds, priority)));
+        }
 
         try {
-            // 2. 更新狀態為 RUNNING
-            job.setStatus("RUNNING");
-            job.setStartTime(LocalDateTime.now());
-            jobRepository.save(job);
+            // 2. 更新狀態為 RUNNING，建立計算計劃與目標股票
+            for (PriorityRun run : runs) {
+                run.job.setStatus("RUNNING");
+                run.job.setStartTime(LocalDateTime.now());
+                jobRepository.save(run.job);
+
+                run.plan = createPlan(run.job.getIndicatorPriority());
+                run.planLabel = run.plan.getPriority() != null ? run.plan.getPriority() : ALL_PLAN;
+                run.planKey = InputFingerprint.planKey(run.plan, registry::getMetadata, CALCULATION_VERSION);
+                log.info("📋 計算計劃 [{}]: {}", run.planLabel, run.plan.getIndicators().keySet());
+            }
+            List<String> targetStocks = getTargetStocks(stockIds);
+            boolean force = Boolean.TRUE.equals(forceRecalculate);
+            log.info("📈 目標股票數: {}, 每批 {} 支", targetStocks.size(), chunkSize);
+
+            // ✅ 3. 分批計算並寫入（每批、每個優先級獨立交易）
+            int chunkCount = 0;
+
+            for (int from = 0; from < targetStocks.size(); from += chunkSize) {
+                List<String> chunk = targetStocks.subList(from, Math.min(from + chunkSize, targetStocks.size()));
+                chunkCount++;
+
+                try {
+                    // 以價格區間摘要計算指紋（每支股票一筆），略過輸入未變的股票
+                    Map<String, PriceWindowVO> windows =
+                            priceProvider.getWindowSummaries(chunk, calculationDate, PRICE_LOOKBACK_DAYS);
+                    for (PriorityRun run : runs) {
+                        run.fingerprints = InputFingerprint.ofWindows(windows, run.planKey);
+                        run.dirtyStocks = force
+                                ? chunk
+                                : findDirtyStocks(chunk, run.fingerprints, run.planLabel, calculationDate);
+                    }
+
+                    // 多個優先級共用本批價格（只載入任一優先級需重算的股票）
+                    Map<String, PriceSeries> shared = runs.size() > 1
+                            ? loadShared(runs, calculationDate)
+                            : null;
+
+                    for (PriorityRun run : runs) {
+                        computeChunk(run, chunkCount, chunk.size(), calculationDate, forceRecalculate, shared);
+                    }
+                    writeChunk(runs, chunkCount);
+
+                } catch (Exception e) {
+                    log.error("❌ 第 {} 批失敗: stocks={}, error={}", chunkCount, chunk.size(), e.getMessage(), e);
+                    for (PriorityRun run : runs) {
+                        run.failedCount += chunk.size();
+                        run.failedChunks++;
+                    }
+                }
+            }
+
+            // 4. 更新 Job 狀態
+            List<Long> jobIds = new ArrayList<>();
+            for (PriorityRun run : runs) {
+                IndicatorCalculationJob job = run.job;
+                job.setStatus(run.failedChunks == 0 ? "SUCCESS" : "FAILED");
+                job.setEndTime(LocalDateTime.now());
+                job.setDurationSeconds(calculateDuration(job.getStartTime(), job.getEndTime()));
+                job.setStatistics(buildStatistics(run.successCount, run.failedCount, run.skippedCount,
+                        chunkCount, run.failedChunks));
+                if (run.failedChunks > 0) {
+                    job.setErrorMessage(String.format("%d/%d 批寫入失敗", run.failedChunks, chunkCount));
+                }
+
+                jobRepository.save(job);
+
+                log.info("✅ 指標計算完成 [{}]: 成功={}, 失敗={}, 略過={}, 失敗批次={}/{}",
+                        run.planLabel, run.successCount, run.failedCount, run.skippedCount,
+                        run.failedChunks, chunkCount);
+                jobIds.add(job.getJobId());
+            }
+            return jobIds;
+
+        } catch (Exception e) {
+            log.error("❌ 指標計算失敗", e);
+            runs.forEach(run -> updateJobAsFailed(run.job, e));
+            throw new RuntimeException("指標計算失敗", e);
+        }
+    }
+
+    /**
+     * 計算單一優先級的一批（計算失敗只記錄在該優先級，不影響其他優先級與批次）
+     *
+     * @param shared 本批共用的價格資料（null 表示由引擎路徑自行載入）
+     */
+    private void computeChunk(
+            PriorityRun run,
+            int chunkNo,
+            int chunkStocks,
+            LocalDate calculationDate,
+            Boolean forceRecalculate,
+            Map<String, PriceSeries> shared) {
+
+        run.indicators = List.of();
+        run.snapshots = List.of();
+        run.chunkStocks = chunkStocks;
+
+        List<String> dirtyStocks = run.dirtyStocks;
+        run.skippedCount += chunkStocks - dirtyStocks.size();
+        if (dirtyStocks.isEmpty()) {
+            log.info("⏭️ 第 {} 批輸入未變更，略過 [{}]: {} 支", chunkNo, run.planLabel, chunkStocks);
+            return;
+        }
 
-            // ✅ 3. 使用 Engine 執行計算
+        try {
+            Map<String, Map<String, IndicatorState>> states = new HashMap<>();
             Map<String, IndicatorResult> results = executeWithEngine(
+                    run.plan,
+                    dirtyStocks,
                     calculationDate,
-                    stockIds,
-                    indicatorPriority,
-                    forceRecalculate
+                    forceRecalculate,
+                    states,
+                    shared
             );
 
-            // 4. 轉換並儲存結果
             List<TechnicalIndicator> indicators = convertToEntities(results, calculationDate);
-            indicatorRepository.saveAll(indicators);
-            log.info("💾 已儲存 {} 筆指標資料", indicators.size());
+            for (TechnicalIndicator indicator : indicators) {
+                String fingerprint = run.fingerprints.get(indicator.getStockId());
+                if (fingerprint != null) {
+                    indicator.setInputFingerprints(Map.of(run.planLabel, fingerprint));
+                }
+            }
+            run.indicators = indicators;
+            run.snapshots = toSnapshots(states);
+            run.failedCount += results.size() - indicators.size();
 
-            // 5. 更新 Job 狀態為成功
-            job.setStatus("SUCCESS");
-            job.setEndTime(LocalDateTime.now());
-            job.setDurationSeconds(calculateDuration(job.getStartTime(), job.getEndTime()));
-            job.setStatistics(buildStatistics(results));
+        } catch (Exception e) {
+            log.error("❌ 第 {} 批計算失敗 [{}]: stocks={}, error={}",
+                    chunkNo, run.planLabel, dirtyStocks.size(), e.getMessage(), e);
+            run.failedCount += dirtyStocks.size();
+            run.failedChunks++;
+        }
+    }
 
-            jobRepository.save(job);
+    /**
+     * 寫入本批各優先級的計算結果
+     * <p>
+     * 各優先級寫入同一筆 (stock_id, calculation_date)，先合併為每支股票一筆再寫入一次，
+     * 避免後寫入的優先級覆蓋先寫入者的 JSON 區塊與展平欄位；寫入失敗時本批有結果的優先級都記為失敗
+     * </p>
+     */
+    private void writeChunk(List<PriorityRun> runs, int chunkNo) {
+        Map<String, TechnicalIndicator> merged = new LinkedHashMap<>();
+        List<IndicatorStateSnapshot> snapshots = new ArrayList<>();
+        List<PriorityRun> written = new ArrayList<>();
+        for (PriorityRun run : runs) {
+            if (run.indicators.isEmpty() && run.snapshots.isEmpty()) {
+                continue;
+            }
+            run.indicators.forEach(indicator -> merged.merge(indicator.getStockId(), indicator, this::mergeEntity));
+            snapshots.addAll(run.snapshots);
+            written.add(run);
+        }
+        if (written.isEmpty()) {
+            return;
+        }
+
+        try {
+            indicatorWriter.writeChunk(new ArrayList<>(merged.values()), snapshots);
 
-            log.info("✅ 指標計算完成");
-            return job.getJobId();
+            for (PriorityRun run : written) {
+                run.successCount += run.indicators.size();
+                log.info("💾 第 {} 批已寫入 [{}]: {} 筆指標, 略過 {} 支",
+                        chunkNo, run.planLabel, run.indicators.size(), run.skippedInChunk());
+            }
 
         } catch (Exception e) {
-            log.error("❌ 指標計算失敗", e);
-            updateJobAsFailed(job, e);
-            throw new RuntimeException("指標計算失敗", e);
+            log.error("❌ 第 {} 批寫入失敗: stocks={}, error={}", chunkNo, merged.size(), e.getMessage(), e);
+            for (PriorityRun run : written) {
+                run.failedCount += run.indicators.size();
+                run.failedChunks++;
+            }
+        }
+    }
+
+    /**
+     * 合併同一股票、不同優先級的計算結果（JSON 區塊合併鍵值，展平欄位取有值者）
+     */
+    private TechnicalIndicator mergeEntity(TechnicalIndicator target, TechnicalIndicator other) {
+        target.setTrendIndicators(mergeJson(target.getTrendIndicators(), other.getTrendIndicators()));
+        target.setMomentumIndicators(mergeJson(target.getMomentumIndicators(), other.getMomentumIndicators()));
+        target.setVolatilityIndicators(mergeJson(target.getVolatilityIndicators(), other.getVolatilityIndicators()));
+        target.setVolumeIndicators(mergeJson(target.getVolumeIndicators(), other.getVolumeIndicators()));
+        target.setInputFingerprints(mergeJson(target.getInputFingerprints(), other.getInputFingerprints()));
+
+        target.setMa5(coalesce(target.getMa5(), other.getMa5()));
+        target.setMa20(coalesce(target.getMa20(), other.getMa20()));
+        target.setMa60(coalesce(target.getMa60(), other.getMa60()));
+        target.setEma12(coalesce(target.getEma12(), other.getEma12()));
+        target.setEma26(coalesce(target.getEma26(), other.getEma26()));
+        target.setMacdValue(coalesce(target.getMacdValue(), other.getMacdValue()));
+        target.setMacdSignal(coalesce(target.getMacdSignal(), other.getMacdSignal()));
+        target.setMacdHistogram(coalesce(target.getMacdHistogram(), other.getMacdHistogram()));
+        target.setRsi14(coalesce(target.getRsi14(), other.getRsi14()));
+        target.setStochK(coalesce(target.getStochK(), other.getStochK()));
+        target.setStochD(coalesce(target.getStochD(), other.getStochD()));
+        target.setWillr14(coalesce(target.getWillr14(), other.getWillr14()));
+        target.setBbandsUpper(coalesce(target.getBbandsUpper(), other.getBbandsUpper()));
+        target.setBbandsMiddle(coalesce(target.getBbandsMiddle(), other.getBbandsMiddle()));
+        target.setBbandsLower(coalesce(target.getBbandsLower(), other.getBbandsLower()));
+        target.setAtr14(coalesce(target.getAtr14(), other.getAtr14()));
+        target.setObv(coalesce(target.getObv(), other.getObv()));
+        target.setAdx14(coalesce(target.getAdx14(), other.getAdx14()));
+        return target;
+    }
+
+    private Map<String, Object> mergeJson(Map<String, Object> target, Map<String, Object> other) {
+        if (target == null) {
+            return other;
+        }
+        if (other == null) {
+            return target;
+        }
+        Map<String, Object> merged = new LinkedHashMap<>(target);
+        merged.putAll(other);
+        return merged;
+    }
+
+    private <T> T coalesce(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+
+    /**
+     * 載入本批任一優先級需重算股票的完整回溯價格（都不需重算時不查詢）
+     */
+    private Map<String, PriceSeries> loadShared(List<PriorityRun> runs, LocalDate calculationDate) {
+        Set<String> stocks = new LinkedHashSet<>();
+        runs.forEach(run -> stocks.addAll(run.dirtyStocks));
+        if (stocks.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, PriceSeries> seriesMap =
+                priceProvider.getBatch(new ArrayList<>(stocks), calculationDate, PRICE_LOOKBACK_DAYS);
+        log.info("📊 共用價格資料: {} 支股票, 優先級={}", seriesMap.size(), runs.size());
+        return seriesMap;
+    }
+
+    /**
+     * 找出需要重算的股票（沒有價格資料的股票交由引擎處理）
+     * <p>
+     * 已儲存的指紋與本次相同者略過；無紀錄、先前失敗或輸入有異動者需重算
+     * </p>
+     * <p>
+     * 指紋與該計劃的結果在同一筆寫入中提交，且其他計劃的寫入只合併、不覆蓋該計劃的 JSON 鍵與展平欄位，
+     * 因此已儲存的指紋一定對應仍在資料表中的結果；不帶指紋的寫入（回填）會清除整筆的指紋
+     * </p>
+     */
+    private List<String> findDirtyStocks(
+            List<String> stockIds,
+            Map<String, String> fingerprints,
+            String planLabel,
+            LocalDate calculationDate) {
+
+        Map<String, Object> stored = new HashMap<>();
+        for (TechnicalIndicator indicator : indicatorMapper.findFingerprints(stockIds, calculationDate)) {
+            if (indicator.getInputFingerprints() != null) {
+                stored.put(indicator.getStockId(), indicator.getInputFingerprints().get(planLabel));
+            }
+        }
+
+        List<String> dirty = new ArrayList<>();
+        for (String stockId : stockIds) {
+            String fingerprint = fingerprints.get(stockId);
+            if (fingerprint == null || !fingerprint.equals(stored.get(stockId))) {
+                dirty.add(stockId);
+            }
         }
+        return dirty;
     }
 
     /**
      * ✅ 使用 Engine 執行計算
+     *
+     * @param preloaded 已載入的價格資料（null 表示只載入需重算的股票）
      */
     private Map<String, IndicatorResult> executeWithEngine(
+            IndicatorPlan plan,
+            List<String> targetStocks,
             LocalDate calculationDate,
-            List<String> stockIds,
-            String indicatorPriority,
-            Boolean forceRecalculate) {
+            Boolean forceRecalculate,
+            Map<String, Map<String, IndicatorState>> states,
+            Map<String, PriceSeries> preloaded) {
 
-        // 1. 建立計算計劃
-        IndicatorPlan plan = createPlan(indicatorPriority);
-        log.info("📋 計算計劃: {}", plan.getIndicators().keySet());
-
-        // 2. 取得目標股票
-        List<String> targetStocks = getTargetStocks(stockIds);
-        log.info("📈 目標股票數: {}", targetStocks.size());
+        if (incrementalEnabled) {
+            return executeIncremental(plan, targetStocks, calculationDate, forceRecalculate, states, preloaded);
+        }
 
-        // 3. 批次取得價格資料
-        Map<String, PriceSeries> seriesMap = priceProvider.getBatch(
-                targetStocks,
-                calculationDate,
-                250  // 取最近 250 天
-        );
+        // 1. 批次取得價格資料
+        Map<String, PriceSeries> seriesMap = preloaded != null
+                ? subset(preloaded, targetStocks)
+                : priceProvider.getBatch(targetStocks, calculationDate, PRICE_LOOKBACK_DAYS);
         log.info("📊 已取得價格資料: {} 支股票", seriesMap.size());
 
-        // 4. 批次計算指標
+        // 2. 批次計算指標
         Map<String, IndicatorResult> results = engine.batchCompute(seriesMap, plan);
         log.info("✅ 計算完成: {} 支股票", results.size());
 
         return results;
     }
 
+    /**
+     * 遞推計算
+     * <p>
+     * 1. 快速路徑：計劃內指標全部可遞推且狀態齊全時，只推進錨點日之後的 K 棒；
+     *    這些股票以單一批次查詢載入最早錨點日至今的價格
+     * 2. 完整路徑：其餘股票（含快速路徑推進失敗者）載入完整回溯區間，狀態有效的指標仍只推進新 K 棒，
+     *    狀態缺失、參數變更或價格修正的指標全量重算並重建狀態
+     * </p>
+     * <p>
+     * 有共用價格資料時兩條路徑都直接取用，不再查詢資料庫
+     * </p>
+     */
+    private Map<String, IndicatorResult> executeIncremental(
+            IndicatorPlan plan,
+            List<String> targetStocks,
+            LocalDate calculationDate,
+            Boolean forceRecalculate,
+            Map<String, Map<String, IndicatorState>> states,
+            Map<String, PriceSeries> preloaded) {
+
+        // 1. 載入既有狀態（強制重算時忽略）
+        if (!Boolean.TRUE.equals(forceRecalculate)) {
+            states.putAll(loadStates(targetStocks));
+        }
+
+        Map<String, IndicatorResult> results = new TreeMap<>();
+        List<String> fastStocks = new ArrayList<>();
+        List<String> fullStocks = new ArrayList<>();
+
+        // 2. 分流：找出可走快速路徑的股票與所需的最長區間
+        boolean incrementalPlan = engine.isIncremental(plan);
+        LocalDate earliest = calculationDate;
+        for (String stockId : targetStocks) {
+            LocalDate anchorDate = incrementalPlan ? earliestAnchor(states.get(stockId), plan) : null;
+            if (anchorDate == null || !anchorDate.isBefore(calculationDate)) {
+                fullStocks.add(stockId);
+                continue;
+            }
+            fastStocks.add(stockId);
+            if (anchorDate.isBefore(earliest)) {
+                earliest = anchorDate;
+            }
+        }
+
+        // 3. 快速路徑
+        if (!fastStocks.isEmpty()) {
+            Map<String, PriceSeries> seriesMap = preloaded != null
+                    ? preloaded
+                    : priceProvider.getBatch(
+                            fastStocks,
+                            calculationDate,
+                            (int) ChronoUnit.DAYS.between(earliest, calculationDate));
+
+            for (String stockId : fastStocks) {
+                PriceSeries series = seriesMap.get(stockId);
+                Optional<IndicatorResult> result = series != null
+                        ? engine.advance(series, plan, states.get(stockId))
+                        : Optional.empty();
+                if (result.isPresent()) {
+                    results.put(stockId, result.get());
+                } else {
+                    fullStocks.add(stockId);
+                }
+            }
+        }
+
+        // 4. 完整路徑
+        if (!fullStocks.isEmpty()) {
+            Map<String, PriceSeries> seriesMap = preloaded != null
+                    ? subset(preloaded, fullStocks)
+                    : priceProvider.getBatch(fullStocks, calculationDate, PRICE_LOOKBACK_DAYS);
+            results.putAll(engine.batchComputeIncremental(seriesMap, plan, states));
+        }
+
+        log.info("🔁 遞推計算完成: 快速路徑={} 支, 完整載入={} 支",
+                targetStocks.size() - fullStocks.size(), fullStocks.size());
+
+        return results;
+    }
+
+    /**
+     * 從共用價格資料中取出指定股票
+     */
+    private Map<String, PriceSeries> subset(Map<String, PriceSeries> seriesMap, List<String> stockIds) {
+        Map<String, PriceSeries> result = new HashMap<>();
+        for (String stockId : stockIds) {
+            PriceSeries series = seriesMap.get(stockId);
+            if (series != null) {
+                result.put(stockId, series);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 計劃內所有指標中最早的錨點日期（任一指標缺狀態則回傳 null）
+     */
+    private LocalDate earliestAnchor(Map<String, IndicatorState> stockStates, IndicatorPlan plan) {
+        if (stockStates == null) {
+            return null;
+        }
+
+        LocalDate earliest = null;
+        for (String indicatorName : plan.getIndicators().keySet()) {
+            IndicatorState state = stockStates.get(indicatorName);
+            if (state == null || state.getLastDate() == null) {
+                return null;
+            }
+            if (earliest == null || state.getLastDate().isBefore(earliest)) {
+                earliest = state.getLastDate();
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * 載入遞推狀態
+     *
+     * @return 股票代碼 → (指標名稱 → 遞推狀態)
+     */
+    private Map<String, Map<String, IndicatorState>> loadStates(List<String> stockIds) {
+        Map<String, Map<String, IndicatorState>> states = new HashMap<>();
+
+        for (IndicatorStateSnapshot snapshot : stateRepository.findByStockIdIn(stockIds)) {
+            IndicatorState state = IndicatorState.builder()
+                    .stockId(snapshot.getStockId())
+                    .indicatorName(snapshot.getIndicatorName())
+                    .paramsKey(snapshot.getParamsKey())
+                    .lastDate(snapshot.getLastDate())
+                    .lastHigh(toPrimitive(snapshot.getLastHigh()))
+                    .lastLow(toPrimitive(snapshot.getLastLow()))
+                    .lastClose(toPrimitive(snapshot.getLastClose()))
+                    .values(snapshot.getStateValues() != null
+                            ? new HashMap<>(snapshot.getStateValues())
+                            : new HashMap<>())
+                    .build();
+            states.computeIfAbsent(snapshot.getStockId(), k -> new HashMap<>())
+                    .put(snapshot.getIndicatorName(), state);
+        }
+
+        log.info("📥 已載入遞推狀態: {} 支股票", states.size());
+        return states;
+    }
+
+    /**
+     * 轉換遞推狀態為快照（每支股票、每個指標一筆，存在則沿用原快照更新）
+     */
+    private List<IndicatorStateSnapshot> toSnapshots(Map<String, Map<String, IndicatorState>> states) {
+        if (states.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, IndicatorStateSnapshot> existing = new HashMap<>();
+        for (IndicatorStateSnapshot snapshot : stateRepository.findByStockIdIn(states.keySet())) {
+            existing.put(snapshot.getStockId() + ":" + snapshot.getIndicatorName(), snapshot);
+        }
+
+        List<IndicatorStateSnapshot> snapshots = new ArrayList<>();
+        states.forEach((stockId, byIndicator) -> byIndicator.forEach((indicatorName, state) -> {
+            IndicatorStateSnapshot snapshot = existing.getOrDefault(
+                    stockId + ":" + indicatorName,
+                    IndicatorStateSnapshot.builder()
+                            .stockId(stockId)
+                            .indicatorName(indicatorName)
+                            .build());
+            snapshot.setParamsKey(state.getParamsKey());
+            snapshot.setLastDate(state.getLastDate());
+            snapshot.setLastHigh(state.getLastHigh());
+            snapshot.setLastLow(state.getLastLow());
+            snapshot.setLastClose(state.getLastClose());
+            snapshot.setStateValues(state.getValues());
+            snapshots.add(snapshot);
+        }));
+
+        return snapshots;
+    }
+
+    private double toPrimitive(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
     /**
      * 建立計算計劃
      */
@@ -228,63 +788,79 @@ public class IndicatorCalculationService {
 
         results.forEach((stockId, result) -> {
             if (!result.hasErrors()) {
+                indicators.add(toEntity(stockId, result, calculationDate));
+            }
+        });
 
-                // 先拿出四個 JSON 區塊
-                Map<String, Object> trend = result.getTrendIndicators();        // MA / EMA / MACD
-                Map<String, Object> momentum = result.getMomentumIndicators();  // RSI / Stoch
-                Map<String, Object> volatility = result.getVolatilityIndicators(); // BBands / ATR
-                Map<String, Object> volume = result.getVolumeIndicators();      // OBV 等
+        return indicators;
+    }
 
-                TechnicalIndicator indicator = TechnicalIndicator.builder()
-                        .stockId(stockId)
-                        .calculationDate(calculationDate)
-                        .calculationVersion("v2.0")
-                        .calculationEngine("DefaultIndicatorEngine")
+    /**
+     * 轉換單筆計算結果為 Entity
+     * <p>
+     * 展平欄位直接由型別化結果的槽位讀取；四個 JSON 區塊在此（持久化邊界）才轉為 Map
+     * </p>
+     */
+    private TechnicalIndicator toEntity(String stockId, IndicatorResult result, LocalDate calculationDate) {
+        IndicatorValues values = result.getValues();
 
-                        // 原本就有的 JSON 欄位
-                        .trendIndicators(trend)
-                        .momentumIndicators(momentum)
-                        .volatilityIndicators(volatility)
-                        .volumeIndicators(volume)
+        return TechnicalIndicator.builder()
+                .stockId(stockId)
+                .calculationDate(calculationDate)
+                .calculationVersion(CALCULATION_VERSION)
+                .calculationEngine("DefaultIndicatorEngine")
 
-                        // ⭐ 新增：把常用指標展平到欄位
+                // JSON 欄位
+                .trendIndicators(result.getTrendIndicators())
+                .momentumIndicators(result.getMomentumIndicators())
+                .volatilityIndicators(result.getVolatilityIndicators())
+                .volumeIndicators(result.getVolumeIndicators())
 
-                        // MA / EMA
-                        .ma5( toDecimal(get(trend, "ma5")) )
-                        .ma20( toDecimal(get(trend, "ma20")) )
-                        .ma60( toDecimal(get(trend, "ma60")) )
-                        .ema12( toDecimal(get(trend, "ema12")) )
-                        .ema26( toDecimal(get(trend, "ema26")) )
+                // 常用指標展平到欄位
 
-                        // MACD（你 JSON 裡 macd 是一個物件）
-                        .macdValue( extractMacdLine(trend) )
-                        .macdSignal( extractMacdHistogram(trend) )          // 這個是文字欄位
-                        .macdHistogram( extractMacdHistogram(trend) )
+                // MA / EMA
+                .ma5(toDecimal(values.getNumber(MA5)))
+                .ma20(toDecimal(values.getNumber(MA20)))
+                .ma60(toDecimal(values.getNumber(MA60)))
+                .ema12(toDecimal(values.getNumber(EMA12)))
+                .ema26(toDecimal(values.getNumber(EMA26)))
 
-                        // RSI
-                        .rsi14( toDecimal(get(momentum, "rsi_14")) )
+                // MACD
+                .macdValue(toDecimal(values.getNumber(MACD_LINE)))
+                .macdSignal(toDecimal(values.getNumber(MACD_SIGNAL_LINE)))
+                .macdHistogram(toDecimal(values.getNumber(MACD_HISTOGRAM)))
 
-                        // Stochastic（如果你 Engine 有算）
-                        .stochK( toDecimal(get(momentum, "stoch_k")) )
-                        .stochD( toDecimal(get(momentum, "stoch_d")) )
+                // RSI
+                .rsi14(toDecimal(values.getNumber(RSI14)))
 
-                        // BBands
-                        .bbandsUpper( extractBbands(volatility, "upper") )
-                        .bbandsMiddle( extractBbands(volatility, "middle") )
-                        .bbandsLower( extractBbands(volatility, "lower") )
+                // Stochastic
+                .stochK(toDecimal(values.getNumber(STOCH_K)))
+                .stochD(toDecimal(values.getNumber(STOCH_D)))
 
-                        // ATR / OBV / ADX 之類可以之後補
-                        // .atr14( toDecimal(get(volatility, "atr_14")) )
-                        // .obv( toDecimal(get(volume, "obv")) )
-                        // .adx14( toDecimal(get(trend, "adx_14")) )
+                // Williams %R
+                .willr14(toDecimal(values.getNumber(WILLR14)))
 
-                        .build();
+                // BBands
+                .bbandsUpper(toDecimal(values.getNumber(BBANDS_UPPER)))
+                .bbandsMiddle(toDecimal(values.getNumber(BBANDS_MIDDLE)))
+                .bbandsLower(toDecimal(values.getNumber(BBANDS_LOWER)))
 
-                indicators.add(indicator);
-            }
-        });
+                // ATR / OBV / ADX 之類可以之後補
 
-        return indicators;
+                .build();
+    }
+
+    /**
+     * 帶入前一交易日的篩選欄位
+     * <p>
+     * 未帶入時由 batchUpsert 以資料表中前一筆指標補齊
+     * </p>
+     */
+    private void linkPrevious(TechnicalIndicator indicator, TechnicalIndicator previous) {
+        indicator.setPrevMa5(previous.getMa5());
+        indicator.setPrevMa20(previous.getMa20());
+        indicator.setPrevStochK(previous.getStochK());
+        indicator.setPrevStochD(previous.getStochD());
     }
 
     /**
@@ -309,16 +885,15 @@ public class IndicatorCalculationService {
     /**
      * 建立統計資訊
      */
-    private Map<String, Object> buildStatistics(Map<String, IndicatorResult> results) {
-        int totalStocks = results.size();
-        int successCount = (int) results.values().stream()
-                .filter(r -> !r.hasErrors())
-                .count();
-
+    private Map<String, Object> buildStatistics(int successCount, int failedCount, int skippedCount,
+                                                int chunkCount, int failedChunks) {
         Map<String, Object> stats = new HashMap<>();
-        stats.put("total_stocks", totalStocks);
+        stats.put("total_stocks", successCount + failedCount + skippedCount);
         stats.put("success_count", successCount);
-        stats.put("failed_count", totalStocks - successCount);
+        stats.put("failed_count", failedCount);
+        stats.put("skipped_count", skippedCount);
+        stats.put("chunk_count", chunkCount);
+        stats.put("failed_chunks", failedChunks);
 
         return stats;
     }
@@ -356,69 +931,25 @@ public class IndicatorCalculationService {
 
 
 
-    @SuppressWarnings("unchecked")
-    private Object get(Map<String, Object> map, String key) {
-        if (map == null) return null;
-        return map.get(key);
-    }
-
-    private BigDecimal toDecimal(Object value) {
-        if (value == null) return null;
-        if (value instanceof BigDecimal bd) return bd;
-        if (value instanceof Number n) return BigDecimal.valueOf(n.doubleValue());
-        return new BigDecimal(value.toString());
-    }
-
-    @SuppressWarnings("unchecked")
-    private BigDecimal extractMacdLine(Map<String, Object> trend) {
-        if (trend == null) return null;
-        Object macdObj = trend.get("macd");
-        if (macdObj instanceof Map<?, ?> macd) {
-            Object v = macd.get("macd_line");   // 你 JSON 裡的 key 叫 macd_line
-            return toDecimal(v);
-        }
-        return null;
-    }
-
-    @SuppressWarnings("unchecked")
-    private String extractMacdSignal(Map<String, Object> trend) {
-        if (trend == null) return null;
-        Object macdObj = trend.get("macd");
-        if (macdObj instanceof Map<?, ?> macd) {
-            Object v = macd.get("macd_signal"); // "BULLISH" / "BEARISH"
-            return v != null ? v.toString() : null;
-        }
-        return null;
-    }
-
-    @SuppressWarnings("unchecked")
-    private BigDecimal extractMacdHistogram(Map<String, Object> trend) {
-        if (trend == null) return null;
-        Object macdObj = trend.get("macd");
-        if (macdObj instanceof Map<?, ?> macd) {
-            Object v = macd.get("histogram");
-            return toDecimal(v);
-        }
-        return null;
-    }
-
-    @SuppressWarnings("unchecked")
-    private BigDecimal extractBbands(Map<String, Object> volatility, String field) {
-        if (volatility == null) return null;
-        Object bbandsObj = volatility.get("bbands");
-        if (bbandsObj instanceof Map<?, ?> bbands) {
-            Object v = bbands.get(field); // "upper" / "middle" / "lower"
-            return toDecimal(v);
-        }
-        return null;
+    /**
+     * 轉為 BigDecimal（無值以 NaN 傳遞，轉為 null）
+     */
+    private BigDecimal toDecimal(double value) {
+        return Double.isFinite(value) ? BigDecimal.valueOf(value) : null;
     }
 
-
-
-
     /**
      * 開發用：回填某檔股票在一段日期區間內的指標
      * 例如：近一年全部交易日
+     * <p>
+     * 一次載入整段價格（含回溯區間），每個計算器只掃描一次序列，
+     * 再將每個交易日的結果一次寫入，取代逐日重載重算。
+     * </p>
+     * <p>
+     * forceRecalculate = false 時略過區間內已有資料列的交易日（不論由哪個優先級寫入），只補寫缺漏的日期；
+     * 需要覆寫既有資料（例如修正價格、補上其他優先級）時給 true。
+     * 略過的日期仍參與整段計算，其結果照常作為下一交易日的前一日值
+     * </p>
      */
     public void backfillIndicatorsForRange(
             String stockId,
@@ -433,26 +964,103 @@ public class IndicatorCalculationService {
         if (stockId == null || stockId.isBlank()) {
             throw new IllegalArgumentException("stockId is required for backfill");
         }
-        List<String> stocks = List.of(stockId);
 
-        List<LocalDate> tradingDays =
-                tradingCalendarService.getTradingDaysInRange(startDate, endDate)
-                        .stream()
-                        .map(TradingCalendarDTO::getCalendarDate)
-                        .toList();
+        IndicatorCalculationJob job = createJob(endDate, List.of(stockId), indicatorPriority);
 
-        for (LocalDate tradeDate : tradingDays) {
+        try {
+            job.setStatus("RUNNING");
+            job.setStartTime(LocalDateTime.now());
+            jobRepository.save(job);
 
-            // （可選）避免覆蓋
-//            if (existsIndicator(stockId, tradeDate) && !force) {
-//                continue;
-//            }
-                calculateIndicators(tradeDate, stocks, indicatorPriority, forceRecalculate);
+            // 1. 一次載入整段價格（起始日前多取回溯區間）
+            IndicatorPlan plan = createPlan(indicatorPriority);
+            int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + PRICE_LOOKBACK_DAYS;
+            PriceSeries series = priceProvider.get(stockId, endDate, days);
+
+            // 2. 整段序列計算
+            Map<LocalDate, IndicatorResult> results = engine.computeSeries(series, plan, startDate);
+
+            // 3. 非強制重算時略過已有資料的交易日
+            Set<LocalDate> existingDates = forceRecalculate
+                    ? Set.of()
+                    : new HashSet<>(indicatorMapper.findCalculationDates(stockId, startDate, endDate));
+
+            // 4. 一次寫入所有交易日（同一語句內的前一交易日尚未入庫，前一日值由前一筆結果帶入）
+            List<TechnicalIndicator> indicators = new ArrayList<>();
+            TechnicalIndicator previous = null;
+            int failedDays = 0;
+            for (Map.Entry<LocalDate, IndicatorResult> entry : new TreeMap<>(results).entrySet()) {
+                if (entry.getValue().hasErrors()) {
+                    failedDays++;
+                    continue;
+                }
+                TechnicalIndicator indicator = toEntity(stockId, entry.getValue(), entry.getKey());
+                if (previous != null) {
+                    linkPrevious(indicator, previous);
+                }
+                previous = indicator;
+                if (!existingDates.contains(entry.getKey())) {
+                    indicators.add(indicator);
+                }
+            }
+            for (int from = 0; from < indicators.size(); from += chunkSize) {
+                indicatorWriter.writeChunk(
+                        indicators.subList(from, Math.min(from + chunkSize, indicators.size())),
+                        List.of());
+            }
 
+            int skippedDays = results.size() - indicators.size() - failedDays;
+            job.setStatus("SUCCESS");
+            job.setEndTime(LocalDateTime.now());
+            job.setDurationSeconds(calculateDuration(job.getStartTime(), job.getEndTime()));
+            job.setStatistics(Map.of(
+                    "total_days", results.size(),
+                    "success_count", indicators.size(),
+                    "failed_count", failedDays,
+                    "skipped_count", skippedDays
+            ));
+            jobRepository.save(job);
 
+            log.info("✅ 回填完成: stockId={}, startDate={}, endDate={}, days={}, skipped={}",
+                    stockId, startDate, endDate, indicators.size(), skippedDays);
 
+        } catch (Exception e) {
+            log.error("❌ 回填失敗: stockId={}", stockId, e);
+            updateJobAsFailed(job, e);
+            throw new RuntimeException("指標回填失敗", e);
         }
+    }
+
+    /**
+     * 單一優先級的執行狀態（Job、計劃、本批指紋與累計統計）
+     */
+    private static final class PriorityRun {
+
+        private final IndicatorCalculationJob job;
+        private IndicatorPlan plan;
+        private String planLabel;
+        private String planKey;
 
-        log.info("✅ 回填完成: stockId={}, startDate={}, endDate={}", stockId, startDate, endDate);
+        /** 本批的輸入指紋與需重算的股票 */
+        private Map<String, String> fingerprints = Map.of();
+        private List<String> dirtyStocks = List.of();
+        private int chunkStocks;
+
+        /** 本批待寫入的計算結果與遞推狀態 */
+        private List<TechnicalIndicator> indicators = List.of();
+        private List<IndicatorStateSnapshot> snapshots = List.of();
+
+        private int successCount;
+        private int failedCount;
+        private int skippedCount;
+        private int failedChunks;
+
+        private PriorityRun(IndicatorCalculationJob job) {
+            this.job = job;
+        }
+
+        private int skippedInChunk() {
+            return chunkStocks - dirtyStocks.size();
+        }
     }
 }
@@ -8,6 +8,7 @@ import com.chris.fin_shark.m07.dto.response.CrossSignalsResponse.CrossSignal;
 import com.chris.fin_shark.m07.dto.response.OverboughtOversoldResponse.OverboughtOversoldSignal;
 import com.chris.fin_shark.m07.dto.response.SpecificIndicatorResponse.IndicatorStatistics;
 import com.chris.fin_shark.m07.dto.response.SpecificIndicatorResponse.IndicatorValue;
+import com.chris.fin_shark.m07.engine.IndicatorRegistry;
 import com.chris.fin_shark.m07.exception.IndicatorNotFoundException;
 import com.chris.fin_shark.m07.mapper.TechnicalIndicatorMapper;
 import com.chris.fin_shark.m07.repository.TechnicalIndicatorRepository;
@@ -35,9 +36,27 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class IndicatorQueryService {
 
+    /** 指標類別 → JSONB 欄位（findIndicatorHistory 直接組入 SQL，只能使用此白名單） */
+    private static final Map<String, String> CATEGORY_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        CATEGORY_COLUMNS.put("TREND", "trend_indicators");
+        CATEGORY_COLUMNS.put("MOMENTUM", "momentum_indicators");
+        CATEGORY_COLUMNS.put("VOLATILITY", "volatility_indicators");
+        CATEGORY_COLUMNS.put("VOLUME", "volume_indicators");
+    }
+
+    /** 由常用指標欄位取值、不需讀取 JSONB 的指標 */
+    private static final Set<String> COLUMN_INDICATORS =
+            Set.of("MA5", "MA20", "MA60", "RSI", "RSI_14", "MACD", "KD", "STOCHASTIC");
+
+    /** 支援的超買超賣指標 */
+    private static final Set<String> OVERBOUGHT_OVERSOLD_INDICATORS = Set.of("RSI", "KD", "WILLIAMS_R");
+
     private final TechnicalIndicatorRepository indicatorRepository;
     private final TechnicalIndicatorMapper indicatorMapper;
     private final TechnicalIndicatorConverter indicatorConverter;
+    private final IndicatorRegistry registry;
 
     /**
      * API-M07-001: 查詢單一股票技術指標
@@ -60,9 +79,9 @@ public class IndicatorQueryService {
         log.debug("查詢股票指標: stockId={}, startDate={}, endDate={}",
                 stockId, startDate, endDate);
 
-        // 1. 查詢技術指標資料
-        List<TechnicalIndicator> indicatorList = indicatorRepository
-                .findByStockIdAndCalculationDateBetween(stockId, startDate, endDate);
+        // 1. 查詢技術指標資料（只選取指定類別的 JSONB 欄位，指定指標時只取出這些指標的輸出鍵）
+        List<TechnicalIndicator> indicatorList = indicatorMapper.findIndicatorHistory(
+                stockId, startDate, endDate, toCategoryColumns(categories), toKeyPrefixes(indicators));
 
         if (indicatorList.isEmpty()) {
             throw IndicatorNotFoundException.of(stockId, startDate);
@@ -100,9 +119,12 @@ public class IndicatorQueryService {
 
         log.debug("查詢特定指標: stockId={}, indicator={}", stockId, indicatorName);
 
-        // 1. 查詢技術指標資料
-        List<TechnicalIndicator> indicatorList = indicatorRepository
-                .findByStockIdAndCalculationDateBetween(stockId, startDate, endDate);
+        // 1. 查詢技術指標資料（常用指標只讀欄位，其餘只從 JSONB 取出該指標的鍵）
+        boolean columnIndicator = COLUMN_INDICATORS.contains(indicatorName.toUpperCase());
+        List<TechnicalIndicator> indicatorList = indicatorMapper.findIndicatorHistory(
+                stockId, startDate, endDate,
+                columnIndicator ? List.of() : List.copyOf(CATEGORY_COLUMNS.values()),
+                List.of(indicatorName));
 
         if (indicatorList.isEmpty()) {
             throw IndicatorNotFoundException.of(stockId, startDate);
@@ -175,33 +197,33 @@ public class IndicatorQueryService {
             LocalDate date,
             String marketType) {
 
-        log.debug("查詢交叉信號: type={}, date={}", crossType, date);
+        log.debug("查詢交叉信號: type={}, date={}, marketType={}", crossType, date, marketType);
 
         List<Map<String, Object>> rawSignals;
+        String market = marketType != null && !marketType.isBlank()
+                ? marketType.trim().toUpperCase()
+                : null;
 
-        // 1. 根據交叉類型查詢
+        // 1. 根據交叉類型查詢（市場類型於 SQL 過濾）
         if ("GOLDEN".equalsIgnoreCase(crossType)) {
-            rawSignals = indicatorMapper.findGoldenCrossCandidates(date);
+            rawSignals = indicatorMapper.findGoldenCrossCandidates(date, market);
         } else if ("DEATH".equalsIgnoreCase(crossType)) {
-            rawSignals = indicatorMapper.findDeathCrossCandidates(date);
+            rawSignals = indicatorMapper.findDeathCrossCandidates(date, market);
+        } else if ("KD".equalsIgnoreCase(crossType)) {
+            rawSignals = indicatorMapper.findKdCrossCandidates(date, market);
         } else {
-            // 查詢全部
+            // 查詢全部（MA 交叉）
             rawSignals = new ArrayList<>();
-            rawSignals.addAll(indicatorMapper.findGoldenCrossCandidates(date));
-            rawSignals.addAll(indicatorMapper.findDeathCrossCandidates(date));
-        }
-
-        // 2. 過濾市場類型（如果有指定）
-        if (marketType != null && !marketType.isEmpty()) {
-            // TODO: 根據 marketType 過濾（需要 JOIN stocks 表）
+            rawSignals.addAll(indicatorMapper.findGoldenCrossCandidates(date, market));
+            rawSignals.addAll(indicatorMapper.findDeathCrossCandidates(date, market));
         }
 
-        // 3. 轉換為強型別信號
+        // 2. 轉換為強型別信號
         List<CrossSignal> signals = rawSignals.stream()
                 .map(this::convertToCrossSignal)
                 .collect(Collectors.toList());
 
-        // 4. 組裝回應
+        // 3. 組裝回應
         return CrossSignalsResponse.builder()
                 .crossDate(date)
                 .signals(signals)
@@ -226,31 +248,26 @@ public class IndicatorQueryService {
         log.debug("查詢超買超賣信號: type={}, indicator={}", signalType, indicator);
 
         List<Map<String, Object>> rawSignals;
+        String indicatorFilter = normalizeOverboughtOversoldIndicator(indicator);
 
-        // 1. 根據信號類型查詢
+        // 1. 根據信號類型查詢（指標類型於 SQL 過濾）
         if ("OVERBOUGHT".equalsIgnoreCase(signalType)) {
-            rawSignals = indicatorMapper.findOverboughtStocks(date);
+            rawSignals = indicatorMapper.findOverboughtStocks(date, indicatorFilter);
         } else if ("OVERSOLD".equalsIgnoreCase(signalType)) {
-            rawSignals = indicatorMapper.findOversoldStocks(date);
+            rawSignals = indicatorMapper.findOversoldStocks(date, indicatorFilter);
         } else {
             // 查詢全部
             rawSignals = new ArrayList<>();
-            rawSignals.addAll(indicatorMapper.findOverboughtStocks(date));
-            rawSignals.addAll(indicatorMapper.findOversoldStocks(date));
+            rawSignals.addAll(indicatorMapper.findOverboughtStocks(date, indicatorFilter));
+            rawSignals.addAll(indicatorMapper.findOversoldStocks(date, indicatorFilter));
         }
 
-        // 2. 過濾指標類型（如果有指定）
-        if (indicator != null && !indicator.isEmpty()) {
-            // 根據指標過濾（RSI, KD 等）
-            // TODO: 在 MyBatis 層面實作更好
-        }
-
-        // 3. 轉換為強型別信號
+        // 2. 轉換為強型別信號
         List<OverboughtOversoldSignal> signals = rawSignals.stream()
                 .map(this::convertToOverboughtOversoldSignal)
                 .collect(Collectors.toList());
 
-        // 4. 組裝回應
+        // 3. 組裝回應
         return OverboughtOversoldResponse.builder()
                 .signalDate(date)
                 .signals(signals)
@@ -449,17 +466,19 @@ public class IndicatorQueryService {
      * 轉換 Map 為 CrossSignal
      */
     private CrossSignal convertToCrossSignal(Map<String, Object> raw) {
+        boolean movingAverage = "MA".equals(raw.get("indicator"));
+
         return CrossSignal.builder()
                 .stockId((String) raw.get("stock_id"))
                 .stockName(getStockName((String) raw.get("stock_id"))) // TODO: 從 M06 取得
                 .crossType((String) raw.get("signal_type"))
-                .indicator("MA")
-                .shortPeriod(5)
-                .longPeriod(20)
-                .shortValue((BigDecimal) raw.get("today_ma5"))
-                .longValue((BigDecimal) raw.get("today_ma20"))
-                .previousShort((BigDecimal) raw.get("yesterday_ma5"))
-                .previousLong((BigDecimal) raw.get("yesterday_ma20"))
+                .indicator((String) raw.get("indicator"))
+                .shortPeriod(movingAverage ? 5 : null)
+                .longPeriod(movingAverage ? 20 : null)
+                .shortValue((BigDecimal) raw.get("short_value"))
+                .longValue((BigDecimal) raw.get("long_value"))
+                .previousShort((BigDecimal) raw.get("previous_short"))
+                .previousLong((BigDecimal) raw.get("previous_long"))
                 .signalStrength(calculateSignalStrength(raw)) // TODO: 計算信號強度
                 .confidenceScore(calculateConfidenceScore(raw)) // TODO: 計算信心分數
                 .build();
@@ -470,24 +489,79 @@ public class IndicatorQueryService {
      */
     private OverboughtOversoldSignal convertToOverboughtOversoldSignal(Map<String, Object> raw) {
         String signalType = (String) raw.get("signal_type");
-        BigDecimal rsi = (BigDecimal) raw.get("rsi_14");
-        BigDecimal threshold = "OVERBOUGHT".equals(signalType)
-                ? new BigDecimal("70.00")
-                : new BigDecimal("30.00");
+        BigDecimal value = (BigDecimal) raw.get("indicator_value");
+        BigDecimal threshold = (BigDecimal) raw.get("threshold");
 
         return OverboughtOversoldSignal.builder()
                 .stockId((String) raw.get("stock_id"))
                 .stockName(getStockName((String) raw.get("stock_id"))) // TODO: 從 M06 取得
                 .signalType(signalType)
-                .indicator("RSI")
-                .indicatorValue(rsi)
+                .indicator((String) raw.get("indicator"))
+                .indicatorValue(value)
                 .threshold(threshold)
                 .durationDays(1) // TODO: 計算持續天數
-                .signalStrength(calculateOBOSStrength(rsi, threshold))
-                .confidenceScore(calculateOBOSConfidence(rsi, threshold))
+                .signalStrength(calculateOBOSStrength(value, threshold))
+                .confidenceScore(calculateOBOSConfidence(value, threshold))
                 .build();
     }
 
+    /**
+     * 指標類別參數（逗號分隔）轉為 JSONB 欄位名稱（未指定表示全部類別）
+     */
+    private List<String> toCategoryColumns(String categories) {
+        List<String> names = splitNames(categories);
+        if (names.isEmpty()) {
+            return List.copyOf(CATEGORY_COLUMNS.values());
+        }
+        List<String> columns = new ArrayList<>();
+        for (String name : names) {
+            String column = CATEGORY_COLUMNS.get(name.toUpperCase());
+            if (column == null) {
+                throw new IllegalArgumentException("不支援的指標類別: " + name);
+            }
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    /**
+     * 指標名稱清單轉為 JSONB 輸出鍵前綴（例如 MA,RSI → ma、rsi，投影出 ma5、ma20、rsi_14）
+     */
+    private List<String> toKeyPrefixes(String indicators) {
+        return splitNames(indicators).stream()
+                .flatMap(name -> registry.getOutputKeyPrefixes(name).stream())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 拆解逗號分隔的名稱清單（忽略空白項目）
+     */
+    private List<String> splitNames(String names) {
+        if (names == null || names.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(names.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 正規化超買超賣指標參數（null 表示全部指標）
+     */
+    private String normalizeOverboughtOversoldIndicator(String indicator) {
+        if (indicator == null || indicator.isBlank()) {
+            return null;
+        }
+        String normalized = indicator.trim().toUpperCase();
+        if (!OVERBOUGHT_OVERSOLD_INDICATORS.contains(normalized)) {
+            throw new IllegalArgumentException("不支援的超買超賣指標: " + indicator);
+        }
+        return normalized;
+    }
+
     /**
      * 計算交叉信號強度
      */
@@ -0,0 +1,71 @@
+package com.chris.fin_shark.m07.service;
+
+import com.chris.fin_shark.m07.domain.IndicatorStateSnapshot;
+import com.chris.fin_shark.m07.domain.TechnicalIndicator;
+import com.chris.fin_shark.m07.mapper.TechnicalIndicatorMapper;
+import com.chris.fin_shark.m07.repository.IndicatorStateSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 技術指標分批寫入器
+ * <p>
+ * 每一批（指標 + 遞推狀態）在獨立交易中以多列 UPSERT 寫入，
+ * 某一批失敗時只回滾該批，先前已提交的批次不受影響
+ * </p>
+ * <p>
+ * PostgreSQL 單一語句參數上限 32767，batchUpsert 每筆 43 個參數（含前一交易日值的查找），
+ * 因此一批超過 {@link #MAX_ROWS_PER_STATEMENT} 筆時在同一交易內拆成多個語句，
+ * chunk-size 設多大都不會超過參數上限
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TechnicalIndicatorWriter {
+
+    /** PostgreSQL 單一語句可綁定的參數上限 */
+    static final int MAX_PARAMETERS = 32767;
+
+    /**
+     * batchUpsert 每筆綁定的參數數：35 個欄位，
+     * 加上 4 個前一交易日欄位查找子查詢各 2 個（stock_id、calculation_date）
+     */
+    static final int PARAMETERS_PER_ROW = 43;
+
+    /** 單一 batchUpsert 語句的最大筆數 */
+    static final int MAX_ROWS_PER_STATEMENT = MAX_PARAMETERS / PARAMETERS_PER_ROW;
+
+    private final TechnicalIndicatorMapper indicatorMapper;
+    private final IndicatorStateSnapshotRepository stateRepository;
+
+    /**
+     * 寫入一批指標與遞推狀態（獨立交易）
+     *
+     * @param indicators 技術指標
+     * @param snapshots  遞推狀態快照
+     * @return 指標影響筆數
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int writeChunk(List<TechnicalIndicator> indicators, List<IndicatorStateSnapshot> snapshots) {
+        int affected = 0;
+        for (int from = 0; from < indicators.size(); from += MAX_ROWS_PER_STATEMENT) {
+            affected += indicatorMapper.batchUpsert(
+                    indicators.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, indicators.size())));
+        }
+        if (!snapshots.isEmpty()) {
+            stateRepository.saveAll(snapshots);
+        }
+
+        log.debug("💾 批次寫入完成: indicators={}, states={}", indicators.size(), snapshots.size());
+        return affected;
+    }
+}
@@ -0,0 +1,46 @@
+package com.chris.fin_shark.m07.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 價格 K 棒 VO
+ * <p>
+ * 用於 MyBatis 批次串流載入，只包含 OHLCV 欄位，
+ * 價格直接以 double 讀取，省去 StockPrice 實體與 BigDecimal 的建立
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBarVO {
+
+    /** 股票代碼 */
+    private String stockId;
+
+    /** 交易日期 */
+    private LocalDate tradeDate;
+
+    /** 開盤價 */
+    private Double openPrice;
+
+    /** 最高價 */
+    private Double highPrice;
+
+    /** 最低價 */
+    private Double lowPrice;
+
+    /** 收盤價 */
+    private Double closePrice;
+
+    /** 成交量 */
+    private Long volume;
+}
@@ -0,0 +1,56 @@
+package com.chris.fin_shark.m07.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 價格區間摘要 VO
+ * <p>
+ * 每支股票一筆：區間內的 K 棒數、首末日期、最後異動時間與最新一根 K 棒，
+ * 用於計算輸入指紋，不需載入整段價格
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceWindowVO {
+
+    /** 股票代碼 */
+    private String stockId;
+
+    /** 區間內 K 棒數 */
+    private Integer barCount;
+
+    /** 第一根 K 棒日期 */
+    private LocalDate firstDate;
+
+    /** 最新 K 棒日期 */
+    private LocalDate lastDate;
+
+    /** 區間內最後異動時間（補進或修正任一根 K 棒都會更新） */
+    private LocalDateTime lastUpdatedAt;
+
+    /** 最新 K 棒開盤價 */
+    private Double lastOpen;
+
+    /** 最新 K 棒最高價 */
+    private Double lastHigh;
+
+    /** 最新 K 棒最低價 */
+    private Double lastLow;
+
+    /** 最新 K 棒收盤價 */
+    private Double lastClose;
+
+    /** 最新 K 棒成交量 */
+    private Long lastVolume;
+}
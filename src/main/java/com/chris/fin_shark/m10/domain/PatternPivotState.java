@@ -0,0 +1,124 @@
+package com.chris.fin_shark.m10.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 型態偵測增量狀態實體
+ * <p>
+ * 對應資料表: pattern_pivot_states
+ * </p>
+ * <p>
+ * 設計說明:
+ * <ul>
+ *   <li>每支股票一筆（stock_id 唯一）</li>
+ *   <li>錨點 K 棒的高低收以 DOUBLE PRECISION 保存，與計算時的 double 完全一致，用於偵測價格修正</li>
+ *   <li>回溯視窗內已確認的波峰波谷以 JSONB 陣列儲存</li>
+ * </ul>
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Entity
+@Table(name = "pattern_pivot_states")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatternPivotState {
+
+    /**
+     * 狀態 ID（自增主鍵）
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "state_id")
+    private Long stateId;
+
+    /**
+     * 股票代碼
+     */
+    @Column(name = "stock_id", length = 10, nullable = false, unique = true)
+    private String stockId;
+
+    /**
+     * 參數識別（參數變更時狀態失效）
+     */
+    @Column(name = "params_key", length = 200, nullable = false)
+    private String paramsKey;
+
+    /**
+     * 錨點日期
+     */
+    @Column(name = "last_date", nullable = false)
+    private LocalDate lastDate;
+
+    /**
+     * 錨點最高價
+     */
+    @Column(name = "last_high", columnDefinition = "double precision")
+    private Double lastHigh;
+
+    /**
+     * 錨點最低價
+     */
+    @Column(name = "last_low", columnDefinition = "double precision")
+    private Double lastLow;
+
+    /**
+     * 錨點收盤價
+     */
+    @Column(name = "last_close", columnDefinition = "double precision")
+    private Double lastClose;
+
+    /**
+     * 波峰波谷 (JSONB)
+     * <p>
+     * 範例: [{"date": "2024-06-28", "left_date": "2024-06-21", "type": "PEAK", "price": 1005.0}]
+     * </p>
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "pivots", columnDefinition = "jsonb")
+    private List<Map<String, Object>> pivots;
+
+    /**
+     * 上次完整評估的視窗起日
+     */
+    @Column(name = "window_start")
+    private LocalDate windowStart;
+
+    /**
+     * 上次完整評估的視窗 K 棒數
+     */
+    @Column(name = "window_size")
+    private Integer windowSize;
+
+    /**
+     * 圖表型態是否需重新評估
+     */
+    @Column(name = "chart_pending")
+    private Boolean chartPending;
+
+    /**
+     * 更新時間
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * 儲存前自動設定更新時間
+     */
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
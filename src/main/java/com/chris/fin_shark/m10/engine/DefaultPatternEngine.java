@@ -1,37 +1,167 @@
 package com.chris.fin_shark.m10.engine;
 
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m10.engine.detector.AbstractChartPatternDetector;
+import com.chris.fin_shark.m10.engine.detector.PeakTroughFinder;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
+import com.chris.fin_shark.m10.engine.model.PeakTrough;
+import com.chris.fin_shark.m10.engine.model.PivotIndex;
+import com.chris.fin_shark.m10.engine.model.PivotState;
 import com.chris.fin_shark.m10.enums.TrendDirection;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 /**
  * 預設型態偵測引擎實作
  * <p>
  * 協調多個偵測器執行型態偵測，根據 PatternDetectionPlan 決定執行範圍
  * </p>
+ * <p>
+ * 批次偵測模式：
+ * 1. parallelism = 1：序列執行（除錯用）
+ * 2. parallelism > 1：使用專屬 ForkJoinPool 並行偵測
+ * 3. parallelism <= 0：使用 CPU 核心數
+ * 兩種模式輸出皆依股票代碼排序，結果一致；每批記錄吞吐量與單股延遲（{@link PatternBatchMetrics}）
+ * </p>
+ * <p>
+ * 增量模式（{@link #detectIncremental}）：K 線與趨勢以最近 K 線偵測，
+ * 圖表型態只在波峰波谷序列變動或仍有候選型態時以完整視窗重新評估，結果與完整偵測相同
+ * </p>
  *
  * @author chris
  * @since 1.0.0
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class DefaultPatternEngine implements PatternEngine {
 
+    /** 批次偵測失敗時的診斷名稱 */
+    private static final String BATCH_DIAGNOSTIC = "ENGINE";
+
+    /** 圖表型態候選搜尋的預設工作預算（每支股票區間查詢可檢查的樞紐點數） */
+    public static final int DEFAULT_SEARCH_BUDGET = 10_000;
+
+    /** 增量狀態的樞紐點參數（與圖表偵測器預設值相同） */
+    private static final int PIVOT_LOOKBACK = AbstractChartPatternDetector.DEFAULT_PIVOT_LOOKBACK;
+    private static final double SWING_THRESHOLD = AbstractChartPatternDetector.MIN_SWING_PERCENT;
+
     private final PatternDetectorRegistry registry;
 
+    /** 批次偵測並行度 */
+    private final int parallelism;
+
+    /** 批次偵測專用執行緒池（序列模式為 null） */
+    private final ForkJoinPool batchPool;
+
+    /** 圖表型態候選搜尋工作預算 */
+    private final int searchBudget;
+
+    /**
+     * 建立序列模式引擎（單元測試用）
+     */
+    public DefaultPatternEngine(PatternDetectorRegistry registry) {
+        this(registry, 1);
+    }
+
+    public DefaultPatternEngine(PatternDetectorRegistry registry, int parallelism) {
+        this(registry, parallelism, DEFAULT_SEARCH_BUDGET);
+    }
+
+    @Autowired
+    public DefaultPatternEngine(
+            PatternDetectorRegistry registry,
+            @Value("${m10.engine.batch.parallelism:0}") int parallelism,
+            @Value("${m10.engine.chart.search-budget:" + DEFAULT_SEARCH_BUDGET + "}") int searchBudget) {
+        this.registry = registry;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.batchPool = this.parallelism > 1 ? createBatchPool(this.parallelism) : null;
+        this.searchBudget = searchBudget > 0 ? searchBudget : PivotIndex.UNLIMITED;
+
+        log.info("🚀 型態偵測引擎初始化完成，批次並行度: {}, 圖表搜尋預算: {}", this.parallelism, searchBudget);
+    }
+
     @Override
     public PatternDetectionResult detect(PriceSeries series, PatternDetectionPlan plan) {
+        // 分析背景（K 線、衍生特徵、波峰波谷）每支股票只建立一次，所有偵測器共用
+        PatternContext context = PatternContext.of(series);
+        return detect(context, context, plan, null, null);
+    }
+
+    @Override
+    public String pivotStateKey(PatternDetectionPlan plan) {
+        return PivotState.paramsKey(PIVOT_LOOKBACK, SWING_THRESHOLD,
+                plan.getLookbackPeriod(), plan.getPriorityFilter());
+    }
+
+    @Override
+    public boolean advancePivots(PriceSeries recent, PivotState state, LocalDate windowStart) {
+        CandleSeries bars = CandleSeries.of(recent);
+
+        // 錨點之前的樞紐點已確認；錨點前 PIVOT_LOOKBACK - 1 根起才可能因新 K 棒而成立
+        int anchor = state.anchorIndex(bars);
+        int fromIndex = anchor - PIVOT_LOOKBACK + 1;
+        if (anchor < 0 || fromIndex < PIVOT_LOOKBACK || bars.size() < INCREMENTAL_RECENT_BARS) {
+            return false;
+        }
+
+        boolean changed = false;
+        for (PeakTrough pivot : PeakTroughFinder.find(bars, PIVOT_LOOKBACK, SWING_THRESHOLD, fromIndex)) {
+            state.addPivot(bars, pivot, PIVOT_LOOKBACK);
+            changed = true;
+        }
+        changed |= state.trimBefore(windowStart);
+
+        // 視窗起日後移 N 天至多移出 N 根 K 棒，可能低於圖表偵測器所需根數時必須重新評估
+        boolean windowShort = state.getWindowStart() == null
+                || state.getWindowSize() - ChronoUnit.DAYS.between(state.getWindowStart(), windowStart)
+                        < chartMinDataPoints();
+
+        state.setChartPending(state.isChartPending() || changed || windowShort);
+        state.anchorTo(bars, bars.last());
+        return true;
+    }
+
+    @Override
+    public PatternDetectionResult detectIncremental(PriceSeries recent, PriceSeries window, LocalDate windowStart,
+                                                    PatternDetectionPlan plan, PivotState state) {
+        PatternContext recentContext = PatternContext.of(recent);
+        PatternContext windowContext = window == null ? null
+                : window == recent ? recentContext : PatternContext.of(window);
+
+        PatternDetectionResult result = detect(recentContext, windowContext, plan, state, windowStart);
+        state.anchorTo(recentContext.getBars(), recentContext.getBars().last());
+        return result;
+    }
+
+    /**
+     * 執行偵測
+     *
+     * @param recent      K 線與趨勢型態使用的分析背景
+     * @param window      圖表型態使用的分析背景（null 表示不偵測圖表型態）
+     * @param plan        偵測計劃
+     * @param state       增量狀態（非增量模式為 null）
+     * @param windowStart 回溯視窗起日（非增量模式為 null）
+     */
+    private PatternDetectionResult detect(PatternContext recent, PatternContext window, PatternDetectionPlan plan,
+                                          PivotState state, LocalDate windowStart) {
         long startTime = System.currentTimeMillis();
+        PriceSeries series = recent.getSeries();
 
         log.debug("開始型態偵測: stockId={}, plan={}",
                 series.getStockId(), describePlan(plan));
@@ -45,6 +175,7 @@ public class DefaultPatternEngine implements PatternEngine {
                 .stockId(series.getStockId())
                 .detectionDate(LocalDate.now())
                 .currentPrice(lastClose)
+                .timeframe(plan.getTimeframe())
                 .diagnostics(new Diagnostics())
                 .build();
 
@@ -54,21 +185,28 @@ public class DefaultPatternEngine implements PatternEngine {
         // 先進行趨勢分析（提供背景資訊給其他偵測器）
         TrendDirection trendContext = TrendDirection.UNKNOWN;
         if (plan.isIncludeTrendPatterns()) {
-            trendContext = detectTrend(series, result, plan);
+            trendContext = detectTrend(recent, result, plan);
         }
 
         // 偵測 K 線型態
         if (plan.isIncludeKLinePatterns()) {
-            int[] counts = detectKLinePatterns(series, result, plan, trendContext);
+            int[] counts = detectKLinePatterns(recent, result, plan, trendContext);
             patternsChecked += counts[0];
             patternsDetected += counts[1];
         }
 
         // 偵測圖表型態
-        if (plan.isIncludeChartPatterns()) {
-            int[] counts = detectChartPatterns(series, result, plan, trendContext);
+        boolean chartPending = true;
+        if (plan.isIncludeChartPatterns() && window != null) {
+            int[] counts = detectChartPatterns(window, result, plan, trendContext);
             patternsChecked += counts[0];
             patternsDetected += counts[1];
+            chartPending = counts[2] > 0;
+        }
+
+        // 以完整視窗重建增量狀態
+        if (state != null && window != null) {
+            rebuildPivotState(state, window, windowStart, chartPending);
         }
 
         // 過濾低強度型態
@@ -82,7 +220,7 @@ public class DefaultPatternEngine implements PatternEngine {
         // 記錄診斷資訊
         long elapsed = System.currentTimeMillis() - startTime;
         result.getDiagnostics().setCalculationTimeMs(elapsed);
-        result.getDiagnostics().setTradingDaysScanned(series.size());
+        result.getDiagnostics().setTradingDaysScanned(window != null ? window.size() : recent.size());
         result.getDiagnostics().setPatternsChecked(patternsChecked);
         result.getDiagnostics().setPatternsDetected(patternsDetected);
 
@@ -95,57 +233,185 @@ public class DefaultPatternEngine implements PatternEngine {
         return result;
     }
 
+    /**
+     * 以完整視窗的波峰波谷重建增量狀態
+     *
+     * @param chartPending 圖表型態是否仍需逐日評估（有候選型態、偵測失敗或本次未偵測）
+     */
+    private void rebuildPivotState(PivotState state, PatternContext window, LocalDate windowStart,
+                                   boolean chartPending) {
+        CandleSeries bars = window.getBars();
+        state.getPivots().clear();
+        for (PeakTrough pivot : window.getPeaksTroughs(PIVOT_LOOKBACK, SWING_THRESHOLD)) {
+            state.addPivot(bars, pivot, PIVOT_LOOKBACK);
+        }
+        state.setWindowStart(windowStart);
+        state.setWindowSize(window.size());
+        state.setChartPending(chartPending);
+        state.anchorTo(bars, bars.last());
+    }
+
+    /**
+     * 圖表偵測器所需的最多 K 棒數
+     */
+    private int chartMinDataPoints() {
+        int max = 0;
+        for (PatternDetector detector : registry.getChartPatternDetectors()) {
+            max = Math.max(max, detector.getMinDataPoints());
+        }
+        return max;
+    }
+
     @Override
     public Map<String, PatternDetectionResult> batchDetect(
             Map<String, PriceSeries> seriesMap,
             PatternDetectionPlan plan) {
 
+        if (batchPool == null || seriesMap.size() <= 1) {
+            return batchDetectSerial(seriesMap, plan);
+        }
+        return batchDetectParallel(seriesMap, plan);
+    }
+
+    /**
+     * 序列批次偵測（除錯用）
+     */
+    public Map<String, PatternDetectionResult> batchDetectSerial(
+            Map<String, PriceSeries> seriesMap,
+            PatternDetectionPlan plan) {
+
         log.info("開始批次型態偵測: {} 支股票", seriesMap.size());
-        long startTime = System.currentTimeMillis();
+        long start = System.nanoTime();
+
+        BatchTimer timer = new BatchTimer(seriesMap.size());
+        Map<String, PatternDetectionResult> results = new TreeMap<>();
+
+        seriesMap.forEach((stockId, series) ->
+                results.put(stockId, detectIsolated(stockId, series, plan, timer, results.size())));
+
+        log.info("批次偵測完成: {}", timer.toMetrics(1, System.nanoTime() - start));
+        return results;
+    }
+
+    /**
+     * 並行批次偵測
+     * <p>
+     * 每支股票為獨立任務，單一股票失敗不影響其他股票
+     * </p>
+     */
+    private Map<String, PatternDetectionResult> batchDetectParallel(
+            Map<String, PriceSeries> seriesMap,
+            PatternDetectionPlan plan) {
 
-        Map<String, PatternDetectionResult> results = new HashMap<>();
+        log.info("開始批次型態偵測: {} 支股票, parallelism={}", seriesMap.size(), parallelism);
+        long start = System.nanoTime();
+
+        BatchTimer timer = new BatchTimer(seriesMap.size());
+        List<String> stockIds = new ArrayList<>(seriesMap.size());
+        List<CompletableFuture<PatternDetectionResult>> futures = new ArrayList<>(seriesMap.size());
 
         seriesMap.forEach((stockId, series) -> {
-            try {
-                PatternDetectionResult result = detect(series, plan);
-                results.put(stockId, result);
-            } catch (Exception e) {
-                log.error("股票 {} 偵測失敗: {}", stockId, e.getMessage());
-                // 建立空結果
-                PatternDetectionResult errorResult = PatternDetectionResult.builder()
-                        .stockId(stockId)
-                        .detectionDate(LocalDate.now())
-                        .diagnostics(new Diagnostics())
-                        .build();
-                errorResult.getDiagnostics().addError("ENGINE", e.getMessage());
-                results.put(stockId, errorResult);
-            }
+            int slot = stockIds.size();
+            stockIds.add(stockId);
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> detectIsolated(stockId, series, plan, timer, slot), batchPool));
         });
 
-        long elapsed = System.currentTimeMillis() - startTime;
-        log.info("批次偵測完成: {} 支股票, 耗時 {}ms", results.size(), elapsed);
+        Map<String, PatternDetectionResult> results = new TreeMap<>();
+        for (int i = 0; i < stockIds.size(); i++) {
+            results.put(stockIds.get(i), futures.get(i).join());
+        }
 
+        log.info("⚡ 並行批次偵測完成: {}", timer.toMetrics(parallelism, System.nanoTime() - start));
         return results;
     }
 
+    /**
+     * 偵測單一股票（隔離例外，錯誤寫入 Diagnostics，並記錄耗時）
+     */
+    private PatternDetectionResult detectIsolated(String stockId, PriceSeries series,
+                                                  PatternDetectionPlan plan, BatchTimer timer, int slot) {
+        long start = System.nanoTime();
+        try {
+            return detect(series, plan);
+        } catch (Exception e) {
+            log.error("股票 {} 偵測失敗: {}", stockId, e.getMessage());
+            timer.failed[slot] = true;
+            // 建立空結果
+            PatternDetectionResult errorResult = PatternDetectionResult.builder()
+                    .stockId(stockId)
+                    .detectionDate(LocalDate.now())
+                    .timeframe(plan.getTimeframe())
+                    .diagnostics(new Diagnostics())
+                    .build();
+            errorResult.getDiagnostics().addError(BATCH_DIAGNOSTIC, e.getMessage());
+            return errorResult;
+        } finally {
+            timer.latencyNanos[slot] = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * 單批的單股耗時紀錄（每支股票寫入自己的位置，不需同步）
+     */
+    private static final class BatchTimer {
+
+        private final long[] latencyNanos;
+        private final boolean[] failed;
+
+        private BatchTimer(int size) {
+            this.latencyNanos = new long[size];
+            this.failed = new boolean[size];
+        }
+
+        private PatternBatchMetrics toMetrics(int parallelism, long elapsedNanos) {
+            int failedCount = 0;
+            for (boolean f : failed) {
+                if (f) {
+                    failedCount++;
+                }
+            }
+            return PatternBatchMetrics.of(latencyNanos, failedCount, parallelism, elapsedNanos);
+        }
+    }
+
+    /**
+     * 建立批次偵測專用 ForkJoinPool
+     */
+    private static ForkJoinPool createBatchPool(int parallelism) {
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("m10-pattern-" + thread.getPoolIndex());
+            return thread;
+        };
+        return new ForkJoinPool(parallelism, factory, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batchPool != null) {
+            batchPool.shutdown();
+        }
+    }
+
     // === 私有方法 ===
 
     /**
      * 偵測趨勢
      */
-    private TrendDirection detectTrend(PriceSeries series, PatternDetectionResult result,
+    private TrendDirection detectTrend(PatternContext context, PatternDetectionResult result,
                                        PatternDetectionPlan plan) {
         TrendDirection detected = TrendDirection.UNKNOWN;
 
         for (PatternDetector detector : registry.getTrendDetectors()) {
             try {
-                if (!detector.hasEnoughData(series)) {
+                if (!detector.hasEnoughData(context.getSeries())) {
                     result.getDiagnostics().addWarning(detector.getName(),
                             String.format("資料不足: 需要 %d 天", detector.getMinDataPoints()));
                     continue;
                 }
 
-                List<DetectedPattern> patterns = detector.detect(series, Map.of(), null);
+                List<DetectedPattern> patterns = detector.detect(context, Map.of(), null);
 
                 // 從趨勢型態中提取趨勢方向
                 for (DetectedPattern p : patterns) {
@@ -179,7 +445,7 @@ public class DefaultPatternEngine implements PatternEngine {
      *
      * @return [檢查數量, 偵測數量]
      */
-    private int[] detectKLinePatterns(PriceSeries series, PatternDetectionResult result,
+    private int[] detectKLinePatterns(PatternContext context, PatternDetectionResult result,
                                       PatternDetectionPlan plan, TrendDirection trendContext) {
         int checked = 0;
         int detected = 0;
@@ -193,10 +459,10 @@ public class DefaultPatternEngine implements PatternEngine {
                 }
 
                 // 檢查資料是否足夠
-                if (!detector.hasEnoughData(series)) {
+                if (!detector.hasEnoughData(context.getSeries())) {
                     result.getDiagnostics().addWarning(detector.getName(),
                             String.format("資料不足: 需要 %d 天, 實際 %d 天",
-                                    detector.getMinDataPoints(), series.size()));
+                                    detector.getMinDataPoints(), context.size()));
                     continue;
                 }
 
@@ -204,7 +470,7 @@ public class DefaultPatternEngine implements PatternEngine {
 
                 // 執行偵測
                 Map<String, Object> params = buildDetectorParams(plan);
-                List<DetectedPattern> patterns = detector.detect(series, params, trendContext);
+                List<DetectedPattern> patterns = detector.detect(context, params, trendContext);
 
                 // 過濾並加入結果
                 for (DetectedPattern pattern : patterns) {
@@ -226,12 +492,13 @@ public class DefaultPatternEngine implements PatternEngine {
     /**
      * 偵測圖表型態
      *
-     * @return [檢查數量, 偵測數量]
+     * @return [檢查數量, 偵測數量, 候選型態數（過濾前，偵測失敗也計入）]
      */
-    private int[] detectChartPatterns(PriceSeries series, PatternDetectionResult result,
+    private int[] detectChartPatterns(PatternContext context, PatternDetectionResult result,
                                       PatternDetectionPlan plan, TrendDirection trendContext) {
         int checked = 0;
         int detected = 0;
+        int candidates = 0;
 
         for (PatternDetector detector : registry.getChartPatternDetectors()) {
             try {
@@ -242,10 +509,10 @@ public class DefaultPatternEngine implements PatternEngine {
                 }
 
                 // 檢查資料是否足夠
-                if (!detector.hasEnoughData(series)) {
+                if (!detector.hasEnoughData(context.getSeries())) {
                     result.getDiagnostics().addWarning(detector.getName(),
                             String.format("資料不足: 需要 %d 天, 實際 %d 天",
-                                    detector.getMinDataPoints(), series.size()));
+                                    detector.getMinDataPoints(), context.size()));
                     continue;
                 }
 
@@ -253,7 +520,8 @@ public class DefaultPatternEngine implements PatternEngine {
 
                 // 執行偵測
                 Map<String, Object> params = buildDetectorParams(plan);
-                List<DetectedPattern> patterns = detector.detect(series, params, trendContext);
+                List<DetectedPattern> patterns = detector.detect(context, params, trendContext);
+                candidates += patterns.size();
 
                 // 過濾並加入結果
                 for (DetectedPattern pattern : patterns) {
@@ -266,10 +534,11 @@ public class DefaultPatternEngine implements PatternEngine {
             } catch (Exception e) {
                 log.error("圖表偵測器 {} 執行失敗: {}", detector.getName(), e.getMessage());
                 result.getDiagnostics().addError(detector.getName(), e.getMessage());
+                candidates++;
             }
         }
 
-        return new int[]{checked, detected};
+        return new int[]{checked, detected, candidates};
     }
 
     /**
@@ -334,6 +603,7 @@ public class DefaultPatternEngine implements PatternEngine {
         Map<String, Object> params = new HashMap<>();
         params.put("lookbackPeriod", plan.getLookbackPeriod());
         params.put("minStrength", plan.getMinPatternStrength());
+        params.put("searchBudget", searchBudget);
         return params;
     }
 
@@ -0,0 +1,93 @@
+package com.chris.fin_shark.m10.engine;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * 批次型態偵測統計
+ * <p>
+ * 吞吐量以整批牆鐘時間計算；單股延遲為每支股票偵測本身的耗時（不含排隊等待）
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Getter
+@Builder
+public class PatternBatchMetrics {
+
+    /** 股票數 */
+    private final int stockCount;
+
+    /** 偵測失敗的股票數 */
+    private final int failedCount;
+
+    /** 並行度 */
+    private final int parallelism;
+
+    /** 整批耗時（毫秒） */
+    private final long elapsedMs;
+
+    /** 吞吐量（支 / 秒） */
+    private final double stocksPerSecond;
+
+    /** 單股延遲中位數（毫秒） */
+    private final double p50LatencyMs;
+
+    /** 單股延遲 p99（毫秒） */
+    private final double p99LatencyMs;
+
+    /** 單股延遲最大值（毫秒） */
+    private final double maxLatencyMs;
+
+    /**
+     * 由單股延遲彙總
+     *
+     * @param latencyNanos 每支股票的偵測耗時（奈秒）
+     * @param failedCount  失敗股票數
+     * @param parallelism  並行度
+     * @param elapsedNanos 整批耗時（奈秒）
+     */
+    public static PatternBatchMetrics of(long[] latencyNanos, int failedCount,
+                                         int parallelism, long elapsedNanos) {
+        long[] sorted = latencyNanos.clone();
+        Arrays.sort(sorted);
+        int count = sorted.length;
+
+        return PatternBatchMetrics.builder()
+                .stockCount(count)
+                .failedCount(failedCount)
+                .parallelism(parallelism)
+                .elapsedMs(elapsedNanos / 1_000_000)
+                .stocksPerSecond(elapsedNanos > 0 ? count * 1e9 / elapsedNanos : 0)
+                .p50LatencyMs(toMillis(percentile(sorted, 0.50)))
+                .p99LatencyMs(toMillis(percentile(sorted, 0.99)))
+                .maxLatencyMs(toMillis(count > 0 ? sorted[count - 1] : 0))
+                .build();
+    }
+
+    /**
+     * 最近排名法（nearest-rank）百分位數
+     */
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("stocks=%d, failed=%d, parallelism=%d, elapsed=%dms, "
+                        + "throughput=%.1f stocks/s, p50=%.2fms, p99=%.2fms, max=%.2fms",
+                stockCount, failedCount, parallelism, elapsedMs,
+                stocksPerSecond, p50LatencyMs, p99LatencyMs, maxLatencyMs);
+    }
+}
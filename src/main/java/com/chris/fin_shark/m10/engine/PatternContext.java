@@ -0,0 +1,102 @@
+package com.chris.fin_shark.m10.engine;
+
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m10.engine.detector.PeakTroughFinder;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
+import com.chris.fin_shark.m10.engine.model.PeakTrough;
+import com.chris.fin_shark.m10.engine.model.PivotIndex;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 單一價格序列的型態分析背景
+ * <p>
+ * 由 {@link DefaultPatternEngine#detect} 每支股票建立一次，所有偵測器共用：
+ * 1. 欄式 K 線序列 {@link CandleSeries}（原生陣列與每根 K 線的衍生特徵，只建立一次）
+ * 2. 波峰波谷與其索引 {@link PivotIndex}，依 (lookback, swingThreshold) 快取
+ * 以上皆在第一次取用時才計算，未使用的部分不佔成本。
+ * </p>
+ * <p>
+ * 注意：非執行緒安全，同一背景只應在一支股票的偵測流程（單一執行緒）中使用；
+ * 回傳的列表為唯讀且在偵測器間共用，不可修改
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class PatternContext {
+
+    private final PriceSeries series;
+
+    private CandleSeries bars;
+
+    private final Map<PivotKey, List<PeakTrough>> pivots = new HashMap<>();
+
+    private final Map<PivotKey, PivotIndex> pivotIndexes = new HashMap<>();
+
+    private PatternContext(PriceSeries series) {
+        this.series = series;
+    }
+
+    /**
+     * 建立分析背景
+     */
+    public static PatternContext of(PriceSeries series) {
+        return new PatternContext(series);
+    }
+
+    public PriceSeries getSeries() {
+        return series;
+    }
+
+    public String getStockId() {
+        return series.getStockId();
+    }
+
+    public int size() {
+        return series.size();
+    }
+
+    // === K 線 ===
+
+    /**
+     * 欄式 K 線序列
+     */
+    public CandleSeries getBars() {
+        if (bars == null) {
+            bars = CandleSeries.of(series);
+        }
+        return bars;
+    }
+
+    // === 波峰波谷 ===
+
+    /**
+     * 波峰波谷（依參數快取，唯讀）
+     *
+     * @param lookback       左右比較的 K 線根數
+     * @param swingThreshold 最小波動幅度
+     */
+    public List<PeakTrough> getPeaksTroughs(int lookback, double swingThreshold) {
+        return pivots.computeIfAbsent(new PivotKey(lookback, swingThreshold),
+                key -> Collections.unmodifiableList(
+                        PeakTroughFinder.find(getBars(), key.lookback(), key.swingThreshold())));
+    }
+
+    /**
+     * 波峰波谷索引（依參數快取，圖表偵測器共用同一份索引與工作預算）
+     *
+     * @param lookback       左右比較的 K 線根數
+     * @param swingThreshold 最小波動幅度
+     */
+    public PivotIndex getPivotIndex(int lookback, double swingThreshold) {
+        return pivotIndexes.computeIfAbsent(new PivotKey(lookback, swingThreshold),
+                key -> PivotIndex.of(getPeaksTroughs(key.lookback(), key.swingThreshold())));
+    }
+
+    private record PivotKey(int lookback, double swingThreshold) {
+    }
+}
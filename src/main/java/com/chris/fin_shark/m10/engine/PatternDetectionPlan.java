@@ -1,5 +1,6 @@
 package com.chris.fin_shark.m10.engine;
 
+import com.chris.fin_shark.m07.engine.model.Timeframe;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -60,11 +61,17 @@ public class PatternDetectionPlan {
     private int minPatternStrength = 50;
 
     /**
-     * 回溯天數
+     * 回溯天數（週線 / 月線時為 K 棒數）
      */
     @Builder.Default
     private int lookbackPeriod = 120;
 
+    /**
+     * K 棒週期（週線 / 月線由日線重新取樣）
+     */
+    @Builder.Default
+    private Timeframe timeframe = Timeframe.DAILY;
+
     /**
      * 優先級過濾（null 表示所有）
      */
@@ -182,6 +189,13 @@ public class PatternDetectionPlan {
 
     // === 便捷方法 ===
 
+    /**
+     * K 棒週期（未指定時為日線）
+     */
+    public Timeframe getTimeframe() {
+        return timeframe != null ? timeframe : Timeframe.DAILY;
+    }
+
     /**
      * 是否應該偵測指定的型態 ID
      */
@@ -1,5 +1,6 @@
 package com.chris.fin_shark.m10.engine;
 
+import com.chris.fin_shark.m07.engine.model.Timeframe;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.enums.SignalType;
 import com.chris.fin_shark.m10.enums.TrendDirection;
@@ -46,6 +47,12 @@ public class PatternDetectionResult {
      */
     private BigDecimal currentPrice;
 
+    /**
+     * K 棒週期
+     */
+    @Builder.Default
+    private Timeframe timeframe = Timeframe.DAILY;
+
     // === 偵測到的型態 ===
 
     /**
@@ -57,6 +57,22 @@ public interface PatternDetector {
      */
     List<DetectedPattern> detect(PriceSeries series, Map<String, Object> params, TrendDirection context);
 
+    /**
+     * 偵測型態（共用分析背景）
+     * <p>
+     * 引擎對同一支股票的所有偵測器傳入同一個背景，K 線、衍生特徵與波峰波谷只計算一次；
+     * 預設直接以原始價格序列偵測
+     * </p>
+     *
+     * @param context 分析背景
+     * @param params  偵測參數
+     * @param trend   趨勢背景（可為 null）
+     * @return 偵測到的型態列表
+     */
+    default List<DetectedPattern> detect(PatternContext context, Map<String, Object> params, TrendDirection trend) {
+        return detect(context.getSeries(), params, trend);
+    }
+
     /**
      * 偵測型態（無趨勢背景）
      */
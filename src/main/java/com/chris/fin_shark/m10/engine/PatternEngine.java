@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m10.engine;
 
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m10.engine.model.PivotState;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 /**
@@ -18,6 +20,15 @@ import java.util.Map;
  */
 public interface PatternEngine {
 
+    /**
+     * 增量模式最少需要的最近 K 線根數
+     * <p>
+     * K 線型態只看最後 1~3 根與前 20 根均量，趨勢分析只看最後 20 根，
+     * 以最近 30 根偵測的結果與完整視窗相同
+     * </p>
+     */
+    int INCREMENTAL_RECENT_BARS = 30;
+
     /**
      * 偵測型態
      *
@@ -39,6 +50,38 @@ public interface PatternEngine {
             PatternDetectionPlan plan
     );
 
+    /**
+     * 增量狀態的參數識別（與計劃相關的樞紐點參數，變更時狀態失效）
+     */
+    String pivotStateKey(PatternDetectionPlan plan);
+
+    /**
+     * 以最近 K 線推進增量狀態（新確認的樞紐點加入、移出視窗的樞紐點移除）
+     *
+     * @param recent      最近的價格序列（需包含錨點 K 棒與其後所有 K 棒）
+     * @param state       增量狀態（推進後錨點移到最後一根 K 棒）
+     * @param windowStart 本次回溯視窗起日
+     * @return 狀態是否有效；false 表示錨點不符或資料不足，須以完整視窗重建
+     */
+    boolean advancePivots(PriceSeries recent, PivotState state, LocalDate windowStart);
+
+    /**
+     * 增量偵測
+     * <p>
+     * K 線與趨勢型態以最近 K 線偵測；圖表型態只在提供完整視窗時偵測，並以視窗重建增量狀態。
+     * 未提供視窗時（狀態無待評估的圖表型態），圖表型態結果為空
+     * </p>
+     *
+     * @param recent      最近的價格序列（至少 {@link #INCREMENTAL_RECENT_BARS} 根）
+     * @param window      完整回溯視窗（可為 null）
+     * @param windowStart 回溯視窗起日
+     * @param plan        偵測計劃
+     * @param state       增量狀態
+     * @return 偵測結果
+     */
+    PatternDetectionResult detectIncremental(PriceSeries recent, PriceSeries window, LocalDate windowStart,
+                                             PatternDetectionPlan plan, PivotState state);
+
     /**
      * 使用完整計劃偵測
      */
@@ -1,11 +1,14 @@
 package com.chris.fin_shark.m10.engine.detector;
 
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m10.engine.PatternContext;
 import com.chris.fin_shark.m10.engine.PatternDetector;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.CandleStick;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.engine.model.PatternMetadata;
 import com.chris.fin_shark.m10.engine.model.PeakTrough;
+import com.chris.fin_shark.m10.engine.model.PivotIndex;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.PatternStatus;
 import com.chris.fin_shark.m10.enums.SignalType;
@@ -21,7 +24,7 @@ import java.util.*;
  * 圖表型態偵測器基底類別
  * <p>
  * 提供圖表型態偵測的共用功能：
- * - 波峰波谷識別
+ * - 波峰波谷識別與索引（{@link PivotIndex}，候選搜尋受工作預算限制）
  * - 趨勢線計算
  * - 頸線識別
  * - 型態完整性評估
@@ -40,10 +43,15 @@ public abstract class AbstractChartPatternDetector implements PatternDetector {
      */
     protected static final double LEVEL_TOLERANCE = 0.02; // 2%
 
+    /**
+     * 預設樞紐點左右比較根數（增量模式的波峰波谷序列使用相同參數）
+     */
+    public static final int DEFAULT_PIVOT_LOOKBACK = 5;
+
     /**
      * 最小波動幅度（用於識別有效的波峰波谷）
      */
-    protected static final double MIN_SWING_PERCENT = 0.03; // 3%
+    public static final double MIN_SWING_PERCENT = 0.03; // 3%
 
     /**
      * 突破確認閾值
@@ -66,8 +74,8 @@ public abstract class AbstractChartPatternDetector implements PatternDetector {
      * 執行型態偵測
      */
     protected abstract List<DetectedPattern> doDetect(
-            List<CandleStick> candles,
-            List<PeakTrough> peaksTroughs,
+            CandleSeries bars,
+            PivotIndex pivots,
             Map<String, Object> params,
             TrendDirection trendContext
     );
@@ -92,20 +100,24 @@ public abstract class AbstractChartPatternDetector implements PatternDetector {
 
     @Override
     public List<DetectedPattern> detect(PriceSeries series, Map<String, Object> params, TrendDirection context) {
-        if (!hasEnoughData(series)) {
+        return detect(PatternContext.of(series), params, context);
+    }
+
+    @Override
+    public List<DetectedPattern> detect(PatternContext context, Map<String, Object> params, TrendDirection trend) {
+        if (!hasEnoughData(context.getSeries())) {
             log.debug("{}: 資料不足，需要 {} 天，實際 {} 天",
-                    getName(), getMinDataPoints(), series.size());
+                    getName(), getMinDataPoints(), context.size());
             return Collections.emptyList();
         }
 
-        // 轉換為 CandleStick
-        List<CandleStick> candles = convertToCandleSticks(series);
-
-        // 識別波峰波谷
-        List<PeakTrough> peaksTroughs = findPeaksTroughs(candles, params);
+        // K 線序列與波峰波谷索引取自共用背景（同參數的偵測器共用同一份結果與工作預算）
+        CandleSeries bars = context.getBars();
+        PivotIndex pivots = context.getPivotIndex(pivotLookback(params), swingThreshold(params));
+        pivots.limitWork(searchBudget(params));
 
         // 執行偵測
-        return doDetect(candles, peaksTroughs, params, context);
+        return doDetect(bars, pivots, params, trend);
     }
 
     // === 波峰波谷識別 ===
@@ -113,258 +125,91 @@ public abstract class AbstractChartPatternDetector implements PatternDetector {
     /**
      * 識別波峰和波谷
      *
-     * @param candles K 線資料
-     * @param params  參數（可包含 swingThreshold）
+     * @param bars   K 線序列
+     * @param params 參數（可包含 swingThreshold、pivotLookback）
      * @return 波峰波谷列表（按時間排序）
+     * @see PeakTroughFinder
      */
-    protected List<PeakTrough> findPeaksTroughs(List<CandleStick> candles, Map<String, Object> params) {
-        List<PeakTrough> result = new ArrayList<>();
-
-        double swingThreshold = (double) params.getOrDefault("swingThreshold", MIN_SWING_PERCENT);
-        int lookback = (int) params.getOrDefault("pivotLookback", 5);
-
-        for (int i = lookback; i < candles.size() - lookback; i++) {
-            CandleStick current = candles.get(i);
-
-            // 檢查是否為局部高點
-            if (isPivotHigh(candles, i, lookback)) {
-                // 驗證波動幅度
-                if (isSignificantSwing(candles, i, lookback, swingThreshold, true)) {
-                    result.add(PeakTrough.builder()
-                            .type(PeakTrough.Type.PEAK)
-                            .date(current.getDate())
-                            .price(current.getHigh())
-                            .index(i)
-                            .strength(calculatePivotStrength(candles, i, true))
-                            .build());
-                }
-            }
-
-            // 檢查是否為局部低點
-            if (isPivotLow(candles, i, lookback)) {
-                if (isSignificantSwing(candles, i, lookback, swingThreshold, false)) {
-                    result.add(PeakTrough.builder()
-                            .type(PeakTrough.Type.TROUGH)
-                            .date(current.getDate())
-                            .price(current.getLow())
-                            .index(i)
-                            .strength(calculatePivotStrength(candles, i, false))
-                            .build());
-                }
-            }
-        }
-
-        // 按時間排序
-        result.sort(Comparator.comparing(PeakTrough::getDate));
-
-        return result;
+    protected List<PeakTrough> findPeaksTroughs(CandleSeries bars, Map<String, Object> params) {
+        return PeakTroughFinder.find(bars, pivotLookback(params), swingThreshold(params));
     }
 
     /**
-     * 檢查是否為樞紐高點
+     * 樞紐點左右比較根數
      */
-    protected boolean isPivotHigh(List<CandleStick> candles, int index, int lookback) {
-        BigDecimal high = candles.get(index).getHigh();
-
-        // 檢查左邊
-        for (int i = index - lookback; i < index; i++) {
-            if (candles.get(i).getHigh().compareTo(high) >= 0) {
-                return false;
-            }
-        }
-
-        // 檢查右邊
-        for (int i = index + 1; i <= index + lookback; i++) {
-            if (candles.get(i).getHigh().compareTo(high) >= 0) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
-    /**
-     * 檢查是否為樞紐低點
-     */
-    protected boolean isPivotLow(List<CandleStick> candles, int index, int lookback) {
-        BigDecimal low = candles.get(index).getLow();
-
-        // 檢查左邊
-        for (int i = index - lookback; i < index; i++) {
-            if (candles.get(i).getLow().compareTo(low) <= 0) {
-                return false;
-            }
-        }
-
-        // 檢查右邊
-        for (int i = index + 1; i <= index + lookback; i++) {
-            if (candles.get(i).getLow().compareTo(low) <= 0) {
-                return false;
-            }
-        }
-
-        return true;
+    protected int pivotLookback(Map<String, Object> params) {
+        return (int) params.getOrDefault("pivotLookback", DEFAULT_PIVOT_LOOKBACK);
     }
 
     /**
-     * 檢查波動是否顯著
+     * 最小波動幅度
      */
-    protected boolean isSignificantSwing(List<CandleStick> candles, int index, int lookback,
-                                        double threshold, boolean isPeak) {
-        BigDecimal pivotPrice = isPeak ? candles.get(index).getHigh() : candles.get(index).getLow();
-
-        // 找出周圍的反向極值
-        BigDecimal oppositeExtreme = isPeak ?
-                findLowestLow(candles, index - lookback, index + lookback) :
-                findHighestHigh(candles, index - lookback, index + lookback);
-
-        // 計算波動幅度
-        BigDecimal swing = pivotPrice.subtract(oppositeExtreme).abs();
-        BigDecimal swingPercent = swing.divide(pivotPrice, 4, RoundingMode.HALF_UP);
-
-        return swingPercent.doubleValue() >= threshold;
+    protected double swingThreshold(Map<String, Object> params) {
+        return (double) params.getOrDefault("swingThreshold", MIN_SWING_PERCENT);
     }
 
     /**
-     * 計算樞紐點強度
+     * 候選搜尋工作預算（每支股票區間查詢可檢查的樞紐點數）
      */
-    protected int calculatePivotStrength(List<CandleStick> candles, int index, boolean isPeak) {
-        int strength = 50; // 基礎分數
-
-        // 因子 1: 突出程度
-        BigDecimal pivotPrice = isPeak ? candles.get(index).getHigh() : candles.get(index).getLow();
-        int count = 0;
-        for (int i = Math.max(0, index - 10); i < Math.min(candles.size(), index + 10); i++) {
-            if (i == index) continue;
-            BigDecimal comparePrice = isPeak ? candles.get(i).getHigh() : candles.get(i).getLow();
-            if ((isPeak && pivotPrice.compareTo(comparePrice) > 0) ||
-                (!isPeak && pivotPrice.compareTo(comparePrice) < 0)) {
-                count++;
-            }
-        }
-        strength += (count >= 15 ? 20 : count >= 10 ? 10 : 0);
-
-        // 因子 2: 成交量放大
-        if (candles.get(index).getVolume() != null) {
-            long avgVol = calculateAverageVolume(candles, index, 20);
-            if (candles.get(index).getVolume() > avgVol * 1.5) {
-                strength += 15;
-            }
-        }
-
-        return Math.min(100, strength);
+    protected int searchBudget(Map<String, Object> params) {
+        return (int) params.getOrDefault("searchBudget", PivotIndex.UNLIMITED);
     }
 
     // === 輔助方法 ===
 
-    /**
-     * 找出最高價
-     */
-    protected BigDecimal findHighestHigh(List<CandleStick> candles, int fromIdx, int toIdx) {
-        BigDecimal highest = BigDecimal.ZERO;
-        for (int i = Math.max(0, fromIdx); i <= Math.min(candles.size() - 1, toIdx); i++) {
-            if (candles.get(i).getHigh().compareTo(highest) > 0) {
-                highest = candles.get(i).getHigh();
-            }
-        }
-        return highest;
-    }
-
-    /**
-     * 找出最低價
-     */
-    protected BigDecimal findLowestLow(List<CandleStick> candles, int fromIdx, int toIdx) {
-        BigDecimal lowest = BigDecimal.valueOf(Double.MAX_VALUE);
-        for (int i = Math.max(0, fromIdx); i <= Math.min(candles.size() - 1, toIdx); i++) {
-            if (candles.get(i).getLow().compareTo(lowest) < 0) {
-                lowest = candles.get(i).getLow();
-            }
-        }
-        return lowest;
-    }
-
-    /**
-     * 計算平均成交量
-     */
-    protected long calculateAverageVolume(List<CandleStick> candles, int endIndex, int period) {
-        int start = Math.max(0, endIndex - period);
-        long total = 0L;
-        int count = 0;
-
-        for (int i = start; i < endIndex; i++) {
-            if (candles.get(i).getVolume() != null) {
-                total += candles.get(i).getVolume();
-                count++;
-            }
-        }
-
-        return count > 0 ? total / count : 0L;
-    }
-
     /**
      * 檢查兩個價格是否在同一水平（容忍度內）
      */
-    protected boolean isSameLevel(BigDecimal price1, BigDecimal price2, double tolerance) {
-        BigDecimal diff = price1.subtract(price2).abs();
-        BigDecimal avgPrice = price1.add(price2).divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP);
-        BigDecimal percentDiff = diff.divide(avgPrice, 4, RoundingMode.HALF_UP);
-        return percentDiff.doubleValue() <= tolerance;
+    protected boolean isSameLevel(double price1, double price2, double tolerance) {
+        double avgPrice = round((price1 + price2) / 2, 4);
+        return round(Math.abs(price1 - price2) / avgPrice, 4) <= tolerance;
     }
 
     /**
      * 計算頸線
      */
-    protected BigDecimal calculateNeckline(PeakTrough trough1, PeakTrough trough2) {
-        return trough1.getPrice().add(trough2.getPrice())
-                .divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP);
+    protected double calculateNeckline(PeakTrough trough1, PeakTrough trough2) {
+        return round((trough1.getPrice() + trough2.getPrice()) / 2, 4);
     }
 
     /**
      * 檢查是否突破頸線
      */
-    protected boolean isBreakingNeckline(CandleStick candle, BigDecimal neckline, boolean isUpward) {
+    protected boolean isBreakingNeckline(CandleSeries bars, int index, double neckline, boolean isUpward) {
         if (isUpward) {
-            return candle.getClose().compareTo(neckline.multiply(BigDecimal.valueOf(1 + BREAKOUT_THRESHOLD))) > 0;
+            return bars.close(index) > neckline * (1 + BREAKOUT_THRESHOLD);
         } else {
-            return candle.getClose().compareTo(neckline.multiply(BigDecimal.valueOf(1 - BREAKOUT_THRESHOLD))) < 0;
+            return bars.close(index) < neckline * (1 - BREAKOUT_THRESHOLD);
         }
     }
 
     /**
-     * 將 PriceSeries 轉換為 CandleStick 列表
+     * 比例取至指定小數位（門檻比較沿用原本的捨入精度）
      */
-    protected List<CandleStick> convertToCandleSticks(PriceSeries series) {
-        List<CandleStick> candles = new ArrayList<>();
-
-        List<LocalDate> dates = series.getDates();
-        double[] opens = series.getOpenArray();
-        double[] highs = series.getHighArray();
-        double[] lows = series.getLowArray();
-        double[] closes = series.getCloseArray();
-        long[] volumes = series.getVolumeArray();
-
-        for (int i = 0; i < series.size(); i++) {
-            candles.add(CandleStick.builder()
-                    .date(dates.get(i))
-                    .open(BigDecimal.valueOf(opens[i]))
-                    .high(BigDecimal.valueOf(highs[i]))
-                    .low(BigDecimal.valueOf(lows[i]))
-                    .close(BigDecimal.valueOf(closes[i]))
-                    .volume(volumes != null && volumes.length > i ? volumes[i] : 0L)
-                    .build());
-        }
+    protected static double round(double value, int scale) {
+        return CandleSeries.round(value, scale);
+    }
 
-        return candles;
+    /**
+     * 價格轉為輸出用 BigDecimal（四位小數）
+     */
+    protected BigDecimal toDecimal(double price) {
+        return BigDecimal.valueOf(price).setScale(4, RoundingMode.HALF_UP);
     }
 
     // === 結果建構方法 ===
 
     /**
      * 建構圖表型態偵測結果
+     *
+     * @param fromIndex 型態第一根 K 線索引
+     * @param toIndex   型態最後一根 K 線索引（含）
      */
     protected DetectedPattern buildChartPattern(
             String patternId,
-            List<CandleStick> involvedCandles,
+            CandleSeries bars,
+            int fromIndex,
+            int toIndex,
             int strength,
             TrendDirection trendContext,
             BigDecimal neckline,
@@ -377,21 +222,14 @@ public abstract class AbstractChartPatternDetector implements PatternDetector {
             return null;
         }
 
+        // 只有輸出的 K 線才轉換為 BigDecimal
+        List<CandleStick> involvedCandles = bars.toCandleSticks(fromIndex, toIndex + 1);
         List<LocalDate> dates = involvedCandles.stream()
                 .map(CandleStick::getDate)
                 .toList();
 
-        BigDecimal patternLow = involvedCandles.stream()
-                .map(CandleStick::getLow)
-                .min(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-
-        BigDecimal patternHigh = involvedCandles.stream()
-                .map(CandleStick::getHigh)
-                .max(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-
-        CandleStick lastCandle = involvedCandles.get(involvedCandles.size() - 1);
+        BigDecimal patternLow = BigDecimal.valueOf(bars.lowestLow(fromIndex, toIndex + 1));
+        BigDecimal patternHigh = BigDecimal.valueOf(bars.highestHigh(fromIndex, toIndex + 1));
 
         // 計算止損
         BigDecimal stopLoss = null;
@@ -1,7 +1,9 @@
 package com.chris.fin_shark.m10.engine.detector;
 
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m10.engine.PatternContext;
 import com.chris.fin_shark.m10.engine.PatternDetector;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.CandleStick;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.engine.model.PatternMetadata;
@@ -20,7 +22,7 @@ import java.util.*;
  * K 線型態偵測器基底類別
  * <p>
  * 提供 K 線型態偵測的共用功能：
- * - 價格序列轉 CandleStick
+ * - 共用分析背景的欄式 K 線序列（原生 double，判斷過程不建立 BigDecimal）
  * - 常用比例計算
  * - 型態強度評估
  * - 結果建構
@@ -75,13 +77,13 @@ public abstract class AbstractKLineDetector implements PatternDetector {
     /**
      * 執行型態偵測
      *
-     * @param candles      K 線資料
+     * @param bars         欄式 K 線序列（以索引存取，最後一根為 bars.last()）
      * @param params       偵測參數
      * @param trendContext 趨勢背景
      * @return 偵測到的型態
      */
     protected abstract List<DetectedPattern> doDetect(
-            List<CandleStick> candles,
+            CandleSeries bars,
             Map<String, Object> params,
             TrendDirection trendContext
     );
@@ -106,75 +108,28 @@ public abstract class AbstractKLineDetector implements PatternDetector {
 
     @Override
     public List<DetectedPattern> detect(PriceSeries series, Map<String, Object> params, TrendDirection context) {
-        if (!hasEnoughData(series)) {
+        return detect(PatternContext.of(series), params, context);
+    }
+
+    @Override
+    public List<DetectedPattern> detect(PatternContext context, Map<String, Object> params, TrendDirection trend) {
+        if (!hasEnoughData(context.getSeries())) {
             log.debug("{}: 資料不足，需要 {} 天，實際 {} 天",
-                    getName(), getMinDataPoints(), series.size());
+                    getName(), getMinDataPoints(), context.size());
             return Collections.emptyList();
         }
 
-        // 轉換為 CandleStick
-        List<CandleStick> candles = convertToCandleSticks(series);
-
-        // 執行偵測
-        return doDetect(candles, params, context);
+        // K 線序列取自共用背景（同一序列只建立一次）
+        return doDetect(context.getBars(), params, trend);
     }
 
     // === 工具方法 ===
 
     /**
-     * 將 PriceSeries 轉換為 CandleStick 列表
+     * 計算平均成交量（最後 period 根，含最後一根）
      */
-    protected List<CandleStick> convertToCandleSticks(PriceSeries series) {
-        List<CandleStick> candles = new ArrayList<>();
-
-        List<LocalDate> dates = series.getDates();
-        double[] opens = series.getOpenArray();
-        double[] highs = series.getHighArray();
-        double[] lows = series.getLowArray();
-        double[] closes = series.getCloseArray();
-        long[] volumes = series.getVolumeArray();
-
-        for (int i = 0; i < series.size(); i++) {
-            candles.add(CandleStick.builder()
-                    .date(dates.get(i))
-                    .open(BigDecimal.valueOf(opens[i]))
-                    .high(BigDecimal.valueOf(highs[i]))
-                    .low(BigDecimal.valueOf(lows[i]))
-                    .close(BigDecimal.valueOf(closes[i]))
-                    .volume(volumes != null && volumes.length > i ? volumes[i] : 0L)
-                    .build());
-        }
-
-        return candles;
-    }
-
-    /**
-     * 取得最後 N 根 K 線
-     */
-    protected List<CandleStick> getLastNCandles(List<CandleStick> candles, int n) {
-        int size = candles.size();
-        if (size < n) {
-            return candles;
-        }
-        return candles.subList(size - n, size);
-    }
-
-    /**
-     * 計算平均成交量
-     */
-    protected long calculateAverageVolume(List<CandleStick> candles, int period) {
-        if (candles.isEmpty()) {
-            return 0L;
-        }
-
-        int count = Math.min(period, candles.size());
-        long total = 0L;
-
-        for (int i = candles.size() - count; i < candles.size(); i++) {
-            total += candles.get(i).getVolume() != null ? candles.get(i).getVolume() : 0L;
-        }
-
-        return total / count;
+    protected long calculateAverageVolume(CandleSeries bars, int period) {
+        return bars.averageVolume(bars.size() - period, bars.size());
     }
 
     /**
@@ -196,86 +151,88 @@ public abstract class AbstractKLineDetector implements PatternDetector {
     /**
      * 檢查成交量是否放大
      */
-    protected boolean isVolumeIncreased(CandleStick candle, long avgVolume, double multiplier) {
-        if (candle.getVolume() == null || avgVolume == 0) {
+    protected boolean isVolumeIncreased(CandleSeries bars, int index, long avgVolume, double multiplier) {
+        if (avgVolume == 0) {
             return false;
         }
-        return candle.getVolume() >= avgVolume * multiplier;
+        return bars.volume(index) >= avgVolume * multiplier;
+    }
+
+    /**
+     * 計算成交量比率（輸出用，保留兩位小數）
+     */
+    protected BigDecimal calculateVolumeRatio(CandleSeries bars, int index, long avgVolume) {
+        return avgVolume > 0 ?
+                BigDecimal.valueOf((double) bars.volume(index) / avgVolume).setScale(2, RoundingMode.HALF_UP) :
+                BigDecimal.ZERO;
     }
 
     /**
      * 計算價格變化比例
      */
-    protected double calculatePriceChange(CandleStick candle1, CandleStick candle2) {
-        if (candle1.getClose().compareTo(BigDecimal.ZERO) == 0) {
+    protected double calculatePriceChange(CandleSeries bars, int from, int to) {
+        if (bars.close(from) == 0) {
             return 0;
         }
-        return candle2.getClose().subtract(candle1.getClose())
-                .divide(candle1.getClose(), 4, RoundingMode.HALF_UP)
-                .doubleValue();
+        return (bars.close(to) - bars.close(from)) / bars.close(from);
     }
 
     /**
-     * 取得高低點區間
+     * 判斷是否處於下跌趨勢（簡易判斷：收盤價低於前 N 天均價）
      */
-    protected BigDecimal[] getPriceRange(List<CandleStick> candles) {
-        BigDecimal min = BigDecimal.valueOf(Double.MAX_VALUE);
-        BigDecimal max = BigDecimal.ZERO;
-
-        for (CandleStick c : candles) {
-            if (c.getLow().compareTo(min) < 0) min = c.getLow();
-            if (c.getHigh().compareTo(max) > 0) max = c.getHigh();
-        }
-
-        return new BigDecimal[]{min, max};
+    protected boolean isInDowntrend(CandleSeries bars, int lookback) {
+        return isInDowntrend(bars, bars.size(), lookback);
     }
 
     /**
-     * 判斷是否處於下跌趨勢（簡易判斷：收盤價低於前 N 天均價）
+     * 判斷 end 之前是否處於下跌趨勢（以 end - 1 為最後一根）
      */
-    protected boolean isInDowntrend(List<CandleStick> candles, int lookback) {
-        if (candles.size() < lookback + 1) {
+    protected boolean isInDowntrend(CandleSeries bars, int end, int lookback) {
+        if (end < lookback + 1) {
             return false;
         }
-
-        int startIdx = candles.size() - lookback - 1;
-        BigDecimal sum = BigDecimal.ZERO;
-        for (int i = startIdx; i < candles.size() - 1; i++) {
-            sum = sum.add(candles.get(i).getClose());
-        }
-        BigDecimal avg = sum.divide(BigDecimal.valueOf(lookback), 4, RoundingMode.HALF_UP);
-
-        CandleStick last = candles.get(candles.size() - 1);
-        return last.getClose().compareTo(avg) < 0;
+        double avg = round(bars.averageClose(end - lookback - 1, end - 1), 4);
+        return bars.close(end - 1) < avg;
     }
 
     /**
      * 判斷是否處於上漲趨勢
      */
-    protected boolean isInUptrend(List<CandleStick> candles, int lookback) {
-        if (candles.size() < lookback + 1) {
-            return false;
-        }
+    protected boolean isInUptrend(CandleSeries bars, int lookback) {
+        return isInUptrend(bars, bars.size(), lookback);
+    }
 
-        int startIdx = candles.size() - lookback - 1;
-        BigDecimal sum = BigDecimal.ZERO;
-        for (int i = startIdx; i < candles.size() - 1; i++) {
-            sum = sum.add(candles.get(i).getClose());
+    /**
+     * 判斷 end 之前是否處於上漲趨勢（以 end - 1 為最後一根）
+     */
+    protected boolean isInUptrend(CandleSeries bars, int end, int lookback) {
+        if (end < lookback + 1) {
+            return false;
         }
-        BigDecimal avg = sum.divide(BigDecimal.valueOf(lookback), 4, RoundingMode.HALF_UP);
+        double avg = round(bars.averageClose(end - lookback - 1, end - 1), 4);
+        return bars.close(end - 1) > avg;
+    }
 
-        CandleStick last = candles.get(candles.size() - 1);
-        return last.getClose().compareTo(avg) > 0;
+    /**
+     * 比例取至指定小數位（門檻比較沿用原本的捨入精度，亦用於輸出）
+     */
+    protected static double round(double value, int scale) {
+        return CandleSeries.round(value, scale);
     }
 
     // === 結果建構方法 ===
 
     /**
      * 建構偵測結果
+     *
+     * @param fromIndex 型態第一根 K 線索引
+     * @param toIndex   型態最後一根 K 線索引（含）
      */
     protected DetectedPattern buildPattern(
             String patternId,
-            List<CandleStick> involvedCandles,
+            CandleSeries bars,
+            int fromIndex,
+            int toIndex,
             int strength,
             TrendDirection trendContext,
             Map<String, Object> additionalData) {
@@ -286,11 +243,14 @@ public abstract class AbstractKLineDetector implements PatternDetector {
             return null;
         }
 
+        // 只有輸出的 K 線才轉換為 BigDecimal
+        List<CandleStick> involvedCandles = bars.toCandleSticks(fromIndex, toIndex + 1);
         List<LocalDate> dates = involvedCandles.stream()
                 .map(CandleStick::getDate)
                 .toList();
 
-        BigDecimal[] range = getPriceRange(involvedCandles);
+        BigDecimal patternLow = BigDecimal.valueOf(bars.lowestLow(fromIndex, toIndex + 1));
+        BigDecimal patternHigh = BigDecimal.valueOf(bars.highestHigh(fromIndex, toIndex + 1));
 
         DetectedPattern.DetectedPatternBuilder builder = DetectedPattern.builder()
                 .patternId(patternId)
@@ -304,21 +264,21 @@ public abstract class AbstractKLineDetector implements PatternDetector {
                 .detectionDate(dates.get(dates.size() - 1))
                 .involvedDates(dates)
                 .involvedCandles(involvedCandles)
-                .patternLow(range[0])
-                .patternHigh(range[1])
+                .patternLow(patternLow)
+                .patternHigh(patternHigh)
                 .trendContext(trendContext != null ? trendContext.name() : null)
                 .description(meta.getDescription());
 
         // 設定目標價和止損（簡易計算）
-        BigDecimal priceRange = range[1].subtract(range[0]);
+        BigDecimal priceRange = patternHigh.subtract(patternLow);
         CandleStick lastCandle = involvedCandles.get(involvedCandles.size() - 1);
 
         if (meta.getSignalType() != null && meta.getSignalType().isBullish()) {
             builder.targetPrice(lastCandle.getClose().add(priceRange));
-            builder.stopLoss(range[0].subtract(priceRange.multiply(BigDecimal.valueOf(0.5))));
+            builder.stopLoss(patternLow.subtract(priceRange.multiply(BigDecimal.valueOf(0.5))));
         } else if (meta.getSignalType() != null && meta.getSignalType().isBearish()) {
             builder.targetPrice(lastCandle.getClose().subtract(priceRange));
-            builder.stopLoss(range[1].add(priceRange.multiply(BigDecimal.valueOf(0.5))));
+            builder.stopLoss(patternHigh.add(priceRange.multiply(BigDecimal.valueOf(0.5))));
         }
 
         // 設定成交量確認
@@ -0,0 +1,139 @@
+package com.chris.fin_shark.m10.engine.detector;
+
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
+import com.chris.fin_shark.m10.engine.model.PeakTrough;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 波峰波谷識別
+ * <p>
+ * 樞紐點判定：左右各 lookback 根 K 線的高點（低點）都嚴格低於（高於）該點，
+ * 且與前後 lookback 根內的反向極值相差達 swingThreshold 以上。
+ * 由 {@link com.chris.fin_shark.m10.engine.PatternContext} 依 (lookback, swingThreshold) 快取，
+ * 同一序列的所有圖表型態偵測器共用同一份結果。
+ * </p>
+ * <p>
+ * 實作為 O(N)，與 lookback 無關：
+ * 1. 樞紐判定取自 {@link CandleSeries#highReach}/{@link CandleSeries#lowReach}
+ *    （單調堆疊一次算出每根 K 線的樞紐範圍，同一序列的所有 lookback 共用）
+ * 2. 反向極值取自滑動視窗最高/最低價（單調佇列）
+ * 結果與逐窗掃描完全相同
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class PeakTroughFinder {
+
+    private PeakTroughFinder() {
+    }
+
+    /**
+     * 識別波峰和波谷
+     *
+     * @param bars           K 線序列
+     * @param lookback       左右比較的 K 線根數
+     * @param swingThreshold 最小波動幅度
+     * @return 波峰波谷列表（按時間排序）
+     */
+    public static List<PeakTrough> find(CandleSeries bars, int lookback, double swingThreshold) {
+        return find(bars, lookback, swingThreshold, 0);
+    }
+
+    /**
+     * 識別指定索引之後的波峰和波谷（增量模式只掃描新確認的樞紐點）
+     *
+     * @param bars           K 線序列
+     * @param lookback       左右比較的 K 線根數
+     * @param swingThreshold 最小波動幅度
+     * @param fromIndex      起始索引（含）
+     * @return 波峰波谷列表（按時間排序）
+     */
+    public static List<PeakTrough> find(CandleSeries bars, int lookback, double swingThreshold, int fromIndex) {
+        List<PeakTrough> result = new ArrayList<>();
+        int n = bars.size();
+        if (n < 2 * lookback + 1) {
+            return result;
+        }
+
+        // 以 i 為中心的 [i - lookback, i + lookback] 視窗極值，位於滑動結果的 i + lookback
+        int window = 2 * lookback + 1;
+        double[] windowLow = null;
+        double[] windowHigh = null;
+
+        // 依索引順序掃描，結果即為時間順序
+        for (int i = Math.max(lookback, fromIndex); i < n - lookback; i++) {
+            // 檢查是否為局部高點，並驗證波動幅度
+            if (bars.highReach(i) >= lookback) {
+                if (windowLow == null) {
+                    windowLow = bars.rollingLowestLow(window);
+                }
+                if (isSignificantSwing(bars.high(i), windowLow[i + lookback], swingThreshold)) {
+                    result.add(PeakTrough.builder()
+                            .type(PeakTrough.Type.PEAK)
+                            .date(bars.date(i))
+                            .price(bars.high(i))
+                            .index(i)
+                            .strength(calculatePivotStrength(bars, i, true))
+                            .build());
+                }
+            }
+
+            // 檢查是否為局部低點
+            if (bars.lowReach(i) >= lookback) {
+                if (windowHigh == null) {
+                    windowHigh = bars.rollingHighestHigh(window);
+                }
+                if (isSignificantSwing(bars.low(i), windowHigh[i + lookback], swingThreshold)) {
+                    result.add(PeakTrough.builder()
+                            .type(PeakTrough.Type.TROUGH)
+                            .date(bars.date(i))
+                            .price(bars.low(i))
+                            .index(i)
+                            .strength(calculatePivotStrength(bars, i, false))
+                            .build());
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 檢查波動是否顯著（與周圍反向極值的差距比例）
+     */
+    static boolean isSignificantSwing(double pivotPrice, double oppositeExtreme, double threshold) {
+        double swingPercent = CandleSeries.round(Math.abs(pivotPrice - oppositeExtreme) / pivotPrice, 4);
+        return swingPercent >= threshold;
+    }
+
+    /**
+     * 計算樞紐點強度
+     */
+    static int calculatePivotStrength(CandleSeries bars, int index, boolean isPeak) {
+        int strength = 50; // 基礎分數
+
+        // 因子 1: 突出程度
+        double pivotPrice = isPeak ? bars.high(index) : bars.low(index);
+        int count = 0;
+        for (int i = Math.max(0, index - 10); i < Math.min(bars.size(), index + 10); i++) {
+            if (i == index) continue;
+            double comparePrice = isPeak ? bars.high(i) : bars.low(i);
+            if ((isPeak && pivotPrice > comparePrice) ||
+                (!isPeak && pivotPrice < comparePrice)) {
+                count++;
+            }
+        }
+        strength += (count >= 15 ? 20 : count >= 10 ? 10 : 0);
+
+        // 因子 2: 成交量放大（與前 20 根平均比較）
+        long avgVol = bars.averageVolume(index - 20, index);
+        if (bars.volume(index) > avgVol * 1.5) {
+            strength += 15;
+        }
+
+        return Math.min(100, strength);
+    }
+}
@@ -1,17 +1,16 @@
 package com.chris.fin_shark.m10.engine.detector.chart.continuation;
 
 import com.chris.fin_shark.m10.engine.detector.AbstractChartPatternDetector;
-import com.chris.fin_shark.m10.engine.model.CandleStick;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.engine.model.PeakTrough;
+import com.chris.fin_shark.m10.engine.model.PivotIndex;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.SignalType;
 import com.chris.fin_shark.m10.enums.TrendDirection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
 
 /**
@@ -84,24 +83,19 @@ public class TriangleDetector extends AbstractChartPatternDetector {
     }
 
     @Override
-    protected List<DetectedPattern> doDetect(List<CandleStick> candles,
-                                             List<PeakTrough> peaksTroughs,
+    protected List<DetectedPattern> doDetect(CandleSeries bars,
+                                             PivotIndex pivots,
                                              Map<String, Object> params,
                                              TrendDirection trendContext) {
         List<DetectedPattern> patterns = new ArrayList<>();
 
-        if (peaksTroughs.size() < 4) {
+        if (pivots.size() < 4) {
             return patterns;
         }
 
-        // 分離波峰和波谷
-        List<PeakTrough> peaks = peaksTroughs.stream()
-                .filter(pt -> pt.getType() == PeakTrough.Type.PEAK)
-                .toList();
-
-        List<PeakTrough> troughs = peaksTroughs.stream()
-                .filter(pt -> pt.getType() == PeakTrough.Type.TROUGH)
-                .toList();
+        // 波峰和波谷（索引建立時已分離）
+        List<PeakTrough> peaks = pivots.peaks();
+        List<PeakTrough> troughs = pivots.troughs();
 
         if (peaks.size() < 2 || troughs.size() < 2) {
             return patterns;
@@ -126,33 +120,31 @@ public class TriangleDetector extends AbstractChartPatternDetector {
         int strength = calculateTriangleStrength(upperTrend, lowerTrend, peaks, troughs);
 
         // 計算頸線和目標價
-        BigDecimal apexPrice = calculateApexPrice(upperTrend, lowerTrend, peaks, troughs);
-        BigDecimal patternHeight = calculatePatternHeight(peaks, troughs);
-        BigDecimal targetPrice = calculateTargetPrice(patternId, apexPrice, patternHeight);
+        double apexPrice = calculateApexPrice(peaks, troughs);
+        double patternHeight = calculatePatternHeight(peaks, troughs);
+        double targetPrice = calculateTargetPrice(patternId, apexPrice, patternHeight);
 
         // 取得涉及的 K 線
-        int startIdx = Math.min(peaks.get(0).getIndex(), troughs.get(0).getIndex());
-        int endIdx = candles.size() - 1;
-        List<CandleStick> involvedCandles = candles.subList(
-                Math.max(0, startIdx),
-                Math.min(candles.size(), endIdx + 1)
-        );
+        int startIdx = Math.max(0, Math.min(peaks.get(0).getIndex(), troughs.get(0).getIndex()));
+        int endIdx = bars.last();
 
         Map<String, Object> keyLevels = new HashMap<>();
         keyLevels.put("upperTrendSlope", upperTrend.slope);
         keyLevels.put("lowerTrendSlope", lowerTrend.slope);
         keyLevels.put("isUpperFlat", upperTrend.isFlat);
         keyLevels.put("isLowerFlat", lowerTrend.isFlat);
-        keyLevels.put("apexPrice", apexPrice != null ? apexPrice.doubleValue() : null);
-        keyLevels.put("patternHeight", patternHeight.doubleValue());
+        keyLevels.put("apexPrice", apexPrice);
+        keyLevels.put("patternHeight", patternHeight);
 
         DetectedPattern pattern = buildChartPattern(
                 patternId,
-                involvedCandles,
+                bars,
+                startIdx,
+                endIdx,
                 strength,
                 trendContext,
-                apexPrice,
-                targetPrice,
+                toDecimal(apexPrice),
+                toDecimal(targetPrice),
                 keyLevels
         );
 
@@ -189,7 +181,7 @@ public class TriangleDetector extends AbstractChartPatternDetector {
         double sumX = 0, sumY = 0, sumXY = 0, sumX2 = 0, sumY2 = 0;
         for (int i = 0; i < recentPoints.size(); i++) {
             double x = recentPoints.get(i).getIndex();
-            double y = recentPoints.get(i).getPrice().doubleValue();
+            double y = recentPoints.get(i).getPrice();
             sumX += x;
             sumY += y;
             sumXY += x * y;
@@ -207,7 +199,7 @@ public class TriangleDetector extends AbstractChartPatternDetector {
 
         for (PeakTrough pt : recentPoints) {
             double x = pt.getIndex();
-            double y = pt.getPrice().doubleValue();
+            double y = pt.getPrice();
             double predicted = slope * x + intercept;
             ssTotal += Math.pow(y - meanY, 2);
             ssResidual += Math.pow(y - predicted, 2);
@@ -265,16 +257,15 @@ public class TriangleDetector extends AbstractChartPatternDetector {
 
         // 價格在收斂（最後的高低點接近）
         if (peaks.size() >= 2 && troughs.size() >= 2) {
-            BigDecimal lastPeak = peaks.get(peaks.size() - 1).getPrice();
-            BigDecimal lastTrough = troughs.get(troughs.size() - 1).getPrice();
-            BigDecimal firstPeak = peaks.get(0).getPrice();
-            BigDecimal firstTrough = troughs.get(0).getPrice();
+            double lastPeak = peaks.get(peaks.size() - 1).getPrice();
+            double lastTrough = troughs.get(troughs.size() - 1).getPrice();
+            double firstPeak = peaks.get(0).getPrice();
+            double firstTrough = troughs.get(0).getPrice();
 
-            BigDecimal initialRange = firstPeak.subtract(firstTrough);
-            BigDecimal currentRange = lastPeak.subtract(lastTrough);
+            double initialRange = firstPeak - firstTrough;
+            double currentRange = lastPeak - lastTrough;
 
-            if (initialRange.compareTo(BigDecimal.ZERO) > 0 &&
-                currentRange.compareTo(initialRange.multiply(BigDecimal.valueOf(0.5))) < 0) {
+            if (initialRange > 0 && currentRange < initialRange * 0.5) {
                 strength += 10; // 明顯收斂
             }
         }
@@ -283,51 +274,42 @@ public class TriangleDetector extends AbstractChartPatternDetector {
     }
 
     /**
-     * 計算頂點價位
+     * 計算頂點價位（呼叫端已確保波峰、波谷各至少兩個）
      */
-    private BigDecimal calculateApexPrice(TrendLineAnalysis upper, TrendLineAnalysis lower,
-                                          List<PeakTrough> peaks, List<PeakTrough> troughs) {
+    private double calculateApexPrice(List<PeakTrough> peaks, List<PeakTrough> troughs) {
         // 簡化計算：取最後波峰和波谷的中點
-        if (peaks.isEmpty() || troughs.isEmpty()) {
-            return null;
-        }
-
-        BigDecimal lastPeak = peaks.get(peaks.size() - 1).getPrice();
-        BigDecimal lastTrough = troughs.get(troughs.size() - 1).getPrice();
+        double lastPeak = peaks.get(peaks.size() - 1).getPrice();
+        double lastTrough = troughs.get(troughs.size() - 1).getPrice();
 
-        return lastPeak.add(lastTrough).divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP);
+        return round((lastPeak + lastTrough) / 2, 4);
     }
 
     /**
      * 計算型態高度
      */
-    private BigDecimal calculatePatternHeight(List<PeakTrough> peaks, List<PeakTrough> troughs) {
+    private double calculatePatternHeight(List<PeakTrough> peaks, List<PeakTrough> troughs) {
         if (peaks.isEmpty() || troughs.isEmpty()) {
-            return BigDecimal.ZERO;
+            return 0;
         }
 
         // 取型態開始時的高度
-        BigDecimal firstPeak = peaks.get(0).getPrice();
-        BigDecimal firstTrough = troughs.get(0).getPrice();
+        double firstPeak = peaks.get(0).getPrice();
+        double firstTrough = troughs.get(0).getPrice();
 
-        return firstPeak.subtract(firstTrough).abs();
+        return round(Math.abs(firstPeak - firstTrough), 4);
     }
 
     /**
      * 計算目標價
      */
-    private BigDecimal calculateTargetPrice(String patternId, BigDecimal apexPrice, BigDecimal patternHeight) {
-        if (apexPrice == null) {
-            return null;
-        }
-
+    private double calculateTargetPrice(String patternId, double apexPrice, double patternHeight) {
         switch (patternId) {
             case "CHART021": // 上升三角形 - 向上突破
-                return apexPrice.add(patternHeight);
+                return round(apexPrice + patternHeight, 4);
             case "CHART022": // 下降三角形 - 向下突破
-                return apexPrice.subtract(patternHeight);
+                return round(apexPrice - patternHeight, 4);
             default: // 對稱三角形 - 兩個方向都可能
-                return apexPrice.add(patternHeight); // 預設向上
+                return round(apexPrice + patternHeight, 4); // 預設向上
         }
     }
 }
@@ -1,17 +1,16 @@
 package com.chris.fin_shark.m10.engine.detector.chart.reversal;
 
 import com.chris.fin_shark.m10.engine.detector.AbstractChartPatternDetector;
-import com.chris.fin_shark.m10.engine.model.CandleStick;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.engine.model.PeakTrough;
+import com.chris.fin_shark.m10.engine.model.PivotIndex;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.SignalType;
 import com.chris.fin_shark.m10.enums.TrendDirection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
 
 /**
@@ -73,24 +72,24 @@ public class DoubleTopBottomDetector extends AbstractChartPatternDetector {
     }
 
     @Override
-    protected List<DetectedPattern> doDetect(List<CandleStick> candles,
-                                             List<PeakTrough> peaksTroughs,
+    protected List<DetectedPattern> doDetect(CandleSeries bars,
+                                             PivotIndex pivots,
                                              Map<String, Object> params,
                                              TrendDirection trendContext) {
         List<DetectedPattern> patterns = new ArrayList<>();
 
-        if (peaksTroughs.size() < 3) {
+        if (pivots.size() < 3) {
             return patterns;
         }
 
         // 檢查雙重頂
-        DetectedPattern doubleTop = detectDoubleTop(candles, peaksTroughs, trendContext);
+        DetectedPattern doubleTop = detectDoubleTop(bars, pivots, trendContext);
         if (doubleTop != null) {
             patterns.add(doubleTop);
         }
 
         // 檢查雙重底
-        DetectedPattern doubleBottom = detectDoubleBottom(candles, peaksTroughs, trendContext);
+        DetectedPattern doubleBottom = detectDoubleBottom(bars, pivots, trendContext);
         if (doubleBottom != null) {
             patterns.add(doubleBottom);
         }
@@ -101,13 +100,11 @@ public class DoubleTopBottomDetector extends AbstractChartPatternDetector {
     /**
      * 偵測雙重頂
      */
-    private DetectedPattern detectDoubleTop(List<CandleStick> candles,
-                                            List<PeakTrough> peaksTroughs,
+    private DetectedPattern detectDoubleTop(CandleSeries bars,
+                                            PivotIndex pivots,
                                             TrendDirection trendContext) {
         // 找出最近的波峰
-        List<PeakTrough> peaks = peaksTroughs.stream()
-                .filter(pt -> pt.getType() == PeakTrough.Type.PEAK)
-                .toList();
+        List<PeakTrough> peaks = pivots.peaks();
 
         if (peaks.size() < 2) {
             return null;
@@ -123,57 +120,53 @@ public class DoubleTopBottomDetector extends AbstractChartPatternDetector {
         }
 
         // 找出兩個高點之間的低點（頸線）
-        Optional<PeakTrough> necklinePoint = peaksTroughs.stream()
-                .filter(pt -> pt.getType() == PeakTrough.Type.TROUGH)
-                .filter(pt -> pt.getIndex() > peak1.getIndex() && pt.getIndex() < peak2.getIndex())
-                .min(Comparator.comparing(PeakTrough::getPrice));
+        Optional<PeakTrough> necklinePoint = Optional.ofNullable(
+                pivots.lowestTroughBetween(peak1.getIndex(), peak2.getIndex()));
 
         if (necklinePoint.isEmpty()) {
             return null;
         }
 
-        BigDecimal neckline = necklinePoint.get().getPrice();
+        double neckline = round(necklinePoint.get().getPrice(), 4);
 
         // 計算型態高度
-        BigDecimal patternHeight = peak1.getPrice().add(peak2.getPrice())
-                .divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP)
-                .subtract(neckline);
+        double patternHeight = round(round((peak1.getPrice() + peak2.getPrice()) / 2, 4) - neckline, 4);
 
         // 型態高度要有意義（至少 3%）
-        if (patternHeight.divide(neckline, 4, RoundingMode.HALF_UP).doubleValue() < 0.03) {
+        if (round(patternHeight / neckline, 4) < 0.03) {
             return null;
         }
 
         // 檢查是否突破頸線
-        CandleStick lastCandle = candles.get(candles.size() - 1);
-        boolean isBreaking = lastCandle.getClose().compareTo(neckline) < 0;
+        boolean isBreaking = bars.close(bars.last()) < neckline;
 
         // 計算強度
         int baseStrength = trendContext == TrendDirection.UPTREND ? 75 : 60;
         int strength = calculateStrength(baseStrength, peak1, peak2, necklinePoint.get(), isBreaking);
 
         // 計算目標價（頸線 - 型態高度）
-        BigDecimal targetPrice = neckline.subtract(patternHeight);
+        double targetPrice = round(neckline - patternHeight, 4);
 
         // 取得涉及的 K 線
         int startIdx = peak1.getIndex();
-        int endIdx = Math.min(candles.size() - 1, peak2.getIndex() + 5);
-        List<CandleStick> involvedCandles = candles.subList(startIdx, endIdx + 1);
+        int endIdx = Math.min(bars.last(), peak2.getIndex() + 5);
 
         Map<String, Object> keyLevels = new HashMap<>();
-        keyLevels.put("peak1", peak1.getPrice().doubleValue());
-        keyLevels.put("peak2", peak2.getPrice().doubleValue());
-        keyLevels.put("neckline", neckline.doubleValue());
-        keyLevels.put("patternHeight", patternHeight.doubleValue());
+        keyLevels.put("peak1", peak1.getPrice());
+        keyLevels.put("peak2", peak2.getPrice());
+        keyLevels.put("neckline", neckline);
+        keyLevels.put("patternHeight", patternHeight);
         keyLevels.put("isBreaking", isBreaking);
 
         return buildChartPattern(
                 "CHART003",
-                involvedCandles,
+                bars,
+                startIdx,
+                endIdx,
                 strength,
                 trendContext,
-                neckline,
-                targetPrice,
+                toDecimal(neckline),
+                toDecimal(targetPrice),
                 keyLevels
         );
     }
@@ -181,13 +174,11 @@ public class DoubleTopBottomDetector extends AbstractChartPatternDetector {
     /**
      * 偵測雙重底
      */
-    private DetectedPattern detectDoubleBottom(List<CandleStick> candles,
-                                               List<PeakTrough> peaksTroughs,
+    private DetectedPattern detectDoubleBottom(CandleSeries bars,
+                                               PivotIndex pivots,
                                                TrendDirection trendContext) {
         // 找出最近的波谷
-        List<PeakTrough> troughs = peaksTroughs.stream()
-                .filter(pt -> pt.getType() == PeakTrough.Type.TROUGH)
-                .toList();
+        List<PeakTrough> troughs = pivots.troughs();
 
         if (troughs.size() < 2) {
             return null;
@@ -203,58 +194,53 @@ public class DoubleTopBottomDetector extends AbstractChartPatternDetector {
         }
 
         // 找出兩個低點之間的高點（頸線）
-        Optional<PeakTrough> necklinePoint = peaksTroughs.stream()
-                .filter(pt -> pt.getType() == PeakTrough.Type.PEAK)
-                .filter(pt -> pt.getIndex() > trough1.getIndex() && pt.getIndex() < trough2.getIndex())
-                .max(Comparator.comparing(PeakTrough::getPrice));
+        Optional<PeakTrough> necklinePoint = Optional.ofNullable(
+                pivots.highestPeakBetween(trough1.getIndex(), trough2.getIndex()));
 
         if (necklinePoint.isEmpty()) {
             return null;
         }
 
-        BigDecimal neckline = necklinePoint.get().getPrice();
+        double neckline = round(necklinePoint.get().getPrice(), 4);
 
         // 計算型態高度
-        BigDecimal patternHeight = neckline.subtract(
-                trough1.getPrice().add(trough2.getPrice())
-                        .divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP)
-        );
+        double patternHeight = round(neckline - round((trough1.getPrice() + trough2.getPrice()) / 2, 4), 4);
 
         // 型態高度要有意義
-        if (patternHeight.divide(neckline, 4, RoundingMode.HALF_UP).doubleValue() < 0.03) {
+        if (round(patternHeight / neckline, 4) < 0.03) {
             return null;
         }
 
         // 檢查是否突破頸線
-        CandleStick lastCandle = candles.get(candles.size() - 1);
-        boolean isBreaking = lastCandle.getClose().compareTo(neckline) > 0;
+        boolean isBreaking = bars.close(bars.last()) > neckline;
 
         // 計算強度
         int baseStrength = trendContext == TrendDirection.DOWNTREND ? 75 : 60;
         int strength = calculateStrength(baseStrength, trough1, trough2, necklinePoint.get(), isBreaking);
 
         // 計算目標價（頸線 + 型態高度）
-        BigDecimal targetPrice = neckline.add(patternHeight);
+        double targetPrice = round(neckline + patternHeight, 4);
 
         // 取得涉及的 K 線
         int startIdx = trough1.getIndex();
-        int endIdx = Math.min(candles.size() - 1, trough2.getIndex() + 5);
-        List<CandleStick> involvedCandles = candles.subList(startIdx, endIdx + 1);
+        int endIdx = Math.min(bars.last(), trough2.getIndex() + 5);
 
         Map<String, Object> keyLevels = new HashMap<>();
-        keyLevels.put("trough1", trough1.getPrice().doubleValue());
-        keyLevels.put("trough2", trough2.getPrice().doubleValue());
-        keyLevels.put("neckline", neckline.doubleValue());
-        keyLevels.put("patternHeight", patternHeight.doubleValue());
+        keyLevels.put("trough1", trough1.getPrice());
+        keyLevels.put("trough2", trough2.getPrice());
+        keyLevels.put("neckline", neckline);
+        keyLevels.put("patternHeight", patternHeight);
         keyLevels.put("isBreaking", isBreaking);
 
         return buildChartPattern(
                 "CHART004",
-                involvedCandles,
+                bars,
+                startIdx,
+                endIdx,
                 strength,
                 trendContext,
-                neckline,
-                targetPrice,
+                toDecimal(neckline),
+                toDecimal(targetPrice),
                 keyLevels
         );
     }
@@ -267,10 +253,9 @@ public class DoubleTopBottomDetector extends AbstractChartPatternDetector {
         int strength = baseStrength;
 
         // 兩個頂/底的高度越接近越強
-        BigDecimal priceDiff = pt1.getPrice().subtract(pt2.getPrice()).abs();
-        BigDecimal avgPrice = pt1.getPrice().add(pt2.getPrice()).divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP);
-        double diffRatio = avgPrice.compareTo(BigDecimal.ZERO) > 0 ?
-                priceDiff.divide(avgPrice, 4, RoundingMode.HALF_UP).doubleValue() : 0;
+        double priceDiff = Math.abs(pt1.getPrice() - pt2.getPrice());
+        double avgPrice = round((pt1.getPrice() + pt2.getPrice()) / 2, 4);
+        double diffRatio = avgPrice > 0 ? round(priceDiff / avgPrice, 4) : 0;
         if (diffRatio < 0.01) {
             strength += 10;
         }
@@ -1,17 +1,16 @@
 package com.chris.fin_shark.m10.engine.detector.chart.reversal;
 
 import com.chris.fin_shark.m10.engine.detector.AbstractChartPatternDetector;
-import com.chris.fin_shark.m10.engine.model.CandleStick;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.engine.model.PeakTrough;
+import com.chris.fin_shark.m10.engine.model.PivotIndex;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.SignalType;
 import com.chris.fin_shark.m10.enums.TrendDirection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
 
 /**
@@ -73,24 +72,24 @@ public class HeadAndShouldersDetector extends AbstractChartPatternDetector {
     }
 
     @Override
-    protected List<DetectedPattern> doDetect(List<CandleStick> candles,
-                                             List<PeakTrough> peaksTroughs,
+    protected List<DetectedPattern> doDetect(CandleSeries bars,
+                                             PivotIndex pivots,
                                              Map<String, Object> params,
                                              TrendDirection trendContext) {
         List<DetectedPattern> patterns = new ArrayList<>();
 
-        if (peaksTroughs.size() < 5) {
+        if (pivots.size() < 5) {
             return patterns;
         }
 
         // 檢查頭肩頂
-        DetectedPattern headAndShoulders = detectHeadAndShoulders(candles, peaksTroughs, trendContext);
+        DetectedPattern headAndShoulders = detectHeadAndShoulders(bars, pivots, trendContext);
         if (headAndShoulders != null) {
             patterns.add(headAndShoulders);
         }
 
         // 檢查頭肩底
-        DetectedPattern inverseHS = detectInverseHeadAndShoulders(candles, peaksTroughs, trendContext);
+        DetectedPattern inverseHS = detectInverseHeadAndShoulders(bars, pivots, trendContext);
         if (inverseHS != null) {
             patterns.add(inverseHS);
         }
@@ -101,13 +100,11 @@ public class HeadAndShouldersDetector extends AbstractChartPatternDetector {
     /**
      * 偵測頭肩頂
      */
-    private DetectedPattern detectHeadAndShoulders(List<CandleStick> candles,
-                                                   List<PeakTrough> peaksTroughs,
+    private DetectedPattern detectHeadAndShoulders(CandleSeries bars,
+                                                   PivotIndex pivots,
                                                    TrendDirection trendContext) {
         // 找出波峰
-        List<PeakTrough> peaks = peaksTroughs.stream()
-                .filter(pt -> pt.getType() == PeakTrough.Type.PEAK)
-                .toList();
+        List<PeakTrough> peaks = pivots.peaks();
 
         if (peaks.size() < 3) {
             return null;
@@ -120,8 +117,8 @@ public class HeadAndShouldersDetector extends AbstractChartPatternDetector {
 
         // 驗證頭肩頂結構
         // 1. 頭部要高於兩肩
-        if (head.getPrice().compareTo(leftShoulder.getPrice()) <= 0 ||
-            head.getPrice().compareTo(rightShoulder.getPrice()) <= 0) {
+        if (head.getPrice() <= leftShoulder.getPrice() ||
+            head.getPrice() <= rightShoulder.getPrice()) {
             return null;
         }
 
@@ -131,77 +128,60 @@ public class HeadAndShouldersDetector extends AbstractChartPatternDetector {
         }
 
         // 3. 頭部要明顯高於兩肩（至少高 2%）
-        BigDecimal shoulderAvg = leftShoulder.getPrice().add(rightShoulder.getPrice())
-                .divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP);
-        BigDecimal headExcess = head.getPrice().subtract(shoulderAvg);
-        if (headExcess.divide(shoulderAvg, 4, RoundingMode.HALF_UP).doubleValue() < 0.02) {
+        double shoulderAvg = round((leftShoulder.getPrice() + rightShoulder.getPrice()) / 2, 4);
+        double headExcess = head.getPrice() - shoulderAvg;
+        if (round(headExcess / shoulderAvg, 4) < 0.02) {
             return null;
         }
 
-        // 找出頸線（兩肩之間的低點）
-        List<PeakTrough> troughs = peaksTroughs.stream()
-                .filter(pt -> pt.getType() == PeakTrough.Type.TROUGH)
-                .filter(pt -> pt.getIndex() > leftShoulder.getIndex() && pt.getIndex() < rightShoulder.getIndex())
-                .toList();
-
-        if (troughs.size() < 2) {
-            return null;
-        }
-
-        // 頸線由左肩後的低點和頭部後的低點連接
-        PeakTrough neckLeft = troughs.stream()
-                .filter(pt -> pt.getIndex() < head.getIndex())
-                .min(Comparator.comparing(PeakTrough::getPrice))
-                .orElse(null);
-
-        PeakTrough neckRight = troughs.stream()
-                .filter(pt -> pt.getIndex() > head.getIndex())
-                .min(Comparator.comparing(PeakTrough::getPrice))
-                .orElse(null);
+        // 找出頸線（兩肩之間的低點）：由左肩後的低點和頭部後的低點連接
+        // 兩側各需至少一個低點，已涵蓋「兩肩之間至少兩個低點」的條件
+        PeakTrough neckLeft = pivots.lowestTroughBetween(leftShoulder.getIndex(), head.getIndex());
+        PeakTrough neckRight = pivots.lowestTroughBetween(head.getIndex(), rightShoulder.getIndex());
 
         if (neckLeft == null || neckRight == null) {
             return null;
         }
 
         // 計算頸線價位（取平均或較高者）
-        BigDecimal neckline = neckLeft.getPrice().max(neckRight.getPrice());
+        double neckline = round(Math.max(neckLeft.getPrice(), neckRight.getPrice()), 4);
 
         // 計算型態高度
-        BigDecimal patternHeight = head.getPrice().subtract(neckline);
+        double patternHeight = round(head.getPrice() - neckline, 4);
 
         // 檢查是否突破頸線
-        CandleStick lastCandle = candles.get(candles.size() - 1);
-        boolean isBreaking = lastCandle.getClose().compareTo(neckline) < 0;
+        boolean isBreaking = bars.close(bars.last()) < neckline;
 
         // 計算強度
         int baseStrength = trendContext == TrendDirection.UPTREND ? 80 : 65;
         int strength = calculateHSStrength(baseStrength, leftShoulder, head, rightShoulder, isBreaking);
 
         // 計算目標價
-        BigDecimal targetPrice = neckline.subtract(patternHeight);
+        double targetPrice = round(neckline - patternHeight, 4);
 
         // 取得涉及的 K 線
         int startIdx = leftShoulder.getIndex();
-        int endIdx = Math.min(candles.size() - 1, rightShoulder.getIndex() + 5);
-        List<CandleStick> involvedCandles = candles.subList(startIdx, endIdx + 1);
+        int endIdx = Math.min(bars.last(), rightShoulder.getIndex() + 5);
 
         Map<String, Object> keyLevels = new HashMap<>();
-        keyLevels.put("leftShoulder", leftShoulder.getPrice().doubleValue());
-        keyLevels.put("head", head.getPrice().doubleValue());
-        keyLevels.put("rightShoulder", rightShoulder.getPrice().doubleValue());
-        keyLevels.put("necklineLeft", neckLeft.getPrice().doubleValue());
-        keyLevels.put("necklineRight", neckRight.getPrice().doubleValue());
-        keyLevels.put("neckline", neckline.doubleValue());
-        keyLevels.put("patternHeight", patternHeight.doubleValue());
+        keyLevels.put("leftShoulder", leftShoulder.getPrice());
+        keyLevels.put("head", head.getPrice());
+        keyLevels.put("rightShoulder", rightShoulder.getPrice());
+        keyLevels.put("necklineLeft", neckLeft.getPrice());
+        keyLevels.put("necklineRight", neckRight.getPrice());
+        keyLevels.put("neckline", neckline);
+        keyLevels.put("patternHeight", patternHeight);
         keyLevels.put("isBreaking", isBreaking);
 
         return buildChartPattern(
                 "CHART001",
-                involvedCandles,
+                bars,
+                startIdx,
+                endIdx,
                 strength,
                 trendContext,
-                neckline,
-                targetPrice,
+                toDecimal(neckline),
+                toDecimal(targetPrice),
                 keyLevels
         );
     }
@@ -209,13 +189,11 @@ public class HeadAndShouldersDetector extends AbstractChartPatternDetector {
     /**
      * 偵測頭肩底
      */
-    private DetectedPattern detectInverseHeadAndShoulders(List<CandleStick> candles,
-                                                          List<PeakTrough> peaksTroughs,
+    private DetectedPattern detectInverseHeadAndShoulders(CandleSeries bars,
+                                                          PivotIndex pivots,
                                                           TrendDirection trendContext) {
         // 找出波谷
-        List<PeakTrough> troughs = peaksTroughs.stream()
-                .filter(pt -> pt.getType() == PeakTrough.Type.TROUGH)
-                .toList();
+        List<PeakTrough> troughs = pivots.troughs();
 
         if (troughs.size() < 3) {
             return null;
@@ -228,8 +206,8 @@ public class HeadAndShouldersDetector extends AbstractChartPatternDetector {
 
         // 驗證頭肩底結構
         // 1. 頭部要低於兩肩
-        if (head.getPrice().compareTo(leftShoulder.getPrice()) >= 0 ||
-            head.getPrice().compareTo(rightShoulder.getPrice()) >= 0) {
+        if (head.getPrice() >= leftShoulder.getPrice() ||
+            head.getPrice() >= rightShoulder.getPrice()) {
             return null;
         }
 
@@ -239,76 +217,59 @@ public class HeadAndShouldersDetector extends AbstractChartPatternDetector {
         }
 
         // 3. 頭部要明顯低於兩肩
-        BigDecimal shoulderAvg = leftShoulder.getPrice().add(rightShoulder.getPrice())
-                .divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP);
-        BigDecimal headExcess = shoulderAvg.subtract(head.getPrice());
-        if (headExcess.divide(shoulderAvg, 4, RoundingMode.HALF_UP).doubleValue() < 0.02) {
+        double shoulderAvg = round((leftShoulder.getPrice() + rightShoulder.getPrice()) / 2, 4);
+        double headExcess = shoulderAvg - head.getPrice();
+        if (round(headExcess / shoulderAvg, 4) < 0.02) {
             return null;
         }
 
-        // 找出頸線
-        List<PeakTrough> peaks = peaksTroughs.stream()
-                .filter(pt -> pt.getType() == PeakTrough.Type.PEAK)
-                .filter(pt -> pt.getIndex() > leftShoulder.getIndex() && pt.getIndex() < rightShoulder.getIndex())
-                .toList();
-
-        if (peaks.size() < 2) {
-            return null;
-        }
-
-        PeakTrough neckLeft = peaks.stream()
-                .filter(pt -> pt.getIndex() < head.getIndex())
-                .max(Comparator.comparing(PeakTrough::getPrice))
-                .orElse(null);
-
-        PeakTrough neckRight = peaks.stream()
-                .filter(pt -> pt.getIndex() > head.getIndex())
-                .max(Comparator.comparing(PeakTrough::getPrice))
-                .orElse(null);
+        // 找出頸線（兩肩之間、頭部兩側的高點）
+        PeakTrough neckLeft = pivots.highestPeakBetween(leftShoulder.getIndex(), head.getIndex());
+        PeakTrough neckRight = pivots.highestPeakBetween(head.getIndex(), rightShoulder.getIndex());
 
         if (neckLeft == null || neckRight == null) {
             return null;
         }
 
         // 計算頸線價位
-        BigDecimal neckline = neckLeft.getPrice().min(neckRight.getPrice());
+        double neckline = round(Math.min(neckLeft.getPrice(), neckRight.getPrice()), 4);
 
         // 計算型態高度
-        BigDecimal patternHeight = neckline.subtract(head.getPrice());
+        double patternHeight = round(neckline - head.getPrice(), 4);
 
         // 檢查是否突破頸線
-        CandleStick lastCandle = candles.get(candles.size() - 1);
-        boolean isBreaking = lastCandle.getClose().compareTo(neckline) > 0;
+        boolean isBreaking = bars.close(bars.last()) > neckline;
 
         // 計算強度
         int baseStrength = trendContext == TrendDirection.DOWNTREND ? 80 : 65;
         int strength = calculateHSStrength(baseStrength, leftShoulder, head, rightShoulder, isBreaking);
 
         // 計算目標價
-        BigDecimal targetPrice = neckline.add(patternHeight);
+        double targetPrice = round(neckline + patternHeight, 4);
 
         // 取得涉及的 K 線
         int startIdx = leftShoulder.getIndex();
-        int endIdx = Math.min(candles.size() - 1, rightShoulder.getIndex() + 5);
-        List<CandleStick> involvedCandles = candles.subList(startIdx, endIdx + 1);
+        int endIdx = Math.min(bars.last(), rightShoulder.getIndex() + 5);
 
         Map<String, Object> keyLevels = new HashMap<>();
-        keyLevels.put("leftShoulder", leftShoulder.getPrice().doubleValue());
-        keyLevels.put("head", head.getPrice().doubleValue());
-        keyLevels.put("rightShoulder", rightShoulder.getPrice().doubleValue());
-        keyLevels.put("necklineLeft", neckLeft.getPrice().doubleValue());
-        keyLevels.put("necklineRight", neckRight.getPrice().doubleValue());
-        keyLevels.put("neckline", neckline.doubleValue());
-        keyLevels.put("patternHeight", patternHeight.doubleValue());
+        keyLevels.put("leftShoulder", leftShoulder.getPrice());
+        keyLevels.put("head", head.getPrice());
+        keyLevels.put("rightShoulder", rightShoulder.getPrice());
+        keyLevels.put("necklineLeft", neckLeft.getPrice());
+        keyLevels.put("necklineRight", neckRight.getPrice());
+        keyLevels.put("neckline", neckline);
+        keyLevels.put("patternHeight", patternHeight);
         keyLevels.put("isBreaking", isBreaking);
 
         return buildChartPattern(
                 "CHART002",
-                involvedCandles,
+                bars,
+                startIdx,
+                endIdx,
                 strength,
                 trendContext,
-                neckline,
-                targetPrice,
+                toDecimal(neckline),
+                toDecimal(targetPrice),
                 keyLevels
         );
     }
@@ -321,11 +282,9 @@ public class HeadAndShouldersDetector extends AbstractChartPatternDetector {
         int strength = baseStrength;
 
         // 兩肩對稱性
-        BigDecimal shoulderDiff = leftShoulder.getPrice().subtract(rightShoulder.getPrice()).abs();
-        BigDecimal shoulderAvg = leftShoulder.getPrice().add(rightShoulder.getPrice())
-                .divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP);
-        double diffRatio = shoulderAvg.compareTo(BigDecimal.ZERO) > 0 ?
-                shoulderDiff.divide(shoulderAvg, 4, RoundingMode.HALF_UP).doubleValue() : 0;
+        double shoulderDiff = Math.abs(leftShoulder.getPrice() - rightShoulder.getPrice());
+        double shoulderAvg = round((leftShoulder.getPrice() + rightShoulder.getPrice()) / 2, 4);
+        double diffRatio = shoulderAvg > 0 ? round(shoulderDiff / shoulderAvg, 4) : 0;
         if (diffRatio < 0.02) {
             strength += 10;
         }
@@ -1,7 +1,7 @@
 package com.chris.fin_shark.m10.engine.detector.kline.double_;
 
 import com.chris.fin_shark.m10.engine.detector.AbstractKLineDetector;
-import com.chris.fin_shark.m10.engine.model.CandleStick;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.SignalType;
@@ -9,8 +9,6 @@ import com.chris.fin_shark.m10.enums.TrendDirection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -79,39 +77,39 @@ public class DarkCloudPiercingDetector extends AbstractKLineDetector {
     }
 
     @Override
-    protected List<DetectedPattern> doDetect(List<CandleStick> candles,
+    protected List<DetectedPattern> doDetect(CandleSeries bars,
                                              Map<String, Object> params,
                                              TrendDirection trendContext) {
         List<DetectedPattern> patterns = new ArrayList<>();
 
-        if (candles.size() < 2) {
+        if (bars.size() < 2) {
             return patterns;
         }
 
-        CandleStick prev = candles.get(candles.size() - 2);
-        CandleStick current = candles.get(candles.size() - 1);
+        int prev = bars.last() - 1;
+        int current = bars.last();
 
         // 判斷趨勢背景
         TrendDirection trend = trendContext;
         if (trend == null || trend == TrendDirection.UNKNOWN) {
-            if (isInDowntrend(candles, 5)) {
+            if (isInDowntrend(bars, 5)) {
                 trend = TrendDirection.DOWNTREND;
-            } else if (isInUptrend(candles, 5)) {
+            } else if (isInUptrend(bars, 5)) {
                 trend = TrendDirection.UPTREND;
             }
         }
 
         // 檢查烏雲蓋頂
-        if (isDarkCloudCover(prev, current, trend)) {
-            DetectedPattern pattern = createDarkCloudPattern(prev, current, candles, trend);
+        if (isDarkCloudCover(bars, prev, current)) {
+            DetectedPattern pattern = createDarkCloudPattern(bars, prev, current, trend);
             if (pattern != null) {
                 patterns.add(pattern);
             }
         }
 
         // 檢查曙光初現
-        if (isPiercingLine(prev, current, trend)) {
-            DetectedPattern pattern = createPiercingPattern(prev, current, candles, trend);
+        if (isPiercingLine(bars, prev, current)) {
+            DetectedPattern pattern = createPiercingPattern(bars, prev, current, trend);
             if (pattern != null) {
                 patterns.add(pattern);
             }
@@ -123,70 +121,65 @@ public class DarkCloudPiercingDetector extends AbstractKLineDetector {
     /**
      * 檢查是否為烏雲蓋頂
      */
-    private boolean isDarkCloudCover(CandleStick prev, CandleStick current, TrendDirection trend) {
+    private boolean isDarkCloudCover(CandleSeries bars, int prev, int current) {
         // 1. 前一根是陽線
-        if (!prev.isBullish()) return false;
+        if (!bars.isBullish(prev)) return false;
 
         // 2. 當前是陰線
-        if (!current.isBearish()) return false;
+        if (!bars.isBearish(current)) return false;
 
         // 3. 當前開盤高於前日高點（向上跳空開）
-        if (current.getOpen().compareTo(prev.getHigh()) <= 0) return false;
+        if (bars.open(current) <= bars.high(prev)) return false;
 
         // 4. 當前收盤穿入前日實體 50% 以上
-        BigDecimal prevMid = prev.getOpen().add(prev.getClose())
-                .divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP);
-        if (current.getClose().compareTo(prevMid) >= 0) return false;
+        if (bars.close(current) >= bars.bodyMidpoint(prev)) return false;
 
         // 5. 當前收盤不能低於前日開盤（否則是看跌吞噬）
-        if (current.getClose().compareTo(prev.getOpen()) < 0) return false;
+        if (bars.close(current) < bars.open(prev)) return false;
 
         // 6. 兩根 K 線都要有一定的實體
-        return prev.isLargeBody(0.40) && current.isLargeBody(0.40);
+        return bars.isLargeBody(prev, 0.40) && bars.isLargeBody(current, 0.40);
     }
 
     /**
      * 檢查是否為曙光初現
      */
-    private boolean isPiercingLine(CandleStick prev, CandleStick current, TrendDirection trend) {
+    private boolean isPiercingLine(CandleSeries bars, int prev, int current) {
         // 1. 前一根是陰線
-        if (!prev.isBearish()) return false;
+        if (!bars.isBearish(prev)) return false;
 
         // 2. 當前是陽線
-        if (!current.isBullish()) return false;
+        if (!bars.isBullish(current)) return false;
 
         // 3. 當前開盤低於前日低點（向下跳空開）
-        if (current.getOpen().compareTo(prev.getLow()) >= 0) return false;
+        if (bars.open(current) >= bars.low(prev)) return false;
 
         // 4. 當前收盤穿入前日實體 50% 以上
-        BigDecimal prevMid = prev.getOpen().add(prev.getClose())
-                .divide(BigDecimal.valueOf(2), 4, RoundingMode.HALF_UP);
-        if (current.getClose().compareTo(prevMid) <= 0) return false;
+        if (bars.close(current) <= bars.bodyMidpoint(prev)) return false;
 
         // 5. 當前收盤不能高於前日開盤（否則是看漲吞噬）
-        if (current.getClose().compareTo(prev.getOpen()) > 0) return false;
+        if (bars.close(current) > bars.open(prev)) return false;
 
         // 6. 兩根 K 線都要有一定的實體
-        return prev.isLargeBody(0.40) && current.isLargeBody(0.40);
+        return bars.isLargeBody(prev, 0.40) && bars.isLargeBody(current, 0.40);
     }
 
     /**
      * 建立烏雲蓋頂型態
      */
-    private DetectedPattern createDarkCloudPattern(CandleStick prev, CandleStick current,
-                                                   List<CandleStick> candles, TrendDirection trend) {
+    private DetectedPattern createDarkCloudPattern(CandleSeries bars, int prev, int current,
+                                                   TrendDirection trend) {
         // 基礎強度：在上漲趨勢中更強
         int baseStrength = trend == TrendDirection.UPTREND ? 75 : 55;
 
         // 計算穿入深度
-        BigDecimal prevBody = prev.getBody();
-        BigDecimal penetration = prev.getClose().subtract(current.getClose());
-        double penetrationRatio = prevBody.compareTo(BigDecimal.ZERO) > 0 ?
-                penetration.divide(prevBody, 4, RoundingMode.HALF_UP).doubleValue() : 0;
+        double prevBody = bars.body(prev);
+        double penetration = bars.close(prev) - bars.close(current);
+        double penetrationRatio = prevBody > 0 ? round(penetration / prevBody, 4) : 0;
 
         // 額外強度因子
-        long avgVolume = calculateAverageVolume(candles, 20);
-        boolean volumeConfirm = isVolumeIncreased(current, avgVolume, 1.3);
+        long avgVolume = calculateAverageVolume(bars, 20);
+        boolean volumeConfirm = isVolumeIncreased(bars, current, avgVolume, 1.3);
         boolean deepPenetration = penetrationRatio >= 0.65;
 
         int strength = calculateStrength(baseStrength, volumeConfirm, deepPenetration);
@@ -195,13 +188,15 @@ public class DarkCloudPiercingDetector extends AbstractKLineDetector {
                 "volumeConfirmation", volumeConfirm,
                 "keyLevels", Map.of(
                         "penetrationRatio", penetrationRatio,
-                        "gapUp", current.getOpen().subtract(prev.getHigh()).doubleValue()
+                        "gapUp", round(bars.open(current) - bars.high(prev), 4)
                 )
         );
 
         DetectedPattern pattern = buildPattern(
                 "KLINE022",
-                List.of(prev, current),
+                bars,
+                prev,
+                current,
                 strength,
                 trend,
                 additionalData
@@ -217,20 +212,19 @@ public class DarkCloudPiercingDetector extends AbstractKLineDetector {
     /**
      * 建立曙光初現型態
      */
-    private DetectedPattern createPiercingPattern(CandleStick prev, CandleStick current,
-                                                  List<CandleStick> candles, TrendDirection trend) {
+    private DetectedPattern createPiercingPattern(CandleSeries bars, int prev, int current,
+                                                  TrendDirection trend) {
         // 基礎強度：在下跌趨勢中更強
         int baseStrength = trend == TrendDirection.DOWNTREND ? 75 : 55;
 
         // 計算穿入深度
-        BigDecimal prevBody = prev.getBody();
-        BigDecimal penetration = current.getClose().subtract(prev.getClose());
-        double penetrationRatio = prevBody.compareTo(BigDecimal.ZERO) > 0 ?
-                penetration.divide(prevBody, 4, RoundingMode.HALF_UP).doubleValue() : 0;
+        double prevBody = bars.body(prev);
+        double penetration = bars.close(current) - bars.close(prev);
+        double penetrationRatio = prevBody > 0 ? round(penetration / prevBody, 4) : 0;
 
         // 額外強度因子
-        long avgVolume = calculateAverageVolume(candles, 20);
-        boolean volumeConfirm = isVolumeIncreased(current, avgVolume, 1.3);
+        long avgVolume = calculateAverageVolume(bars, 20);
+        boolean volumeConfirm = isVolumeIncreased(bars, current, avgVolume, 1.3);
         boolean deepPenetration = penetrationRatio >= 0.65;
 
         int strength = calculateStrength(baseStrength, volumeConfirm, deepPenetration);
@@ -239,13 +233,15 @@ public class DarkCloudPiercingDetector extends AbstractKLineDetector {
                 "volumeConfirmation", volumeConfirm,
                 "keyLevels", Map.of(
                         "penetrationRatio", penetrationRatio,
-                        "gapDown", prev.getLow().subtract(current.getOpen()).doubleValue()
+                        "gapDown", round(bars.low(prev) - bars.open(current), 4)
                 )
         );
 
         DetectedPattern pattern = buildPattern(
                 "KLINE023",
-                List.of(prev, current),
+                bars,
+                prev,
+                current,
                 strength,
                 trend,
                 additionalData
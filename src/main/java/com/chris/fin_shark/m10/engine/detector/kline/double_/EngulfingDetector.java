@@ -1,7 +1,7 @@
 package com.chris.fin_shark.m10.engine.detector.kline.double_;
 
 import com.chris.fin_shark.m10.engine.detector.AbstractKLineDetector;
-import com.chris.fin_shark.m10.engine.model.CandleStick;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.SignalType;
@@ -9,8 +9,6 @@ import com.chris.fin_shark.m10.enums.TrendDirection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -77,36 +75,36 @@ public class EngulfingDetector extends AbstractKLineDetector {
     }
 
     @Override
-    protected List<DetectedPattern> doDetect(List<CandleStick> candles,
+    protected List<DetectedPattern> doDetect(CandleSeries bars,
                                              Map<String, Object> params,
                                              TrendDirection trendContext) {
         List<DetectedPattern> patterns = new ArrayList<>();
 
-        if (candles.size() < 2) {
+        if (bars.size() < 2) {
             return patterns;
         }
 
-        CandleStick prev = candles.get(candles.size() - 2);
-        CandleStick current = candles.get(candles.size() - 1);
+        int prev = bars.last() - 1;
+        int current = bars.last();
 
         // 判斷趨勢背景
         TrendDirection trend = trendContext;
         if (trend == null || trend == TrendDirection.UNKNOWN) {
-            if (isInDowntrend(candles, 5)) {
+            if (isInDowntrend(bars, 5)) {
                 trend = TrendDirection.DOWNTREND;
-            } else if (isInUptrend(candles, 5)) {
+            } else if (isInUptrend(bars, 5)) {
                 trend = TrendDirection.UPTREND;
             }
         }
 
         // 檢查吞噬型態
-        if (!current.engulfs(prev)) {
+        if (!bars.engulfs(current, prev)) {
             return patterns;
         }
 
         // 確認是反向的 K 線
-        boolean isBullishEngulfing = prev.isBearish() && current.isBullish();
-        boolean isBearishEngulfing = prev.isBullish() && current.isBearish();
+        boolean isBullishEngulfing = bars.isBearish(prev) && bars.isBullish(current);
+        boolean isBearishEngulfing = bars.isBullish(prev) && bars.isBearish(current);
 
         if (!isBullishEngulfing && !isBearishEngulfing) {
             return patterns;
@@ -126,21 +124,20 @@ public class EngulfingDetector extends AbstractKLineDetector {
         }
 
         // 計算額外強度因子
-        long avgVolume = calculateAverageVolume(candles, 20);
-        boolean volumeConfirm = isVolumeIncreased(current, avgVolume, 1.5);
+        long avgVolume = calculateAverageVolume(bars, 20);
+        boolean volumeConfirm = isVolumeIncreased(bars, current, avgVolume, 1.5);
 
         // 第二根 K 線實體越大，信號越強
-        BigDecimal currentBody = current.getBody();
-        BigDecimal prevBody = prev.getBody();
-        boolean strongEngulf = prevBody.compareTo(BigDecimal.ZERO) > 0 &&
-                currentBody.divide(prevBody, 2, RoundingMode.HALF_UP).doubleValue() >= 2.0;
+        double currentBody = bars.body(current);
+        double prevBody = bars.body(prev);
+        boolean strongEngulf = prevBody > 0 && round(currentBody / prevBody, 2) >= 2.0;
 
         // 第二根 K 線的收盤價超出第一根的最高/最低價
         boolean fullEngulf;
         if (isBullishEngulfing) {
-            fullEngulf = current.getClose().compareTo(prev.getHigh()) > 0;
+            fullEngulf = bars.close(current) > bars.high(prev);
         } else {
-            fullEngulf = current.getClose().compareTo(prev.getLow()) < 0;
+            fullEngulf = bars.close(current) < bars.low(prev);
         }
 
         int strength = calculateStrength(baseStrength,
@@ -149,16 +146,11 @@ public class EngulfingDetector extends AbstractKLineDetector {
                 fullEngulf);
 
         // 建構結果
-        List<CandleStick> involvedCandles = List.of(prev, current);
-
         Map<String, Object> additionalData = Map.of(
                 "volumeConfirmation", volumeConfirm,
-                "volumeRatio", avgVolume > 0 ?
-                        BigDecimal.valueOf((double) current.getVolume() / avgVolume)
-                                .setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO,
+                "volumeRatio", calculateVolumeRatio(bars, current, avgVolume),
                 "keyLevels", Map.of(
-                        "engulfRatio", prevBody.compareTo(BigDecimal.ZERO) > 0 ?
-                                currentBody.divide(prevBody, 4, RoundingMode.HALF_UP).doubleValue() : 0,
+                        "engulfRatio", prevBody > 0 ? round(currentBody / prevBody, 4) : 0,
                         "isStrongEngulf", strongEngulf,
                         "isFullEngulf", fullEngulf
                 )
@@ -166,7 +158,9 @@ public class EngulfingDetector extends AbstractKLineDetector {
 
         DetectedPattern pattern = buildPattern(
                 patternId,
-                involvedCandles,
+                bars,
+                prev,
+                current,
                 strength,
                 trend,
                 additionalData
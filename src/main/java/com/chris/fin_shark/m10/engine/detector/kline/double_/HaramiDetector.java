@@ -1,7 +1,7 @@
 package com.chris.fin_shark.m10.engine.detector.kline.double_;
 
 import com.chris.fin_shark.m10.engine.detector.AbstractKLineDetector;
-import com.chris.fin_shark.m10.engine.model.CandleStick;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.SignalType;
@@ -9,8 +9,6 @@ import com.chris.fin_shark.m10.enums.TrendDirection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -77,46 +75,48 @@ public class HaramiDetector extends AbstractKLineDetector {
     }
 
     @Override
-    protected List<DetectedPattern> doDetect(List<CandleStick> candles,
+    protected List<DetectedPattern> doDetect(CandleSeries bars,
                                              Map<String, Object> params,
                                              TrendDirection trendContext) {
         List<DetectedPattern> patterns = new ArrayList<>();
 
-        if (candles.size() < 2) {
+        if (bars.size() < 2) {
             return patterns;
         }
 
-        CandleStick prev = candles.get(candles.size() - 2);
-        CandleStick current = candles.get(candles.size() - 1);
+        int prev = bars.last() - 1;
+        int current = bars.last();
 
         // 檢查孕線型態：第二根被第一根包覆
-        if (!current.isInsideOf(prev)) {
+        if (!bars.isInsideOf(current, prev)) {
             return patterns;
         }
 
         // 第一根要是大實體
-        if (!prev.isLargeBody(0.50)) {
+        if (!bars.isLargeBody(prev, 0.50)) {
             return patterns;
         }
 
         // 第二根要是小實體
-        if (!current.isSmallBody(0.50)) {
+        if (!bars.isSmallBody(current, 0.50)) {
             return patterns;
         }
 
         // 判斷趨勢背景
         TrendDirection trend = trendContext;
         if (trend == null || trend == TrendDirection.UNKNOWN) {
-            if (isInDowntrend(candles, 5)) {
+            if (isInDowntrend(bars, 5)) {
                 trend = TrendDirection.DOWNTREND;
-            } else if (isInUptrend(candles, 5)) {
+            } else if (isInUptrend(bars, 5)) {
                 trend = TrendDirection.UPTREND;
             }
         }
 
         // 確認是反向的 K 線（孕線通常要反向）
-        boolean isBullishHarami = prev.isBearish() && (current.isBullish() || current.isNearDoji(0.15));
-        boolean isBearishHarami = prev.isBullish() && (current.isBearish() || current.isNearDoji(0.15));
+        boolean isBullishHarami = bars.isBearish(prev) &&
+                (bars.isBullish(current) || bars.isNearDoji(current, 0.15));
+        boolean isBearishHarami = bars.isBullish(prev) &&
+                (bars.isBearish(current) || bars.isNearDoji(current, 0.15));
 
         if (!isBullishHarami && !isBearishHarami) {
             return patterns;
@@ -135,23 +135,16 @@ public class HaramiDetector extends AbstractKLineDetector {
             baseStrength = trend == TrendDirection.UPTREND ? 65 : 50;
         }
 
-        // 計算額外強度因子
-        long avgVolume = calculateAverageVolume(candles, 20);
-
         // 孕線的成交量通常會萎縮
-        boolean volumeDecreased = current.getVolume() != null && prev.getVolume() != null &&
-                current.getVolume() < prev.getVolume() * 0.7;
+        boolean volumeDecreased = bars.volume(current) < bars.volume(prev) * 0.7;
 
         // 第二根實體越小（越接近十字星），信號越強
-        boolean smallSecondCandle = current.isSmallBody(0.25);
+        boolean smallSecondCandle = bars.isSmallBody(current, 0.25);
 
         // 第二根 K 線在第一根的中心區域
-        BigDecimal prevMid = prev.getBodyMidpoint();
-        BigDecimal currentMid = current.getBodyMidpoint();
-        BigDecimal prevBody = prev.getBody();
-        boolean centeredHarami = prevBody.compareTo(BigDecimal.ZERO) > 0 &&
-                currentMid.subtract(prevMid).abs()
-                        .divide(prevBody, 2, RoundingMode.HALF_UP).doubleValue() <= 0.25;
+        double prevBody = bars.body(prev);
+        boolean centeredHarami = prevBody > 0 &&
+                round(Math.abs(bars.bodyMidpoint(current) - bars.bodyMidpoint(prev)) / prevBody, 2) <= 0.25;
 
         int strength = calculateStrength(baseStrength,
                 volumeDecreased,
@@ -159,15 +152,11 @@ public class HaramiDetector extends AbstractKLineDetector {
                 centeredHarami);
 
         // 建構結果
-        List<CandleStick> involvedCandles = List.of(prev, current);
-
         Map<String, Object> additionalData = Map.of(
                 "volumeConfirmation", volumeDecreased,
                 "keyLevels", Map.of(
-                        "firstBodyRatio", prev.getRange().compareTo(BigDecimal.ZERO) > 0 ?
-                                prevBody.divide(prev.getRange(), 4, RoundingMode.HALF_UP).doubleValue() : 0,
-                        "secondBodyRatio", current.getRange().compareTo(BigDecimal.ZERO) > 0 ?
-                                current.getBody().divide(current.getRange(), 4, RoundingMode.HALF_UP).doubleValue() : 0,
+                        "firstBodyRatio", round(bars.bodyRatio(prev), 4),
+                        "secondBodyRatio", round(bars.bodyRatio(current), 4),
                         "isCentered", centeredHarami,
                         "isVolumeDecreased", volumeDecreased
                 )
@@ -175,7 +164,9 @@ public class HaramiDetector extends AbstractKLineDetector {
 
         DetectedPattern pattern = buildPattern(
                 patternId,
-                involvedCandles,
+                bars,
+                prev,
+                current,
                 strength,
                 trend,
                 additionalData
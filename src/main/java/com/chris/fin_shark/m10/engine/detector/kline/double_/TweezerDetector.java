@@ -1,7 +1,7 @@
 package com.chris.fin_shark.m10.engine.detector.kline.double_;
 
 import com.chris.fin_shark.m10.engine.detector.AbstractKLineDetector;
-import com.chris.fin_shark.m10.engine.model.CandleStick;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.SignalType;
@@ -9,8 +9,6 @@ import com.chris.fin_shark.m10.enums.TrendDirection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -82,32 +80,32 @@ public class TweezerDetector extends AbstractKLineDetector {
     }
 
     @Override
-    protected List<DetectedPattern> doDetect(List<CandleStick> candles,
+    protected List<DetectedPattern> doDetect(CandleSeries bars,
                                              Map<String, Object> params,
                                              TrendDirection trendContext) {
         List<DetectedPattern> patterns = new ArrayList<>();
 
-        if (candles.size() < 2) {
+        if (bars.size() < 2) {
             return patterns;
         }
 
-        CandleStick prev = candles.get(candles.size() - 2);
-        CandleStick current = candles.get(candles.size() - 1);
+        int prev = bars.last() - 1;
+        int current = bars.last();
 
         // 判斷趨勢背景
         TrendDirection trend = trendContext;
         if (trend == null || trend == TrendDirection.UNKNOWN) {
-            if (isInDowntrend(candles, 5)) {
+            if (isInDowntrend(bars, 5)) {
                 trend = TrendDirection.DOWNTREND;
-            } else if (isInUptrend(candles, 5)) {
+            } else if (isInUptrend(bars, 5)) {
                 trend = TrendDirection.UPTREND;
             }
         }
 
         // 檢查平頭頂部
         if (trend == TrendDirection.UPTREND || trend == TrendDirection.UNKNOWN) {
-            if (isTweezerTop(prev, current)) {
-                DetectedPattern pattern = createTweezerTopPattern(prev, current, candles, trend);
+            if (isTweezerTop(bars, prev, current)) {
+                DetectedPattern pattern = createTweezerTopPattern(bars, prev, current, trend);
                 if (pattern != null) {
                     patterns.add(pattern);
                 }
@@ -116,8 +114,8 @@ public class TweezerDetector extends AbstractKLineDetector {
 
         // 檢查平頭底部
         if (trend == TrendDirection.DOWNTREND || trend == TrendDirection.UNKNOWN) {
-            if (isTweezerBottom(prev, current)) {
-                DetectedPattern pattern = createTweezerBottomPattern(prev, current, candles, trend);
+            if (isTweezerBottom(bars, prev, current)) {
+                DetectedPattern pattern = createTweezerBottomPattern(bars, prev, current, trend);
                 if (pattern != null) {
                     patterns.add(pattern);
                 }
@@ -130,9 +128,9 @@ public class TweezerDetector extends AbstractKLineDetector {
     /**
      * 檢查是否為平頭頂部
      */
-    private boolean isTweezerTop(CandleStick prev, CandleStick current) {
+    private boolean isTweezerTop(CandleSeries bars, int prev, int current) {
         // 兩根 K 線的最高價相近
-        if (!isPriceEqual(prev.getHigh(), current.getHigh())) {
+        if (!isPriceEqual(bars.high(prev), bars.high(current))) {
             return false;
         }
 
@@ -140,8 +138,8 @@ public class TweezerDetector extends AbstractKLineDetector {
         // 主要特徵是在相同高點受阻
 
         // 至少有一根有明顯的上影線
-        boolean hasUpperShadow = prev.getUpperShadow().compareTo(prev.getBody().multiply(BigDecimal.valueOf(0.3))) > 0 ||
-                current.getUpperShadow().compareTo(current.getBody().multiply(BigDecimal.valueOf(0.3))) > 0;
+        boolean hasUpperShadow = bars.upperShadow(prev) > bars.body(prev) * 0.3 ||
+                bars.upperShadow(current) > bars.body(current) * 0.3;
 
         return hasUpperShadow;
     }
@@ -149,15 +147,15 @@ public class TweezerDetector extends AbstractKLineDetector {
     /**
      * 檢查是否為平頭底部
      */
-    private boolean isTweezerBottom(CandleStick prev, CandleStick current) {
+    private boolean isTweezerBottom(CandleSeries bars, int prev, int current) {
         // 兩根 K 線的最低價相近
-        if (!isPriceEqual(prev.getLow(), current.getLow())) {
+        if (!isPriceEqual(bars.low(prev), bars.low(current))) {
             return false;
         }
 
         // 至少有一根有明顯的下影線
-        boolean hasLowerShadow = prev.getLowerShadow().compareTo(prev.getBody().multiply(BigDecimal.valueOf(0.3))) > 0 ||
-                current.getLowerShadow().compareTo(current.getBody().multiply(BigDecimal.valueOf(0.3))) > 0;
+        boolean hasLowerShadow = bars.lowerShadow(prev) > bars.body(prev) * 0.3 ||
+                bars.lowerShadow(current) > bars.body(current) * 0.3;
 
         return hasLowerShadow;
     }
@@ -165,47 +163,47 @@ public class TweezerDetector extends AbstractKLineDetector {
     /**
      * 檢查兩個價格是否相近
      */
-    private boolean isPriceEqual(BigDecimal price1, BigDecimal price2) {
-        if (price1.compareTo(BigDecimal.ZERO) == 0) {
+    private boolean isPriceEqual(double price1, double price2) {
+        if (price1 == 0) {
             return false;
         }
-        BigDecimal diff = price1.subtract(price2).abs();
-        BigDecimal ratio = diff.divide(price1, 6, RoundingMode.HALF_UP);
-        return ratio.doubleValue() <= PRICE_TOLERANCE;
+        return round(Math.abs(price1 - price2) / price1, 6) <= PRICE_TOLERANCE;
     }
 
     /**
      * 建立平頭頂部型態
      */
-    private DetectedPattern createTweezerTopPattern(CandleStick prev, CandleStick current,
-                                                    List<CandleStick> candles, TrendDirection trend) {
+    private DetectedPattern createTweezerTopPattern(CandleSeries bars, int prev, int current,
+                                                    TrendDirection trend) {
         // 基礎強度
         int baseStrength = trend == TrendDirection.UPTREND ? 65 : 50;
 
         // 額外強度因子
-        long avgVolume = calculateAverageVolume(candles, 20);
-        boolean volumeConfirm = isVolumeIncreased(current, avgVolume, 1.2);
+        long avgVolume = calculateAverageVolume(bars, 20);
+        boolean volumeConfirm = isVolumeIncreased(bars, current, avgVolume, 1.2);
 
         // 第二根是陰線更強
-        boolean secondBearish = current.isBearish();
+        boolean secondBearish = bars.isBearish(current);
 
         // 價格完全相同更強
-        boolean exactMatch = prev.getHigh().compareTo(current.getHigh()) == 0;
+        boolean exactMatch = bars.high(prev) == bars.high(current);
 
         int strength = calculateStrength(baseStrength, volumeConfirm, secondBearish, exactMatch);
 
         Map<String, Object> additionalData = Map.of(
                 "volumeConfirmation", volumeConfirm,
                 "keyLevels", Map.of(
-                        "resistanceLevel", prev.getHigh().doubleValue(),
-                        "priceDiff", prev.getHigh().subtract(current.getHigh()).abs().doubleValue(),
+                        "resistanceLevel", bars.high(prev),
+                        "priceDiff", round(Math.abs(bars.high(prev) - bars.high(current)), 4),
                         "isExactMatch", exactMatch
                 )
         );
 
         DetectedPattern pattern = buildPattern(
                 "KLINE024",
-                List.of(prev, current),
+                bars,
+                prev,
+                current,
                 strength,
                 trend,
                 additionalData
@@ -221,35 +219,37 @@ public class TweezerDetector extends AbstractKLineDetector {
     /**
      * 建立平頭底部型態
      */
-    private DetectedPattern createTweezerBottomPattern(CandleStick prev, CandleStick current,
-                                                       List<CandleStick> candles, TrendDirection trend) {
+    private DetectedPattern createTweezerBottomPattern(CandleSeries bars, int prev, int current,
+                                                       TrendDirection trend) {
         // 基礎強度
         int baseStrength = trend == TrendDirection.DOWNTREND ? 65 : 50;
 
         // 額外強度因子
-        long avgVolume = calculateAverageVolume(candles, 20);
-        boolean volumeConfirm = isVolumeIncreased(current, avgVolume, 1.2);
+        long avgVolume = calculateAverageVolume(bars, 20);
+        boolean volumeConfirm = isVolumeIncreased(bars, current, avgVolume, 1.2);
 
         // 第二根是陽線更強
-        boolean secondBullish = current.isBullish();
+        boolean secondBullish = bars.isBullish(current);
 
         // 價格完全相同更強
-        boolean exactMatch = prev.getLow().compareTo(current.getLow()) == 0;
+        boolean exactMatch = bars.low(prev) == bars.low(current);
 
         int strength = calculateStrength(baseStrength, volumeConfirm, secondBullish, exactMatch);
 
         Map<String, Object> additionalData = Map.of(
                 "volumeConfirmation", volumeConfirm,
                 "keyLevels", Map.of(
-                        "supportLevel", prev.getLow().doubleValue(),
-                        "priceDiff", prev.getLow().subtract(current.getLow()).abs().doubleValue(),
+                        "supportLevel", bars.low(prev),
+                        "priceDiff", round(Math.abs(bars.low(prev) - bars.low(current)), 4),
                         "isExactMatch", exactMatch
                 )
         );
 
         DetectedPattern pattern = buildPattern(
                 "KLINE025",
-                List.of(prev, current),
+                bars,
+                prev,
+                current,
                 strength,
                 trend,
                 additionalData
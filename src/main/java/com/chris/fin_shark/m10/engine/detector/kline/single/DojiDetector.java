@@ -1,7 +1,7 @@
 package com.chris.fin_shark.m10.engine.detector.kline.single;
 
 import com.chris.fin_shark.m10.engine.detector.AbstractKLineDetector;
-import com.chris.fin_shark.m10.engine.model.CandleStick;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.SignalType;
@@ -9,8 +9,6 @@ import com.chris.fin_shark.m10.enums.TrendDirection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -96,45 +94,42 @@ public class DojiDetector extends AbstractKLineDetector {
     }
 
     @Override
-    protected List<DetectedPattern> doDetect(List<CandleStick> candles,
+    protected List<DetectedPattern> doDetect(CandleSeries bars,
                                              Map<String, Object> params,
                                              TrendDirection trendContext) {
         List<DetectedPattern> patterns = new ArrayList<>();
 
-        if (candles.isEmpty()) {
+        if (bars.size() == 0) {
             return patterns;
         }
 
         // 取得最後一根 K 線
-        CandleStick current = candles.get(candles.size() - 1);
+        int current = bars.last();
 
         // 檢查是否為十字星（實體很小）
-        if (!current.isNearDoji(DOJI_BODY_RATIO)) {
+        if (!bars.isNearDoji(current, DOJI_BODY_RATIO)) {
             return patterns;
         }
 
-        BigDecimal range = current.getRange();
-        if (range.compareTo(BigDecimal.ZERO) == 0) {
+        double range = bars.range(current);
+        if (range == 0) {
             return patterns;
         }
 
-        BigDecimal upperShadow = current.getUpperShadow();
-        BigDecimal lowerShadow = current.getLowerShadow();
-
         // 計算影線比例
-        double upperRatio = upperShadow.divide(range, 4, RoundingMode.HALF_UP).doubleValue();
-        double lowerRatio = lowerShadow.divide(range, 4, RoundingMode.HALF_UP).doubleValue();
+        double upperRatio = round(bars.upperShadow(current) / range, 4);
+        double lowerRatio = round(bars.lowerShadow(current) / range, 4);
 
         // 計算平均成交量
-        long avgVolume = calculateAverageVolume(candles, 20);
-        boolean volumeConfirm = isVolumeIncreased(current, avgVolume, 1.2);
+        long avgVolume = calculateAverageVolume(bars, 20);
+        boolean volumeConfirm = isVolumeIncreased(bars, current, avgVolume, 1.2);
 
         // 判斷趨勢背景
         TrendDirection trend = trendContext;
         if (trend == null || trend == TrendDirection.UNKNOWN) {
-            if (isInDowntrend(candles, 5)) {
+            if (isInDowntrend(bars, 5)) {
                 trend = TrendDirection.DOWNTREND;
-            } else if (isInUptrend(candles, 5)) {
+            } else if (isInUptrend(bars, 5)) {
                 trend = TrendDirection.UPTREND;
             }
         }
@@ -167,9 +162,7 @@ public class DojiDetector extends AbstractKLineDetector {
         // 建構結果
         Map<String, Object> additionalData = Map.of(
                 "volumeConfirmation", volumeConfirm,
-                "volumeRatio", avgVolume > 0 ?
-                        BigDecimal.valueOf((double) current.getVolume() / avgVolume)
-                                .setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO,
+                "volumeRatio", calculateVolumeRatio(bars, current, avgVolume),
                 "keyLevels", Map.of(
                         "upperShadowRatio", upperRatio,
                         "lowerShadowRatio", lowerRatio
@@ -178,7 +171,9 @@ public class DojiDetector extends AbstractKLineDetector {
 
         DetectedPattern pattern = buildPattern(
                 patternId,
-                List.of(current),
+                bars,
+                current,
+                current,
                 strength,
                 trend,
                 additionalData
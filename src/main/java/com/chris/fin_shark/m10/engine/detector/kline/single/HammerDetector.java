@@ -1,7 +1,7 @@
 package com.chris.fin_shark.m10.engine.detector.kline.single;
 
 import com.chris.fin_shark.m10.engine.detector.AbstractKLineDetector;
-import com.chris.fin_shark.m10.engine.model.CandleStick;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.SignalType;
@@ -9,8 +9,6 @@ import com.chris.fin_shark.m10.enums.TrendDirection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -77,39 +75,39 @@ public class HammerDetector extends AbstractKLineDetector {
     }
 
     @Override
-    protected List<DetectedPattern> doDetect(List<CandleStick> candles,
+    protected List<DetectedPattern> doDetect(CandleSeries bars,
                                              Map<String, Object> params,
                                              TrendDirection trendContext) {
         List<DetectedPattern> patterns = new ArrayList<>();
 
-        if (candles.isEmpty()) {
+        if (bars.size() == 0) {
             return patterns;
         }
 
-        CandleStick current = candles.get(candles.size() - 1);
+        int current = bars.last();
 
         // 檢查錘子線形態特徵
         // 1. 小實體（實體 <= 全距的 35%）
-        if (!current.isSmallBody(0.35)) {
+        if (!bars.isSmallBody(current, 0.35)) {
             return patterns;
         }
 
         // 2. 長下影線（>= 實體的 2 倍）
-        if (!current.hasLongLowerShadow(LONG_SHADOW_MULTIPLIER)) {
+        if (!bars.hasLongLowerShadow(current, LONG_SHADOW_MULTIPLIER)) {
             return patterns;
         }
 
         // 3. 短上影線或無上影線（<= 實體的 30%）
-        if (!current.hasShortUpperShadow(SHORT_SHADOW_RATIO)) {
+        if (!bars.hasShortUpperShadow(current, SHORT_SHADOW_RATIO)) {
             return patterns;
         }
 
         // 判斷趨勢背景
         TrendDirection trend = trendContext;
         if (trend == null || trend == TrendDirection.UNKNOWN) {
-            if (isInDowntrend(candles, 5)) {
+            if (isInDowntrend(bars, 5)) {
                 trend = TrendDirection.DOWNTREND;
-            } else if (isInUptrend(candles, 5)) {
+            } else if (isInUptrend(bars, 5)) {
                 trend = TrendDirection.UPTREND;
             }
         }
@@ -133,17 +131,16 @@ public class HammerDetector extends AbstractKLineDetector {
         }
 
         // 計算額外強度因子
-        long avgVolume = calculateAverageVolume(candles, 20);
-        boolean volumeConfirm = isVolumeIncreased(current, avgVolume, 1.3);
+        long avgVolume = calculateAverageVolume(bars, 20);
+        boolean volumeConfirm = isVolumeIncreased(bars, current, avgVolume, 1.3);
 
         // 下影線越長，信號越強
-        BigDecimal body = current.getBody();
-        BigDecimal lowerShadow = current.getLowerShadow();
-        boolean extraLongShadow = body.compareTo(BigDecimal.ZERO) > 0 &&
-                lowerShadow.divide(body, 2, RoundingMode.HALF_UP).doubleValue() >= 3.0;
+        double body = bars.body(current);
+        double lowerShadow = bars.lowerShadow(current);
+        boolean extraLongShadow = body > 0 && round(lowerShadow / body, 2) >= 3.0;
 
         // 實體是陽線（對於錘子線更強）
-        boolean isBullishBody = current.isBullish();
+        boolean isBullishBody = bars.isBullish(current);
 
         int strength = calculateStrength(baseStrength,
                 volumeConfirm,
@@ -153,21 +150,19 @@ public class HammerDetector extends AbstractKLineDetector {
         // 建構結果
         Map<String, Object> additionalData = Map.of(
                 "volumeConfirmation", volumeConfirm,
-                "volumeRatio", avgVolume > 0 ?
-                        BigDecimal.valueOf((double) current.getVolume() / avgVolume)
-                                .setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO,
+                "volumeRatio", calculateVolumeRatio(bars, current, avgVolume),
                 "keyLevels", Map.of(
-                        "bodyToRangeRatio", current.getRange().compareTo(BigDecimal.ZERO) > 0 ?
-                                body.divide(current.getRange(), 4, RoundingMode.HALF_UP).doubleValue() : 0,
-                        "lowerShadowToBodyRatio", body.compareTo(BigDecimal.ZERO) > 0 ?
-                                lowerShadow.divide(body, 4, RoundingMode.HALF_UP).doubleValue() : 0,
+                        "bodyToRangeRatio", round(bars.bodyRatio(current), 4),
+                        "lowerShadowToBodyRatio", body > 0 ? round(lowerShadow / body, 4) : 0,
                         "isBullishBody", isBullishBody
                 )
         );
 
         DetectedPattern pattern = buildPattern(
                 patternId,
-                List.of(current),
+                bars,
+                current,
+                current,
                 strength,
                 trend,
                 additionalData
@@ -1,7 +1,7 @@
 package com.chris.fin_shark.m10.engine.detector.kline.single;
 
 import com.chris.fin_shark.m10.engine.detector.AbstractKLineDetector;
-import com.chris.fin_shark.m10.engine.model.CandleStick;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.SignalType;
@@ -9,8 +9,6 @@ import com.chris.fin_shark.m10.enums.TrendDirection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -77,34 +75,31 @@ public class MarubozuDetector extends AbstractKLineDetector {
     }
 
     @Override
-    protected List<DetectedPattern> doDetect(List<CandleStick> candles,
+    protected List<DetectedPattern> doDetect(CandleSeries bars,
                                              Map<String, Object> params,
                                              TrendDirection trendContext) {
         List<DetectedPattern> patterns = new ArrayList<>();
 
-        if (candles.isEmpty()) {
+        if (bars.size() == 0) {
             return patterns;
         }
 
-        CandleStick current = candles.get(candles.size() - 1);
+        int current = bars.last();
 
         // 檢查大實體（實體 >= 全距的 85%）
         // Marubozu 的特徵是幾乎沒有影線
-        if (!current.isLargeBody(0.85)) {
+        if (!bars.isLargeBody(current, 0.85)) {
             return patterns;
         }
 
         // 確認影線都很短
-        BigDecimal range = current.getRange();
-        if (range.compareTo(BigDecimal.ZERO) == 0) {
+        double range = bars.range(current);
+        if (range == 0) {
             return patterns;
         }
 
-        BigDecimal upperShadow = current.getUpperShadow();
-        BigDecimal lowerShadow = current.getLowerShadow();
-
-        double upperRatio = upperShadow.divide(range, 4, RoundingMode.HALF_UP).doubleValue();
-        double lowerRatio = lowerShadow.divide(range, 4, RoundingMode.HALF_UP).doubleValue();
+        double upperRatio = round(bars.upperShadow(current) / range, 4);
+        double lowerRatio = round(bars.lowerShadow(current) / range, 4);
 
         // 上下影線都要 <= 10%
         if (upperRatio > 0.10 || lowerRatio > 0.10) {
@@ -115,10 +110,10 @@ public class MarubozuDetector extends AbstractKLineDetector {
         String patternId;
         int baseStrength;
 
-        if (current.isBullish()) {
+        if (bars.isBullish(current)) {
             patternId = "KLINE009"; // 大陽線
             baseStrength = 75;
-        } else if (current.isBearish()) {
+        } else if (bars.isBearish(current)) {
             patternId = "KLINE010"; // 大陰線
             baseStrength = 75;
         } else {
@@ -126,13 +121,12 @@ public class MarubozuDetector extends AbstractKLineDetector {
         }
 
         // 計算額外強度因子
-        long avgVolume = calculateAverageVolume(candles, 20);
-        boolean volumeConfirm = isVolumeIncreased(current, avgVolume, 1.5);
+        long avgVolume = calculateAverageVolume(bars, 20);
+        boolean volumeConfirm = isVolumeIncreased(bars, current, avgVolume, 1.5);
 
         // 計算實體相對於近期平均實體的大小
-        BigDecimal avgBody = calculateAverageBody(candles, 10);
-        boolean extraLargeBody = avgBody.compareTo(BigDecimal.ZERO) > 0 &&
-                current.getBody().divide(avgBody, 2, RoundingMode.HALF_UP).doubleValue() >= 2.0;
+        double avgBody = calculateAverageBody(bars, 10);
+        boolean extraLargeBody = avgBody > 0 && round(bars.body(current) / avgBody, 2) >= 2.0;
 
         // 完美的 Marubozu（完全無影線）
         boolean perfectMarubozu = upperRatio <= 0.02 && lowerRatio <= 0.02;
@@ -145,11 +139,9 @@ public class MarubozuDetector extends AbstractKLineDetector {
         // 建構結果
         Map<String, Object> additionalData = Map.of(
                 "volumeConfirmation", volumeConfirm,
-                "volumeRatio", avgVolume > 0 ?
-                        BigDecimal.valueOf((double) current.getVolume() / avgVolume)
-                                .setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO,
+                "volumeRatio", calculateVolumeRatio(bars, current, avgVolume),
                 "keyLevels", Map.of(
-                        "bodyToRangeRatio", current.getBody().divide(range, 4, RoundingMode.HALF_UP).doubleValue(),
+                        "bodyToRangeRatio", round(bars.bodyRatio(current), 4),
                         "upperShadowRatio", upperRatio,
                         "lowerShadowRatio", lowerRatio,
                         "isPerfectMarubozu", perfectMarubozu
@@ -158,7 +150,9 @@ public class MarubozuDetector extends AbstractKLineDetector {
 
         DetectedPattern pattern = buildPattern(
                 patternId,
-                List.of(current),
+                bars,
+                current,
+                current,
                 strength,
                 trendContext,
                 additionalData
@@ -173,19 +167,19 @@ public class MarubozuDetector extends AbstractKLineDetector {
     }
 
     /**
-     * 計算近期平均實體大小
+     * 計算近期平均實體大小（不含最後一根）
      */
-    private BigDecimal calculateAverageBody(List<CandleStick> candles, int period) {
-        int count = Math.min(period, candles.size() - 1);
+    private double calculateAverageBody(CandleSeries bars, int period) {
+        int count = Math.min(period, bars.size() - 1);
         if (count <= 0) {
-            return BigDecimal.ZERO;
+            return 0;
         }
 
-        BigDecimal sum = BigDecimal.ZERO;
-        for (int i = candles.size() - 1 - count; i < candles.size() - 1; i++) {
-            sum = sum.add(candles.get(i).getBody());
+        double sum = 0;
+        for (int i = bars.last() - count; i < bars.last(); i++) {
+            sum += bars.body(i);
         }
 
-        return sum.divide(BigDecimal.valueOf(count), 4, RoundingMode.HALF_UP);
+        return round(sum / count, 4);
     }
 }
@@ -1,7 +1,7 @@
 package com.chris.fin_shark.m10.engine.detector.kline.single;
 
 import com.chris.fin_shark.m10.engine.detector.AbstractKLineDetector;
-import com.chris.fin_shark.m10.engine.model.CandleStick;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.SignalType;
@@ -9,8 +9,6 @@ import com.chris.fin_shark.m10.enums.TrendDirection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -66,39 +64,36 @@ public class SpinningTopDetector extends AbstractKLineDetector {
     }
 
     @Override
-    protected List<DetectedPattern> doDetect(List<CandleStick> candles,
+    protected List<DetectedPattern> doDetect(CandleSeries bars,
                                              Map<String, Object> params,
                                              TrendDirection trendContext) {
         List<DetectedPattern> patterns = new ArrayList<>();
 
-        if (candles.isEmpty()) {
+        if (bars.size() == 0) {
             return patterns;
         }
 
-        CandleStick current = candles.get(candles.size() - 1);
+        int current = bars.last();
 
         // 檢查紡錘線形態特徵
         // 1. 小實體（實體 <= 全距的 30%）
-        if (!current.isSmallBody(SMALL_BODY_RATIO)) {
+        if (!bars.isSmallBody(current, SMALL_BODY_RATIO)) {
             return patterns;
         }
 
         // 2. 不是十字星（實體要有一點大小）
-        if (current.isNearDoji(DOJI_BODY_RATIO)) {
+        if (bars.isNearDoji(current, DOJI_BODY_RATIO)) {
             return patterns; // 這是十字星，由 DojiDetector 處理
         }
 
         // 3. 上下影線都要有一定長度（各 >= 實體的 50%）
-        BigDecimal body = current.getBody();
-        BigDecimal upperShadow = current.getUpperShadow();
-        BigDecimal lowerShadow = current.getLowerShadow();
-
-        if (body.compareTo(BigDecimal.ZERO) == 0) {
+        double body = bars.body(current);
+        if (body == 0) {
             return patterns;
         }
 
-        double upperRatio = upperShadow.divide(body, 4, RoundingMode.HALF_UP).doubleValue();
-        double lowerRatio = lowerShadow.divide(body, 4, RoundingMode.HALF_UP).doubleValue();
+        double upperRatio = round(bars.upperShadow(current) / body, 4);
+        double lowerRatio = round(bars.lowerShadow(current) / body, 4);
 
         if (upperRatio < 0.5 || lowerRatio < 0.5) {
             return patterns;
@@ -114,9 +109,9 @@ public class SpinningTopDetector extends AbstractKLineDetector {
         // 判斷趨勢背景
         TrendDirection trend = trendContext;
         if (trend == null || trend == TrendDirection.UNKNOWN) {
-            if (isInDowntrend(candles, 5)) {
+            if (isInDowntrend(bars, 5)) {
                 trend = TrendDirection.DOWNTREND;
-            } else if (isInUptrend(candles, 5)) {
+            } else if (isInUptrend(bars, 5)) {
                 trend = TrendDirection.UPTREND;
             }
         }
@@ -130,8 +125,8 @@ public class SpinningTopDetector extends AbstractKLineDetector {
         }
 
         // 計算額外強度因子
-        long avgVolume = calculateAverageVolume(candles, 20);
-        boolean volumeConfirm = isVolumeIncreased(current, avgVolume, 1.2);
+        long avgVolume = calculateAverageVolume(bars, 20);
+        boolean volumeConfirm = isVolumeIncreased(bars, current, avgVolume, 1.2);
 
         // 上下影線越平衡，信號越強
         boolean balancedShadows = shadowRatio <= 1.5;
@@ -141,12 +136,9 @@ public class SpinningTopDetector extends AbstractKLineDetector {
         // 建構結果
         Map<String, Object> additionalData = Map.of(
                 "volumeConfirmation", volumeConfirm,
-                "volumeRatio", avgVolume > 0 ?
-                        BigDecimal.valueOf((double) current.getVolume() / avgVolume)
-                                .setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO,
+                "volumeRatio", calculateVolumeRatio(bars, current, avgVolume),
                 "keyLevels", Map.of(
-                        "bodyToRangeRatio", current.getRange().compareTo(BigDecimal.ZERO) > 0 ?
-                                body.divide(current.getRange(), 4, RoundingMode.HALF_UP).doubleValue() : 0,
+                        "bodyToRangeRatio", round(bars.bodyRatio(current), 4),
                         "upperShadowToBodyRatio", upperRatio,
                         "lowerShadowToBodyRatio", lowerRatio,
                         "shadowBalanceRatio", shadowRatio
@@ -155,7 +147,9 @@ public class SpinningTopDetector extends AbstractKLineDetector {
 
         DetectedPattern pattern = buildPattern(
                 "KLINE011",
-                List.of(current),
+                bars,
+                current,
+                current,
                 strength,
                 trend,
                 additionalData
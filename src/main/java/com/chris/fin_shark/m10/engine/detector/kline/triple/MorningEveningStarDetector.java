@@ -1,7 +1,7 @@
 package com.chris.fin_shark.m10.engine.detector.kline.triple;
 
 import com.chris.fin_shark.m10.engine.detector.AbstractKLineDetector;
-import com.chris.fin_shark.m10.engine.model.CandleStick;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.SignalType;
@@ -9,8 +9,6 @@ import com.chris.fin_shark.m10.enums.TrendDirection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -79,41 +77,41 @@ public class MorningEveningStarDetector extends AbstractKLineDetector {
     }
 
     @Override
-    protected List<DetectedPattern> doDetect(List<CandleStick> candles,
+    protected List<DetectedPattern> doDetect(CandleSeries bars,
                                              Map<String, Object> params,
                                              TrendDirection trendContext) {
         List<DetectedPattern> patterns = new ArrayList<>();
 
-        if (candles.size() < 3) {
+        if (bars.size() < 3) {
             return patterns;
         }
 
-        CandleStick first = candles.get(candles.size() - 3);
-        CandleStick second = candles.get(candles.size() - 2);
-        CandleStick third = candles.get(candles.size() - 1);
+        int first = bars.last() - 2;
+        int second = bars.last() - 1;
+        int third = bars.last();
 
         // 判斷趨勢背景
         TrendDirection trend = trendContext;
         if (trend == null || trend == TrendDirection.UNKNOWN) {
-            // 用更長的回溯期來判斷趨勢
-            if (isInDowntrend(candles.subList(0, candles.size() - 3), 5)) {
+            // 用更長的回溯期來判斷趨勢（以型態前一根為準）
+            if (isInDowntrend(bars, first, 5)) {
                 trend = TrendDirection.DOWNTREND;
-            } else if (isInUptrend(candles.subList(0, candles.size() - 3), 5)) {
+            } else if (isInUptrend(bars, first, 5)) {
                 trend = TrendDirection.UPTREND;
             }
         }
 
         // 檢查晨星
-        if (isMorningStar(first, second, third)) {
-            DetectedPattern pattern = createMorningStarPattern(first, second, third, candles, trend);
+        if (isMorningStar(bars, first, second, third)) {
+            DetectedPattern pattern = createMorningStarPattern(bars, first, second, third, trend);
             if (pattern != null) {
                 patterns.add(pattern);
             }
         }
 
         // 檢查夜星
-        if (isEveningStar(first, second, third)) {
-            DetectedPattern pattern = createEveningStarPattern(first, second, third, candles, trend);
+        if (isEveningStar(bars, first, second, third)) {
+            DetectedPattern pattern = createEveningStarPattern(bars, first, second, third, trend);
             if (pattern != null) {
                 patterns.add(pattern);
             }
@@ -125,102 +123,95 @@ public class MorningEveningStarDetector extends AbstractKLineDetector {
     /**
      * 檢查是否為晨星
      */
-    private boolean isMorningStar(CandleStick first, CandleStick second, CandleStick third) {
+    private boolean isMorningStar(CandleSeries bars, int first, int second, int third) {
         // 1. 第一根是大陰線
-        if (!first.isBearish() || !first.isLargeBody(0.50)) {
+        if (!bars.isBearish(first) || !bars.isLargeBody(first, 0.50)) {
             return false;
         }
 
         // 2. 第二根是小實體（星體）
-        if (!second.isSmallBody(0.35)) {
+        if (!bars.isSmallBody(second, 0.35)) {
             return false;
         }
 
         // 3. 第二根跳空向下（開盤低於第一根收盤）
         // 注意：有些市場可能不一定有明顯跳空
-        BigDecimal gap = first.getClose().subtract(second.getOpen().max(second.getClose()));
-        if (gap.compareTo(BigDecimal.ZERO) < 0) {
+        if (bars.close(first) < bars.bodyHigh(second)) {
             return false;
         }
 
         // 4. 第三根是大陽線
-        if (!third.isBullish() || !third.isLargeBody(0.50)) {
+        if (!bars.isBullish(third) || !bars.isLargeBody(third, 0.50)) {
             return false;
         }
 
         // 5. 第三根收盤穿入第一根實體的 50% 以上
-        BigDecimal firstMid = first.getBodyMidpoint();
-        return third.getClose().compareTo(firstMid) > 0;
+        return bars.close(third) > bars.bodyMidpoint(first);
     }
 
     /**
      * 檢查是否為夜星
      */
-    private boolean isEveningStar(CandleStick first, CandleStick second, CandleStick third) {
+    private boolean isEveningStar(CandleSeries bars, int first, int second, int third) {
         // 1. 第一根是大陽線
-        if (!first.isBullish() || !first.isLargeBody(0.50)) {
+        if (!bars.isBullish(first) || !bars.isLargeBody(first, 0.50)) {
             return false;
         }
 
         // 2. 第二根是小實體（星體）
-        if (!second.isSmallBody(0.35)) {
+        if (!bars.isSmallBody(second, 0.35)) {
             return false;
         }
 
         // 3. 第二根跳空向上（開盤高於第一根收盤）
-        BigDecimal gap = second.getOpen().min(second.getClose()).subtract(first.getClose());
-        if (gap.compareTo(BigDecimal.ZERO) < 0) {
+        if (bars.bodyLow(second) < bars.close(first)) {
             return false;
         }
 
         // 4. 第三根是大陰線
-        if (!third.isBearish() || !third.isLargeBody(0.50)) {
+        if (!bars.isBearish(third) || !bars.isLargeBody(third, 0.50)) {
             return false;
         }
 
         // 5. 第三根收盤穿入第一根實體的 50% 以上
-        BigDecimal firstMid = first.getBodyMidpoint();
-        return third.getClose().compareTo(firstMid) < 0;
+        return bars.close(third) < bars.bodyMidpoint(first);
     }
 
     /**
      * 建立晨星型態
      */
-    private DetectedPattern createMorningStarPattern(CandleStick first, CandleStick second,
-                                                     CandleStick third, List<CandleStick> candles,
+    private DetectedPattern createMorningStarPattern(CandleSeries bars, int first, int second, int third,
                                                      TrendDirection trend) {
         // 基礎強度：在下跌趨勢中更強
         int baseStrength = trend == TrendDirection.DOWNTREND ? 80 : 60;
 
         // 額外強度因子
-        long avgVolume = calculateAverageVolume(candles, 20);
-        boolean thirdVolumeHigh = isVolumeIncreased(third, avgVolume, 1.3);
+        long avgVolume = calculateAverageVolume(bars, 20);
+        boolean thirdVolumeHigh = isVolumeIncreased(bars, third, avgVolume, 1.3);
 
         // 第二根是十字星更強
-        boolean starIsDoji = second.isNearDoji(0.15);
+        boolean starIsDoji = bars.isNearDoji(second, 0.15);
 
         // 第三根收盤越高越強
-        BigDecimal penetration = third.getClose().subtract(first.getOpen());
-        boolean deepPenetration = penetration.compareTo(BigDecimal.ZERO) >= 0;
+        boolean deepPenetration = bars.close(third) >= bars.open(first);
 
         int strength = calculateStrength(baseStrength, thirdVolumeHigh, starIsDoji, deepPenetration);
 
         Map<String, Object> additionalData = Map.of(
                 "volumeConfirmation", thirdVolumeHigh,
                 "keyLevels", Map.of(
-                        "firstBodyRatio", first.getRange().compareTo(BigDecimal.ZERO) > 0 ?
-                                first.getBody().divide(first.getRange(), 4, RoundingMode.HALF_UP).doubleValue() : 0,
-                        "starBodyRatio", second.getRange().compareTo(BigDecimal.ZERO) > 0 ?
-                                second.getBody().divide(second.getRange(), 4, RoundingMode.HALF_UP).doubleValue() : 0,
-                        "thirdBodyRatio", third.getRange().compareTo(BigDecimal.ZERO) > 0 ?
-                                third.getBody().divide(third.getRange(), 4, RoundingMode.HALF_UP).doubleValue() : 0,
+                        "firstBodyRatio", round(bars.bodyRatio(first), 4),
+                        "starBodyRatio", round(bars.bodyRatio(second), 4),
+                        "thirdBodyRatio", round(bars.bodyRatio(third), 4),
                         "isStarDoji", starIsDoji
                 )
         );
 
         DetectedPattern pattern = buildPattern(
                 "KLINE040",
-                List.of(first, second, third),
+                bars,
+                first,
+                third,
                 strength,
                 trend,
                 additionalData
@@ -236,41 +227,38 @@ public class MorningEveningStarDetector extends AbstractKLineDetector {
     /**
      * 建立夜星型態
      */
-    private DetectedPattern createEveningStarPattern(CandleStick first, CandleStick second,
-                                                     CandleStick third, List<CandleStick> candles,
+    private DetectedPattern createEveningStarPattern(CandleSeries bars, int first, int second, int third,
                                                      TrendDirection trend) {
         // 基礎強度：在上漲趨勢中更強
         int baseStrength = trend == TrendDirection.UPTREND ? 80 : 60;
 
         // 額外強度因子
-        long avgVolume = calculateAverageVolume(candles, 20);
-        boolean thirdVolumeHigh = isVolumeIncreased(third, avgVolume, 1.3);
+        long avgVolume = calculateAverageVolume(bars, 20);
+        boolean thirdVolumeHigh = isVolumeIncreased(bars, third, avgVolume, 1.3);
 
         // 第二根是十字星更強
-        boolean starIsDoji = second.isNearDoji(0.15);
+        boolean starIsDoji = bars.isNearDoji(second, 0.15);
 
         // 第三根收盤越低越強
-        BigDecimal penetration = first.getOpen().subtract(third.getClose());
-        boolean deepPenetration = penetration.compareTo(BigDecimal.ZERO) >= 0;
+        boolean deepPenetration = bars.open(first) >= bars.close(third);
 
         int strength = calculateStrength(baseStrength, thirdVolumeHigh, starIsDoji, deepPenetration);
 
         Map<String, Object> additionalData = Map.of(
                 "volumeConfirmation", thirdVolumeHigh,
                 "keyLevels", Map.of(
-                        "firstBodyRatio", first.getRange().compareTo(BigDecimal.ZERO) > 0 ?
-                                first.getBody().divide(first.getRange(), 4, RoundingMode.HALF_UP).doubleValue() : 0,
-                        "starBodyRatio", second.getRange().compareTo(BigDecimal.ZERO) > 0 ?
-                                second.getBody().divide(second.getRange(), 4, RoundingMode.HALF_UP).doubleValue() : 0,
-                        "thirdBodyRatio", third.getRange().compareTo(BigDecimal.ZERO) > 0 ?
-                                third.getBody().divide(third.getRange(), 4, RoundingMode.HALF_UP).doubleValue() : 0,
+                        "firstBodyRatio", round(bars.bodyRatio(first), 4),
+                        "starBodyRatio", round(bars.bodyRatio(second), 4),
+                        "thirdBodyRatio", round(bars.bodyRatio(third), 4),
                         "isStarDoji", starIsDoji
                 )
         );
 
         DetectedPattern pattern = buildPattern(
                 "KLINE041",
-                List.of(first, second, third),
+                bars,
+                first,
+                third,
                 strength,
                 trend,
                 additionalData
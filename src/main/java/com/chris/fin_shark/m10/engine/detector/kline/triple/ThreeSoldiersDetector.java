@@ -1,7 +1,7 @@
 package com.chris.fin_shark.m10.engine.detector.kline.triple;
 
 import com.chris.fin_shark.m10.engine.detector.AbstractKLineDetector;
-import com.chris.fin_shark.m10.engine.model.CandleStick;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
 import com.chris.fin_shark.m10.enums.PatternCategory;
 import com.chris.fin_shark.m10.enums.SignalType;
@@ -9,8 +9,6 @@ import com.chris.fin_shark.m10.enums.TrendDirection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -79,40 +77,40 @@ public class ThreeSoldiersDetector extends AbstractKLineDetector {
     }
 
     @Override
-    protected List<DetectedPattern> doDetect(List<CandleStick> candles,
+    protected List<DetectedPattern> doDetect(CandleSeries bars,
                                              Map<String, Object> params,
                                              TrendDirection trendContext) {
         List<DetectedPattern> patterns = new ArrayList<>();
 
-        if (candles.size() < 3) {
+        if (bars.size() < 3) {
             return patterns;
         }
 
-        CandleStick first = candles.get(candles.size() - 3);
-        CandleStick second = candles.get(candles.size() - 2);
-        CandleStick third = candles.get(candles.size() - 1);
+        int first = bars.last() - 2;
+        int second = bars.last() - 1;
+        int third = bars.last();
 
-        // 判斷趨勢背景
+        // 判斷趨勢背景（以型態前一根為準）
         TrendDirection trend = trendContext;
         if (trend == null || trend == TrendDirection.UNKNOWN) {
-            if (isInDowntrend(candles.subList(0, candles.size() - 3), 5)) {
+            if (isInDowntrend(bars, first, 5)) {
                 trend = TrendDirection.DOWNTREND;
-            } else if (isInUptrend(candles.subList(0, candles.size() - 3), 5)) {
+            } else if (isInUptrend(bars, first, 5)) {
                 trend = TrendDirection.UPTREND;
             }
         }
 
         // 檢查三白兵
-        if (isThreeWhiteSoldiers(first, second, third)) {
-            DetectedPattern pattern = createThreeWhiteSoldiersPattern(first, second, third, candles, trend);
+        if (isThreeWhiteSoldiers(bars, first, second, third)) {
+            DetectedPattern pattern = createThreeWhiteSoldiersPattern(bars, first, second, third, trend);
             if (pattern != null) {
                 patterns.add(pattern);
             }
         }
 
         // 檢查三烏鴉
-        if (isThreeBlackCrows(first, second, third)) {
-            DetectedPattern pattern = createThreeBlackCrowsPattern(first, second, third, candles, trend);
+        if (isThreeBlackCrows(bars, first, second, third)) {
+            DetectedPattern pattern = createThreeBlackCrowsPattern(bars, first, second, third, trend);
             if (pattern != null) {
                 patterns.add(pattern);
             }
@@ -124,37 +122,37 @@ public class ThreeSoldiersDetector extends AbstractKLineDetector {
     /**
      * 檢查是否為三白兵
      */
-    private boolean isThreeWhiteSoldiers(CandleStick first, CandleStick second, CandleStick third) {
+    private boolean isThreeWhiteSoldiers(CandleSeries bars, int first, int second, int third) {
         // 1. 三根都是陽線
-        if (!first.isBullish() || !second.isBullish() || !third.isBullish()) {
+        if (!bars.isBullish(first) || !bars.isBullish(second) || !bars.isBullish(third)) {
             return false;
         }
 
         // 2. 三根都有一定的實體大小
-        if (!first.isLargeBody(0.40) || !second.isLargeBody(0.40) || !third.isLargeBody(0.40)) {
+        if (!bars.isLargeBody(first, 0.40) || !bars.isLargeBody(second, 0.40) || !bars.isLargeBody(third, 0.40)) {
             return false;
         }
 
         // 3. 每根的收盤價都高於前一根
-        if (second.getClose().compareTo(first.getClose()) <= 0 ||
-            third.getClose().compareTo(second.getClose()) <= 0) {
+        if (bars.close(second) <= bars.close(first) ||
+            bars.close(third) <= bars.close(second)) {
             return false;
         }
 
         // 4. 每根的開盤在前一根實體內（或略高）
-        if (second.getOpen().compareTo(first.getOpen()) < 0 ||
-            second.getOpen().compareTo(first.getClose()) > 0) {
+        if (bars.open(second) < bars.open(first) ||
+            bars.open(second) > bars.close(first)) {
             return false;
         }
-        if (third.getOpen().compareTo(second.getOpen()) < 0 ||
-            third.getOpen().compareTo(second.getClose()) > 0) {
+        if (bars.open(third) < bars.open(second) ||
+            bars.open(third) > bars.close(second)) {
             return false;
         }
 
         // 5. 上影線不能太長（避免「前進受阻」變體）
-        boolean shortUpperShadows = first.hasShortUpperShadow(0.5) &&
-                second.hasShortUpperShadow(0.5) &&
-                third.hasShortUpperShadow(0.5);
+        boolean shortUpperShadows = bars.hasShortUpperShadow(first, 0.5) &&
+                bars.hasShortUpperShadow(second, 0.5) &&
+                bars.hasShortUpperShadow(third, 0.5);
 
         return shortUpperShadows;
     }
@@ -162,37 +160,37 @@ public class ThreeSoldiersDetector extends AbstractKLineDetector {
     /**
      * 檢查是否為三烏鴉
      */
-    private boolean isThreeBlackCrows(CandleStick first, CandleStick second, CandleStick third) {
+    private boolean isThreeBlackCrows(CandleSeries bars, int first, int second, int third) {
         // 1. 三根都是陰線
-        if (!first.isBearish() || !second.isBearish() || !third.isBearish()) {
+        if (!bars.isBearish(first) || !bars.isBearish(second) || !bars.isBearish(third)) {
             return false;
         }
 
         // 2. 三根都有一定的實體大小
-        if (!first.isLargeBody(0.40) || !second.isLargeBody(0.40) || !third.isLargeBody(0.40)) {
+        if (!bars.isLargeBody(first, 0.40) || !bars.isLargeBody(second, 0.40) || !bars.isLargeBody(third, 0.40)) {
             return false;
         }
 
         // 3. 每根的收盤價都低於前一根
-        if (second.getClose().compareTo(first.getClose()) >= 0 ||
-            third.getClose().compareTo(second.getClose()) >= 0) {
+        if (bars.close(second) >= bars.close(first) ||
+            bars.close(third) >= bars.close(second)) {
             return false;
         }
 
         // 4. 每根的開盤在前一根實體內（或略低）
-        if (second.getOpen().compareTo(first.getClose()) < 0 ||
-            second.getOpen().compareTo(first.getOpen()) > 0) {
+        if (bars.open(second) < bars.close(first) ||
+            bars.open(second) > bars.open(first)) {
             return false;
         }
-        if (third.getOpen().compareTo(second.getClose()) < 0 ||
-            third.getOpen().compareTo(second.getOpen()) > 0) {
+        if (bars.open(third) < bars.close(second) ||
+            bars.open(third) > bars.open(second)) {
             return false;
         }
 
         // 5. 下影線不能太長
-        boolean shortLowerShadows = first.hasShortLowerShadow(0.5) &&
-                second.hasShortLowerShadow(0.5) &&
-                third.hasShortLowerShadow(0.5);
+        boolean shortLowerShadows = bars.hasShortLowerShadow(first, 0.5) &&
+                bars.hasShortLowerShadow(second, 0.5) &&
+                bars.hasShortLowerShadow(third, 0.5);
 
         return shortLowerShadows;
     }
@@ -200,39 +198,30 @@ public class ThreeSoldiersDetector extends AbstractKLineDetector {
     /**
      * 建立三白兵型態
      */
-    private DetectedPattern createThreeWhiteSoldiersPattern(CandleStick first, CandleStick second,
-                                                            CandleStick third, List<CandleStick> candles,
+    private DetectedPattern createThreeWhiteSoldiersPattern(CandleSeries bars, int first, int second, int third,
                                                             TrendDirection trend) {
         // 基礎強度：在下跌趨勢後出現更有意義（反轉）
         int baseStrength = trend == TrendDirection.DOWNTREND ? 85 : 75;
 
-        // 額外強度因子
-        long avgVolume = calculateAverageVolume(candles, 20);
-
         // 成交量逐步放大
-        boolean volumeIncreasing = first.getVolume() != null && second.getVolume() != null && third.getVolume() != null &&
-                second.getVolume() > first.getVolume() &&
-                third.getVolume() > second.getVolume();
+        boolean volumeIncreasing = bars.volume(second) > bars.volume(first) &&
+                bars.volume(third) > bars.volume(second);
 
         // 實體大小相近（健康的三白兵）
-        BigDecimal avgBody = first.getBody().add(second.getBody()).add(third.getBody())
-                .divide(BigDecimal.valueOf(3), 4, RoundingMode.HALF_UP);
-        boolean consistentBodies = first.getBody().divide(avgBody, 2, RoundingMode.HALF_UP).doubleValue() >= 0.7 &&
-                second.getBody().divide(avgBody, 2, RoundingMode.HALF_UP).doubleValue() >= 0.7 &&
-                third.getBody().divide(avgBody, 2, RoundingMode.HALF_UP).doubleValue() >= 0.7;
+        double avgBody = round((bars.body(first) + bars.body(second) + bars.body(third)) / 3, 4);
+        boolean consistentBodies = isConsistentBodies(bars, avgBody, first, second, third);
 
         int strength = calculateStrength(baseStrength, volumeIncreasing, consistentBodies);
 
         // 計算總漲幅
-        BigDecimal totalGain = third.getClose().subtract(first.getOpen());
-        double gainPercent = first.getOpen().compareTo(BigDecimal.ZERO) > 0 ?
-                totalGain.divide(first.getOpen(), 4, RoundingMode.HALF_UP).doubleValue() * 100 : 0;
+        double gainPercent = bars.open(first) > 0 ?
+                round((bars.close(third) - bars.open(first)) / bars.open(first), 4) * 100 : 0;
 
         Map<String, Object> additionalData = Map.of(
                 "volumeConfirmation", volumeIncreasing,
                 "keyLevels", Map.of(
                         "totalGainPercent", gainPercent,
-                        "avgBodySize", avgBody.doubleValue(),
+                        "avgBodySize", avgBody,
                         "isConsistentBodies", consistentBodies,
                         "isVolumeIncreasing", volumeIncreasing
                 )
@@ -240,7 +229,9 @@ public class ThreeSoldiersDetector extends AbstractKLineDetector {
 
         DetectedPattern pattern = buildPattern(
                 "KLINE042",
-                List.of(first, second, third),
+                bars,
+                first,
+                third,
                 strength,
                 trend,
                 additionalData
@@ -256,40 +247,30 @@ public class ThreeSoldiersDetector extends AbstractKLineDetector {
     /**
      * 建立三烏鴉型態
      */
-    private DetectedPattern createThreeBlackCrowsPattern(CandleStick first, CandleStick second,
-                                                         CandleStick third, List<CandleStick> candles,
+    private DetectedPattern createThreeBlackCrowsPattern(CandleSeries bars, int first, int second, int third,
                                                          TrendDirection trend) {
         // 基礎強度：在上漲趨勢後出現更有意義（反轉）
         int baseStrength = trend == TrendDirection.UPTREND ? 85 : 75;
 
-        // 額外強度因子
-        long avgVolume = calculateAverageVolume(candles, 20);
-
         // 成交量逐步放大
-        boolean volumeIncreasing = first.getVolume() != null && second.getVolume() != null && third.getVolume() != null &&
-                second.getVolume() > first.getVolume() &&
-                third.getVolume() > second.getVolume();
+        boolean volumeIncreasing = bars.volume(second) > bars.volume(first) &&
+                bars.volume(third) > bars.volume(second);
 
         // 實體大小相近
-        BigDecimal avgBody = first.getBody().add(second.getBody()).add(third.getBody())
-                .divide(BigDecimal.valueOf(3), 4, RoundingMode.HALF_UP);
-        boolean consistentBodies = avgBody.compareTo(BigDecimal.ZERO) > 0 &&
-                first.getBody().divide(avgBody, 2, RoundingMode.HALF_UP).doubleValue() >= 0.7 &&
-                second.getBody().divide(avgBody, 2, RoundingMode.HALF_UP).doubleValue() >= 0.7 &&
-                third.getBody().divide(avgBody, 2, RoundingMode.HALF_UP).doubleValue() >= 0.7;
+        double avgBody = round((bars.body(first) + bars.body(second) + bars.body(third)) / 3, 4);
+        boolean consistentBodies = isConsistentBodies(bars, avgBody, first, second, third);
 
         int strength = calculateStrength(baseStrength, volumeIncreasing, consistentBodies);
 
         // 計算總跌幅
-        BigDecimal totalLoss = first.getOpen().subtract(third.getClose());
-        double lossPercent = first.getOpen().compareTo(BigDecimal.ZERO) > 0 ?
-                totalLoss.divide(first.getOpen(), 4, RoundingMode.HALF_UP).doubleValue() * 100 : 0;
+        double lossPercent = bars.open(first) > 0 ?
+                round((bars.open(first) - bars.close(third)) / bars.open(first), 4) * 100 : 0;
 
         Map<String, Object> additionalData = Map.of(
                 "volumeConfirmation", volumeIncreasing,
                 "keyLevels", Map.of(
                         "totalLossPercent", lossPercent,
-                        "avgBodySize", avgBody.doubleValue(),
+                        "avgBodySize", avgBody,
                         "isConsistentBodies", consistentBodies,
                         "isVolumeIncreasing", volumeIncreasing
                 )
@@ -297,7 +278,9 @@ public class ThreeSoldiersDetector extends AbstractKLineDetector {
 
         DetectedPattern pattern = buildPattern(
                 "KLINE043",
-                List.of(first, second, third),
+                bars,
+                first,
+                third,
                 strength,
                 trend,
                 additionalData
@@ -309,4 +292,14 @@ public class ThreeSoldiersDetector extends AbstractKLineDetector {
 
         return pattern;
     }
+
+    /**
+     * 三根實體是否都達平均實體的 70% 以上
+     */
+    private boolean isConsistentBodies(CandleSeries bars, double avgBody, int first, int second, int third) {
+        return avgBody > 0 &&
+                round(bars.body(first) / avgBody, 2) >= 0.7 &&
+                round(bars.body(second) / avgBody, 2) >= 0.7 &&
+                round(bars.body(third) / avgBody, 2) >= 0.7;
+    }
 }
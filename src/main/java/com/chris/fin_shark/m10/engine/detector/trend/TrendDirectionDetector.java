@@ -1,6 +1,7 @@
 package com.chris.fin_shark.m10.engine.detector.trend;
 
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m10.engine.PatternContext;
 import com.chris.fin_shark.m10.engine.PatternDetector;
 import com.chris.fin_shark.m10.engine.model.CandleStick;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
@@ -14,7 +15,6 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDate;
 import java.util.*;
 
 /**
@@ -106,6 +106,12 @@ public class TrendDirectionDetector implements PatternDetector {
 
     @Override
     public List<DetectedPattern> detect(PriceSeries series, Map<String, Object> params, TrendDirection context) {
+        return detect(PatternContext.of(series), params, context);
+    }
+
+    @Override
+    public List<DetectedPattern> detect(PatternContext context, Map<String, Object> params, TrendDirection trend) {
+        PriceSeries series = context.getSeries();
         List<DetectedPattern> patterns = new ArrayList<>();
 
         if (series.size() < getMinDataPoints()) {
@@ -121,8 +127,9 @@ public class TrendDirectionDetector implements PatternDetector {
             return patterns;
         }
 
-        // 取得涉及的 K 線
-        List<CandleStick> involvedCandles = convertToCandleSticks(series, analysis.trendStartIndex);
+        // 取得涉及的 K 線（取自共用背景）
+        List<CandleStick> involvedCandles =
+                context.getBars().toCandleSticks(analysis.trendStartIndex, series.size());
 
         DetectedPattern pattern = DetectedPattern.builder()
                 .patternId(analysis.patternId)
@@ -356,31 +363,4 @@ public class TrendDirectionDetector implements PatternDetector {
 
         return (n * sumXY - sumX * sumY) / denominator;
     }
-
-    /**
-     * 轉換為 CandleStick
-     */
-    private List<CandleStick> convertToCandleSticks(PriceSeries series, int startIdx) {
-        List<CandleStick> candles = new ArrayList<>();
-
-        List<LocalDate> dates = series.getDates();
-        double[] opens = series.getOpenArray();
-        double[] highs = series.getHighArray();
-        double[] lows = series.getLowArray();
-        double[] closes = series.getCloseArray();
-        long[] volumes = series.getVolumeArray();
-
-        for (int i = startIdx; i < series.size(); i++) {
-            candles.add(CandleStick.builder()
-                    .date(dates.get(i))
-                    .open(BigDecimal.valueOf(opens[i]))
-                    .high(BigDecimal.valueOf(highs[i]))
-                    .low(BigDecimal.valueOf(lows[i]))
-                    .close(BigDecimal.valueOf(closes[i]))
-                    .volume(volumes != null && volumes.length > i ? volumes[i] : 0L)
-                    .build());
-        }
-
-        return candles;
-    }
 }
@@ -0,0 +1,451 @@
+package com.chris.fin_shark.m10.engine.model;
+
+import com.chris.fin_shark.m07.engine.RollingWindows;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 欄式 K 線序列（Struct of Arrays）
+ * <p>
+ * 型態偵測專用：OHLCV 直接共用 {@link PriceColumns} 的原生陣列，
+ * 並在建立時一次算好每根 K 線的實體、上下影線、全距，以及成交量前綴和。
+ * 偵測器以索引存取，判斷過程不建立任何物件；
+ * 只有輸出到 {@link DetectedPattern} 的 K 線才轉換為 {@link CandleStick}。
+ * </p>
+ * <p>
+ * 注意：陣列為唯讀共用，偵測器不可修改其內容
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class CandleSeries {
+
+    private static final double[] POW10 = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    /** 實體、影線、全距的小數位數 */
+    private static final int DIFF_SCALE = 4;
+
+    private final PriceColumns columns;
+
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final long[] volume;
+
+    // === 每根 K 線的衍生特徵 ===
+
+    private final double[] body;
+    private final double[] upperShadow;
+    private final double[] lowerShadow;
+    private final double[] range;
+
+    /** 成交量前綴和：volumePrefix[i] 為前 i 根的合計 */
+    private final long[] volumePrefix;
+
+    /** 樞紐範圍（第一次取用時以單調堆疊計算） */
+    private int[] highReach;
+    private int[] lowReach;
+
+    private CandleSeries(PriceColumns columns) {
+        this.columns = columns;
+        this.open = columns.open();
+        this.high = columns.high();
+        this.low = columns.low();
+        this.close = columns.close();
+        this.volume = columns.volume();
+
+        int n = columns.size();
+        this.body = new double[n];
+        this.upperShadow = new double[n];
+        this.lowerShadow = new double[n];
+        this.range = new double[n];
+        this.volumePrefix = new long[n + 1];
+
+        // 價差取至小數 4 位：跳動單位價格的差值與 CandleStick 的 BigDecimal 減法相同，
+        // 避免 20.15 - 19.35 = 0.7999... 之類的誤差讓剛好相等的倍數比較失敗
+        for (int i = 0; i < n; i++) {
+            double bodyHigh = Math.max(open[i], close[i]);
+            double bodyLow = Math.min(open[i], close[i]);
+            body[i] = round(bodyHigh - bodyLow, DIFF_SCALE);
+            upperShadow[i] = round(high[i] - bodyHigh, DIFF_SCALE);
+            lowerShadow[i] = round(bodyLow - low[i], DIFF_SCALE);
+            range[i] = round(high[i] - low[i], DIFF_SCALE);
+            volumePrefix[i + 1] = volumePrefix[i] + volume(i);
+        }
+    }
+
+    /**
+     * 由價格序列建立（共用其欄式快取）
+     */
+    public static CandleSeries of(PriceSeries series) {
+        return new CandleSeries(series.getColumns());
+    }
+
+    /**
+     * 由欄式資料建立
+     */
+    public static CandleSeries of(PriceColumns columns) {
+        return new CandleSeries(columns);
+    }
+
+    /**
+     * K 線根數
+     */
+    public int size() {
+        return columns.size();
+    }
+
+    /**
+     * 最後一根的索引
+     */
+    public int last() {
+        return size() - 1;
+    }
+
+    // === 原始資料 ===
+
+    public LocalDate date(int index) {
+        return columns.dateAt(index);
+    }
+
+    public double open(int index) {
+        return open[index];
+    }
+
+    public double high(int index) {
+        return high[index];
+    }
+
+    public double low(int index) {
+        return low[index];
+    }
+
+    public double close(int index) {
+        return close[index];
+    }
+
+    public long volume(int index) {
+        return index < volume.length ? volume[index] : 0L;
+    }
+
+    // === 衍生特徵 ===
+
+    /**
+     * 實體大小（絕對值）
+     */
+    public double body(int index) {
+        return body[index];
+    }
+
+    /**
+     * 上影線長度
+     */
+    public double upperShadow(int index) {
+        return upperShadow[index];
+    }
+
+    /**
+     * 下影線長度
+     */
+    public double lowerShadow(int index) {
+        return lowerShadow[index];
+    }
+
+    /**
+     * 全距（最高到最低）
+     */
+    public double range(int index) {
+        return range[index];
+    }
+
+    /**
+     * 實體上緣
+     */
+    public double bodyHigh(int index) {
+        return Math.max(open[index], close[index]);
+    }
+
+    /**
+     * 實體下緣
+     */
+    public double bodyLow(int index) {
+        return Math.min(open[index], close[index]);
+    }
+
+    /**
+     * 實體中點
+     */
+    public double bodyMidpoint(int index) {
+        return (open[index] + close[index]) / 2;
+    }
+
+    /**
+     * 實體佔全距比例（全距為 0 時回傳 0）
+     */
+    public double bodyRatio(int index) {
+        return range[index] > 0 ? body[index] / range[index] : 0;
+    }
+
+    // === 判斷方法（語意同 CandleStick） ===
+
+    /**
+     * 是否為陽線（收盤 > 開盤）
+     */
+    public boolean isBullish(int index) {
+        return close[index] > open[index];
+    }
+
+    /**
+     * 是否為陰線（收盤 < 開盤）
+     */
+    public boolean isBearish(int index) {
+        return close[index] < open[index];
+    }
+
+    /**
+     * 是否為近似十字星（實體小於全距的指定比例）
+     */
+    public boolean isNearDoji(int index, double threshold) {
+        return range[index] == 0 || round(body[index] / range[index], 4) <= threshold;
+    }
+
+    /**
+     * 是否為大實體 K 線（實體 >= 全距的指定比例）
+     */
+    public boolean isLargeBody(int index, double minRatio) {
+        return range[index] != 0 && round(body[index] / range[index], 4) >= minRatio;
+    }
+
+    /**
+     * 是否為小實體 K 線（實體 <= 全距的指定比例）
+     */
+    public boolean isSmallBody(int index, double maxRatio) {
+        return range[index] == 0 || round(body[index] / range[index], 4) <= maxRatio;
+    }
+
+    /**
+     * 是否有長下影線（下影線 >= 實體的指定倍數）
+     */
+    public boolean hasLongLowerShadow(int index, double multiplier) {
+        if (body[index] == 0) {
+            return lowerShadow[index] > 0;
+        }
+        return lowerShadow[index] >= body[index] * multiplier;
+    }
+
+    /**
+     * 是否有長上影線（上影線 >= 實體的指定倍數）
+     */
+    public boolean hasLongUpperShadow(int index, double multiplier) {
+        if (body[index] == 0) {
+            return upperShadow[index] > 0;
+        }
+        return upperShadow[index] >= body[index] * multiplier;
+    }
+
+    /**
+     * 是否有短上影線（上影線 <= 實體的指定比例）
+     */
+    public boolean hasShortUpperShadow(int index, double maxRatio) {
+        if (body[index] == 0) {
+            return upperShadow[index] == 0;
+        }
+        return upperShadow[index] <= body[index] * maxRatio;
+    }
+
+    /**
+     * 是否有短下影線（下影線 <= 實體的指定比例）
+     */
+    public boolean hasShortLowerShadow(int index, double maxRatio) {
+        if (body[index] == 0) {
+            return lowerShadow[index] == 0;
+        }
+        return lowerShadow[index] <= body[index] * maxRatio;
+    }
+
+    /**
+     * index 的實體是否完全包覆 other 的實體（吞噬）
+     */
+    public boolean engulfs(int index, int other) {
+        return bodyHigh(index) >= bodyHigh(other) && bodyLow(index) <= bodyLow(other);
+    }
+
+    /**
+     * index 的實體是否完全在 other 的實體內（孕線）
+     */
+    public boolean isInsideOf(int index, int other) {
+        return bodyHigh(index) <= bodyHigh(other) && bodyLow(index) >= bodyLow(other);
+    }
+
+    // === 區間統計 ===
+
+    /**
+     * 區間平均成交量 [fromIndex, toIndex)，區間為空時回傳 0
+     */
+    public long averageVolume(int fromIndex, int toIndex) {
+        int from = Math.max(0, fromIndex);
+        int to = Math.min(size(), toIndex);
+        return to > from ? (volumePrefix[to] - volumePrefix[from]) / (to - from) : 0L;
+    }
+
+    /**
+     * 區間平均收盤價 [fromIndex, toIndex)，區間為空時回傳 0
+     * <p>
+     * 逐筆加總（只用於短區間），結果只取決於區間內的收盤價，與序列起點無關
+     * </p>
+     */
+    public double averageClose(int fromIndex, int toIndex) {
+        int from = Math.max(0, fromIndex);
+        int to = Math.min(size(), toIndex);
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += close[i];
+        }
+        return to > from ? sum / (to - from) : 0.0;
+    }
+
+    /**
+     * 區間最高價 [fromIndex, toIndex)，區間為空時回傳 0
+     */
+    public double highestHigh(int fromIndex, int toIndex) {
+        double highest = 0;
+        for (int i = Math.max(0, fromIndex); i < Math.min(size(), toIndex); i++) {
+            if (high[i] > highest) {
+                highest = high[i];
+            }
+        }
+        return highest;
+    }
+
+    /**
+     * 區間最低價 [fromIndex, toIndex)，區間為空時回傳 Double.MAX_VALUE
+     */
+    public double lowestLow(int fromIndex, int toIndex) {
+        double lowest = Double.MAX_VALUE;
+        for (int i = Math.max(0, fromIndex); i < Math.min(size(), toIndex); i++) {
+            if (low[i] < lowest) {
+                lowest = low[i];
+            }
+        }
+        return lowest;
+    }
+
+    /**
+     * 滑動區間最高價，第 i 筆為 [i - period + 1, i] 的最高價（視窗未滿為 NaN）
+     */
+    public double[] rollingHighestHigh(int period) {
+        return RollingWindows.rollingMax(high, period);
+    }
+
+    /**
+     * 滑動區間最低價，第 i 筆為 [i - period + 1, i] 的最低價（視窗未滿為 NaN）
+     */
+    public double[] rollingLowestLow(int period) {
+        return RollingWindows.rollingMin(low, period);
+    }
+
+    // === 樞紐範圍 ===
+
+    /**
+     * 高點樞紐範圍：左右兩側各有幾根 K 線的最高價嚴格低於本根（取兩側較小者，序列邊界亦視為阻擋）
+     * <p>
+     * 對任一 lookback，本根為樞紐高點 ⇔ highReach(index) &gt;= lookback，
+     * 因此一次計算即可服務所有 lookback
+     * </p>
+     */
+    public int highReach(int index) {
+        if (highReach == null) {
+            highReach = reach(high, true);
+        }
+        return highReach[index];
+    }
+
+    /**
+     * 低點樞紐範圍：左右兩側各有幾根 K 線的最低價嚴格高於本根（取兩側較小者）
+     */
+    public int lowReach(int index) {
+        if (lowReach == null) {
+            lowReach = reach(low, false);
+        }
+        return lowReach[index];
+    }
+
+    /**
+     * 以單調堆疊找出左右兩側第一根「不被本根嚴格壓過」的 K 線，O(N)
+     */
+    private static int[] reach(double[] values, boolean isHigh) {
+        int n = values.length;
+        int[] result = new int[n];
+        int[] stack = new int[n];
+        int top = -1;
+
+        // 左側：最近一根 >= 本根（低點為 <=）的位置
+        for (int i = 0; i < n; i++) {
+            while (top >= 0 && dominates(values[i], values[stack[top]], isHigh)) {
+                top--;
+            }
+            result[i] = i - (top >= 0 ? stack[top] : -1) - 1;
+            stack[++top] = i;
+        }
+
+        // 右側：同上，取兩側較小者
+        top = -1;
+        for (int i = n - 1; i >= 0; i--) {
+            while (top >= 0 && dominates(values[i], values[stack[top]], isHigh)) {
+                top--;
+            }
+            result[i] = Math.min(result[i], (top >= 0 ? stack[top] : n) - i - 1);
+            stack[++top] = i;
+        }
+        return result;
+    }
+
+    private static boolean dominates(double value, double other, boolean isHigh) {
+        return isHigh ? value > other : value < other;
+    }
+
+    /**
+     * 四捨五入至指定小數位（不建立 BigDecimal）
+     * <p>
+     * 比例門檻沿用原本 BigDecimal 除法的捨入精度，判斷結果與 CandleStick 版本一致
+     * </p>
+     */
+    public static double round(double value, int scale) {
+        double factor = POW10[scale];
+        return Math.round(value * factor) / factor;
+    }
+
+    // === 輸出轉換 ===
+
+    /**
+     * 轉換單根 K 線（僅用於輸出）
+     */
+    public CandleStick toCandleStick(int index) {
+        return CandleStick.builder()
+                .date(date(index))
+                .open(BigDecimal.valueOf(open[index]))
+                .high(BigDecimal.valueOf(high[index]))
+                .low(BigDecimal.valueOf(low[index]))
+                .close(BigDecimal.valueOf(close[index]))
+                .volume(volume(index))
+                .build();
+    }
+
+    /**
+     * 轉換區間 K 線 [fromIndex, toIndex)（僅用於輸出）
+     */
+    public List<CandleStick> toCandleSticks(int fromIndex, int toIndex) {
+        List<CandleStick> candles = new ArrayList<>(Math.max(0, toIndex - fromIndex));
+        for (int i = fromIndex; i < toIndex; i++) {
+            candles.add(toCandleStick(i));
+        }
+        return candles;
+    }
+}
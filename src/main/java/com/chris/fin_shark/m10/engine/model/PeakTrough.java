@@ -5,7 +5,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 
 /**
@@ -42,9 +41,9 @@ public class PeakTrough {
     private LocalDate date;
 
     /**
-     * 價格
+     * 價格（波峰為最高價，波谷為最低價）
      */
-    private BigDecimal price;
+    private double price;
 
     /**
      * 在原始序列中的索引
@@ -83,26 +82,24 @@ public class PeakTrough {
      * 此極值點是否高於另一個
      */
     public boolean isHigherThan(PeakTrough other) {
-        return this.price.compareTo(other.getPrice()) > 0;
+        return this.price > other.getPrice();
     }
 
     /**
      * 此極值點是否低於另一個
      */
     public boolean isLowerThan(PeakTrough other) {
-        return this.price.compareTo(other.getPrice()) < 0;
+        return this.price < other.getPrice();
     }
 
     /**
      * 計算與另一個極值點的價差百分比
      */
     public double getPriceDifferencePercent(PeakTrough other) {
-        if (other.getPrice().compareTo(BigDecimal.ZERO) == 0) {
+        if (other.getPrice() == 0) {
             return 0;
         }
-        return this.price.subtract(other.getPrice())
-                .divide(other.getPrice(), 6, java.math.RoundingMode.HALF_UP)
-                .doubleValue() * 100;
+        return (this.price - other.getPrice()) / other.getPrice() * 100;
     }
 
     /**
@@ -117,7 +114,7 @@ public class PeakTrough {
     /**
      * 建立波峰
      */
-    public static PeakTrough peak(LocalDate date, BigDecimal price, int index) {
+    public static PeakTrough peak(LocalDate date, double price, int index) {
         return PeakTrough.builder()
                 .type(Type.PEAK)
                 .date(date)
@@ -129,7 +126,7 @@ public class PeakTrough {
     /**
      * 建立波谷
      */
-    public static PeakTrough trough(LocalDate date, BigDecimal price, int index) {
+    public static PeakTrough trough(LocalDate date, double price, int index) {
         return PeakTrough.builder()
                 .type(Type.TROUGH)
                 .date(date)
@@ -141,7 +138,7 @@ public class PeakTrough {
     /**
      * 建立波峰（含成交量）
      */
-    public static PeakTrough peak(LocalDate date, BigDecimal price, int index, Long volume) {
+    public static PeakTrough peak(LocalDate date, double price, int index, Long volume) {
         return PeakTrough.builder()
                 .type(Type.PEAK)
                 .date(date)
@@ -154,7 +151,7 @@ public class PeakTrough {
     /**
      * 建立波谷（含成交量）
      */
-    public static PeakTrough trough(LocalDate date, BigDecimal price, int index, Long volume) {
+    public static PeakTrough trough(LocalDate date, double price, int index, Long volume) {
         return PeakTrough.builder()
                 .type(Type.TROUGH)
                 .date(date)
@@ -0,0 +1,191 @@
+package com.chris.fin_shark.m10.engine.model;
+
+import com.chris.fin_shark.m10.exception.PatternDetectionException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 波峰波谷索引（圖表型態候選搜尋用）
+ * <p>
+ * 由 {@link com.chris.fin_shark.m10.engine.PatternContext} 每支股票、每組樞紐參數建立一次，所有圖表偵測器共用：
+ * 1. 波峰、波谷各自依時間排序（只分離一次，偵測器不再逐次過濾完整列表）
+ * 2. 依 K 線索引二分搜尋時間區間，區間查詢只檢查區間內的樞紐點
+ * </p>
+ * <p>
+ * 工作預算：區間查詢檢查的樞紐點數量累計超過預算時拋出例外，
+ * 避免極長回溯期間或極低波動門檻拖慢單支股票（由引擎記錄於 Diagnostics）
+ * </p>
+ * <p>
+ * 注意：非執行緒安全，與所屬的分析背景一樣只在單一股票的偵測流程中使用
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+public final class PivotIndex {
+
+    /** 不限制工作量 */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final List<PeakTrough> pivots;
+    private final List<PeakTrough> peaks;
+    private final List<PeakTrough> troughs;
+
+    /** 波峰 / 波谷的 K 線索引（遞增，用於二分搜尋） */
+    private final int[] peakIndexes;
+    private final int[] troughIndexes;
+
+    private int budget = UNLIMITED;
+    private long examined;
+
+    private PivotIndex(List<PeakTrough> pivots) {
+        List<PeakTrough> peakList = new ArrayList<>();
+        List<PeakTrough> troughList = new ArrayList<>();
+        for (PeakTrough pivot : pivots) {
+            (pivot.isPeak() ? peakList : troughList).add(pivot);
+        }
+
+        this.pivots = pivots;
+        this.peaks = Collections.unmodifiableList(peakList);
+        this.troughs = Collections.unmodifiableList(troughList);
+        this.peakIndexes = toIndexes(peakList);
+        this.troughIndexes = toIndexes(troughList);
+    }
+
+    /**
+     * 建立索引
+     *
+     * @param pivots 波峰波谷列表（按時間排序）
+     */
+    public static PivotIndex of(List<PeakTrough> pivots) {
+        return new PivotIndex(pivots);
+    }
+
+    // === 列表 ===
+
+    /**
+     * 所有波峰波谷（按時間排序）
+     */
+    public List<PeakTrough> all() {
+        return pivots;
+    }
+
+    public int size() {
+        return pivots.size();
+    }
+
+    /**
+     * 波峰（按時間排序，唯讀）
+     */
+    public List<PeakTrough> peaks() {
+        return peaks;
+    }
+
+    /**
+     * 波谷（按時間排序，唯讀）
+     */
+    public List<PeakTrough> troughs() {
+        return troughs;
+    }
+
+    // === 區間查詢 ===
+
+    /**
+     * 區間 (fromIndex, toIndex) 內價格最低的波谷（不含兩端，同價取較早者），沒有時回傳 null
+     */
+    public PeakTrough lowestTroughBetween(int fromIndex, int toIndex) {
+        return extremeBetween(troughs, troughIndexes, fromIndex, toIndex, false);
+    }
+
+    /**
+     * 區間 (fromIndex, toIndex) 內價格最高的波峰（不含兩端，同價取較早者），沒有時回傳 null
+     */
+    public PeakTrough highestPeakBetween(int fromIndex, int toIndex) {
+        return extremeBetween(peaks, peakIndexes, fromIndex, toIndex, true);
+    }
+
+    // === 工作預算 ===
+
+    /**
+     * 設定工作預算（區間查詢累計可檢查的樞紐點數）
+     */
+    public void limitWork(int budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * 已檢查的樞紐點數
+     */
+    public long getExamined() {
+        return examined;
+    }
+
+    // === 私有方法 ===
+
+    private PeakTrough extremeBetween(List<PeakTrough> points, int[] indexes,
+                                      int fromIndex, int toIndex, boolean highest) {
+        int from = upperBound(indexes, fromIndex);
+        int to = lowerBound(indexes, toIndex);
+        charge(to - from);
+
+        PeakTrough best = null;
+        for (int i = from; i < to; i++) {
+            PeakTrough pivot = points.get(i);
+            if (best == null || (highest ? pivot.getPrice() > best.getPrice() : pivot.getPrice() < best.getPrice())) {
+                best = pivot;
+            }
+        }
+        return best;
+    }
+
+    private void charge(int count) {
+        examined += Math.max(0, count);
+        if (examined > budget) {
+            throw PatternDetectionException.searchBudgetExceeded(examined, budget);
+        }
+    }
+
+    /**
+     * 第一個 K 線索引 > key 的位置
+     */
+    private static int upperBound(int[] indexes, int key) {
+        int lo = 0;
+        int hi = indexes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (indexes[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 第一個 K 線索引 >= key 的位置
+     */
+    private static int lowerBound(int[] indexes, int key) {
+        int lo = 0;
+        int hi = indexes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (indexes[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int[] toIndexes(List<PeakTrough> points) {
+        int[] indexes = new int[points.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = points.get(i).getIndex();
+        }
+        return indexes;
+    }
+}
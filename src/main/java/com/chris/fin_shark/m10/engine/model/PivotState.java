@@ -0,0 +1,151 @@
+package com.chris.fin_shark.m10.engine.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 型態偵測增量狀態（每支股票一份）
+ * <p>
+ * 圖表型態只取決於回溯視窗內的波峰波谷序列與最後收盤價，而波峰波谷只由前後 pivotLookback 根 K 線決定。
+ * 保存視窗內已確認的樞紐點後，每日只需掃描最近幾根 K 線推進序列：
+ * 序列不變、且上次評估沒有任何候選型態時，圖表型態必定仍為空，可跳過完整視窗的偵測。
+ * </p>
+ * <p>
+ * 失效條件：
+ * 1. 參數變更（paramsKey 不同）
+ * 2. 價格修正（錨點 K 棒的高低收與快照不符）
+ * 3. 錨點日期不在新載入的價格中
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class PivotState {
+
+    /** 股票代碼 */
+    private String stockId;
+
+    /** 參數識別（參數變更即失效） */
+    private String paramsKey;
+
+    /** 錨點日期（狀態對應的最後一根 K 棒） */
+    private LocalDate lastDate;
+
+    /** 錨點最高價 */
+    private double lastHigh;
+
+    /** 錨點最低價 */
+    private double lastLow;
+
+    /** 錨點收盤價 */
+    private double lastClose;
+
+    /** 視窗內已確認的樞紐點（依日期排序） */
+    @Builder.Default
+    private List<Pivot> pivots = new ArrayList<>();
+
+    /** 上次完整評估的視窗起日 */
+    private LocalDate windowStart;
+
+    /** 上次完整評估的視窗 K 棒數 */
+    private int windowSize;
+
+    /** 圖表型態是否需重新評估（上次評估有候選型態，或其後樞紐點已變動） */
+    private boolean chartPending;
+
+    /**
+     * 已確認的樞紐點
+     *
+     * @param date     樞紐日期
+     * @param leftDate 左側比較範圍第一根 K 棒的日期（早於視窗起日即移出視窗）
+     * @param type     波峰或波谷
+     * @param price    價格
+     */
+    public record Pivot(LocalDate date, LocalDate leftDate, PeakTrough.Type type, double price) {
+    }
+
+    /**
+     * 參數識別字串
+     *
+     * @param pivotLookback  樞紐點左右比較根數
+     * @param swingThreshold 最小波動幅度
+     * @param lookbackPeriod 回溯天數
+     * @param priorityFilter 優先級過濾
+     */
+    public static String paramsKey(int pivotLookback, double swingThreshold,
+                                   int lookbackPeriod, String priorityFilter) {
+        return "pivotLookback=" + pivotLookback
+                + ",swingThreshold=" + swingThreshold
+                + ",lookbackPeriod=" + lookbackPeriod
+                + ",priority=" + priorityFilter;
+    }
+
+    /**
+     * 錨點 K 棒在序列中的索引（找不到或價格已修正時回傳 -1）
+     */
+    public int anchorIndex(CandleSeries bars) {
+        if (lastDate == null) {
+            return -1;
+        }
+        for (int i = bars.last(); i >= 0; i--) {
+            int cmp = bars.date(i).compareTo(lastDate);
+            if (cmp == 0) {
+                return matchesBar(bars, i) ? i : -1;
+            }
+            if (cmp < 0) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 錨點 K 棒是否與價格資料一致（用於偵測價格修正）
+     */
+    public boolean matchesBar(CandleSeries bars, int index) {
+        return Double.compare(lastHigh, bars.high(index)) == 0
+                && Double.compare(lastLow, bars.low(index)) == 0
+                && Double.compare(lastClose, bars.close(index)) == 0;
+    }
+
+    /**
+     * 將錨點移到指定 K 棒
+     */
+    public void anchorTo(CandleSeries bars, int index) {
+        this.lastDate = bars.date(index);
+        this.lastHigh = bars.high(index);
+        this.lastLow = bars.low(index);
+        this.lastClose = bars.close(index);
+    }
+
+    /**
+     * 加入新確認的樞紐點
+     *
+     * @param bars     價格序列
+     * @param pivot    樞紐點
+     * @param lookback 樞紐點左右比較根數
+     */
+    public void addPivot(CandleSeries bars, PeakTrough pivot, int lookback) {
+        pivots.add(new Pivot(pivot.getDate(), bars.date(pivot.getIndex() - lookback),
+                pivot.getType(), pivot.getPrice()));
+    }
+
+    /**
+     * 移除左側比較範圍已超出視窗的樞紐點
+     *
+     * @return 是否有樞紐點被移除
+     */
+    public boolean trimBefore(LocalDate windowStart) {
+        return pivots.removeIf(p -> p.leftDate().isBefore(windowStart));
+    }
+}
@@ -28,7 +28,8 @@ public enum M10ErrorCode implements IErrorCode {
 
     // 偵測器相關錯誤 (M10_DET_xxx)
     DETECTOR_NOT_FOUND("M10_DET_001", 500, "找不到偵測器"),
-    DETECTOR_ERROR("M10_DET_002", 500, "偵測器執行失敗");
+    DETECTOR_ERROR("M10_DET_002", 500, "偵測器執行失敗"),
+    SEARCH_BUDGET_EXCEEDED("M10_DET_003", 500, "型態搜尋超出工作預算");
 
     private final String code;
     private final int httpStatus;
@@ -90,6 +90,16 @@ public class PatternDetectionException extends BaseException {
         );
     }
 
+    /**
+     * 型態搜尋超出工作預算
+     */
+    public static PatternDetectionException searchBudgetExceeded(long examined, int budget) {
+        return new PatternDetectionException(
+                M10ErrorCode.SEARCH_BUDGET_EXCEEDED,
+                String.format("型態搜尋超出工作預算：已檢查 %d 個樞紐點，上限 %d", examined, budget)
+        );
+    }
+
     /**
      * 無效的強度閾值
      */
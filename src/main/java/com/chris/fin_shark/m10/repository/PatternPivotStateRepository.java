@@ -0,0 +1,26 @@
+package com.chris.fin_shark.m10.repository;
+
+import com.chris.fin_shark.m10.domain.PatternPivotState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 型態偵測增量狀態 Repository
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@Repository
+public interface PatternPivotStateRepository extends JpaRepository<PatternPivotState, Long> {
+
+    /**
+     * 批次查詢多支股票的增量狀態
+     *
+     * @param stockIds 股票代碼列表
+     * @return 狀態列表
+     */
+    List<PatternPivotState> findByStockIdIn(Collection<String> stockIds);
+}
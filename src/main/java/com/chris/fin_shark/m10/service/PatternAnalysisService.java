@@ -51,6 +51,31 @@ public interface PatternAnalysisService {
      */
     Map<String, PatternDetectionResult> batchAnalyze(Iterable<String> stockIds, PatternDetectionPlan plan);
 
+    /**
+     * 增量分析多支股票（日線）
+     * <p>
+     * 以保存的波峰波谷狀態推進最新 K 線，圖表型態只在需要時載入完整視窗重新評估；
+     * 結果與 {@link #batchAnalyze} 相同。無狀態、參數變更或價格修正的股票改走完整偵測並重建狀態
+     * </p>
+     *
+     * @param stockIds 股票代碼列表
+     * @param plan     偵測計劃（非日線時改走 {@link #batchAnalyze}）
+     * @return 股票代碼 → 偵測結果
+     */
+    Map<String, PatternDetectionResult> analyzeIncremental(Iterable<String> stockIds, PatternDetectionPlan plan);
+
+    /**
+     * 全市場型態掃描（所有啟用中的股票）
+     * <p>
+     * 價格一次批次載入，偵測依 CPU 核心數並行；吞吐量與單股延遲記錄於日誌。
+     * 日線且啟用增量模式（m10.engine.incremental.enabled）時改走 {@link #analyzeIncremental}
+     * </p>
+     *
+     * @param plan 偵測計劃
+     * @return 股票代碼 → 偵測結果
+     */
+    Map<String, PatternDetectionResult> scanMarket(PatternDetectionPlan plan);
+
     /**
      * 儲存分析結果
      *
@@ -2,30 +2,38 @@ package com.chris.fin_shark.m10.service.impl;
 
 import com.chris.fin_shark.m06.domain.StockPrice;
 import com.chris.fin_shark.m06.repository.StockPriceRepository;
+import com.chris.fin_shark.m06.repository.StockRepository;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m07.engine.model.Timeframe;
+import com.chris.fin_shark.m07.provider.PriceSeriesResampler;
 import com.chris.fin_shark.m10.domain.ChartPatternResult;
 import com.chris.fin_shark.m10.domain.KLinePatternResult;
+import com.chris.fin_shark.m10.domain.PatternPivotState;
 import com.chris.fin_shark.m10.engine.Diagnostics;
 import com.chris.fin_shark.m10.engine.PatternDetectionPlan;
 import com.chris.fin_shark.m10.engine.PatternDetectionResult;
 import com.chris.fin_shark.m10.engine.PatternEngine;
 import com.chris.fin_shark.m10.engine.model.DetectedPattern;
+import com.chris.fin_shark.m10.engine.model.PeakTrough;
+import com.chris.fin_shark.m10.engine.model.PivotState;
 import com.chris.fin_shark.m10.exception.PatternDetectionException;
 import com.chris.fin_shark.m10.repository.ChartPatternResultRepository;
 import com.chris.fin_shark.m10.repository.KLinePatternResultRepository;
+import com.chris.fin_shark.m10.repository.PatternPivotStateRepository;
 import com.chris.fin_shark.m10.service.PatternAnalysisService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 /**
  * 型態分析服務實作
@@ -40,16 +48,29 @@ public class PatternAnalysisServiceImpl implements PatternAnalysisService {
 
     private final PatternEngine patternEngine;
     private final StockPriceRepository stockPriceRepository;
+    private final StockRepository stockRepository;
     private final KLinePatternResultRepository klinePatternResultRepository;
     private final ChartPatternResultRepository chartPatternResultRepository;
     private final ObjectMapper objectMapper;
+    private final PriceSeriesResampler priceSeriesResampler;
+    private final PatternPivotStateRepository pivotStateRepository;
+
+    /**
+     * 增量模式載入最近 K 線時，錨點之後額外多取的日曆天數（涵蓋 {@link PatternEngine#INCREMENTAL_RECENT_BARS} 根與長假）
+     */
+    private static final int RECENT_CALENDAR_DAYS = 60;
+
+    @Value("${m10.engine.incremental.enabled:true}")
+    private boolean incrementalEnabled;
 
     @Override
     public PatternDetectionResult analyzePatterns(String stockId, PatternDetectionPlan plan) {
         log.info("開始型態分析: stockId={}, plan={}", stockId, describePlan(plan));
 
-        // 取得價格資料
-        PriceSeries series = loadPriceSeries(stockId, plan.getLookbackPeriod());
+        // 取得價格資料（週線 / 月線由日線重新取樣）
+        PriceSeries series = plan.getTimeframe() == Timeframe.DAILY
+                ? loadPriceSeries(stockId, plan.getLookbackPeriod())
+                : loadResampledSeries(stockId, plan);
 
         if (series == null || series.size() == 0) {
             throw PatternDetectionException.insufficientData(stockId, plan.getLookbackPeriod(), 0);
@@ -78,35 +99,151 @@ public class PatternAnalysisServiceImpl implements PatternAnalysisService {
         return analyzePatterns(stockId, PatternDetectionPlan.quick());
     }
 
+    /**
+     * 批次分析多支股票
+     * <p>
+     * 價格以單一串流查詢一次載入（週線 / 月線由日線重新取樣），
+     * 偵測交由引擎並行執行；無資料或偵測失敗的股票只記錄在該股票的 Diagnostics，不影響其他股票
+     * </p>
+     */
     @Override
     public Map<String, PatternDetectionResult> batchAnalyze(Iterable<String> stockIds, PatternDetectionPlan plan) {
-        Map<String, PatternDetectionResult> results = new HashMap<>();
+        List<String> targetStocks = new ArrayList<>();
+        stockIds.forEach(targetStocks::add);
+        log.info("開始批次型態分析: {} 支股票, plan={}", targetStocks.size(), describePlan(plan));
+
+        // 一次載入所有股票的價格
+        long loadStart = System.currentTimeMillis();
+        Map<String, PriceSeries> seriesMap = loadBatchSeries(targetStocks, plan);
+        long loadElapsed = System.currentTimeMillis() - loadStart;
+
+        // 無資料的股票不進入偵測，直接記錄錯誤
+        Map<String, PriceSeries> detectable = new HashMap<>(seriesMap.size());
+        List<String> missing = new ArrayList<>();
+        for (String stockId : targetStocks) {
+            PriceSeries series = seriesMap.get(stockId);
+            if (series != null && series.size() > 0) {
+                detectable.put(stockId, series);
+            } else {
+                missing.add(stockId);
+            }
+        }
+
+        // 並行偵測（單股錯誤由引擎隔離）
+        Map<String, PatternDetectionResult> results = new TreeMap<>(patternEngine.batchDetect(detectable, plan));
+        for (String stockId : missing) {
+            results.put(stockId, errorResult(stockId, plan,
+                    PatternDetectionException.insufficientData(stockId, plan.getLookbackPeriod(), 0)));
+        }
+
+        log.info("批次分析完成: 成功 {} / {} 支, 無資料 {} 支, 價格載入 {}ms",
+                results.size() - missing.size(), targetStocks.size(), missing.size(), loadElapsed);
+
+        return results;
+    }
+
+    /**
+     * 增量分析多支股票
+     * <p>
+     * 1. 載入增量狀態，並以單一查詢載入錨點之後的最近 K 線
+     * 2. 推進狀態；圖表型態待評估的股票，與無狀態或狀態失效的股票才載入完整回溯視窗
+     * 3. 偵測並儲存新狀態；單股錯誤只記錄在該股票的 Diagnostics
+     * </p>
+     */
+    @Override
+    public Map<String, PatternDetectionResult> analyzeIncremental(Iterable<String> stockIds,
+                                                                  PatternDetectionPlan plan) {
+        if (plan.getTimeframe() != Timeframe.DAILY) {
+            return batchAnalyze(stockIds, plan);
+        }
 
-        long count = StreamSupport.stream(stockIds.spliterator(), false).count();
-        log.info("開始批次型態分析: {} 支股票", count);
+        List<String> targetStocks = new ArrayList<>();
+        stockIds.forEach(targetStocks::add);
+        log.info("開始增量型態分析: {} 支股票, plan={}", targetStocks.size(), describePlan(plan));
 
-        for (String stockId : stockIds) {
+        LocalDate today = LocalDate.now();
+        int windowDays = plan.getLookbackPeriod() + 30; // 與完整偵測相同的回溯視窗
+        LocalDate windowStart = today.minusDays(windowDays);
+
+        // 1. 載入狀態與最近 K 線
+        Map<String, PatternPivotState> snapshots = new HashMap<>();
+        for (PatternPivotState snapshot : pivotStateRepository.findByStockIdIn(targetStocks)) {
+            snapshots.put(snapshot.getStockId(), snapshot);
+        }
+        String paramsKey = patternEngine.pivotStateKey(plan);
+        Map<String, PivotState> states = new HashMap<>();
+        snapshots.forEach((stockId, snapshot) -> {
+            if (paramsKey.equals(snapshot.getParamsKey()) && !snapshot.getLastDate().isBefore(windowStart)) {
+                states.put(stockId, toPivotState(snapshot));
+            }
+        });
+        Map<String, PriceSeries> recentMap = loadRecentSeries(states, today, windowDays);
+
+        // 2. 推進狀態並分流
+        List<String> chartStocks = new ArrayList<>();
+        List<String> fullStocks = new ArrayList<>();
+        for (String stockId : targetStocks) {
+            PivotState state = states.get(stockId);
+            PriceSeries recent = recentMap.get(stockId);
+            if (state != null && recent != null && recent.size() > 0
+                    && patternEngine.advancePivots(recent, state, windowStart)) {
+                if (plan.isIncludeChartPatterns() && state.isChartPending()) {
+                    chartStocks.add(stockId);
+                }
+            } else {
+                fullStocks.add(stockId);
+                states.put(stockId, PivotState.builder().stockId(stockId).paramsKey(paramsKey).build());
+            }
+        }
+
+        // 3. 只為需要的股票載入完整回溯視窗
+        List<String> windowStocks = new ArrayList<>(fullStocks);
+        windowStocks.addAll(chartStocks);
+        Map<String, PriceSeries> windows = windowStocks.isEmpty()
+                ? Map.of()
+                : loadBatchSeries(windowStocks, plan);
+
+        // 4. 偵測
+        Map<String, PatternDetectionResult> results = new TreeMap<>();
+        Set<String> fullSet = new HashSet<>(fullStocks);
+        for (String stockId : targetStocks) {
+            PivotState state = states.get(stockId);
+            PriceSeries window = windows.get(stockId);
             try {
-                PatternDetectionResult result = analyzePatterns(stockId, plan);
-                results.put(stockId, result);
+                if (fullSet.contains(stockId)) {
+                    if (window == null || window.size() == 0) {
+                        throw PatternDetectionException.insufficientData(stockId, plan.getLookbackPeriod(), 0);
+                    }
+                    results.put(stockId, patternEngine.detectIncremental(window, window, windowStart, plan, state));
+                } else {
+                    results.put(stockId, patternEngine.detectIncremental(
+                            recentMap.get(stockId), window, windowStart, plan, state));
+                }
             } catch (Exception e) {
-                log.error("股票 {} 分析失敗: {}", stockId, e.getMessage());
-                // 建立空結果
-                PatternDetectionResult errorResult = PatternDetectionResult.builder()
-                        .stockId(stockId)
-                        .detectionDate(LocalDate.now())
-                        .diagnostics(new Diagnostics())
-                        .build();
-                errorResult.getDiagnostics().addError("SERVICE", e.getMessage());
-                results.put(stockId, errorResult);
+                log.error("股票 {} 增量偵測失敗: {}", stockId, e.getMessage());
+                results.put(stockId, errorResult(stockId, plan, e));
+                states.remove(stockId);
             }
         }
 
-        log.info("批次分析完成: 成功 {} / {} 支", results.size(), count);
+        // 5. 儲存狀態
+        pivotStateRepository.saveAll(toPivotSnapshots(states, snapshots));
+
+        log.info("🔁 增量型態分析完成: 推進 {} 支（圖表重新評估 {} 支）, 完整偵測 {} 支",
+                targetStocks.size() - fullStocks.size(), chartStocks.size(), fullStocks.size());
 
         return results;
     }
 
+    @Override
+    public Map<String, PatternDetectionResult> scanMarket(PatternDetectionPlan plan) {
+        List<String> stockIds = stockRepository.findActiveStockIds();
+        if (incrementalEnabled && plan.getTimeframe() == Timeframe.DAILY) {
+            return analyzeIncremental(stockIds, plan);
+        }
+        return batchAnalyze(stockIds, plan);
+    }
+
     @Override
     @Transactional
     public void saveAnalysisResult(PatternDetectionResult result) {
@@ -114,6 +251,13 @@ public class PatternAnalysisServiceImpl implements PatternAnalysisService {
             return;
         }
 
+        // 型態結果表以日線為準，週線 / 月線結果只供即時查詢
+        if (result.getTimeframe() != Timeframe.DAILY) {
+            log.warn("略過儲存非日線型態結果: stockId={}, timeframe={}",
+                    result.getStockId(), result.getTimeframe());
+            return;
+        }
+
         String stockId = result.getStockId();
         LocalDate tradeDate = result.getDetectionDate();
 
@@ -189,6 +333,127 @@ public class PatternAnalysisServiceImpl implements PatternAnalysisService {
                 .build();
     }
 
+    /**
+     * 批次載入價格序列（回溯期間與單股分析相同）
+     */
+    private Map<String, PriceSeries> loadBatchSeries(List<String> stockIds, PatternDetectionPlan plan) {
+        Timeframe timeframe = plan.getTimeframe();
+        int days = timeframe == Timeframe.DAILY
+                ? plan.getLookbackPeriod() + 30
+                : timeframe.lookbackDays(plan.getLookbackPeriod()) + 30; // 多取一些資料
+
+        return priceSeriesResampler.getBatch(stockIds, LocalDate.now(), days, timeframe);
+    }
+
+    /**
+     * 載入增量模式的最近 K 線（涵蓋最早的錨點，且不超出回溯視窗）
+     */
+    private Map<String, PriceSeries> loadRecentSeries(Map<String, PivotState> states,
+                                                      LocalDate endDate, int windowDays) {
+        if (states.isEmpty()) {
+            return Map.of();
+        }
+
+        LocalDate earliestAnchor = states.values().stream()
+                .map(PivotState::getLastDate)
+                .min(Comparator.naturalOrder())
+                .orElse(endDate);
+        long days = Math.min(windowDays, ChronoUnit.DAYS.between(earliestAnchor, endDate) + RECENT_CALENDAR_DAYS);
+
+        return priceSeriesResampler.getBatch(new ArrayList<>(states.keySet()), endDate, (int) days, Timeframe.DAILY);
+    }
+
+    /**
+     * 轉換狀態快照為引擎狀態
+     */
+    private PivotState toPivotState(PatternPivotState snapshot) {
+        List<PivotState.Pivot> pivots = new ArrayList<>();
+        if (snapshot.getPivots() != null) {
+            for (Map<String, Object> pivot : snapshot.getPivots()) {
+                pivots.add(new PivotState.Pivot(
+                        LocalDate.parse((String) pivot.get("date")),
+                        LocalDate.parse((String) pivot.get("left_date")),
+                        PeakTrough.Type.valueOf((String) pivot.get("type")),
+                        ((Number) pivot.get("price")).doubleValue()));
+            }
+        }
+
+        return PivotState.builder()
+                .stockId(snapshot.getStockId())
+                .paramsKey(snapshot.getParamsKey())
+                .lastDate(snapshot.getLastDate())
+                .lastHigh(snapshot.getLastHigh() != null ? snapshot.getLastHigh() : Double.NaN)
+                .lastLow(snapshot.getLastLow() != null ? snapshot.getLastLow() : Double.NaN)
+                .lastClose(snapshot.getLastClose() != null ? snapshot.getLastClose() : Double.NaN)
+                .pivots(pivots)
+                .windowStart(snapshot.getWindowStart())
+                .windowSize(snapshot.getWindowSize() != null ? snapshot.getWindowSize() : 0)
+                .chartPending(!Boolean.FALSE.equals(snapshot.getChartPending()))
+                .build();
+    }
+
+    /**
+     * 轉換引擎狀態為快照（每支股票一筆，存在則沿用原快照更新）
+     */
+    private List<PatternPivotState> toPivotSnapshots(Map<String, PivotState> states,
+                                                     Map<String, PatternPivotState> existing) {
+        List<PatternPivotState> snapshots = new ArrayList<>();
+        states.forEach((stockId, state) -> {
+            if (state.getLastDate() == null) {
+                return;
+            }
+
+            List<Map<String, Object>> pivots = new ArrayList<>();
+            for (PivotState.Pivot pivot : state.getPivots()) {
+                Map<String, Object> json = new LinkedHashMap<>();
+                json.put("date", pivot.date().toString());
+                json.put("left_date", pivot.leftDate().toString());
+                json.put("type", pivot.type().name());
+                json.put("price", pivot.price());
+                pivots.add(json);
+            }
+
+            PatternPivotState snapshot = existing.getOrDefault(stockId,
+                    PatternPivotState.builder().stockId(stockId).build());
+            snapshot.setParamsKey(state.getParamsKey());
+            snapshot.setLastDate(state.getLastDate());
+            snapshot.setLastHigh(state.getLastHigh());
+            snapshot.setLastLow(state.getLastLow());
+            snapshot.setLastClose(state.getLastClose());
+            snapshot.setPivots(pivots);
+            snapshot.setWindowStart(state.getWindowStart());
+            snapshot.setWindowSize(state.getWindowSize());
+            snapshot.setChartPending(state.isChartPending());
+            snapshots.add(snapshot);
+        });
+        return snapshots;
+    }
+
+    /**
+     * 建立失敗股票的空結果
+     */
+    private PatternDetectionResult errorResult(String stockId, PatternDetectionPlan plan, Exception e) {
+        PatternDetectionResult result = PatternDetectionResult.builder()
+                .stockId(stockId)
+                .detectionDate(LocalDate.now())
+                .timeframe(plan.getTimeframe())
+                .diagnostics(new Diagnostics())
+                .build();
+        result.getDiagnostics().addError("SERVICE", e.getMessage());
+        return result;
+    }
+
+    /**
+     * 載入週線 / 月線價格序列（回溯期間以 K 棒數計）
+     */
+    private PriceSeries loadResampledSeries(String stockId, PatternDetectionPlan plan) {
+        Timeframe timeframe = plan.getTimeframe();
+        int days = timeframe.lookbackDays(plan.getLookbackPeriod()) + 30; // 多取一些資料
+
+        PriceSeries series = priceSeriesResampler.get(stockId, LocalDate.now(), days, timeframe);
+        return series.size() > 0 ? series : null;
+    }
+
     /**
      * 轉換為 K 線型態實體
      */
@@ -0,0 +1,82 @@
+package com.chris.fin_shark.common.handler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * JSONB TypeHandler 測試（延遲解析）
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JSONB TypeHandler 測試")
+class JsonbTypeHandlerTest {
+
+    private static final String JSON = "{\"ma5\":580.5,\"macd\":{\"histogram\":1.25}}";
+
+    private final JsonbTypeHandler handler = new JsonbTypeHandler();
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Test
+    @DisplayName("測試: 讀取時不解析，第一次存取才解析")
+    void testParsesOnFirstAccess() throws Exception {
+        System.out.println("📝 測試: 讀取時不解析，第一次存取才解析");
+
+        // Given
+        when(resultSet.getString("trend_indicators")).thenReturn(JSON);
+
+        // When
+        Map<String, Object> trend = handler.getNullableResult(resultSet, "trend_indicators");
+
+        // Then
+        assertThat(trend).isInstanceOf(LazyJsonbMap.class);
+        assertThat(((LazyJsonbMap) trend).isParsed()).isFalse();
+        assertThat(trend.get("ma5")).isEqualTo(580.5);
+        assertThat(((LazyJsonbMap) trend).isParsed()).isTrue();
+        assertThat(trend.get("macd")).isEqualTo(Map.of("histogram", 1.25));
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 未解析的值寫回時直接使用原始 JSON")
+    void testWritesRawJsonWhenUnparsed() throws Exception {
+        System.out.println("📝 測試: 未解析的值寫回時直接使用原始 JSON");
+
+        // Given
+        when(resultSet.getString(1)).thenReturn(JSON);
+        Map<String, Object> untouched = handler.getNullableResult(resultSet, 1);
+        Map<String, Object> modified = handler.getNullableResult(resultSet, 1);
+        modified.put("ma20", 575.0);
+
+        // When
+        handler.setNonNullParameter(statement, 1, untouched, null);
+        handler.setNonNullParameter(statement, 2, modified, null);
+
+        // Then
+        verify(statement).setObject(1, JSON, Types.OTHER);
+        verify(statement).setObject(eq(2),
+                eq("{\"ma5\":580.5,\"macd\":{\"histogram\":1.25},\"ma20\":575.0}"), eq(Types.OTHER));
+        assertThat(handler.getNullableResult(resultSet, "missing")).isEmpty();
+
+        System.out.println("✅ 測試通過");
+    }
+}
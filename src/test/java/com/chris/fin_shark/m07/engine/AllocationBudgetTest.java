@@ -0,0 +1,140 @@
+package com.chris.fin_shark.m07.engine;
+
+import com.chris.fin_shark.m07.engine.calculator.CalculateSeriesTest;
+import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.KSTCalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.RSICalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.EMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.MACDCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.MACalculator;
+import com.chris.fin_shark.m07.engine.calculator.volatility.BBandsCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
+import com.chris.fin_shark.m07.engine.model.IndicatorValues;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 計算記憶體配置預算測試
+ * <p>
+ * 以 ThreadMXBean 量測目前執行緒每次計算配置的位元組數，
+ * 防止中間陣列改回每次配置（暫存緩衝區見 {@link ScratchArena}）。
+ * 快取在 IndicatorContext 的共用序列與回傳結果仍會配置，已計入預算。
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("計算記憶體配置預算測試")
+class AllocationBudgetTest {
+
+    /** 暖機次數（讓 JIT 編譯完成、暫存緩衝區成長到位） */
+    private static final int WARMUP = 2_000;
+
+    /** 量測次數 */
+    private static final int ROUNDS = 500;
+
+    /**
+     * P0 計劃快取在 IndicatorContext 的共用序列數
+     * （EMA12、EMA26 由 EMA 與 MACD 共用；布林通道的滑動均值、標準差供標準差 / Z 分數共用）
+     */
+    private static final int P0_CACHED_SERIES = 4;
+
+    /** 序列長度增加時，單次計算允許增加的配置（不應有與長度成正比的中間陣列） */
+    private static final long LENGTH_INDEPENDENT_SLACK = 2048;
+
+    /**
+     * 配置量的絕對值受 JIT 逃逸分析影響（與同一 JVM 內執行過的其他程式碼有關），
+     * 因此比較兩種序列長度的差值：每多一根 K 棒只應多出快取共用序列的 8 bytes
+     */
+    @Test
+    @DisplayName("測試: P0 計劃單次計算的配置量只隨快取的共用序列成長")
+    void testP0ComputeAllocationBudget() {
+        System.out.println("📝 測試: P0 計劃單次計算的配置量只隨快取的共用序列成長");
+
+        // Given
+        com.sun.management.ThreadMXBean threadBean = threadBean();
+        EMACalculator ema = new EMACalculator();
+        DefaultIndicatorEngine engine = new DefaultIndicatorEngine(List.of(
+                new MACalculator(), ema, new MACDCalculator(ema), new RSICalculator(), new BBandsCalculator()));
+        IndicatorPlan plan = IndicatorPlan.of("MA", "EMA", "MACD", "RSI", "BBANDS");
+        PriceSeries shortSeries = CalculateSeriesTest.randomWalk(250, 7L);
+        PriceSeries longSeries = CalculateSeriesTest.randomWalk(2_000, 7L);
+
+        // When
+        long shortBytes = averageBytes(threadBean, () -> engine.compute(shortSeries, plan));
+        long longBytes = averageBytes(threadBean, () -> engine.compute(longSeries, plan));
+        engine.shutdown();
+
+        // Then
+        System.out.printf("   每次 compute 配置: %d bytes (250 根) / %d bytes (2000 根)%n", shortBytes, longBytes);
+        long budget = (long) (2_000 - 250) * Double.BYTES * P0_CACHED_SERIES + LENGTH_INDEPENDENT_SLACK;
+        assertThat(longBytes - shortBytes).isLessThan(budget);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 使用暫存緩衝區的計算器配置量不隨序列長度成長")
+    void testScratchKernelsIndependentOfLength() {
+        System.out.println("📝 測試: 使用暫存緩衝區的計算器配置量不隨序列長度成長");
+
+        // Given
+        com.sun.management.ThreadMXBean threadBean = threadBean();
+        List<IndicatorCalculator> calculators = List.of(
+                new RSICalculator(), new MACDCalculator(new EMACalculator()), new BBandsCalculator(), new KSTCalculator());
+
+        for (IndicatorCalculator calculator : calculators) {
+            Map<String, Object> params = calculator.getMetadata().getDefaultParams();
+            PriceSeries shortSeries = CalculateSeriesTest.randomWalk(250, 11L);
+            PriceSeries longSeries = CalculateSeriesTest.randomWalk(2_000, 11L);
+            // 共用序列在第一次計算後已快取，量測的只有計算器本身的配置
+            IndicatorContext shortContext = IndicatorContext.of(shortSeries);
+            IndicatorContext longContext = IndicatorContext.of(longSeries);
+
+            // When
+            long shortBytes = averageBytes(threadBean, () ->
+                    calculator.calculateInto(shortSeries, params, shortContext, new IndicatorValues()));
+            long longBytes = averageBytes(threadBean, () ->
+                    calculator.calculateInto(longSeries, params, longContext, new IndicatorValues()));
+
+            // Then
+            System.out.printf("   %s: %d bytes (250 根) / %d bytes (2000 根)%n",
+                    calculator.getName(), shortBytes, longBytes);
+            assertThat(longBytes - shortBytes)
+                    .as(calculator.getName())
+                    .isLessThan(LENGTH_INDEPENDENT_SLACK);
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    private com.sun.management.ThreadMXBean threadBean() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "JVM 不支援執行緒配置量統計");
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported(), "JVM 不支援執行緒配置量統計");
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        return threadBean;
+    }
+
+    private long averageBytes(com.sun.management.ThreadMXBean threadBean, Runnable task) {
+        for (int i = 0; i < WARMUP; i++) {
+            task.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROUNDS; i++) {
+            task.run();
+        }
+        return (threadBean.getThreadAllocatedBytes(threadId) - before) / ROUNDS;
+    }
+}
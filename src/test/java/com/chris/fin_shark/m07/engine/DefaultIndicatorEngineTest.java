@@ -1,13 +1,30 @@
 package com.chris.fin_shark.m07.engine;
 
+import com.chris.fin_shark.m07.engine.calculator.CalculateSeriesTest;
+import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.CCICalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.MFICalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.RSICalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.TRIXCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.DEMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.EMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.MACDCalculator;
 import com.chris.fin_shark.m07.engine.calculator.trend.MACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.ParabolicSARCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.SupertrendCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.TEMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.volatility.KeltnerChannelCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorState;
 import com.chris.fin_shark.m07.engine.model.PriceSeries;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -77,4 +94,242 @@ class DefaultIndicatorEngineTest {
 
         System.out.println("\n✅ 測試通過: 引擎運作正常");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("測試: 並行批次計算與序列結果一致")
+    void testParallelBatchMatchesSerial() {
+        System.out.println("📝 測試: 並行批次計算與序列結果一致");
+
+        // Given - 200 支股票
+        EMACalculator ema = new EMACalculator();
+        List<IndicatorCalculator> calculatorList = List.of(
+                new MACalculator(), ema, new MACDCalculator(ema), new RSICalculator());
+        DefaultIndicatorEngine serial = new DefaultIndicatorEngine(calculatorList, 1);
+        DefaultIndicatorEngine parallel = new DefaultIndicatorEngine(calculatorList, 4);
+
+        Map<String, PriceSeries> seriesMap = new HashMap<>();
+        for (int s = 0; s < 200; s++) {
+            double[] prices = new double[120];
+            for (int i = 0; i < prices.length; i++) {
+                prices[i] = 100.0 + s + 10 * Math.sin((i + s) / 7.0);
+            }
+            String stockId = String.valueOf(1000 + s);
+            seriesMap.put(stockId, PriceSeries.createTest(stockId, prices));
+        }
+
+        IndicatorPlan plan = IndicatorPlan.of("MA", "EMA", "MACD", "RSI");
+
+        // When
+        Map<String, IndicatorResult> serialResults = serial.batchCompute(seriesMap, plan);
+        Map<String, IndicatorResult> parallelResults = parallel.batchCompute(seriesMap, plan);
+        parallel.shutdown();
+
+        // Then
+        assertThat(parallelResults.keySet()).containsExactlyElementsOf(serialResults.keySet());
+        serialResults.forEach((stockId, expected) -> {
+            IndicatorResult actual = parallelResults.get(stockId);
+            assertThat(actual.getTrendIndicators()).isEqualTo(expected.getTrendIndicators());
+            assertThat(actual.getMomentumIndicators()).isEqualTo(expected.getMomentumIndicators());
+        });
+
+        System.out.println("✅ 測試通過: " + parallelResults.size() + " 支股票結果一致");
+    }
+
+    @Test
+    @DisplayName("測試: 單一股票失敗不影響批次")
+    void testBatchFailureIsolation() {
+        System.out.println("📝 測試: 單一股票失敗不影響批次");
+
+        // Given - 一支股票序列為 null
+        DefaultIndicatorEngine parallel = new DefaultIndicatorEngine(List.of(new MACalculator()), 2);
+
+        double[] prices = new double[30];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 100.0 + i;
+        }
+        Map<String, PriceSeries> seriesMap = new HashMap<>();
+        seriesMap.put("2330", PriceSeries.createTest("2330", prices));
+        seriesMap.put("2317", null);
+
+        // When
+        Map<String, IndicatorResult> results = parallel.batchCompute(
+                seriesMap, IndicatorPlan.of("MA"));
+        parallel.shutdown();
+
+        // Then
+        assertThat(results).containsKeys("2330", "2317");
+        assertThat(results.get("2330").hasErrors()).isFalse();
+        assertThat(results.get("2317").hasErrors()).isTrue();
+
+        System.out.println("✅ 測試通過: 失敗股票已記錄於 Diagnostics");
+    }
+
+    @Test
+    @DisplayName("測試: 整段序列計算最後一日與單日計算一致")
+    void testComputeSeriesMatchesCompute() {
+        System.out.println("📝 測試: 整段序列計算最後一日與單日計算一致");
+
+        // Given
+        EMACalculator ema = new EMACalculator();
+        IndicatorEngine seriesEngine = new DefaultIndicatorEngine(List.of(
+                new MACalculator(), ema, new MACDCalculator(ema), new RSICalculator()));
+
+        double[] prices = new double[80];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 100.0 + 10 * Math.sin(i / 5.0) + i * 0.1;
+        }
+        PriceSeries series = PriceSeries.createTest("2330", prices);
+        IndicatorPlan plan = IndicatorPlan.of("MA", "EMA", "MACD", "RSI");
+        LocalDate fromDate = series.getDates().get(60);
+
+        // When
+        Map<LocalDate, IndicatorResult> results = seriesEngine.computeSeries(series, plan, fromDate);
+        IndicatorResult single = seriesEngine.compute(series, plan);
+
+        // Then
+        assertThat(results).hasSize(20);
+        IndicatorResult last = results.get(series.getDates().get(prices.length - 1));
+        assertThat(last.getTrendIndicators()).isEqualTo(single.getTrendIndicators());
+        assertThat(last.getMomentumIndicators()).isEqualTo(single.getMomentumIndicators());
+
+        System.out.println("✅ 測試通過: 共輸出 " + results.size() + " 個交易日");
+    }
+
+    @Test
+    @DisplayName("測試: 遞推推進與全量計算一致")
+    void testAdvanceMatchesCompute() {
+        System.out.println("📝 測試: 遞推推進與全量計算一致");
+
+        // Given
+        IndicatorEngine incrementalEngine = createIncrementalEngine();
+        IndicatorPlan plan = IndicatorPlan.of("EMA", "MACD", "RSI", "TRIX", "SAR", "SUPERTREND");
+        PriceSeries series = PriceSeries.createTest("2330", wavePrices(80));
+        Map<String, IndicatorState> states = initStates(incrementalEngine, series.head(75), plan);
+
+        // When
+        Optional<IndicatorResult> advanced = incrementalEngine.advance(series, plan, states);
+        IndicatorResult full = incrementalEngine.compute(series, plan);
+
+        // Then
+        assertThat(incrementalEngine.isIncremental(plan)).isTrue();
+        assertThat(advanced).isPresent();
+        assertThat(advanced.get().getTrendIndicators()).isEqualTo(full.getTrendIndicators());
+        assertThat(advanced.get().getMomentumIndicators()).isEqualTo(full.getMomentumIndicators());
+        assertThat(states.values())
+                .allMatch(state -> state.getLastDate().equals(series.getDates().get(79)));
+
+        System.out.println("✅ 測試通過: 推進 5 根 K 棒結果一致");
+    }
+
+    @Test
+    @DisplayName("測試: 價格修正時改走全量計算")
+    void testPriceCorrectionFallsBackToFullRecompute() {
+        System.out.println("📝 測試: 價格修正時改走全量計算");
+
+        // Given
+        IndicatorEngine incrementalEngine = createIncrementalEngine();
+        IndicatorPlan plan = IndicatorPlan.of("EMA", "RSI", "SAR");
+        double[] prices = wavePrices(80);
+        Map<String, IndicatorState> states = initStates(
+                incrementalEngine, PriceSeries.createTest("2330", prices).head(75), plan);
+        LocalDate anchorDate = states.get("RSI").getLastDate();
+
+        prices[74] += 1.5;  // 錨點 K 棒被修正
+        PriceSeries corrected = PriceSeries.createTest("2330", prices);
+
+        // When
+        Optional<IndicatorResult> advanced = incrementalEngine.advance(corrected, plan, states);
+        Map<String, Map<String, IndicatorState>> batchStates = new HashMap<>(Map.of("2330", states));
+        Map<String, IndicatorResult> results = incrementalEngine.batchComputeIncremental(
+                Map.of("2330", corrected), plan, batchStates);
+
+        // Then
+        assertThat(advanced).isEmpty();
+        IndicatorResult expected = incrementalEngine.compute(corrected, plan);
+        assertThat(results.get("2330").getTrendIndicators()).isEqualTo(expected.getTrendIndicators());
+        assertThat(results.get("2330").getMomentumIndicators()).isEqualTo(expected.getMomentumIndicators());
+        assertThat(batchStates.get("2330").get("RSI").getLastDate()).isAfter(anchorDate);
+
+        System.out.println("✅ 測試通過: 狀態已重建");
+    }
+
+    @Test
+    @DisplayName("測試: 參數變更或非遞推指標時不推進")
+    void testAdvanceRejectsParamChangeAndWindowIndicators() {
+        System.out.println("📝 測試: 參數變更或非遞推指標時不推進");
+
+        // Given
+        IndicatorEngine incrementalEngine = createIncrementalEngine();
+        PriceSeries series = PriceSeries.createTest("2330", wavePrices(80));
+        Map<String, IndicatorState> states = initStates(
+                incrementalEngine, series.head(75), IndicatorPlan.of("RSI"));
+
+        IndicatorPlan changedPlan = IndicatorPlan.builder()
+                .indicators(Map.of("RSI", Map.of("period", 10)))
+                .build();
+        IndicatorPlan windowPlan = IndicatorPlan.of("RSI", "MA");
+
+        // When & Then
+        assertThat(incrementalEngine.advance(series, changedPlan, states)).isEmpty();
+        assertThat(incrementalEngine.isIncremental(windowPlan)).isFalse();
+        assertThat(incrementalEngine.advance(series, windowPlan, states)).isEmpty();
+        assertThat(states.get("RSI").getLastDate()).isEqualTo(series.getDates().get(74));
+
+        System.out.println("✅ 測試通過: 狀態未被修改");
+    }
+
+    @Test
+    @DisplayName("測試: 共用中間結果與個別計算一致")
+    void testSharedContextMatchesStandaloneCalculation() {
+        System.out.println("📝 測試: 共用中間結果與個別計算一致");
+
+        // Given
+        EMACalculator ema = new EMACalculator();
+        List<IndicatorCalculator> calculators = List.of(
+                ema, new MACDCalculator(ema), new DEMACalculator(), new TEMACalculator(),
+                new KeltnerChannelCalculator(), new SupertrendCalculator(),
+                new CCICalculator(), new MFICalculator());
+        DefaultIndicatorEngine sharedEngine = new DefaultIndicatorEngine(calculators);
+        IndicatorPlan plan = IndicatorPlan.of(
+                "EMA", "MACD", "DEMA", "TEMA", "KELTNER", "SUPERTREND", "CCI", "MFI");
+        PriceSeries series = CalculateSeriesTest.randomWalk(150, 11L);
+
+        // When
+        IndicatorResult result = sharedEngine.compute(series, plan);
+
+        // Then
+        for (IndicatorCalculator calculator : calculators) {
+            Map<String, Object> expected = calculator.calculate(series, Map.of());
+            Map<String, Object> actual = switch (calculator.getCategory()) {
+                case "TREND" -> result.getTrendIndicators();
+                case "MOMENTUM" -> result.getMomentumIndicators();
+                default -> result.getVolatilityIndicators();
+            };
+            assertThat(actual).as(calculator.getName()).containsAllEntriesOf(expected);
+        }
+        assertThat(sharedEngine.getContextHitRate()).isGreaterThan(0);
+
+        System.out.println("✅ 測試通過: 命中率 " + sharedEngine.getContextHitRate());
+    }
+
+    private IndicatorEngine createIncrementalEngine() {
+        EMACalculator ema = new EMACalculator();
+        return new DefaultIndicatorEngine(List.of(
+                new MACalculator(), ema, new MACDCalculator(ema), new RSICalculator(),
+                new TRIXCalculator(), new ParabolicSARCalculator(), new SupertrendCalculator()));
+    }
+
+    private Map<String, IndicatorState> initStates(IndicatorEngine target, PriceSeries series, IndicatorPlan plan) {
+        Map<String, Map<String, IndicatorState>> states = new HashMap<>();
+        target.batchComputeIncremental(Map.of(series.getStockId(), series), plan, states);
+        return states.get(series.getStockId());
+    }
+
+    private double[] wavePrices(int size) {
+        double[] prices = new double[size];
+        for (int i = 0; i < size; i++) {
+            prices[i] = 100.0 + 10 * Math.sin(i / 5.0) + i * 0.1;
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,106 @@
+package com.chris.fin_shark.m07.engine;
+
+import com.chris.fin_shark.m07.engine.model.IndicatorMetadata;
+import com.chris.fin_shark.m07.vo.PriceWindowVO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 計算輸入指紋測試
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("計算輸入指紋測試")
+class InputFingerprintTest {
+
+    private static final Function<String, Optional<IndicatorMetadata>> V1 =
+            name -> Optional.of(IndicatorMetadata.builder().name(name).build());
+
+    @Test
+    @DisplayName("測試: 計劃參數或計算器版本變更時指紋改變")
+    void testPlanAndVersion() {
+        System.out.println("📝 測試: 計劃參數或計算器版本變更時指紋改變");
+
+        // Given
+        IndicatorPlan plan = new IndicatorPlan()
+                .addIndicator("RSI", Map.of("period", 14))
+                .addIndicator("MA", Map.of());
+        String planKey = InputFingerprint.planKey(plan, V1, "v2.0");
+
+        // When
+        IndicatorPlan reordered = new IndicatorPlan()
+                .addIndicator("MA", Map.of())
+                .addIndicator("RSI", Map.of("period", 14));
+        IndicatorPlan changed = new IndicatorPlan()
+                .addIndicator("RSI", Map.of("period", 9))
+                .addIndicator("MA", Map.of());
+        Function<String, Optional<IndicatorMetadata>> v2 = name -> Optional.of(
+                IndicatorMetadata.builder().name(name).version(name.equals("RSI") ? "2" : "1").build());
+
+        // Then
+        assertThat(InputFingerprint.planKey(reordered, V1, "v2.0")).isEqualTo(planKey);
+        assertThat(InputFingerprint.planKey(changed, V1, "v2.0")).isNotEqualTo(planKey);
+        assertThat(InputFingerprint.planKey(plan, v2, "v2.0")).isNotEqualTo(planKey);
+        assertThat(InputFingerprint.planKey(plan, V1, "v2.1")).isNotEqualTo(planKey);
+
+        assertThat(InputFingerprint.of(window(), InputFingerprint.planKey(changed, V1, "v2.0")))
+                .isNotEqualTo(InputFingerprint.of(window(), planKey));
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 價格區間摘要的筆數、異動時間或最新 K 棒變更時指紋改變")
+    void testPriceWindowSummary() {
+        System.out.println("📝 測試: 價格區間摘要的筆數、異動時間或最新 K 棒變更時指紋改變");
+
+        // Given
+        String planKey = InputFingerprint.planKey(IndicatorPlan.of("MA", "RSI"), V1, "v2.0");
+        String fingerprint = InputFingerprint.of(window(), planKey);
+
+        // When
+        PriceWindowVO extended = window();
+        extended.setBarCount(171);
+        PriceWindowVO backfilled = window();
+        backfilled.setFirstDate(LocalDate.of(2023, 10, 20));
+        PriceWindowVO corrected = window();
+        corrected.setLastUpdatedAt(LocalDateTime.of(2024, 6, 29, 9, 0));
+        PriceWindowVO latestChanged = window();
+        latestChanged.setLastClose(103.5);
+
+        // Then
+        assertThat(fingerprint).hasSize(64);
+        assertThat(InputFingerprint.of(window(), planKey)).isEqualTo(fingerprint);
+        assertThat(InputFingerprint.of(extended, planKey)).isNotEqualTo(fingerprint);
+        assertThat(InputFingerprint.of(backfilled, planKey)).isNotEqualTo(fingerprint);
+        assertThat(InputFingerprint.of(corrected, planKey)).isNotEqualTo(fingerprint);
+        assertThat(InputFingerprint.of(latestChanged, planKey)).isNotEqualTo(fingerprint);
+        assertThat(InputFingerprint.of(window(), planKey + "|RSI")).isNotEqualTo(fingerprint);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    private PriceWindowVO window() {
+        return PriceWindowVO.builder()
+                .stockId("2330")
+                .barCount(170)
+                .firstDate(LocalDate.of(2023, 10, 23))
+                .lastDate(LocalDate.of(2024, 6, 28))
+                .lastUpdatedAt(LocalDateTime.of(2024, 6, 28, 18, 0))
+                .lastOpen(102.0)
+                .lastHigh(104.0)
+                .lastLow(101.0)
+                .lastClose(103.0)
+                .lastVolume(25_000L)
+                .build();
+    }
+}
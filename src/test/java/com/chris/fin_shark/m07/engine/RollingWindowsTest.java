@@ -0,0 +1,116 @@
+package com.chris.fin_shark.m07.engine;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 滑動視窗計算工具測試
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("滑動視窗計算工具測試")
+class RollingWindowsTest {
+
+    @Test
+    @DisplayName("測試: 單調佇列結果與逐窗掃描一致")
+    void testExtremaMatchBruteForce() {
+        System.out.println("📝 測試: 單調佇列結果與逐窗掃描一致");
+
+        // Given（整數價格製造大量相同值，驗證位置取最近的一筆）
+        double[] values = randomValues(300, 5L);
+
+        for (int period : new int[]{1, 2, 7, 26, 300}) {
+            // When
+            double[] max = RollingWindows.rollingMax(values, period);
+            double[] min = RollingWindows.rollingMin(values, period);
+            int[] argMax = RollingWindows.rollingArgMax(values, period);
+            int[] argMin = RollingWindows.rollingArgMin(values, period);
+
+            // Then
+            for (int i = 0; i < values.length; i++) {
+                if (i < period - 1) {
+                    assertThat(max[i]).isNaN();
+                    assertThat(argMin[i]).isEqualTo(-1);
+                    continue;
+                }
+                int expectedArgMax = i - period + 1;
+                int expectedArgMin = i - period + 1;
+                for (int j = i - period + 1; j <= i; j++) {
+                    if (values[j] >= values[expectedArgMax]) {
+                        expectedArgMax = j;
+                    }
+                    if (values[j] <= values[expectedArgMin]) {
+                        expectedArgMin = j;
+                    }
+                }
+                assertThat(argMax[i]).as("period %d, index %d", period, i).isEqualTo(expectedArgMax);
+                assertThat(argMin[i]).as("period %d, index %d", period, i).isEqualTo(expectedArgMin);
+                assertThat(max[i]).isEqualTo(RollingWindows.max(values, i + 1, period));
+                assertThat(min[i]).isEqualTo(RollingWindows.min(values, i + 1, period));
+            }
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 滑動總和與平均")
+    void testRollingSumAndMean() {
+        System.out.println("📝 測試: 滑動總和與平均");
+
+        // Given
+        double[] values = randomValues(200, 9L);
+        int period = 14;
+
+        // When
+        double[] sums = RollingWindows.rollingSum(values, period);
+        double[] means = RollingWindows.rollingMean(values, period);
+
+        // Then
+        assertThat(sums[period - 2]).isNaN();
+        for (int i = period - 1; i < values.length; i++) {
+            double expected = 0;
+            for (int j = i - period + 1; j <= i; j++) {
+                expected += values[j];
+            }
+            assertThat(sums[i]).isCloseTo(expected, within(1e-9));
+            assertThat(means[i]).isCloseTo(expected / period, within(1e-9));
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 資料不足與非法週期")
+    void testShortInputAndInvalidPeriod() {
+        System.out.println("📝 測試: 資料不足與非法週期");
+
+        // Given
+        double[] values = {3, 1, 2};
+
+        // When & Then
+        assertThat(RollingWindows.rollingMax(values, 5)).containsOnly(Double.NaN);
+        assertThat(RollingWindows.rollingArgMin(values, 5)).containsOnly(-1);
+        assertThat(RollingWindows.rollingMin(new double[0], 3)).isEmpty();
+        assertThatThrownBy(() -> RollingWindows.rollingSum(values, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    private double[] randomValues(int size, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = 100 + random.nextInt(10);
+        }
+        return values;
+    }
+}
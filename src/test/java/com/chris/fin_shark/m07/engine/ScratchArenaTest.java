@@ -0,0 +1,116 @@
+package com.chris.fin_shark.m07.engine;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 計算暫存緩衝區測試
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("計算暫存緩衝區測試")
+class ScratchArenaTest {
+
+    @Test
+    @DisplayName("測試: 同一層借用的緩衝區互不重疊，離開後重用")
+    void testReuseAfterClose() {
+        System.out.println("📝 測試: 同一層借用的緩衝區互不重疊，離開後重用");
+
+        // Given
+        double[] first;
+        double[] second;
+        try (ScratchArena arena = ScratchArena.open()) {
+            first = arena.doubles(100);
+            second = arena.doubles(100);
+
+            // Then
+            assertThat(first).isNotSameAs(second);
+            assertThat(first.length).isGreaterThanOrEqualTo(100);
+        }
+
+        // When
+        try (ScratchArena arena = ScratchArena.open()) {
+            // Then
+            assertThat(arena.doubles(50)).isSameAs(first);
+            assertThat(arena.doubles(100)).isSameAs(second);
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 巢狀開啟不會覆寫外層借用的緩衝區")
+    void testNestedFrames() {
+        System.out.println("📝 測試: 巢狀開啟不會覆寫外層借用的緩衝區");
+
+        try (ScratchArena outer = ScratchArena.open()) {
+            // Given
+            int depth = outer.depth();
+            double[] outerBuffer = outer.doubles(10);
+            int[] outerInts = outer.ints(10);
+
+            // When
+            try (ScratchArena inner = ScratchArena.open()) {
+                // Then
+                assertThat(inner.depth()).isEqualTo(depth + 1);
+                assertThat(inner.doubles(10)).isNotSameAs(outerBuffer);
+                assertThat(inner.ints(10)).isNotSameAs(outerInts);
+            }
+
+            assertThat(outer.depth()).isEqualTo(depth);
+            assertThat(outer.doubles(10)).isNotSameAs(outerBuffer);
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 要求長度超過現有容量時擴充並保留")
+    void testGrowsToLongestSeries() {
+        System.out.println("📝 測試: 要求長度超過現有容量時擴充並保留");
+
+        // Given
+        double[] grown;
+        try (ScratchArena arena = ScratchArena.open()) {
+            grown = arena.doubles(5000);
+        }
+
+        // When
+        try (ScratchArena arena = ScratchArena.open()) {
+            // Then
+            assertThat(grown.length).isGreaterThanOrEqualTo(5000);
+            assertThat(arena.doubles(250)).isSameAs(grown);
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 每個執行緒各自一份緩衝區")
+    void testThreadConfined() throws InterruptedException {
+        System.out.println("📝 測試: 每個執行緒各自一份緩衝區");
+
+        // Given
+        double[][] buffers = new double[2][];
+        try (ScratchArena arena = ScratchArena.open()) {
+            buffers[0] = arena.doubles(10);
+        }
+
+        // When
+        Thread other = new Thread(() -> {
+            try (ScratchArena arena = ScratchArena.open()) {
+                buffers[1] = arena.doubles(10);
+            }
+        });
+        other.start();
+        other.join();
+
+        // Then
+        assertThat(buffers[1]).isNotNull().isNotSameAs(buffers[0]);
+
+        System.out.println("✅ 測試通過");
+    }
+}
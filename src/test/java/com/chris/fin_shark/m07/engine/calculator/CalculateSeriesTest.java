@@ -0,0 +1,237 @@
+package com.chris.fin_shark.m07.engine.calculator;
+
+import com.chris.fin_shark.m07.engine.calculator.momentum.CCICalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.CMOCalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.CoppockCurveCalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.DPOCalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.KSTCalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.MFICalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.MomentumCalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.ROCCalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.RSICalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.SchaffTrendCycleCalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.StochRSICalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.TRIXCalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.TSICalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.UltimateOscillatorCalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.WilliamsRCalculator;
+import com.chris.fin_shark.m07.engine.calculator.oscillator.BalanceOfPowerCalculator;
+import com.chris.fin_shark.m07.engine.calculator.oscillator.ElderRayCalculator;
+import com.chris.fin_shark.m07.engine.calculator.oscillator.QstickCalculator;
+import com.chris.fin_shark.m07.engine.calculator.statistics.HurstExponentCalculator;
+import com.chris.fin_shark.m07.engine.calculator.statistics.LinearRegressionCalculator;
+import com.chris.fin_shark.m07.engine.calculator.statistics.StandardDeviationCalculator;
+import com.chris.fin_shark.m07.engine.calculator.statistics.ZScoreCalculator;
+import com.chris.fin_shark.m07.engine.calculator.support.FibonacciExtensionCalculator;
+import com.chris.fin_shark.m07.engine.calculator.support.FibonacciRetracementCalculator;
+import com.chris.fin_shark.m07.engine.calculator.support.PivotPointsCalculator;
+import com.chris.fin_shark.m07.engine.calculator.support.SupportResistanceCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.AroonCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.DEMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.EMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.HMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.IchimokuCloudCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.MACDCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.MACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.ParabolicSARCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.SupertrendCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.TEMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.VWMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.VortexCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.WMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.ZLEMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.volatility.BBandsCalculator;
+import com.chris.fin_shark.m07.engine.calculator.volatility.ChaikinVolatilityCalculator;
+import com.chris.fin_shark.m07.engine.calculator.volatility.DonchianChannelCalculator;
+import com.chris.fin_shark.m07.engine.calculator.volatility.HistoricalVolatilityCalculator;
+import com.chris.fin_shark.m07.engine.calculator.volatility.KeltnerChannelCalculator;
+import com.chris.fin_shark.m07.engine.calculator.volatility.MassIndexCalculator;
+import com.chris.fin_shark.m07.engine.calculator.volume.ADLineCalculator;
+import com.chris.fin_shark.m07.engine.calculator.volume.CMFCalculator;
+import com.chris.fin_shark.m07.engine.calculator.volume.EMVCalculator;
+import com.chris.fin_shark.m07.engine.calculator.volume.ForceIndexCalculator;
+import com.chris.fin_shark.m07.engine.calculator.volume.NVICalculator;
+import com.chris.fin_shark.m07.engine.calculator.volume.PVICalculator;
+import com.chris.fin_shark.m07.engine.calculator.volume.PVTCalculator;
+import com.chris.fin_shark.m07.engine.expression.ExpressionCompiler;
+import com.chris.fin_shark.m07.engine.expression.ExpressionIndicatorCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.IndicatorValues;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 整段序列計算測試
+ * <p>
+ * 驗證 calculateSeries 第 i 筆結果與「前 i+1 筆呼叫 calculate」一致
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("整段序列計算測試")
+public class CalculateSeriesTest {
+
+    static Stream<Arguments> calculators() {
+        EMACalculator ema = new EMACalculator();
+        ExpressionCompiler compiler = new ExpressionCompiler();
+        String zScore = "(close - SMA(close,20)) / STDEV(close,20) + ABS(close - LAG(close,1)) / HIGHEST(high,10)";
+        return Stream.of(
+                Arguments.of(new MACalculator(), Map.of("periods", List.of(5, 20, 60))),
+                Arguments.of(ema, Map.of("periods", List.of(12, 26))),
+                Arguments.of(new MACDCalculator(ema), Map.of("fast", 12, "slow", 26, "signal", 9)),
+                Arguments.of(new RSICalculator(), Map.of("period", 14)),
+                Arguments.of(new BBandsCalculator(), Map.of("period", 20, "std_dev", 2.0)),
+                Arguments.of(new KeltnerChannelCalculator(), Map.of("emaPeriod", 20, "atrPeriod", 10, "multiplier", 2.0)),
+                Arguments.of(new DonchianChannelCalculator(), Map.of("period", 20)),
+                Arguments.of(new WilliamsRCalculator(), Map.of("period", 14)),
+                Arguments.of(new AroonCalculator(), Map.of("period", 25)),
+                Arguments.of(new StochRSICalculator(), Map.of("rsiPeriod", 14, "stochPeriod", 14, "smoothK", 3, "smoothD", 3)),
+                Arguments.of(new UltimateOscillatorCalculator(), Map.of("period1", 7, "period2", 14, "period3", 28)),
+                Arguments.of(new IchimokuCloudCalculator(), Map.of("tenkanPeriod", 9, "kijunPeriod", 26, "senkouBPeriod", 52)),
+                Arguments.of(new StandardDeviationCalculator(), Map.of("periods", List.of(10, 20))),
+                Arguments.of(new ZScoreCalculator(), Map.of("period", 20)),
+                Arguments.of(new LinearRegressionCalculator(), Map.of("period", 14)),
+                Arguments.of(new HistoricalVolatilityCalculator(), Map.of("periods", List.of(10, 20, 30))),
+                Arguments.of(new HurstExponentCalculator(), Map.of("minLag", 10, "maxLag", 100)),
+                Arguments.of(new WMACalculator(), Map.of("periods", List.of(10, 20))),
+                Arguments.of(new VWMACalculator(), Map.of("periods", List.of(10, 20))),
+                Arguments.of(new PVTCalculator(), Map.of()),
+                Arguments.of(new RSICalculator(), Map.of("periods", List.of(2, 5, 14, 30))),
+                Arguments.of(new ROCCalculator(), Map.of("periods", List.of(1, 5, 12, 20))),
+                Arguments.of(new BBandsCalculator(), Map.of("periods", List.of(5, 20, 40), "std_dev", 2.0)),
+                Arguments.of(new ROCCalculator(), Map.of("period", 12)),
+                Arguments.of(new MomentumCalculator(), Map.of("period", 10)),
+                Arguments.of(new MFICalculator(), Map.of("period", 14)),
+                Arguments.of(new CCICalculator(), Map.of("period", 20)),
+                Arguments.of(new CMFCalculator(), Map.of("period", 20)),
+                Arguments.of(new ADLineCalculator(), Map.of()),
+                Arguments.of(new PivotPointsCalculator(), Map.of("type", "standard")),
+                Arguments.of(new PivotPointsCalculator(), Map.of("type", "woodie")),
+                Arguments.of(new FibonacciRetracementCalculator(), Map.of("period", 20)),
+                Arguments.of(new HMACalculator(new WMACalculator()), Map.of("periods", List.of(9, 16))),
+                Arguments.of(new ParabolicSARCalculator(), Map.of("afStart", 0.02, "afStep", 0.02, "afMax", 0.2)),
+                Arguments.of(new SupertrendCalculator(), Map.of("period", 10, "multiplier", 3.0)),
+                Arguments.of(new DEMACalculator(), Map.of("periods", List.of(10, 20))),
+                Arguments.of(new TEMACalculator(), Map.of("periods", List.of(10, 20))),
+                Arguments.of(new ZLEMACalculator(), Map.of("periods", List.of(10, 20))),
+                Arguments.of(new TRIXCalculator(), Map.of("period", 15, "signalPeriod", 9)),
+                Arguments.of(new QstickCalculator(), Map.of("period", 8)),
+                Arguments.of(new BalanceOfPowerCalculator(), Map.of("period", 14)),
+                Arguments.of(new ElderRayCalculator(), Map.of("period", 13)),
+                Arguments.of(new ForceIndexCalculator(), Map.of("period", 13)),
+                Arguments.of(new EMVCalculator(), Map.of("period", 14)),
+                Arguments.of(new NVICalculator(), Map.of("signalPeriod", 30)),
+                Arguments.of(new PVICalculator(), Map.of("signalPeriod", 30)),
+                Arguments.of(new CMOCalculator(), Map.of("period", 14)),
+                Arguments.of(new DPOCalculator(), Map.of("period", 20)),
+                Arguments.of(new CoppockCurveCalculator(), Map.of("rocPeriod1", 14, "rocPeriod2", 11, "wmaPeriod", 10)),
+                Arguments.of(new KSTCalculator(), Map.of("signalPeriod", 9)),
+                Arguments.of(new TSICalculator(), Map.of("longPeriod", 25, "shortPeriod", 13, "signalPeriod", 7)),
+                Arguments.of(new SchaffTrendCycleCalculator(), Map.of("fastPeriod", 23, "slowPeriod", 50, "cyclePeriod", 10, "smoothFactor", 0.5)),
+                Arguments.of(new VortexCalculator(), Map.of("period", 14)),
+                Arguments.of(new ChaikinVolatilityCalculator(), Map.of("emaPeriod", 10, "rocPeriod", 10)),
+                Arguments.of(new MassIndexCalculator(), Map.of("emaPeriod", 9, "sumPeriod", 25)),
+                Arguments.of(new FibonacciExtensionCalculator(), Map.of("lookbackPeriod", 50)),
+                Arguments.of(new SupportResistanceCalculator(), Map.of("lookbackPeriod", 60, "numLevels", 3)),
+                Arguments.of(new ExpressionIndicatorCalculator("EXPR", zScore, compiler.compile(zScore)), Map.of()),
+                Arguments.of(new ExpressionIndicatorCalculator("EXPR_EMA", "EMA(WMA(close,5) - LOWEST(low,5),3) * volume",
+                        compiler.compile("EMA(WMA(close,5) - LOWEST(low,5),3) * volume")), Map.of())
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("calculators")
+    @DisplayName("測試: 序列結果與逐日計算一致")
+    void testSeriesMatchesPrefixCalculation(IndicatorCalculator calculator, Map<String, Object> params) {
+        System.out.println("📝 測試: " + calculator.getName() + " 序列結果與逐日計算一致");
+
+        // Given
+        PriceSeries series = randomWalk(120, 42L);
+
+        // When
+        IndicatorSeries output = calculator.calculateSeries(series, params);
+
+        // Then
+        assertThat(output.size()).isEqualTo(series.size());
+        int checked = 0;
+        for (int i = calculator.getMetadata().getMinDataPoints() - 1; i < series.size(); i++) {
+            Map<String, Object> expected = calculator.calculate(series.head(i + 1), params);
+            assertThat(output.valuesAt(i))
+                    .as("index %d", i)
+                    .isEqualTo(expected);
+            checked++;
+        }
+
+        System.out.println("✅ 測試通過: 已比對 " + checked + " 個交易日");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("calculators")
+    @DisplayName("測試: 直接寫入的結果與 calculate 一致")
+    void testCalculateIntoMatchesCalculate(IndicatorCalculator calculator, Map<String, Object> params) {
+        System.out.println("📝 測試: " + calculator.getName() + " 直接寫入的結果與 calculate 一致");
+
+        // Given
+        PriceSeries series = randomWalk(120, 42L);
+        String category = calculator.getCategory();
+
+        for (int size : new int[]{1, calculator.getMetadata().getMinDataPoints(), series.size()}) {
+            PriceSeries head = series.head(size);
+
+            // When
+            IndicatorValues actual = new IndicatorValues();
+            calculator.calculateInto(head, params, IndicatorContext.of(head), actual);
+
+            // Then
+            IndicatorValues expected = new IndicatorValues();
+            expected.putAll(category, calculator.calculate(head, params));
+            assertThat(actual.toMap(category))
+                    .as("size %d", size)
+                    .isEqualTo(expected.toMap(category));
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    /**
+     * 產生隨機漫步 OHLCV 序列
+     */
+    public static PriceSeries randomWalk(int size, long seed) {
+        Random random = new Random(seed);
+        int[] dates = new int[size];
+        double[] open = new double[size];
+        double[] high = new double[size];
+        double[] low = new double[size];
+        double[] close = new double[size];
+        long[] volume = new long[size];
+
+        int start = (int) LocalDate.of(2024, 1, 1).toEpochDay();
+        double price = 100.0;
+        for (int i = 0; i < size; i++) {
+            double next = Math.max(1.0, price + random.nextGaussian() * 2.0);
+            dates[i] = start + i;
+            open[i] = price;
+            close[i] = next;
+            high[i] = Math.max(price, next) + random.nextDouble();
+            low[i] = Math.min(price, next) - random.nextDouble();
+            volume[i] = 1000L + random.nextInt(5000);
+            price = next;
+        }
+
+        return PriceSeries.of("TEST", PriceColumns.wrap(dates, open, high, low, close, volume));
+    }
+}
@@ -0,0 +1,92 @@
+package com.chris.fin_shark.m07.engine.calculator;
+
+import com.chris.fin_shark.m07.engine.calculator.momentum.RSICalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.TRIXCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.EMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.MACDCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.ParabolicSARCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.SupertrendCalculator;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 遞推計算測試
+ * <p>
+ * 驗證 initState + 逐日 advance 的結果與「前 i+1 筆呼叫 calculate」完全一致
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("遞推計算測試")
+class IncrementalCalculatorTest {
+
+    /** 建立狀態所用的前段 K 棒數 */
+    private static final int WARMUP = 60;
+
+    static Stream<Arguments> calculators() {
+        EMACalculator ema = new EMACalculator();
+        return Stream.of(
+                Arguments.of(ema, Map.of("periods", List.of(12, 26))),
+                Arguments.of(new RSICalculator(), Map.of("period", 14)),
+                Arguments.of(new MACDCalculator(ema), Map.of("fast", 12, "slow", 26, "signal", 9)),
+                Arguments.of(new TRIXCalculator(), Map.of("period", 15, "signalPeriod", 9)),
+                Arguments.of(new ParabolicSARCalculator(), Map.of("afStart", 0.02, "afStep", 0.02, "afMax", 0.2)),
+                Arguments.of(new SupertrendCalculator(), Map.of("period", 10, "multiplier", 3.0))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("calculators")
+    @DisplayName("測試: 逐日推進與全量計算一致")
+    void testAdvanceMatchesFullCalculation(IncrementalIndicatorCalculator calculator, Map<String, Object> params) {
+        System.out.println("📝 測試: " + calculator.getName() + " 逐日推進與全量計算一致");
+
+        // Given
+        PriceSeries series = CalculateSeriesTest.randomWalk(200, 7L);
+        PriceColumns columns = series.getColumns();
+        Map<String, Double> state = calculator.initState(series.head(WARMUP), params);
+        assertThat(state).isNotNull();
+
+        // When & Then
+        int checked = 0;
+        for (int i = WARMUP; i < series.size(); i++) {
+            Map<String, Object> actual = calculator.advance(state, columns, i, params);
+            Map<String, Object> expected = calculator.calculate(series.head(i + 1), params);
+            assertThat(actual)
+                    .as("index %d", i)
+                    .isEqualTo(expected);
+            checked++;
+        }
+
+        System.out.println("✅ 測試通過: 已比對 " + checked + " 個交易日");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("calculators")
+    @DisplayName("測試: 資料不足時不建立狀態")
+    void testInitStateRequiresEnoughData(IncrementalIndicatorCalculator calculator, Map<String, Object> params) {
+        System.out.println("📝 測試: " + calculator.getName() + " 資料不足時不建立狀態");
+
+        // Given
+        PriceSeries series = CalculateSeriesTest.randomWalk(3, 7L);
+
+        // When
+        Map<String, Double> state = calculator.initState(series, params);
+
+        // Then
+        assertThat(state).isNull();
+
+        System.out.println("✅ 測試通過");
+    }
+}
@@ -0,0 +1,156 @@
+package com.chris.fin_shark.m07.engine.calculator;
+
+import com.chris.fin_shark.m07.engine.IndicatorPlan;
+import com.chris.fin_shark.m07.engine.calculator.momentum.ROCCalculator;
+import com.chris.fin_shark.m07.engine.calculator.momentum.RSICalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.EMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.volatility.BBandsCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
+import com.chris.fin_shark.m07.engine.model.IndicatorSeries;
+import com.chris.fin_shark.m07.engine.model.PeriodMatrix;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 多週期掃描測試
+ * <p>
+ * 驗證一次掃描的每一列與單一週期的 calculateSeries 逐位相同
+ * </p>
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("多週期掃描測試")
+class PeriodSweepTest {
+
+    /** 2 ~ 60，含超過序列長度的週期 */
+    private static final int[] PERIODS = IntStream.rangeClosed(2, 60).toArray();
+
+    @Test
+    @DisplayName("測試: RSI 掃描與逐週期計算一致")
+    void testRSISweepMatchesSinglePeriod() {
+        System.out.println("📝 測試: RSI 掃描與逐週期計算一致");
+
+        // Given
+        PriceSeries series = CalculateSeriesTest.randomWalk(50, 7L);
+        RSICalculator calculator = new RSICalculator();
+
+        // When
+        PeriodMatrix rsi = calculator.sweep(series, PERIODS, Map.of()).get("rsi");
+
+        // Then
+        for (int r = 0; r < PERIODS.length; r++) {
+            int period = PERIODS[r];
+            IndicatorSeries single = calculator.calculateSeries(series, Map.of("period", period));
+            assertRowEquals(rsi, r, single, "rsi_" + period);
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: EMA / ROC / BBands 掃描與逐週期計算一致")
+    void testOtherSweepsMatchSinglePeriod() {
+        System.out.println("📝 測試: EMA / ROC / BBands 掃描與逐週期計算一致");
+
+        // Given
+        PriceSeries series = CalculateSeriesTest.randomWalk(50, 11L);
+        EMACalculator ema = new EMACalculator();
+        ROCCalculator roc = new ROCCalculator();
+        BBandsCalculator bbands = new BBandsCalculator();
+
+        // When
+        PeriodMatrix emaValues = ema.sweep(series, PERIODS, Map.of()).get("ema");
+        PeriodMatrix rocValues = roc.sweep(series, PERIODS, Map.of()).get("roc");
+        Map<String, PeriodMatrix> bands = bbands.sweep(series, PERIODS, Map.of("std_dev", 2.5));
+
+        // Then
+        for (int r = 0; r < PERIODS.length; r++) {
+            int period = PERIODS[r];
+            assertRowEquals(emaValues, r,
+                    ema.calculateSeries(series, Map.of("periods", List.of(period))), "ema" + period);
+            assertRowEquals(rocValues, r,
+                    singleROC(roc, series, period), "roc_" + period);
+
+            IndicatorSeries single = bbands.calculateSeries(series, Map.of("period", period, "std_dev", 2.5));
+            for (String band : List.of("upper", "middle", "lower", "percent_b", "bandwidth")) {
+                assertRowEquals(bands.get(band), r, single, "bbands." + band);
+            }
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 上下文一次計算多個 EMA 並共用快取")
+    void testContextEmaSweepSharesCache() {
+        System.out.println("📝 測試: 上下文一次計算多個 EMA 並共用快取");
+
+        // Given
+        PriceSeries series = CalculateSeriesTest.randomWalk(40, 3L);
+        IndicatorContext context = IndicatorContext.of(series);
+        double[] cached12 = context.ema(IndicatorContext.CLOSE, 12);
+
+        // When
+        double[][] emas = context.ema(IndicatorContext.CLOSE, new int[]{12, 26, 50});
+
+        // Then：已快取的週期直接取用，其餘與單一週期計算逐位相同
+        assertThat(emas[0]).isSameAs(cached12);
+        assertThat(emas[1]).isEqualTo(IndicatorContext.emaSeries(series.getCloseArray(), 26));
+        assertThat(emas[2]).isEmpty();
+        assertThat(context.ema(IndicatorContext.CLOSE, 26)).isSameAs(emas[1]);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 計劃以週期範圍建立掃描參數")
+    void testPlanSweep() {
+        System.out.println("📝 測試: 計劃以週期範圍建立掃描參數");
+
+        // When
+        IndicatorPlan plan = new IndicatorPlan().addSweep("RSI", 2, 60);
+        Map<String, Object> params = plan.getIndicators().get("RSI");
+        Map<String, Object> result = new RSICalculator()
+                .calculate(CalculateSeriesTest.randomWalk(120, 5L), params);
+
+        // Then
+        assertThat(PeriodSweepCalculator.sweepPeriods(params)).containsExactly(PERIODS);
+        assertThat(result).hasSize(PERIODS.length).containsKeys("rsi_2", "rsi_60");
+        assertThat(result).doesNotContainKey("rsi_signal");
+        assertThatThrownBy(() -> new IndicatorPlan().addSweep("RSI", 10, 5))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    /**
+     * 單一週期的 ROC 沒有專屬 calculateSeries，以前段序列逐日計算作為基準
+     */
+    private IndicatorSeries singleROC(ROCCalculator calculator, PriceSeries series, int period) {
+        IndicatorSeries output = IndicatorSeries.ofSize(series.size());
+        double[] column = output.numberColumn("roc_" + period);
+        for (int i = 0; i < series.size(); i++) {
+            Object value = calculator.calculate(series.head(i + 1), Map.of("period", period)).get("roc_" + period);
+            if (value != null) {
+                column[i] = (double) value;
+            }
+        }
+        return output;
+    }
+
+    private void assertRowEquals(PeriodMatrix matrix, int row, IndicatorSeries single, String column) {
+        // 單一週期資料不足時沒有欄位，numberColumn 會補上全 NaN 的欄位
+        assertThat(matrix.row(row))
+                .as("%s (period %d)", column, matrix.periodAt(row))
+                .isEqualTo(single.numberColumn(column));
+    }
+}
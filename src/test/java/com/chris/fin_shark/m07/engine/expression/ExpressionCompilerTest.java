@@ -0,0 +1,187 @@
+package com.chris.fin_shark.m07.engine.expression;
+
+import com.chris.fin_shark.m07.engine.DefaultIndicatorEngine;
+import com.chris.fin_shark.m07.engine.IndicatorPlan;
+import com.chris.fin_shark.m07.engine.IndicatorRegistry;
+import com.chris.fin_shark.m07.engine.IndicatorResult;
+import com.chris.fin_shark.m07.engine.calculator.CalculateSeriesTest;
+import com.chris.fin_shark.m07.engine.calculator.trend.EMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.MACDCalculator;
+import com.chris.fin_shark.m07.engine.model.IndicatorContext;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m07.engine.stats.RollingMoments;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * 指標運算式編譯測試
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("指標運算式編譯測試")
+class ExpressionCompilerTest {
+
+    @Test
+    @DisplayName("測試: 運算式結果與內建核心一致")
+    void testMatchesBuiltInKernels() {
+        System.out.println("📝 測試: 運算式結果與內建核心一致");
+
+        // Given
+        PriceSeries series = CalculateSeriesTest.randomWalk(80, 21L);
+        double[] close = series.getCloseArray();
+        ExpressionCompiler compiler = new ExpressionCompiler();
+        ExpressionNode macd = compiler.compile("EMA(close,12) - EMA(close,26)");
+        ExpressionNode zScore = compiler.compile("(close - SMA(close,20)) / STDEV(close,20)");
+
+        // When
+        IndicatorContext context = IndicatorContext.of(series);
+        double[] macdValues = macd.evaluate(context);
+        double[] zScores = zScore.evaluate(context);
+
+        // Then
+        double[] fast = IndicatorContext.emaSeries(close, 12);
+        double[] slow = IndicatorContext.emaSeries(close, 26);
+        double[][] moments = RollingMoments.rollingMeanStdDev(close, 20, false);
+        assertThat(macd.getWarmup()).isEqualTo(25);
+        assertThat(zScore.getWarmup()).isEqualTo(19);
+        for (int i = 25; i < close.length; i++) {
+            assertThat(macdValues[i]).as("macd %d", i).isEqualTo(fast[i] - slow[i]);
+        }
+        for (int i = 19; i < close.length; i++) {
+            double mean = 0;
+            for (int j = i - 19; j <= i; j++) {
+                mean += close[j];
+            }
+            mean /= 20;
+            assertThat(zScores[i]).as("zscore %d", i).isEqualTo((close[i] - mean) / moments[RollingMoments.STD_DEV][i]);
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 相同子運算式共用節點與計算結果")
+    void testSharedSubexpressions() {
+        System.out.println("📝 測試: 相同子運算式共用節點與計算結果");
+
+        // Given
+        ExpressionCompiler compiler = new ExpressionCompiler();
+        ExpressionNode first = compiler.compile("(close - SMA(close,20)) / STDEV(close,20)");
+        int nodes = compiler.size();
+
+        // When：大小寫、空白、加法順序不同，但子運算式相同
+        ExpressionNode second = compiler.compile("(CLOSE - sma( close , 20 )) * 2");
+        ExpressionNode third = compiler.compile("SMA(close,20) + close");
+        ExpressionNode fourth = compiler.compile("close + SMA(close,20)");
+
+        // Then
+        assertThat(compiler.size()).isEqualTo(nodes + 3);  // 常數 2、乘法、加法
+        assertThat(fourth).isSameAs(third);
+
+        PriceSeries series = CalculateSeriesTest.randomWalk(60, 4L);
+        IndicatorContext context = IndicatorContext.of(series);
+        first.evaluate(context);
+        int requestsBefore = context.getRequests();
+        int hitsBefore = context.getHits();
+        second.evaluate(context);
+        assertThat(context.getHits() - hitsBefore).as("差值節點直接命中").isEqualTo(1);
+        assertThat(context.getRequests() - requestsBefore).isEqualTo(3);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 常數摺疊與衍生序列的起算點")
+    void testConstantFoldingAndWarmup() {
+        System.out.println("📝 測試: 常數摺疊與衍生序列的起算點");
+
+        // Given
+        ExpressionCompiler compiler = new ExpressionCompiler();
+
+        // When
+        ExpressionNode folded = compiler.compile("close * (2 + 3) / -(4 - 2)");
+        ExpressionNode nested = compiler.compile("EMA(SMA(close,5),3)");
+        ExpressionNode lag = compiler.compile("close - LAG(close,1)");
+
+        // Then
+        assertThat(folded.getKey()).isEqualTo("((5*close)/-2)");
+        assertThat(nested.getWarmup()).isEqualTo(6);
+        assertThat(lag.getWarmup()).isEqualTo(1);
+
+        PriceSeries series = CalculateSeriesTest.randomWalk(30, 9L);
+        double[] close = series.getCloseArray();
+        double[] sma = new double[close.length];
+        for (int i = 4; i < close.length; i++) {
+            sma[i] = (close[i - 4] + close[i - 3] + close[i - 2] + close[i - 1] + close[i]) / 5;
+        }
+        double[] expected = new double[close.length];
+        IndicatorContext.emaSeries(sma, 4, close.length, 3, expected);
+        double[] actual = nested.evaluate(IndicatorContext.of(series));
+        for (int i = 6; i < close.length; i++) {
+            assertThat(actual[i]).as("index %d", i).isCloseTo(expected[i], offset(1e-9));
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 語法錯誤回報位置")
+    void testSyntaxErrors() {
+        System.out.println("📝 測試: 語法錯誤回報位置");
+
+        ExpressionCompiler compiler = new ExpressionCompiler();
+        for (String invalid : List.of("", "close +", "FOO(close,3)", "SMA(close,0)", "SMA(close,2.5)",
+                "SMA(close)", "(close", "close )", "rsi")) {
+            assertThatThrownBy(() -> compiler.compile(invalid))
+                    .as(invalid)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThatThrownBy(() -> compiler.compile("close + FOO(close,3)"))
+                .hasMessageContaining("位置 8")
+                .hasMessageContaining("FOO");
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 註冊後由引擎計算並與內建 MACD 共用 EMA")
+    void testRegisteredExpressionInEngine() {
+        System.out.println("📝 測試: 註冊後由引擎計算並與內建 MACD 共用 EMA");
+
+        // Given
+        EMACalculator ema = new EMACalculator();
+        MACDCalculator macd = new MACDCalculator(ema);
+        IndicatorRegistry registry = new IndicatorRegistry(List.of(ema, macd));
+        DefaultIndicatorEngine engine = new DefaultIndicatorEngine(List.of(ema, macd));
+        engine.register(registry.registerExpression("MACD_LINE", "EMA(close,12) - EMA(close,26)"));
+        engine.register(registry.registerExpression("ZSCORE20", "(close - SMA(close,20)) / STDEV(close,20)"));
+        PriceSeries series = CalculateSeriesTest.randomWalk(120, 17L);
+
+        // When
+        IndicatorResult result = engine.compute(series,
+                IndicatorPlan.of("MACD", "MACD_LINE", "ZSCORE20"));
+
+        // Then
+        Map<String, Object> custom = result.getCustomIndicators();
+        assertThat(custom).containsOnlyKeys("macd_line", "zscore20");
+        double macdLine = (double) result.getValue("macd.macd_line");
+        assertThat((double) custom.get("macd_line")).isCloseTo(macdLine, offset(0.01));
+        assertThat(registry.getMetadata("ZSCORE20")).hasValueSatisfying(meta -> {
+            assertThat(meta.getCategory()).isEqualTo("CUSTOM");
+            assertThat(meta.getMinDataPoints()).isEqualTo(20);
+        });
+        assertThat(engine.getContextHitRate()).isGreaterThan(0);
+        assertThatThrownBy(() -> registry.registerExpression("MACD", "close"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        System.out.println("✅ 測試通過");
+    }
+}
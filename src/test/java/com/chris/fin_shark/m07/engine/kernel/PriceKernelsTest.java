@@ -0,0 +1,231 @@
+package com.chris.fin_shark.m07.engine.kernel;
+
+import com.chris.fin_shark.m07.engine.calculator.CalculateSeriesTest;
+import com.chris.fin_shark.m07.engine.calculator.IndicatorCalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.MACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.VWMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.WMACalculator;
+import com.chris.fin_shark.m07.engine.calculator.volatility.BBandsCalculator;
+import com.chris.fin_shark.m07.engine.calculator.volatility.KeltnerChannelCalculator;
+import com.chris.fin_shark.m07.engine.calculator.volume.PVTCalculator;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 價格運算核心測試（SIMD 與純量實作逐位相同）
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("價格運算核心測試")
+class PriceKernelsTest {
+
+    /** 涵蓋空序列、不足一個向量、剛好整數倍與有尾端的長度 */
+    private static final int[] LENGTHS = {0, 1, 3, 7, 8, 9, 31, 250, 1001};
+
+    private static final int[] PERIODS = {1, 2, 5, 14, 20, 60};
+
+    @AfterEach
+    void tearDown() {
+        Kernels.configure(false);
+    }
+
+    @Test
+    @DisplayName("測試: 視窗平均（SMA / WMA / VWMA）逐位相同")
+    void testWindowMeansMatchScalar() {
+        System.out.println("📝 測試: 視窗平均（SMA / WMA / VWMA）逐位相同");
+        PriceKernels vector = requireVector();
+        PriceKernels scalar = Kernels.scalar();
+
+        for (int length : LENGTHS) {
+            // Given
+            double[] prices = randomPrices(length, length);
+            long[] volumes = randomVolumes(length, length);
+
+            for (int period : PERIODS) {
+                if (length < period) {
+                    continue;
+                }
+                String label = "length=" + length + ", period=" + period;
+
+                // When / Then
+                assertThat(run(length, out -> vector.windowMean(prices, length, period, out)))
+                        .as("SMA " + label)
+                        .isEqualTo(run(length, out -> scalar.windowMean(prices, length, period, out)));
+                assertThat(run(length, out -> vector.weightedWindowMean(prices, length, period, out)))
+                        .as("WMA " + label)
+                        .isEqualTo(run(length, out -> scalar.weightedWindowMean(prices, length, period, out)));
+                assertThat(run(length, out -> vector.volumeWeightedMean(prices, volumes, length, period, out)))
+                        .as("VWMA " + label)
+                        .isEqualTo(run(length, out -> scalar.volumeWeightedMean(prices, volumes, length, period, out)));
+            }
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 逐元素運算（TR / 典型價格 / 漲跌幅 / 通道）逐位相同")
+    void testElementwiseMatchScalar() {
+        System.out.println("📝 測試: 逐元素運算（TR / 典型價格 / 漲跌幅 / 通道）逐位相同");
+        PriceKernels vector = requireVector();
+        PriceKernels scalar = Kernels.scalar();
+
+        for (int length : LENGTHS) {
+            // Given
+            double[] close = randomPrices(length, 31L * length);
+            double[] high = new double[length];
+            double[] low = new double[length];
+            double[] width = new double[length];
+            Random random = new Random(length);
+            for (int i = 0; i < length; i++) {
+                high[i] = close[i] + random.nextDouble() * 3;
+                low[i] = close[i] - random.nextDouble() * 3;
+                width[i] = random.nextDouble() * 5;
+            }
+            String label = "length=" + length;
+
+            // When / Then
+            assertThat(run(length, out -> vector.trueRange(high, low, close, length, out)))
+                    .as("TR " + label)
+                    .isEqualTo(run(length, out -> scalar.trueRange(high, low, close, length, out)));
+            assertThat(run(length, out -> vector.typicalPrice(high, low, close, length, out)))
+                    .as("TP " + label)
+                    .isEqualTo(run(length, out -> scalar.typicalPrice(high, low, close, length, out)));
+            assertThat(run(length, out -> vector.returns(close, length, out)))
+                    .as("returns " + label)
+                    .isEqualTo(run(length, out -> scalar.returns(close, length, out)));
+
+            int from = Math.min(3, length);
+            double[] vectorLower = new double[length];
+            double[] scalarLower = new double[length];
+            assertThat(run(length, out -> vector.bands(close, width, 2.0, from, length, out, vectorLower)))
+                    .as("upper " + label)
+                    .isEqualTo(run(length, out -> scalar.bands(close, width, 2.0, from, length, out, scalarLower)));
+            assertThat(vectorLower).as("lower " + label).isEqualTo(scalarLower);
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 零值與零成交量的特殊處理一致")
+    void testZeroHandling() {
+        System.out.println("📝 測試: 零值與零成交量的特殊處理一致");
+        PriceKernels vector = requireVector();
+        PriceKernels scalar = Kernels.scalar();
+
+        // Given：前值為 0 / -0.0 的漲跌幅、整段視窗無成交量
+        int length = 40;
+        double[] prices = randomPrices(length, 5L);
+        prices[4] = 0;
+        prices[17] = -0.0;
+        long[] volumes = randomVolumes(length, 5L);
+        Arrays.fill(volumes, 8, 24, 0L);
+
+        // When / Then
+        double[] vectorReturns = run(length, out -> vector.returns(prices, length, out));
+        assertThat(vectorReturns)
+                .isEqualTo(run(length, out -> scalar.returns(prices, length, out)));
+        assertThat(vectorReturns[5]).isZero();
+        assertThat(vectorReturns[18]).isZero();
+        assertThat(run(length, out -> vector.volumeWeightedMean(prices, volumes, length, 5, out)))
+                .isEqualTo(run(length, out -> scalar.volumeWeightedMean(prices, volumes, length, 5, out)));
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 選用 SIMD 後計算器整段序列結果不變")
+    void testCalculatorSeriesUnchanged() {
+        System.out.println("📝 測試: 選用 SIMD 後計算器整段序列結果不變");
+        requireVector();
+
+        // Given
+        PriceSeries series = CalculateSeriesTest.randomWalk(300, 13L);
+        List<IndicatorCalculator> calculators = List.of(
+                new MACalculator(), new WMACalculator(), new VWMACalculator(),
+                new BBandsCalculator(), new KeltnerChannelCalculator(), new PVTCalculator());
+
+        for (IndicatorCalculator calculator : calculators) {
+            Map<String, Object> params = calculator.getMetadata().getDefaultParams();
+
+            // When
+            assertThat(Kernels.configure(false)).isSameAs(Kernels.scalar());
+            var expected = calculator.calculateSeries(series, params);
+            assertThat(Kernels.configure(true)).isSameAs(Kernels.vector());
+            var actual = calculator.calculateSeries(series, params);
+
+            // Then
+            for (int i = 0; i < series.size(); i++) {
+                assertThat(actual.valuesAt(i))
+                        .as("%s index %d", calculator.getName(), i)
+                        .isEqualTo(expected.valuesAt(i));
+            }
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 未啟用時使用純量實作")
+    void testDefaultsToScalar() {
+        System.out.println("📝 測試: 未啟用時使用純量實作");
+
+        // When
+        PriceKernels selected = Kernels.configure(false);
+
+        // Then
+        assertThat(selected).isSameAs(Kernels.scalar());
+        assertThat(Kernels.current()).isSameAs(Kernels.scalar());
+        assertThat(selected.name()).isEqualTo("scalar");
+
+        System.out.println("✅ 測試通過");
+    }
+
+    private PriceKernels requireVector() {
+        assumeTrue(Kernels.isVectorAvailable(), "JVM 未載入 jdk.incubator.vector 模組");
+        return Kernels.vector();
+    }
+
+    /**
+     * 以 NaN 預填輸出後執行，未寫入的位置也必須一致
+     */
+    private double[] run(int length, Consumer<double[]> kernel) {
+        double[] output = new double[length];
+        Arrays.fill(output, Double.NaN);
+        kernel.accept(output);
+        return output;
+    }
+
+    private double[] randomPrices(int length, long seed) {
+        Random random = new Random(seed);
+        double[] prices = new double[length];
+        double price = 100;
+        for (int i = 0; i < length; i++) {
+            price = Math.max(1, price + random.nextGaussian() * 2);
+            prices[i] = price;
+        }
+        return prices;
+    }
+
+    private long[] randomVolumes(int length, long seed) {
+        Random random = new Random(seed);
+        long[] volumes = new long[length];
+        for (int i = 0; i < length; i++) {
+            volumes[i] = 1_000L + random.nextInt(50_000);
+        }
+        return volumes;
+    }
+}
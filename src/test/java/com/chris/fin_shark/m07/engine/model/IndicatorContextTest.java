@@ -0,0 +1,144 @@
+package com.chris.fin_shark.m07.engine.model;
+
+import com.chris.fin_shark.m07.engine.calculator.CalculateSeriesTest;
+import com.chris.fin_shark.m07.engine.stats.RollingMoments;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 計算上下文（共用中間結果）測試
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("計算上下文測試")
+class IndicatorContextTest {
+
+    @Test
+    @DisplayName("測試: 相同中間序列只計算一次")
+    void testIntermediateSeriesAreShared() {
+        System.out.println("📝 測試: 相同中間序列只計算一次");
+
+        // Given
+        PriceSeries series = CalculateSeriesTest.randomWalk(120, 3L);
+        IndicatorContext context = IndicatorContext.of(series);
+
+        // When
+        double[] first = context.ema(IndicatorContext.CLOSE, 12);
+        double[] second = context.ema(IndicatorContext.CLOSE, 12);
+        double[] other = context.ema(IndicatorContext.CLOSE, 26);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first);
+        assertThat(first).containsExactly(IndicatorContext.emaSeries(series.getCloseArray(), 12));
+        assertThat(context.getRequests()).isEqualTo(3);
+        assertThat(context.getHits()).isEqualTo(1);
+        assertThat(context.getHitRate()).isEqualTo(1.0 / 3);
+
+        System.out.println("✅ 測試通過: 命中率 " + context.getHitRate());
+    }
+
+    @Test
+    @DisplayName("測試: 衍生序列可作為來源")
+    void testDerivedSource() {
+        System.out.println("📝 測試: 衍生序列可作為來源");
+
+        // Given
+        PriceSeries series = CalculateSeriesTest.randomWalk(120, 3L);
+        IndicatorContext context = IndicatorContext.of(series);
+        String ema1Key = IndicatorContext.key("ema", IndicatorContext.CLOSE, 10);
+
+        // When
+        double[] ema1 = context.ema(IndicatorContext.CLOSE, 10);
+        double[] ema2 = context.ema(ema1Key, 10);
+
+        // Then
+        assertThat(context.source(ema1Key)).isSameAs(ema1);
+        assertThat(ema2).containsExactly(IndicatorContext.emaSeries(ema1, 10));
+        assertThatThrownBy(() -> context.source("ema(close,99)"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: ATR 共用 True Range")
+    void testAtrReusesTrueRange() {
+        System.out.println("📝 測試: ATR 共用 True Range");
+
+        // Given
+        PriceSeries series = CalculateSeriesTest.randomWalk(120, 3L);
+        PriceColumns columns = series.getColumns();
+        IndicatorContext context = IndicatorContext.of(series);
+
+        // When
+        double[] atr10 = context.atr(10);
+        double[] atr14 = context.atr(14);
+
+        // Then
+        double[] tr = IndicatorContext.trueRange(columns.high(), columns.low(), columns.close());
+        assertThat(atr10).containsExactly(IndicatorContext.wilderAverage(tr, 10));
+        assertThat(atr14).containsExactly(IndicatorContext.wilderAverage(tr, 14));
+        assertThat(context.getHits()).isEqualTo(1);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 滑動均值與標準差一次計算、分別快取")
+    void testRollingMomentsAreShared() {
+        System.out.println("📝 測試: 滑動均值與標準差一次計算、分別快取");
+
+        // Given
+        PriceSeries series = CalculateSeriesTest.randomWalk(120, 3L);
+        IndicatorContext context = IndicatorContext.of(series);
+        double[][] expected = RollingMoments.rollingMeanStdDev(series.getCloseArray(), 20, false);
+
+        // When
+        double[] stdDevs = context.rollingStdDev(IndicatorContext.CLOSE, 20);
+        double[] means = context.rollingMean(IndicatorContext.CLOSE, 20);
+
+        // Then
+        assertThat(means).containsExactly(expected[RollingMoments.MEAN]);
+        assertThat(stdDevs).containsExactly(expected[RollingMoments.STD_DEV]);
+        assertThat(context.rollingStdDev(IndicatorContext.CLOSE, 20)).isSameAs(stdDevs);
+        assertThat(context.source(IndicatorContext.key("mean", IndicatorContext.CLOSE, 20))).isSameAs(means);
+        assertThat(context.getHits()).isEqualTo(2);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 第一筆初始值的 EMA 與 SMA 初始值的 EMA 分開快取")
+    void testEmaFirstSeeded() {
+        System.out.println("📝 測試: 第一筆初始值的 EMA 與 SMA 初始值的 EMA 分開快取");
+
+        // Given
+        PriceSeries series = CalculateSeriesTest.randomWalk(60, 42L);
+        IndicatorContext context = IndicatorContext.of(series);
+        double[] close = series.getCloseArray();
+
+        // When
+        double[] seeded = context.emaFirstSeeded(IndicatorContext.CLOSE, 10, 0);
+        double[] offset = context.emaFirstSeeded(IndicatorContext.CLOSE, 10, 5);
+
+        // Then - 與逐筆遞推 EMA = (Price - EMA) * k + EMA 逐位相同
+        double multiplier = 2.0 / 11;
+        double ema = close[0];
+        for (int i = 1; i < close.length; i++) {
+            ema = (close[i] - ema) * multiplier + ema;
+            assertThat(seeded[i]).isEqualTo(ema);
+        }
+        assertThat(offset[4]).isZero();
+        assertThat(offset[5]).isEqualTo(close[5]);
+        assertThat(context.emaFirstSeeded(IndicatorContext.CLOSE, 10, 0)).isSameAs(seeded);
+        assertThat(context.ema(IndicatorContext.CLOSE, 10)).isNotSameAs(seeded);
+        assertThat(context.source(IndicatorContext.key("ema_first", IndicatorContext.CLOSE, 10))).isSameAs(seeded);
+
+        System.out.println("✅ 測試通過");
+    }
+}
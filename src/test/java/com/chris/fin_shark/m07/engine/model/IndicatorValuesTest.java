@@ -0,0 +1,115 @@
+package com.chris.fin_shark.m07.engine.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 型別化指標結果測試
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("型別化指標結果測試")
+class IndicatorValuesTest {
+
+    @Test
+    @DisplayName("測試: Map 寫入後在邊界還原為相同結構")
+    void testMapRoundTrip() {
+        System.out.println("📝 測試: Map 寫入後在邊界還原為相同結構");
+
+        // Given
+        Map<String, Object> trend = Map.of(
+                "ma5", 101.25,
+                "macd", Map.of("macd_line", 1.5, "histogram", -0.25, "macd_signal", "BEARISH")
+        );
+        Map<String, Object> momentum = Map.of("rsi_14", 55.0, "rsi_signal", "NEUTRAL");
+
+        // When
+        IndicatorValues values = new IndicatorValues();
+        values.putAll("TREND", trend);
+        values.putAll("MOMENTUM", momentum);
+
+        // Then
+        assertThat(values.toMap("TREND")).isEqualTo(trend);
+        assertThat(values.toMap("MOMENTUM")).isEqualTo(momentum);
+        assertThat(values.toMap("VOLUME")).isEmpty();
+
+        assertThat(values.getNumber(IndicatorKeys.slot("macd.macd_line"))).isEqualTo(1.5);
+        assertThat(values.getLabel(IndicatorKeys.slot("rsi_signal"))).isEqualTo("NEUTRAL");
+        assertThat(values.get("macd")).isEqualTo(trend.get("macd"));
+        assertThat(values.get("ma5")).isEqualTo(101.25);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 無值以 NaN / null 表示且不出現在輸出")
+    void testMissingValues() {
+        System.out.println("📝 測試: 無值以 NaN / null 表示且不出現在輸出");
+
+        // Given
+        IndicatorValues values = new IndicatorValues();
+        int slot = IndicatorKeys.slot("bbands.percent_b");
+
+        // When
+        values.putNumber("VOLATILITY", slot, Double.NaN);
+
+        // Then
+        assertThat(values.has(slot)).isFalse();
+        assertThat(values.toMap("VOLATILITY")).isEmpty();
+        assertThat(values.getNumber("never_registered_key")).isNaN();
+        assertThat(values.get("never_registered_key")).isNull();
+        assertThat(IndicatorKeys.find("never_registered_key")).isEqualTo(-1);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 整段序列單日寫入與 valuesAt 一致")
+    void testPutRowMatchesValuesAt() {
+        System.out.println("📝 測試: 整段序列單日寫入與 valuesAt 一致");
+
+        // Given
+        IndicatorSeries series = IndicatorSeries.ofSize(3);
+        series.put(1, Map.of("kc", Map.of("upper", 10.0, "lower", 8.0), "keltner_signal", "INSIDE"));
+        series.put(2, Map.of("kc", Map.of("upper", 11.0, "lower", 9.0)));
+
+        for (int i = 0; i < series.size(); i++) {
+            // When
+            IndicatorValues values = new IndicatorValues();
+            values.putRow("VOLATILITY", series, i);
+
+            // Then
+            assertThat(values.toMap("VOLATILITY")).as("index %d", i).isEqualTo(series.valuesAt(i));
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 槽位超過初始容量時自動擴充")
+    void testGrowsBeyondInitialCapacity() {
+        System.out.println("📝 測試: 槽位超過初始容量時自動擴充");
+
+        // Given
+        IndicatorValues values = new IndicatorValues();
+        IndicatorKeys.PeriodSlots slots = new IndicatorKeys.PeriodSlots("capacity_test_");
+
+        // When
+        for (int period = 1; period <= 300; period++) {
+            values.putNumber("STATISTICS", slots.slot(period), period);
+        }
+
+        // Then
+        for (int period = 1; period <= 300; period++) {
+            assertThat(values.getNumber("capacity_test_" + period)).isEqualTo(period);
+        }
+        assertThat(values.toMap("STATISTICS")).hasSize(300);
+
+        System.out.println("✅ 測試通過");
+    }
+}
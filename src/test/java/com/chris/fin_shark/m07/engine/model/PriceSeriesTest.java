@@ -0,0 +1,88 @@
+package com.chris.fin_shark.m07.engine.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 價格序列（欄式）測試
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("價格序列測試")
+class PriceSeriesTest {
+
+    @Test
+    @DisplayName("測試: 原生陣列只建立一次")
+    void testArraysAreMemoized() {
+        System.out.println("📝 測試: 原生陣列只建立一次");
+
+        // Given
+        PriceSeries series = PriceSeries.createTest("2330", new double[]{100, 101, 102});
+
+        // When
+        double[] first = series.getCloseArray();
+        double[] second = series.getCloseArray();
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(first).containsExactly(100, 101, 102);
+
+        System.out.println("✅ 測試通過: 收盤價陣列重複取用為同一實例");
+    }
+
+    @Test
+    @DisplayName("測試: 修改清單後快取失效")
+    void testSetterInvalidatesColumns() {
+        System.out.println("📝 測試: 修改清單後快取失效");
+
+        // Given
+        PriceSeries series = PriceSeries.createTest("2330", new double[]{100, 101});
+        double[] before = series.getCloseArray();
+
+        // When
+        series.setClose(List.of(BigDecimal.valueOf(50), BigDecimal.valueOf(51), BigDecimal.valueOf(52)));
+
+        // Then
+        assertThat(series.getCloseArray()).isNotSameAs(before);
+        assertThat(series.getCloseArray()).containsExactly(50, 51, 52);
+
+        System.out.println("✅ 測試通過: 快取已重建");
+    }
+
+    @Test
+    @DisplayName("測試: 欄式資料的 BigDecimal 相容視圖")
+    void testColumnarCompatibilityViews() {
+        System.out.println("📝 測試: 欄式資料的 BigDecimal 相容視圖");
+
+        // Given
+        LocalDate day = LocalDate.of(2025, 1, 2);
+        PriceColumns columns = PriceColumns.wrap(
+                new int[]{(int) day.toEpochDay(), (int) day.plusDays(1).toEpochDay()},
+                new double[]{10.5, 11.0},
+                new double[]{11.0, 11.5},
+                new double[]{10.0, Double.NaN},
+                new double[]{10.8, 11.2},
+                new long[]{1000L, 2000L}
+        );
+
+        // When
+        PriceSeries series = PriceSeries.of("2330", columns);
+
+        // Then
+        assertThat(series.size()).isEqualTo(2);
+        assertThat(series.getCloseArray()).isSameAs(columns.close());
+        assertThat(series.getDates()).containsExactly(day, day.plusDays(1));
+        assertThat(series.getClose().get(1)).isEqualByComparingTo("11.2");
+        assertThat(series.getLow().get(1)).isNull();
+        assertThat(series.getVolume()).containsExactly(1000L, 2000L);
+
+        System.out.println("✅ 測試通過: 視圖與原生陣列一致");
+    }
+}
@@ -0,0 +1,208 @@
+package com.chris.fin_shark.m07.engine.stats;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 滑動統計核心測試
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("滑動統計核心測試")
+class RollingStatisticsTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    @DisplayName("測試: 滑動均值與標準差與逐窗計算一致")
+    void testMomentsMatchBruteForce() {
+        System.out.println("📝 測試: 滑動均值與標準差與逐窗計算一致");
+
+        // Given（價格水準高、波動小，容易暴露 Σx² 相減的精度問題）
+        double[] values = randomValues(300, 11L, 10_000.0);
+
+        for (int period : new int[]{2, 10, 20, 60}) {
+            // When
+            double[][] population = RollingMoments.rollingMeanStdDev(values, period, false);
+            double[][] sample = RollingMoments.rollingMeanStdDev(values, period, true);
+
+            // Then
+            for (int i = 0; i < values.length; i++) {
+                if (i < period - 1) {
+                    assertThat(population[RollingMoments.MEAN][i]).isNaN();
+                    assertThat(sample[RollingMoments.STD_DEV][i]).isNaN();
+                    continue;
+                }
+                double mean = 0;
+                for (int j = i - period + 1; j <= i; j++) {
+                    mean += values[j];
+                }
+                mean /= period;
+                double sumSquared = 0;
+                for (int j = i - period + 1; j <= i; j++) {
+                    sumSquared += (values[j] - mean) * (values[j] - mean);
+                }
+
+                assertThat(population[RollingMoments.MEAN][i]).as("period %d, index %d", period, i)
+                        .isCloseTo(mean, within(TOLERANCE));
+                assertThat(population[RollingMoments.STD_DEV][i]).as("period %d, index %d", period, i)
+                        .isCloseTo(Math.sqrt(sumSquared / period), within(TOLERANCE));
+                assertThat(sample[RollingMoments.STD_DEV][i]).as("period %d, index %d", period, i)
+                        .isCloseTo(Math.sqrt(sumSquared / (period - 1)), within(TOLERANCE));
+            }
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 移出全部資料後狀態歸零")
+    void testRemoveAllResets() {
+        System.out.println("📝 測試: 移出全部資料後狀態歸零");
+
+        // Given
+        RollingMoments moments = new RollingMoments();
+        moments.add(3.0);
+        moments.add(5.0);
+
+        // When
+        moments.remove(3.0);
+        moments.remove(5.0);
+
+        // Then
+        assertThat(moments.count()).isZero();
+        assertThat(moments.mean()).isZero();
+        assertThat(moments.variance()).isZero();
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 週期不合法時拋出例外")
+    void testInvalidPeriod() {
+        System.out.println("📝 測試: 週期不合法時拋出例外");
+
+        assertThatThrownBy(() -> RollingMoments.rollingMeanStdDev(new double[]{1, 2, 3}, 0, false))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 滑動回歸與最小平方法公式一致")
+    void testRegressionMatchesClosedForm() {
+        System.out.println("📝 測試: 滑動回歸與最小平方法公式一致");
+
+        // Given
+        double[] values = randomValues(200, 23L, 500.0);
+        int period = 14;
+        RollingRegression regression = new RollingRegression();
+
+        for (int i = 0; i < values.length; i++) {
+            // When
+            regression.add(i, values[i]);
+            if (i >= period) {
+                regression.remove(i - period, values[i - period]);
+            }
+            if (i < period - 1) {
+                continue;
+            }
+
+            // Then（x 由 0 開始的傳統公式）
+            int start = i - period + 1;
+            double sumX = 0, sumY = 0, sumXY = 0, sumX2 = 0;
+            for (int x = 0; x < period; x++) {
+                double y = values[start + x];
+                sumX += x;
+                sumY += y;
+                sumXY += x * y;
+                sumX2 += (double) x * x;
+            }
+            double slope = (period * sumXY - sumX * sumY) / (period * sumX2 - sumX * sumX);
+            double intercept = (sumY - slope * sumX) / period;
+
+            double meanY = sumY / period;
+            double ssTotal = 0, ssResidual = 0;
+            for (int x = 0; x < period; x++) {
+                double y = values[start + x];
+                double predicted = intercept + slope * x;
+                ssTotal += (y - meanY) * (y - meanY);
+                ssResidual += (y - predicted) * (y - predicted);
+            }
+
+            assertThat(regression.slope()).as("index %d", i).isCloseTo(slope, within(TOLERANCE));
+            assertThat(regression.interceptAt(start)).as("index %d", i).isCloseTo(intercept, within(1e-6));
+            assertThat(regression.valueAt(i)).as("index %d", i)
+                    .isCloseTo(intercept + slope * (period - 1), within(1e-6));
+            assertThat(regression.rSquared()).as("index %d", i)
+                    .isCloseTo(1 - ssResidual / ssTotal, within(TOLERANCE));
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: R/S 與逐步計算一致")
+    void testRescaledRangeMatchesNaive() {
+        System.out.println("📝 測試: R/S 與逐步計算一致");
+
+        // Given
+        double[] values = randomValues(120, 31L, 0.0);
+        RollingMoments moments = new RollingMoments();
+
+        for (int n : new int[]{10, 20, 40}) {
+            for (int start = 0; start + n <= values.length; start += n) {
+                // When
+                double actual = RescaledRange.of(values, start, n, moments);
+
+                // Then
+                double mean = 0;
+                for (int j = start; j < start + n; j++) {
+                    mean += values[j];
+                }
+                mean /= n;
+                double[] cumulative = new double[n];
+                double running = 0;
+                double sumSquared = 0;
+                for (int j = 0; j < n; j++) {
+                    double deviation = values[start + j] - mean;
+                    running += deviation;
+                    cumulative[j] = running;
+                    sumSquared += deviation * deviation;
+                }
+                double maxCum = cumulative[0];
+                double minCum = cumulative[0];
+                for (double c : cumulative) {
+                    maxCum = Math.max(maxCum, c);
+                    minCum = Math.min(minCum, c);
+                }
+                double expected = (maxCum - minCum) / Math.sqrt(sumSquared / n);
+
+                assertThat(actual).as("n %d, start %d", n, start).isCloseTo(expected, within(TOLERANCE));
+            }
+        }
+
+        // 常數序列標準差為 0
+        assertThat(RescaledRange.of(new double[]{1, 1, 1, 1}, 0, 4, moments)).isZero();
+
+        System.out.println("✅ 測試通過");
+    }
+
+    private static double[] randomValues(int size, long seed, double level) {
+        Random random = new Random(seed);
+        double[] values = new double[size];
+        double value = level;
+        for (int i = 0; i < size; i++) {
+            value += random.nextGaussian();
+            values[i] = value;
+        }
+        return values;
+    }
+}
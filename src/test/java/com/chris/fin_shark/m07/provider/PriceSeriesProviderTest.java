@@ -0,0 +1,163 @@
+package com.chris.fin_shark.m07.provider;
+
+import com.chris.fin_shark.m06.repository.StockPriceRepository;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m07.mapper.PriceBarMapper;
+import com.chris.fin_shark.m07.vo.PriceBarVO;
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 價格序列提供者測試
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("價格序列提供者測試")
+class PriceSeriesProviderTest {
+
+    private static final LocalDate END_DATE = LocalDate.of(2024, 6, 28);
+
+    @Mock
+    private StockPriceRepository stockPriceRepository;
+
+    @Mock
+    private PriceBarMapper priceBarMapper;
+
+    @InjectMocks
+    private PriceSeriesProvider provider;
+
+    @Test
+    @DisplayName("測試: 單一查詢組出多支股票的序列")
+    void testGetBatchAssemblesSeriesFromSingleQuery() {
+        System.out.println("📝 測試: 單一查詢組出多支股票的序列");
+
+        // Given
+        List<PriceBarVO> bars = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            bars.add(bar("2317", i, 100.0 + i));
+        }
+        for (int i = 0; i < 3; i++) {
+            bars.add(bar("2330", i, 580.0 + i));
+        }
+        ListCursor cursor = new ListCursor(bars);
+        List<String> stockIds = List.of("2317", "2330", "9999");
+        when(priceBarMapper.streamPriceBars(stockIds, END_DATE.minusDays(400), END_DATE)).thenReturn(cursor);
+
+        // When
+        Map<String, PriceSeries> result = provider.getBatch(stockIds, END_DATE, 400);
+
+        // Then
+        assertThat(result).containsOnlyKeys("2317", "2330");
+        assertThat(result.get("2317").size()).isEqualTo(300);
+        assertThat(result.get("2317").getCloseArray()[299]).isEqualTo(399.0);
+        assertThat(result.get("2330").getCloseArray()).containsExactly(580.0, 581.0, 582.0);
+        assertThat(result.get("2330").getDates().get(0)).isEqualTo(LocalDate.of(2024, 1, 1));
+        assertThat(cursor.closed).isTrue();
+        verify(priceBarMapper, times(1)).streamPriceBars(any(), any(), any());
+        verifyNoInteractions(stockPriceRepository);
+
+        System.out.println("✅ 測試通過: " + result.size() + " 支股票");
+    }
+
+    @Test
+    @DisplayName("測試: 缺值價格轉為 NaN")
+    void testMissingPriceBecomesNaN() {
+        System.out.println("📝 測試: 缺值價格轉為 NaN");
+
+        // Given
+        PriceBarVO missing = bar("2330", 0, 580.0);
+        missing.setHighPrice(null);
+        missing.setVolume(null);
+        when(priceBarMapper.streamPriceBars(any(), any(), any())).thenReturn(new ListCursor(List.of(missing)));
+
+        // When
+        PriceSeries series = provider.getBatch(List.of("2330"), END_DATE, 10).get("2330");
+
+        // Then
+        assertThat(series.getColumns().high()[0]).isNaN();
+        assertThat(series.getColumns().volume()[0]).isZero();
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 空股票清單不查詢")
+    void testEmptyStockListSkipsQuery() {
+        System.out.println("📝 測試: 空股票清單不查詢");
+
+        // When
+        Map<String, PriceSeries> result = provider.getBatch(List.of(), END_DATE, 10);
+
+        // Then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(priceBarMapper);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    private PriceBarVO bar(String stockId, int day, double close) {
+        return PriceBarVO.builder()
+                .stockId(stockId)
+                .tradeDate(LocalDate.of(2024, 1, 1).plusDays(day))
+                .openPrice(close)
+                .highPrice(close + 1)
+                .lowPrice(close - 1)
+                .closePrice(close)
+                .volume(1000L)
+                .build();
+    }
+
+    /**
+     * 以 List 模擬 MyBatis 游標
+     */
+    private static final class ListCursor implements Cursor<PriceBarVO> {
+
+        private final List<PriceBarVO> rows;
+        private boolean closed;
+
+        private ListCursor(List<PriceBarVO> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed;
+        }
+
+        @Override
+        public boolean isConsumed() {
+            return false;
+        }
+
+        @Override
+        public int getCurrentIndex() {
+            return -1;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public Iterator<PriceBarVO> iterator() {
+            return rows.iterator();
+        }
+    }
+}
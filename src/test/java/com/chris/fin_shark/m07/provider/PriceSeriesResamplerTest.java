@@ -0,0 +1,206 @@
+package com.chris.fin_shark.m07.provider;
+
+import com.chris.fin_shark.m06.dto.TradingCalendarDTO;
+import com.chris.fin_shark.m06.service.TradingCalendarService;
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m07.engine.model.Timeframe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 多週期價格序列測試
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("多週期價格序列測試")
+class PriceSeriesResamplerTest {
+
+    /** 2024-01-01 為週一 */
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    @Mock
+    private PriceSeriesProvider priceProvider;
+
+    @Mock
+    private TradingCalendarService tradingCalendarService;
+
+    @InjectMocks
+    private PriceSeriesResampler resampler;
+
+    /** 模擬資料庫中的日線（交易日 → 收盤價） */
+    private final Map<LocalDate, Double> prices = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        for (LocalDate date = FIRST_DAY; date.isBefore(LocalDate.of(2024, 4, 1)); date = date.plusDays(1)) {
+            if (isWeekday(date)) {
+                prices.put(date, 100.0 + date.getDayOfYear());
+            }
+        }
+        when(priceProvider.getBatch(anyList(), any(), anyInt()))
+                .thenAnswer(invocation -> loadBatch(invocation.getArgument(1), invocation.getArgument(2)));
+        when(tradingCalendarService.getTradingDaysInRange(any(), any()))
+                .thenAnswer(invocation -> tradingDays(invocation.getArgument(0), invocation.getArgument(1)));
+    }
+
+    @Test
+    @DisplayName("測試: 日線彙總為週線與月線")
+    void testResample() {
+        System.out.println("📝 測試: 日線彙總為週線與月線");
+
+        // Given: 2024-01-01 ~ 2024-01-12 兩週
+        PriceSeries daily = load(LocalDate.of(2024, 1, 12), 11);
+
+        // When
+        PriceSeries weekly = PriceSeriesResampler.resample(daily, Timeframe.WEEKLY);
+        PriceSeries monthly = PriceSeriesResampler.resample(load(LocalDate.of(2024, 2, 29), 59), Timeframe.MONTHLY);
+
+        // Then
+        assertThat(weekly.getDates()).containsExactly(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 12));
+        assertThat(weekly.getOpenArray()).containsExactly(101.0, 108.0);
+        assertThat(weekly.getCloseArray()).containsExactly(105.0, 112.0);
+        assertThat(weekly.getHighArray()).containsExactly(106.0, 113.0);
+        assertThat(weekly.getLowArray()).containsExactly(100.0, 107.0);
+        assertThat(weekly.getVolumeArray()).containsExactly(5000L, 5000L);
+        assertThat(monthly.getDates()).containsExactly(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29));
+        assertThat(monthly.getVolumeArray()).containsExactly(23000L, 21000L);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 快取命中時只載入錨點日之後的日線，結果與整段重建相同")
+    void testIncrementalUpdate() {
+        System.out.println("📝 測試: 快取命中時只載入錨點日之後的日線，結果與整段重建相同");
+
+        // Given
+        LocalDate day1 = LocalDate.of(2024, 3, 13);
+        resampler.get("2330", day1, 60, Timeframe.WEEKLY);
+
+        // When: 隔兩個交易日（跨週）再取
+        LocalDate day2 = LocalDate.of(2024, 3, 18);
+        clearInvocations(priceProvider);
+        PriceSeries weekly = resampler.get("2330", day2, 65, Timeframe.WEEKLY);
+
+        // Then
+        verify(priceProvider, times(1)).getBatch(List.of("2330"), day2, 5);
+        PriceSeries expected = PriceSeriesResampler.resample(load(day2, 65), Timeframe.WEEKLY);
+        assertThat(weekly.getDates()).isEqualTo(expected.getDates());
+        assertThat(weekly.getCloseArray()).isEqualTo(expected.getCloseArray());
+        assertThat(weekly.getVolumeArray()).isEqualTo(expected.getVolumeArray());
+        assertThat(weekly.getCloseArray()[weekly.size() - 1]).isEqualTo(100.0 + day2.getDayOfYear());
+        assertThat(weekly.getDates().get(weekly.size() - 1)).isEqualTo(day2);
+
+        System.out.println("✅ 測試通過: " + weekly.size() + " 根週線");
+    }
+
+    @Test
+    @DisplayName("測試: 錨點日線被修正時整段重建")
+    void testRebuildOnCorrection() {
+        System.out.println("📝 測試: 錨點日線被修正時整段重建");
+
+        // Given
+        LocalDate day1 = LocalDate.of(2024, 3, 13);
+        resampler.get("2330", day1, 60, Timeframe.MONTHLY);
+        prices.put(day1, 999.0);
+
+        // When
+        LocalDate day2 = LocalDate.of(2024, 3, 14);
+        clearInvocations(priceProvider);
+        PriceSeries monthly = resampler.get("2330", day2, 61, Timeframe.MONTHLY);
+
+        // Then
+        verify(priceProvider).getBatch(List.of("2330"), day2, 1);
+        verify(priceProvider).getBatch(List.of("2330"), day2, 61);
+        assertThat(monthly.getHighArray()[monthly.size() - 1]).isEqualTo(1000.0);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 回溯起點落在週中時捨棄不完整的第一根週線")
+    void testDropsPartialLeadingBar() {
+        System.out.println("📝 測試: 回溯起點落在週中時捨棄不完整的第一根週線");
+
+        // When: 起點為週三（2024-01-03）與週一（2024-01-08）
+        PriceSeries fromWednesday = resampler.get("2330", LocalDate.of(2024, 1, 19), 16, Timeframe.WEEKLY);
+        PriceSeries fromMonday = resampler.get("2330", LocalDate.of(2024, 1, 19), 11, Timeframe.WEEKLY);
+
+        // Then
+        assertThat(fromWednesday.getDates())
+                .containsExactly(LocalDate.of(2024, 1, 12), LocalDate.of(2024, 1, 19));
+        assertThat(fromMonday.getDates())
+                .containsExactly(LocalDate.of(2024, 1, 12), LocalDate.of(2024, 1, 19));
+        assertThat(fromMonday.getOpenArray()[0]).isEqualTo(108.0);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    private PriceSeries load(LocalDate endDate, int days) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = endDate.minusDays(days); !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (prices.containsKey(date)) {
+                dates.add(date);
+            }
+        }
+        int size = dates.size();
+        int[] epochDays = new int[size];
+        double[] open = new double[size];
+        double[] high = new double[size];
+        double[] low = new double[size];
+        double[] close = new double[size];
+        long[] volume = new long[size];
+        for (int i = 0; i < size; i++) {
+            double price = prices.get(dates.get(i));
+            epochDays[i] = (int) dates.get(i).toEpochDay();
+            open[i] = price;
+            high[i] = price + 1;
+            low[i] = price - 1;
+            close[i] = price;
+            volume[i] = 1000L;
+        }
+        return PriceSeries.of("2330", PriceColumns.wrap(epochDays, open, high, low, close, volume));
+    }
+
+    private Map<String, PriceSeries> loadBatch(LocalDate endDate, int days) {
+        Map<String, PriceSeries> result = new HashMap<>();
+        result.put("2330", load(endDate, days));
+        return result;
+    }
+
+    private List<TradingCalendarDTO> tradingDays(LocalDate from, LocalDate to) {
+        List<TradingCalendarDTO> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (isWeekday(date)) {
+                days.add(TradingCalendarDTO.builder().calendarDate(date).isTradingDay(true).build());
+            }
+        }
+        return days;
+    }
+
+    private static boolean isWeekday(LocalDate date) {
+        return date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY;
+    }
+}
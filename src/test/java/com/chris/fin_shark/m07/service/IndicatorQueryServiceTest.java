@@ -0,0 +1,183 @@
+package com.chris.fin_shark.m07.service;
+
+import com.chris.fin_shark.m07.converter.TechnicalIndicatorConverter;
+import com.chris.fin_shark.m07.domain.TechnicalIndicator;
+import com.chris.fin_shark.m07.dto.response.CrossSignalsResponse;
+import com.chris.fin_shark.m07.dto.response.CrossSignalsResponse.CrossSignal;
+import com.chris.fin_shark.m07.dto.response.OverboughtOversoldResponse;
+import com.chris.fin_shark.m07.dto.response.OverboughtOversoldResponse.OverboughtOversoldSignal;
+import com.chris.fin_shark.m07.dto.response.SpecificIndicatorResponse;
+import com.chris.fin_shark.m07.dto.response.StockIndicatorsResponse;
+import com.chris.fin_shark.m07.engine.IndicatorRegistry;
+import com.chris.fin_shark.m07.engine.calculator.momentum.RSICalculator;
+import com.chris.fin_shark.m07.engine.calculator.trend.MACalculator;
+import com.chris.fin_shark.m07.mapper.TechnicalIndicatorMapper;
+import com.chris.fin_shark.m07.repository.TechnicalIndicatorRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 指標查詢服務測試（指標歷史、交叉、超買超賣篩選）
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("指標查詢服務測試")
+class IndicatorQueryServiceTest {
+
+    private static final LocalDate QUERY_DATE = LocalDate.of(2024, 6, 28);
+
+    @Mock
+    private TechnicalIndicatorRepository indicatorRepository;
+
+    @Mock
+    private TechnicalIndicatorMapper indicatorMapper;
+
+    @Mock
+    private TechnicalIndicatorConverter indicatorConverter;
+
+    @Spy
+    private IndicatorRegistry registry = new IndicatorRegistry(List.of(new MACalculator(), new RSICalculator()));
+
+    @InjectMocks
+    private IndicatorQueryService service;
+
+    @Test
+    @DisplayName("測試: indicators 參數以指標名稱投影其輸出鍵（規格格式 MA,RSI）")
+    void testStockIndicatorsProjectByIndicatorName() {
+        System.out.println("📝 測試: indicators 參數以指標名稱投影其輸出鍵（規格格式 MA,RSI）");
+
+        // Given: 儲存的鍵為 ma5 / ma20 / rsi_14，而非指標名稱
+        LocalDate startDate = QUERY_DATE.minusDays(1);
+        when(indicatorMapper.findIndicatorHistory("2330", startDate, QUERY_DATE,
+                List.of("trend_indicators", "momentum_indicators"), List.of("ma", "rsi")))
+                .thenReturn(List.of(TechnicalIndicator.builder()
+                        .calculationDate(QUERY_DATE)
+                        .trendIndicators(Map.of("ma5", 580.5, "ma20", 570.8))
+                        .momentumIndicators(Map.of("rsi_14", 65.5))
+                        .build()));
+
+        // When
+        StockIndicatorsResponse response = service.getStockIndicators(
+                "2330", startDate, QUERY_DATE, "MA,RSI", "TREND,MOMENTUM");
+
+        // Then
+        assertThat(response.getTotalCount()).isEqualTo(1);
+        assertThat(response.getIndicators().get(0).getTrend()).containsKeys("ma5", "ma20");
+        assertThat(response.getIndicators().get(0).getMomentum()).containsKey("rsi_14");
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 特定指標只投影該指標的 JSONB 鍵，常用指標不讀 JSONB")
+    void testSpecificIndicatorProjection() {
+        System.out.println("📝 測試: 特定指標只投影該指標的 JSONB 鍵，常用指標不讀 JSONB");
+
+        // Given
+        LocalDate startDate = QUERY_DATE.minusDays(1);
+        List<String> allColumns = List.of(
+                "trend_indicators", "momentum_indicators", "volatility_indicators", "volume_indicators");
+        when(indicatorMapper.findIndicatorHistory("2330", startDate, QUERY_DATE, allColumns, List.of("ema12")))
+                .thenReturn(List.of(
+                        TechnicalIndicator.builder().calculationDate(startDate)
+                                .trendIndicators(Map.of("ema12", 570.0)).build(),
+                        TechnicalIndicator.builder().calculationDate(QUERY_DATE)
+                                .trendIndicators(Map.of("ema12", 575.0)).build()));
+        when(indicatorMapper.findIndicatorHistory("2330", startDate, QUERY_DATE, List.of(), List.of("RSI")))
+                .thenReturn(List.of(
+                        TechnicalIndicator.builder().calculationDate(QUERY_DATE)
+                                .rsi14(new BigDecimal("65.40")).build()));
+
+        // When
+        SpecificIndicatorResponse ema = service.getSpecificIndicator("2330", "ema12", startDate, QUERY_DATE);
+        SpecificIndicatorResponse rsi = service.getSpecificIndicator("2330", "RSI", startDate, QUERY_DATE);
+
+        // Then
+        assertThat(ema.getTotalCount()).isEqualTo(2);
+        assertThat(ema.getStatistics().getChange()).isEqualTo(5.0);
+        assertThat(rsi.getValues().get(0).getValue()).isEqualTo(new BigDecimal("65.40"));
+        verifyNoInteractions(indicatorRepository);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 交叉信號的市場類型交由 SQL 過濾，KD 交叉轉換為 KD 信號")
+    void testCrossSignalsPushDownMarketType() {
+        System.out.println("📝 測試: 交叉信號的市場類型交由 SQL 過濾，KD 交叉轉換為 KD 信號");
+
+        // Given
+        when(indicatorMapper.findKdCrossCandidates(QUERY_DATE, "OTC")).thenReturn(List.of(Map.of(
+                "stock_id", "6488",
+                "indicator", "KD",
+                "signal_type", "GOLDEN_CROSS",
+                "short_value", new BigDecimal("35.20"),
+                "long_value", new BigDecimal("30.10"),
+                "previous_short", new BigDecimal("28.40"),
+                "previous_long", new BigDecimal("29.90"))));
+        when(indicatorMapper.findGoldenCrossCandidates(QUERY_DATE, null)).thenReturn(List.of());
+        when(indicatorMapper.findDeathCrossCandidates(QUERY_DATE, null)).thenReturn(List.of());
+
+        // When
+        CrossSignalsResponse kd = service.getCrossSignals("KD", QUERY_DATE, "otc");
+        CrossSignalsResponse all = service.getCrossSignals(null, QUERY_DATE, " ");
+
+        // Then
+        CrossSignal signal = kd.getSignals().get(0);
+        assertThat(kd.getTotalCount()).isEqualTo(1);
+        assertThat(signal.getIndicator()).isEqualTo("KD");
+        assertThat(signal.getCrossType()).isEqualTo("GOLDEN_CROSS");
+        assertThat(signal.getShortPeriod()).isNull();
+        assertThat(signal.getPreviousShort()).isEqualByComparingTo("28.40");
+        assertThat(all.getTotalCount()).isZero();
+        verify(indicatorMapper, never()).findKdCrossCandidates(QUERY_DATE, null);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 超買超賣的指標類型交由 SQL 過濾，門檻由查詢結果帶入")
+    void testOverboughtOversoldPushDownIndicator() {
+        System.out.println("📝 測試: 超買超賣的指標類型交由 SQL 過濾，門檻由查詢結果帶入");
+
+        // Given
+        when(indicatorMapper.findOversoldStocks(QUERY_DATE, "WILLIAMS_R")).thenReturn(List.of(Map.of(
+                "stock_id", "2330",
+                "indicator", "WILLIAMS_R",
+                "signal_type", "OVERSOLD",
+                "indicator_value", new BigDecimal("-95.00"),
+                "threshold", new BigDecimal("-80.00"))));
+
+        // When
+        OverboughtOversoldResponse response =
+                service.getOverboughtOversoldSignals("OVERSOLD", "williams_r", QUERY_DATE);
+
+        // Then
+        OverboughtOversoldSignal signal = response.getSignals().get(0);
+        assertThat(signal.getIndicator()).isEqualTo("WILLIAMS_R");
+        assertThat(signal.getThreshold()).isEqualByComparingTo("-80");
+        assertThat(signal.getSignalStrength()).isEqualTo("STRONG");
+        verify(indicatorMapper, never()).findOverboughtStocks(any(), any());
+        assertThatThrownBy(() -> service.getOverboughtOversoldSignals("OVERSOLD", "MACD", QUERY_DATE))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        System.out.println("✅ 測試通過");
+    }
+}
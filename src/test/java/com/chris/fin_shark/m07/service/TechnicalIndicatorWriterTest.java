@@ -0,0 +1,87 @@
+package com.chris.fin_shark.m07.service;
+
+import com.chris.fin_shark.m07.domain.TechnicalIndicator;
+import com.chris.fin_shark.m07.mapper.TechnicalIndicatorMapper;
+import com.chris.fin_shark.m07.repository.IndicatorStateSnapshotRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 技術指標分批寫入器測試
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("技術指標分批寫入器測試")
+class TechnicalIndicatorWriterTest {
+
+    @Mock
+    private TechnicalIndicatorMapper indicatorMapper;
+
+    @Mock
+    private IndicatorStateSnapshotRepository stateRepository;
+
+    @InjectMocks
+    private TechnicalIndicatorWriter writer;
+
+    @Test
+    @DisplayName("測試: 超過參數上限的批次拆成多個語句")
+    void testSplitsByParameterLimit() {
+        System.out.println("📝 測試: 超過參數上限的批次拆成多個語句");
+
+        // Given - 1000 筆 × 43 個參數 = 43000，超過 32767
+        List<TechnicalIndicator> indicators = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            indicators.add(TechnicalIndicator.builder()
+                    .stockId(String.valueOf(1000 + i))
+                    .calculationDate(LocalDate.of(2024, 6, 28))
+                    .build());
+        }
+        when(indicatorMapper.batchUpsert(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        // When
+        int affected = writer.writeChunk(indicators, List.of());
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TechnicalIndicator>> captor = ArgumentCaptor.forClass(List.class);
+        verify(indicatorMapper, times(2)).batchUpsert(captor.capture());
+        assertThat(captor.getAllValues()).extracting(List::size).containsExactly(762, 238);
+        assertThat(captor.getAllValues()).allSatisfy(batch -> assertThat(
+                batch.size() * TechnicalIndicatorWriter.PARAMETERS_PER_ROW)
+                .isLessThanOrEqualTo(TechnicalIndicatorWriter.MAX_PARAMETERS));
+        assertThat(affected).isEqualTo(1000);
+        verifyNoInteractions(stateRepository);
+
+        System.out.println("✅ 測試通過: 2 個語句");
+    }
+
+    @Test
+    @DisplayName("測試: 空批次不送出語句")
+    void testEmptyChunk() {
+        System.out.println("📝 測試: 空批次不送出語句");
+
+        // When
+        int affected = writer.writeChunk(List.of(), List.of());
+
+        // Then
+        assertThat(affected).isZero();
+        verifyNoInteractions(indicatorMapper, stateRepository);
+
+        System.out.println("✅ 測試通過");
+    }
+}
@@ -0,0 +1,296 @@
+package com.chris.fin_shark.m10.engine;
+
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
+import com.chris.fin_shark.m07.engine.model.PriceSeries;
+import com.chris.fin_shark.m10.engine.detector.chart.continuation.TriangleDetector;
+import com.chris.fin_shark.m10.engine.detector.chart.reversal.DoubleTopBottomDetector;
+import com.chris.fin_shark.m10.engine.detector.chart.reversal.HeadAndShouldersDetector;
+import com.chris.fin_shark.m10.engine.detector.kline.double_.EngulfingDetector;
+import com.chris.fin_shark.m10.engine.detector.kline.single.HammerDetector;
+import com.chris.fin_shark.m10.engine.detector.trend.TrendDirectionDetector;
+import com.chris.fin_shark.m10.engine.model.DetectedPattern;
+import com.chris.fin_shark.m10.engine.model.PivotState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 型態偵測引擎批次測試
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("型態偵測引擎批次測試")
+class DefaultPatternEngineTest {
+
+    private final PatternDetectorRegistry registry = new PatternDetectorRegistry(List.of(
+            new TrendDirectionDetector(),
+            new HammerDetector(),
+            new EngulfingDetector(),
+            new DoubleTopBottomDetector(),
+            new HeadAndShouldersDetector(),
+            new TriangleDetector()));
+
+    @Test
+    @DisplayName("測試: 並行批次偵測與序列結果一致")
+    void testParallelBatchMatchesSerial() {
+        System.out.println("📝 測試: 並行批次偵測與序列結果一致");
+
+        // Given - 100 支股票
+        DefaultPatternEngine serial = new DefaultPatternEngine(registry, 1);
+        DefaultPatternEngine parallel = new DefaultPatternEngine(registry, 4);
+
+        Map<String, PriceSeries> seriesMap = new HashMap<>();
+        for (int s = 0; s < 100; s++) {
+            String stockId = String.valueOf(1000 + s);
+            seriesMap.put(stockId, randomSeries(stockId, 250, s));
+        }
+
+        // When
+        Map<String, PatternDetectionResult> serialResults = serial.batchDetect(seriesMap, PatternDetectionPlan.full());
+        Map<String, PatternDetectionResult> parallelResults = parallel.batchDetect(seriesMap, PatternDetectionPlan.full());
+        parallel.shutdown();
+
+        // Then
+        assertThat(parallelResults.keySet()).containsExactlyElementsOf(serialResults.keySet());
+        serialResults.forEach((stockId, expected) -> {
+            PatternDetectionResult actual = parallelResults.get(stockId);
+            assertThat(summarize(actual.getKlinePatterns())).isEqualTo(summarize(expected.getKlinePatterns()));
+            assertThat(summarize(actual.getChartPatterns())).isEqualTo(summarize(expected.getChartPatterns()));
+            assertThat(actual.hasErrors()).isFalse();
+        });
+
+        System.out.println("✅ 測試通過: " + parallelResults.size() + " 支股票結果一致");
+    }
+
+    @Test
+    @DisplayName("測試: 單一股票失敗不影響批次")
+    void testBatchFailureIsolation() {
+        System.out.println("📝 測試: 單一股票失敗不影響批次");
+
+        // Given - 一支股票序列為 null
+        DefaultPatternEngine parallel = new DefaultPatternEngine(registry, 2);
+
+        Map<String, PriceSeries> seriesMap = new HashMap<>();
+        seriesMap.put("2330", randomSeries("2330", 120, 7));
+        seriesMap.put("2317", null);
+
+        // When
+        Map<String, PatternDetectionResult> results = parallel.batchDetect(seriesMap, PatternDetectionPlan.full());
+        parallel.shutdown();
+
+        // Then
+        assertThat(results).containsKeys("2330", "2317");
+        assertThat(results.get("2330").hasErrors()).isFalse();
+        assertThat(results.get("2317").hasErrors()).isTrue();
+
+        System.out.println("✅ 測試通過: 失敗股票已記錄於 Diagnostics");
+    }
+
+    @Test
+    @DisplayName("測試: 批次統計的吞吐量與百分位延遲")
+    void testBatchMetrics() {
+        System.out.println("📝 測試: 批次統計的吞吐量與百分位延遲");
+
+        // Given - 100 支股票，延遲 1ms ~ 100ms
+        long[] latencyNanos = new long[100];
+        for (int i = 0; i < latencyNanos.length; i++) {
+            latencyNanos[latencyNanos.length - 1 - i] = (i + 1) * 1_000_000L;
+        }
+
+        // When
+        PatternBatchMetrics metrics = PatternBatchMetrics.of(latencyNanos, 3, 4, 2_000_000_000L);
+
+        // Then
+        assertThat(metrics.getStockCount()).isEqualTo(100);
+        assertThat(metrics.getFailedCount()).isEqualTo(3);
+        assertThat(metrics.getStocksPerSecond()).isEqualTo(50.0);
+        assertThat(metrics.getP50LatencyMs()).isEqualTo(50.0);
+        assertThat(metrics.getP99LatencyMs()).isEqualTo(99.0);
+        assertThat(metrics.getMaxLatencyMs()).isEqualTo(100.0);
+        assertThat(PatternBatchMetrics.of(new long[0], 0, 1, 0).getP99LatencyMs()).isZero();
+
+        System.out.println("✅ 測試通過: " + metrics);
+    }
+
+    @Test
+    @DisplayName("測試: 增量偵測逐日結果與完整視窗偵測相同")
+    void testIncrementalMatchesFull() {
+        System.out.println("📝 測試: 增量偵測逐日結果與完整視窗偵測相同");
+
+        DefaultPatternEngine engine = new DefaultPatternEngine(registry);
+        PatternDetectionPlan plan = PatternDetectionPlan.full();
+        int windowDays = plan.getLookbackPeriod() + 30;
+
+        int days = 0;
+        int chartEvaluations = 0;
+        int chartPatterns = 0;
+        for (long seed = 1; seed <= 5; seed++) {
+            // Given - 420 天價格，逐日（偶爾跳過幾天）執行
+            PriceSeries full = randomSeries("23" + seed, 420, seed);
+            Random random = new Random(seed);
+            PivotState state = null;
+
+            for (int t = 200; t < full.size(); t += 1 + random.nextInt(3)) {
+                LocalDate windowStart = full.getDates().get(t).minusDays(windowDays);
+                int windowFrom = full.getDates().indexOf(windowStart);
+                PriceSeries window = slice(full, windowFrom, t + 1);
+
+                // When
+                PatternDetectionResult expected = engine.detect(window, plan);
+                PatternDetectionResult actual;
+                if (state == null) {
+                    state = PivotState.builder().stockId(full.getStockId())
+                            .paramsKey(engine.pivotStateKey(plan)).build();
+                    actual = engine.detectIncremental(window, window, windowStart, plan, state);
+                    chartEvaluations++;
+                } else {
+                    PriceSeries recent = slice(full, t + 1 - 40, t + 1);
+                    assertThat(engine.advancePivots(recent, state, windowStart)).isTrue();
+                    PriceSeries chartWindow = state.isChartPending() ? window : null;
+                    chartEvaluations += chartWindow != null ? 1 : 0;
+                    actual = engine.detectIncremental(recent, chartWindow, windowStart, plan, state);
+                }
+                days++;
+                chartPatterns += expected.getChartPatterns().size();
+
+                // Then
+                assertThat(describe(actual.getKlinePatterns())).as("seed %d, day %d", seed, t)
+                        .isEqualTo(describe(expected.getKlinePatterns()));
+                assertThat(describe(actual.getChartPatterns())).as("seed %d, day %d", seed, t)
+                        .isEqualTo(describe(expected.getChartPatterns()));
+                assertThat(actual.getTrendAnalysis()).isEqualTo(expected.getTrendAnalysis());
+                assertThat(actual.getSignals()).hasSameSizeAs(expected.getSignals());
+                assertThat(state.getLastDate()).isEqualTo(full.getDates().get(t));
+            }
+        }
+
+        assertThat(chartPatterns).isPositive();
+        assertThat(chartEvaluations).isLessThan(days);
+
+        System.out.println("✅ 測試通過: " + days + " 個交易日, 圖表型態 " + chartPatterns
+                + " 個, 完整視窗評估 " + chartEvaluations + " 次");
+    }
+
+    @Test
+    @DisplayName("測試: 錨點價格修正時增量狀態失效")
+    void testAdvancePivotsRejectsCorrectedAnchor() {
+        System.out.println("📝 測試: 錨點價格修正時增量狀態失效");
+
+        // Given
+        DefaultPatternEngine engine = new DefaultPatternEngine(registry);
+        PriceSeries full = randomSeries("2330", 200, 3);
+        LocalDate windowStart = full.getDates().get(0);
+        PivotState state = PivotState.builder().stockId("2330").build();
+        engine.detectIncremental(slice(full, 0, 150), slice(full, 0, 150), windowStart,
+                PatternDetectionPlan.full(), state);
+        PriceSeries recent = slice(full, 120, 160);
+
+        // When - 錨點收盤價被修正
+        PivotState corrected = state.toBuilder().lastClose(state.getLastClose() + 1)
+                .pivots(new ArrayList<>(state.getPivots())).build();
+
+        // Then
+        assertThat(engine.advancePivots(recent, corrected, windowStart)).isFalse();
+        assertThat(engine.advancePivots(slice(full, 150, 200), state, windowStart)).isFalse();
+        assertThat(engine.advancePivots(recent, state, windowStart)).isTrue();
+        assertThat(state.getLastDate()).isEqualTo(full.getDates().get(159));
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 圖表型態衍生價位不帶浮點雜訊")
+    void testChartKeyLevelsRounded() {
+        System.out.println("📝 測試: 圖表型態衍生價位不帶浮點雜訊");
+
+        // Given
+        DefaultPatternEngine engine = new DefaultPatternEngine(registry);
+        List<String> derivedKeys = List.of("neckline", "patternHeight", "apexPrice");
+
+        int checked = 0;
+        for (long seed = 1; seed <= 20; seed++) {
+            // When
+            PatternDetectionResult result = engine.detect(randomSeries("23" + seed, 250, seed),
+                    PatternDetectionPlan.full());
+
+            // Then - 與原本 BigDecimal 運算相同，最多 4 位小數
+            for (DetectedPattern pattern : result.getChartPatterns()) {
+                for (String key : derivedKeys) {
+                    if (pattern.getKeyLevels().get(key) instanceof Double value) {
+                        assertThat(BigDecimal.valueOf(value).scale()).as("%s %s", pattern.getPatternId(), key)
+                                .isLessThanOrEqualTo(4);
+                        checked++;
+                    }
+                }
+                if (pattern.getTargetPrice() != null) {
+                    assertThat(pattern.getTargetPrice().scale()).as("%s targetPrice", pattern.getPatternId())
+                            .isLessThanOrEqualTo(4);
+                }
+            }
+        }
+
+        assertThat(checked).isPositive();
+
+        System.out.println("✅ 測試通過: 已檢查 " + checked + " 個價位");
+    }
+
+    // === 測試資料 ===
+
+    private List<String> summarize(List<DetectedPattern> patterns) {
+        return patterns.stream()
+                .map(p -> p.getPatternId() + "@" + p.getDetectionDate() + ":" + p.getStrength())
+                .toList();
+    }
+
+    private List<String> describe(List<DetectedPattern> patterns) {
+        return patterns.stream()
+                .map(p -> p.getPatternId() + "@" + p.getDetectionDate() + ":" + p.getStrength()
+                        + p.getInvolvedDates() + p.getTargetPrice())
+                .toList();
+    }
+
+    private PriceSeries slice(PriceSeries series, int from, int to) {
+        PriceColumns c = series.getColumns();
+        return PriceSeries.of(series.getStockId(), PriceColumns.wrap(
+                Arrays.copyOfRange(c.dates(), from, to),
+                Arrays.copyOfRange(c.open(), from, to),
+                Arrays.copyOfRange(c.high(), from, to),
+                Arrays.copyOfRange(c.low(), from, to),
+                Arrays.copyOfRange(c.close(), from, to),
+                Arrays.copyOfRange(c.volume(), from, to)));
+    }
+
+    private PriceSeries randomSeries(String stockId, int size, long seed) {
+        Random random = new Random(seed);
+        int[] dates = new int[size];
+        double[] open = new double[size];
+        double[] high = new double[size];
+        double[] low = new double[size];
+        double[] close = new double[size];
+        long[] volume = new long[size];
+
+        int start = (int) LocalDate.of(2024, 1, 2).toEpochDay();
+        double price = 100;
+        for (int i = 0; i < size; i++) {
+            price = Math.max(10, price * (1 + random.nextGaussian() * 0.02));
+            dates[i] = start + i;
+            open[i] = Math.round(price * (1 + random.nextGaussian() * 0.01) * 100) / 100.0;
+            close[i] = Math.round(price * 100) / 100.0;
+            high[i] = Math.max(open[i], close[i]) + Math.round(random.nextDouble() * price) / 100.0;
+            low[i] = Math.min(open[i], close[i]) - Math.round(random.nextDouble() * price) / 100.0;
+            volume[i] = 1_000L + random.nextInt(5_000);
+        }
+        return PriceSeries.of(stockId, PriceColumns.wrap(dates, open, high, low, close, volume));
+    }
+}
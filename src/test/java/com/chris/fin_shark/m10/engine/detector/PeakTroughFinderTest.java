@@ -0,0 +1,154 @@
+package com.chris.fin_shark.m10.engine.detector;
+
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
+import com.chris.fin_shark.m10.engine.model.CandleSeries;
+import com.chris.fin_shark.m10.engine.model.PeakTrough;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 波峰波谷識別測試（O(N) 實作與逐窗掃描比對）
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("波峰波谷識別測試")
+class PeakTroughFinderTest {
+
+    @Test
+    @DisplayName("測試: 樞紐範圍與滑動視窗結果與逐窗掃描的樞紐點完全相同")
+    void testMatchesLegacyScan() {
+        System.out.println("📝 測試: 樞紐範圍與滑動視窗結果與逐窗掃描的樞紐點完全相同");
+
+        for (long seed = 1; seed <= 10; seed++) {
+            // Given（整數價格製造大量相同高低點，驗證嚴格比較的邊界）
+            CandleSeries bars = randomBars(400, seed);
+
+            for (int lookback : new int[]{0, 1, 2, 3, 5, 8, 13}) {
+                for (double threshold : new double[]{0.0, 0.02, 0.05, 0.08}) {
+                    // When
+                    List<PeakTrough> actual = PeakTroughFinder.find(bars, lookback, threshold);
+                    List<PeakTrough> expected = legacyFind(bars, lookback, threshold);
+
+                    // Then
+                    assertThat(actual)
+                            .as("seed %d, lookback %d, threshold %s", seed, lookback, threshold)
+                            .usingRecursiveFieldByFieldElementComparator()
+                            .containsExactlyElementsOf(expected);
+                }
+            }
+        }
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 樞紐範圍涵蓋序列邊界與相同高點")
+    void testReachBoundariesAndTies() {
+        System.out.println("📝 測試: 樞紐範圍涵蓋序列邊界與相同高點");
+
+        // Given
+        double[] high = {10, 12, 12, 11, 9, 15, 8};
+        double[] low = {5, 6, 4, 7, 3, 6, 4};
+        CandleSeries bars = bars(high, low);
+
+        // Then（相同高點互相阻擋，邊界視為阻擋）
+        assertThat(bars.highReach(1)).isEqualTo(0);
+        assertThat(bars.highReach(2)).isEqualTo(0);
+        assertThat(bars.highReach(5)).isEqualTo(1);
+        assertThat(bars.lowReach(4)).isEqualTo(2);
+        assertThat(bars.lowReach(6)).isEqualTo(0);
+        assertThat(PeakTroughFinder.find(bars, 2, 0.0))
+                .extracting(PeakTrough::getIndex)
+                .containsExactly(4);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    // === 逐窗掃描（原實作，作為比對基準） ===
+
+    private List<PeakTrough> legacyFind(CandleSeries bars, int lookback, double threshold) {
+        List<PeakTrough> result = new ArrayList<>();
+        for (int i = lookback; i < bars.size() - lookback; i++) {
+            if (isPivot(bars, i, lookback, true) && isSwing(bars, i, lookback, threshold, true)) {
+                result.add(PeakTrough.builder()
+                        .type(PeakTrough.Type.PEAK)
+                        .date(bars.date(i))
+                        .price(bars.high(i))
+                        .index(i)
+                        .strength(PeakTroughFinder.calculatePivotStrength(bars, i, true))
+                        .build());
+            }
+            if (isPivot(bars, i, lookback, false) && isSwing(bars, i, lookback, threshold, false)) {
+                result.add(PeakTrough.builder()
+                        .type(PeakTrough.Type.TROUGH)
+                        .date(bars.date(i))
+                        .price(bars.low(i))
+                        .index(i)
+                        .strength(PeakTroughFinder.calculatePivotStrength(bars, i, false))
+                        .build());
+            }
+        }
+        return result;
+    }
+
+    private boolean isPivot(CandleSeries bars, int index, int lookback, boolean isPeak) {
+        double pivot = isPeak ? bars.high(index) : bars.low(index);
+        for (int i = index - lookback; i <= index + lookback; i++) {
+            if (i == index) {
+                continue;
+            }
+            double compare = isPeak ? bars.high(i) : bars.low(i);
+            if (isPeak ? compare >= pivot : compare <= pivot) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isSwing(CandleSeries bars, int index, int lookback, double threshold, boolean isPeak) {
+        double pivot = isPeak ? bars.high(index) : bars.low(index);
+        double opposite = isPeak ?
+                bars.lowestLow(index - lookback, index + lookback + 1) :
+                bars.highestHigh(index - lookback, index + lookback + 1);
+        return CandleSeries.round(Math.abs(pivot - opposite) / pivot, 4) >= threshold;
+    }
+
+    // === 測試資料 ===
+
+    private CandleSeries randomBars(int size, long seed) {
+        Random random = new Random(seed);
+        double[] high = new double[size];
+        double[] low = new double[size];
+        double price = 100;
+        for (int i = 0; i < size; i++) {
+            price = Math.max(20, price + random.nextInt(9) - 4);
+            high[i] = price + random.nextInt(4);
+            low[i] = price - random.nextInt(4);
+        }
+        return bars(high, low);
+    }
+
+    private CandleSeries bars(double[] high, double[] low) {
+        int size = high.length;
+        int[] dates = new int[size];
+        double[] open = new double[size];
+        double[] close = new double[size];
+        long[] volume = new long[size];
+        int start = (int) LocalDate.of(2024, 1, 2).toEpochDay();
+        for (int i = 0; i < size; i++) {
+            dates[i] = start + i;
+            open[i] = low[i];
+            close[i] = high[i];
+            volume[i] = 1_000L + (i * 37L) % 900;
+        }
+        return CandleSeries.of(PriceColumns.wrap(dates, open, high, low, close, volume));
+    }
+}
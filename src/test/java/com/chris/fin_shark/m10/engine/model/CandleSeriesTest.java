@@ -0,0 +1,119 @@
+package com.chris.fin_shark.m10.engine.model;
+
+import com.chris.fin_shark.m07.engine.model.PriceColumns;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 欄式 K 線序列測試（與 CandleStick 的 BigDecimal 語意比對）
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("欄式 K 線序列測試")
+class CandleSeriesTest {
+
+    @Test
+    @DisplayName("測試: 影線倍數剛好相等時與 BigDecimal 判斷相同")
+    void testShadowTieMatchesBigDecimal() {
+        System.out.println("📝 測試: 影線倍數剛好相等時與 BigDecimal 判斷相同");
+
+        // Given - 開 20.15、收 20.55、低 19.35：下影線 0.80 剛好是實體 0.40 的 2 倍
+        CandleSeries bars = series(new double[][]{{20.15, 20.55, 20.55, 19.35}});
+        CandleStick stick = CandleStick.of(LocalDate.of(2024, 1, 2), 20.15, 20.55, 19.35, 20.55);
+
+        // Then
+        assertThat(stick.hasLongLowerShadow(2.0)).isTrue();
+        assertThat(bars.hasLongLowerShadow(0, 2.0)).isTrue();
+        assertThat(bars.lowerShadow(0)).isEqualTo(0.8);
+
+        System.out.println("✅ 測試通過");
+    }
+
+    @Test
+    @DisplayName("測試: 0.05 跳動單位價格的形態判斷與 CandleStick 完全相同")
+    void testTickGridMatchesCandleStick() {
+        System.out.println("📝 測試: 0.05 跳動單位價格的形態判斷與 CandleStick 完全相同");
+
+        // Given - 以 0.05 跳動單位列舉開收高低，涵蓋大量影線 / 實體剛好成倍數的情況
+        List<double[]> rows = new ArrayList<>();
+        for (int o = 0; o < 13; o++) {
+            for (int c = 0; c < 13; c++) {
+                for (int up = 0; up < 5; up++) {
+                    for (int down = 0; down < 5; down++) {
+                        double open = tick(400 + o);
+                        double close = tick(400 + c);
+                        double high = tick(400 + Math.max(o, c) + up * 2);
+                        double low = tick(400 + Math.min(o, c) - down * 2);
+                        rows.add(new double[]{open, high, close, low});
+                    }
+                }
+            }
+        }
+        CandleSeries bars = series(rows.toArray(double[][]::new));
+
+        // When / Then
+        int ties = 0;
+        for (int i = 0; i < bars.size(); i++) {
+            double[] r = rows.get(i);
+            CandleStick stick = CandleStick.of(LocalDate.of(2024, 1, 2), r[0], r[1], r[3], r[2]);
+
+            assertThat(bars.body(i)).isEqualTo(stick.getBody().doubleValue());
+            assertThat(bars.upperShadow(i)).isEqualTo(stick.getUpperShadow().doubleValue());
+            assertThat(bars.lowerShadow(i)).isEqualTo(stick.getLowerShadow().doubleValue());
+            assertThat(bars.range(i)).isEqualTo(stick.getRange().doubleValue());
+            for (double m : new double[]{0.5, 1.0, 2.0, 3.0}) {
+                assertThat(bars.hasLongLowerShadow(i, m)).as("row %d, x%s", i, m).isEqualTo(stick.hasLongLowerShadow(m));
+                assertThat(bars.hasLongUpperShadow(i, m)).as("row %d, x%s", i, m).isEqualTo(stick.hasLongUpperShadow(m));
+                assertThat(bars.hasShortLowerShadow(i, m)).as("row %d, x%s", i, m).isEqualTo(stick.hasShortLowerShadow(m));
+                assertThat(bars.hasShortUpperShadow(i, m)).as("row %d, x%s", i, m).isEqualTo(stick.hasShortUpperShadow(m));
+                if (bars.body(i) > 0 && bars.lowerShadow(i) == bars.body(i) * m) {
+                    ties++;
+                }
+            }
+            for (double ratio : new double[]{0.1, 0.3, 0.5, 0.6}) {
+                assertThat(bars.isNearDoji(i, ratio)).isEqualTo(stick.isNearDoji(ratio));
+                assertThat(bars.isLargeBody(i, ratio)).isEqualTo(stick.isLargeBody(ratio));
+                assertThat(bars.isSmallBody(i, ratio)).isEqualTo(stick.isSmallBody(ratio));
+            }
+        }
+        assertThat(ties).isPositive();
+
+        System.out.println("✅ 測試通過: " + bars.size() + " 根 K 線, 倍數相等 " + ties + " 次");
+    }
+
+    // === 測試資料 ===
+
+    private double tick(int n) {
+        return Math.round(n * 5) / 100.0;
+    }
+
+    /**
+     * @param rows 每列為 {開, 高, 收, 低}
+     */
+    private CandleSeries series(double[][] rows) {
+        int size = rows.length;
+        int[] dates = new int[size];
+        double[] open = new double[size];
+        double[] high = new double[size];
+        double[] low = new double[size];
+        double[] close = new double[size];
+        long[] volume = new long[size];
+        int start = (int) LocalDate.of(2024, 1, 2).toEpochDay();
+        for (int i = 0; i < size; i++) {
+            dates[i] = start + i;
+            open[i] = rows[i][0];
+            high[i] = rows[i][1];
+            close[i] = rows[i][2];
+            low[i] = rows[i][3];
+            volume[i] = 1_000L;
+        }
+        return CandleSeries.of(PriceColumns.wrap(dates, open, high, low, close, volume));
+    }
+}
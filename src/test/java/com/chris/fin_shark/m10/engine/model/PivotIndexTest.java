@@ -0,0 +1,87 @@
+package com.chris.fin_shark.m10.engine.model;
+
+import com.chris.fin_shark.m10.exception.PatternDetectionException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 波峰波谷索引測試
+ *
+ * @author chris
+ * @since 1.0.0
+ */
+@DisplayName("波峰波谷索引測試")
+class PivotIndexTest {
+
+    @Test
+    @DisplayName("測試: 區間查詢與逐一過濾結果相同")
+    void testRangeQueriesMatchStreamFilter() {
+        System.out.println("📝 測試: 區間查詢與逐一過濾結果相同");
+
+        // Given（整數價格製造相同價位，驗證同價取較早者）
+        Random random = new Random(7);
+        List<PeakTrough> pivots = new ArrayList<>();
+        for (int i = 0; i < 300; i += 1 + random.nextInt(4)) {
+            double price = 90 + random.nextInt(20);
+            pivots.add(random.nextBoolean()
+                    ? PeakTrough.peak(LocalDate.of(2024, 1, 1).plusDays(i), price, i)
+                    : PeakTrough.trough(LocalDate.of(2024, 1, 1).plusDays(i), price, i));
+        }
+        PivotIndex index = PivotIndex.of(pivots);
+
+        for (int q = 0; q < 500; q++) {
+            int from = random.nextInt(300);
+            int to = from + random.nextInt(80);
+
+            // When / Then
+            assertThat(index.lowestTroughBetween(from, to)).isSameAs(pivots.stream()
+                    .filter(PeakTrough::isTrough)
+                    .filter(pt -> pt.getIndex() > from && pt.getIndex() < to)
+                    .min(Comparator.comparingDouble(PeakTrough::getPrice))
+                    .orElse(null));
+            assertThat(index.highestPeakBetween(from, to)).isSameAs(pivots.stream()
+                    .filter(PeakTrough::isPeak)
+                    .filter(pt -> pt.getIndex() > from && pt.getIndex() < to)
+                    .max(Comparator.comparingDouble(PeakTrough::getPrice))
+                    .orElse(null));
+        }
+        assertThat(index.peaks()).allMatch(PeakTrough::isPeak);
+        assertThat(index.peaks().size() + index.troughs().size()).isEqualTo(pivots.size());
+
+        System.out.println("✅ 測試通過: 已檢查 " + index.getExamined() + " 個樞紐點");
+    }
+
+    @Test
+    @DisplayName("測試: 超出工作預算時中止搜尋")
+    void testSearchBudget() {
+        System.out.println("📝 測試: 超出工作預算時中止搜尋");
+
+        // Given - 10 個波谷，預算 15
+        List<PeakTrough> pivots = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pivots.add(PeakTrough.trough(LocalDate.of(2024, 1, 1).plusDays(i), 100 - i, i));
+        }
+        PivotIndex index = PivotIndex.of(pivots);
+        index.limitWork(15);
+
+        // When
+        PeakTrough lowest = index.lowestTroughBetween(-1, 10);
+
+        // Then - 第一次檢查 10 個，第二次累計超出預算
+        assertThat(lowest.getIndex()).isEqualTo(9);
+        assertThatThrownBy(() -> index.lowestTroughBetween(-1, 10))
+                .isInstanceOf(PatternDetectionException.class)
+                .hasMessageContaining("上限 15");
+
+        System.out.println("✅ 測試通過");
+    }
+}